@@ -0,0 +1,233 @@
+package org.openstreetmap.josm.plugins.graphview.core.data;
+
+import static java.util.Arrays.binarySearch;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * compact, immutable TagGroup that stores keys and values in two arrays sorted by key.
+ * Lookups use binary search. All keys and values are interned in a shared pool,
+ * so the many identical strings found in OSM data (e.g. "highway" or "yes") exist only once.
+ */
+public class SortedArrayTagGroup implements TagGroup {
+
+	private static final Interner<String> STRING_POOL = Interners.newWeakInterner();
+
+	private final String[] keys;
+	private final String[] values;
+
+	/**
+	 * @param keys    keys of the tags; != null, each != null
+	 * @param values  values of the tags, same order and length as keys; != null, each != null.
+	 *                If a key appears more than once, the last value for that key is used.
+	 *                Both arrays are taken over by this group and must not be modified afterwards.
+	 */
+	public SortedArrayTagGroup(String[] keys, String[] values) {
+
+		if (keys == null || values == null || keys.length != values.length) {
+			throw new IllegalArgumentException();
+		}
+
+		/* intern the strings and sort by key (insertion sort is stable, and tag groups are small) */
+
+		for (int i = 0; i < keys.length; i++) {
+
+			if (keys[i] == null || values[i] == null) {
+				throw new IllegalArgumentException();
+			}
+
+			String key = STRING_POOL.intern(keys[i]);
+			String value = STRING_POOL.intern(values[i]);
+
+			int j = i;
+			while (j > 0 && keys[j - 1].compareTo(key) > 0) {
+				keys[j] = keys[j - 1];
+				values[j] = values[j - 1];
+				j--;
+			}
+
+			keys[j] = key;
+			values[j] = value;
+
+		}
+
+		/* remove duplicate keys, keeping the last value */
+
+		int size = 0;
+
+		for (int i = 0; i < keys.length; i++) {
+			if (i + 1 < keys.length && keys[i].equals(keys[i + 1])) continue;
+			keys[size] = keys[i];
+			values[size] = values[i];
+			size++;
+		}
+
+		if (size < keys.length) {
+			String[] newKeys = new String[size];
+			String[] newValues = new String[size];
+			System.arraycopy(keys, 0, newKeys, 0, size);
+			System.arraycopy(values, 0, newValues, 0, size);
+			this.keys = newKeys;
+			this.values = newValues;
+		} else {
+			this.keys = keys;
+			this.values = values;
+		}
+
+	}
+
+	@Override
+	public String getValue(String key) {
+		assert key != null;
+		int index = binarySearch(keys, key);
+		return index >= 0 ? values[index] : null;
+	}
+
+	@Override
+	public boolean containsKey(String key) {
+		assert key != null;
+		return binarySearch(keys, key) >= 0;
+	}
+
+	@Override
+	public boolean containsAnyKey(Iterable<String> keys) {
+		for (String key : keys) {
+			if (this.containsKey(key)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean containsValue(String value) {
+		assert value != null;
+		for (String v : values) {
+			if (v.equals(value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean containsAnyValue(Iterable<String> values) {
+		for (String value : values) {
+			if (this.containsValue(value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean contains(Tag tag) {
+		assert tag != null;
+		return contains(tag.key, tag.value);
+	}
+
+	@Override
+	public boolean containsAny(Iterable<Tag> tags) {
+		for (Tag tag : tags) {
+			if (this.contains(tag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean contains(String key, String value) {
+		assert key != null;
+		assert value != null;
+		return value.equals(getValue(key));
+	}
+
+	@Override
+	public boolean containsAny(Iterable<String> keys, String value) {
+		for (String key : keys) {
+			if (this.contains(key, value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean containsAny(Iterable<String> keys, Iterable<String> values) {
+		for (String key : keys) {
+			if (this.containsAny(key, values)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean containsAny(String key, Iterable<String> values) {
+		String actualValue = getValue(key);
+		if (actualValue != null) {
+			for (String value : values) {
+				if (actualValue.equals(value)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return keys.length;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return keys.length == 0;
+	}
+
+	/**
+	 * returns an Iterator providing access to all Tags, sorted by key.
+	 * The Iterator does not support the {@link Iterator#remove()} method.
+	 */
+	@Override
+	public Iterator<Tag> iterator() {
+		return new Iterator<Tag>() {
+
+			private int index = 0;
+
+			@Override
+			public boolean hasNext() {
+				return index < keys.length;
+			}
+
+			@Override
+			public Tag next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				Tag tag = new Tag(keys[index], values[index]);
+				index++;
+				return tag;
+			}
+
+		};
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("{");
+		for (int i = 0; i < keys.length; i++) {
+			if (i > 0) {
+				result.append(", ");
+			}
+			result.append(keys[i]).append('=').append(values[i]);
+		}
+		return result.append('}').toString();
+	}
+
+}
@@ -12,11 +12,11 @@ import com.lexicalscope.jewel.cli.Option;
 
 public interface CLIArguments {
 
-	public static final String OUTPUT_PATTERN = "(.*)\\.(?:obj|pov|o2w.pbf|png|ppm|gd)";
+	public static final String OUTPUT_PATTERN = "(.*)\\.(?:obj|glb|pov|o2w.pbf|png|ppm|gd)";
 
 	/* input and output files */
 
-	@Option(description="the .osm input file", shortName="i")
+	@Option(description="the .osm or .osm.pbf input file", shortName="i")
 	File getInput();
 	boolean isInput();
 
@@ -94,6 +94,18 @@ public interface CLIArguments {
 	double getPviewAspect();
 	boolean isPviewAspect();
 
+	/* tile pyramids */
+
+	@Option(description="lowest zoom level for output files with {z}, {x} and {y} placeholders",
+			longName="tiles.minZoom")
+	int getTilesMinZoom();
+	boolean isTilesMinZoom();
+
+	@Option(description="highest zoom level for output files with {z}, {x} and {y} placeholders,"
+			+ " defaults to the lowest zoom level", longName="tiles.maxZoom")
+	int getTilesMaxZoom();
+	boolean isTilesMaxZoom();
+
 	/* logging */
 
 	@Option(description="writes execution times to the command line")
@@ -124,4 +136,15 @@ public interface CLIArguments {
 	File getParameterFileDir();
 	boolean isParameterFileDir();
 
+	/* server mode */
+
+	@Option(description="run a conversion server on the given local port, accepting parameter lines via HTTP",
+			longName="server")
+	int getServerPort();
+	boolean isServerPort();
+
+	@Option(description="number of conversions run at the same time in server mode", longName="serverThreads")
+	int getServerThreads();
+	boolean isServerThreads();
+
 }
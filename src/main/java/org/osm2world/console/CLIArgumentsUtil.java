@@ -6,6 +6,7 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -13,8 +14,8 @@ import java.util.regex.Pattern;
 
 public final class CLIArgumentsUtil {
 
-	public static enum ProgramMode {GUI, CONVERT, HELP, VERSION, PARAMFILE, PARAMFILEDIR}
-	public static enum OutputMode {OBJ, POV, WEB_PBF, PNG, PPM, GD}
+	public static enum ProgramMode {GUI, CONVERT, HELP, VERSION, PARAMFILE, PARAMFILEDIR, SERVER}
+	public static enum OutputMode {OBJ, GLB, POV, WEB_PBF, PNG, PPM, GD}
 	public static enum InputMode {FILE, OVERPASS}
 
 	private CLIArgumentsUtil() { }
@@ -66,6 +67,15 @@ public final class CLIArgumentsUtil {
 					return "cannot identify file type from name " + outputFile
 						+ "\navailable output types: " + OutputMode.values();
 				}
+				if (isTilePattern(outputFile)) {
+					if (getOutputMode(outputFile) != OutputMode.WEB_PBF) {
+						return "tile pyramids are only supported for .o2w.pbf output";
+					} else if (!args.isTilesMinZoom()) {
+						return "tile pyramid output requires a minimum zoom level";
+					} else if (args.isTilesMaxZoom() && args.getTilesMaxZoom() < args.getTilesMinZoom()) {
+						return "maximum zoom level is lower than the minimum zoom level";
+					}
+				}
 			}
 
 			if ((args.isPviewPos() && !args.isPviewLookat())
@@ -97,6 +107,7 @@ public final class CLIArgumentsUtil {
 
 	public static final ProgramMode getProgramMode(CLIArguments args) {
 		return args.isParameterFileDir() ? PARAMFILEDIR
+				: args.isServerPort() ? SERVER
 				: args.isParameterFile() ? PARAMFILE
 					: args.getHelp() ? HELP
 						: args.getVersion() ? VERSION
@@ -107,6 +118,8 @@ public final class CLIArgumentsUtil {
 	public static final OutputMode getOutputMode(File outputFile) {
 		if (outputFile.getName().toLowerCase().endsWith(".obj")) {
 			return OutputMode.OBJ;
+		} else if (outputFile.getName().toLowerCase().endsWith(".glb")) {
+			return OutputMode.GLB;
 		} else if (outputFile.getName().toLowerCase().endsWith(".pov")) {
 			return OutputMode.POV;
 		} else if (outputFile.getName().toLowerCase().endsWith(".o2w.pbf")) {
@@ -122,10 +135,28 @@ public final class CLIArgumentsUtil {
 		}
 	}
 
+	/**
+	 * returns true if the output file name is a pattern for a pyramid of tiles,
+	 * containing the placeholders {z}, {x} and {y}
+	 */
+	public static final boolean isTilePattern(File outputFile) {
+		String path = outputFile.getPath();
+		return path.contains("{z}") && path.contains("{x}") && path.contains("{y}");
+	}
+
 	public static final List<String[]> getUnparsedParameterGroups(
 			File parameterFile) throws IOException {
+		return getUnparsedParameterGroups(new FileReader(parameterFile));
+	}
+
+	/**
+	 * variant of {@link #getUnparsedParameterGroups(File)} which reads the parameter lines
+	 * from a {@link Reader}. The reader is closed afterwards.
+	 */
+	public static final List<String[]> getUnparsedParameterGroups(
+			Reader reader) throws IOException {
 
-		try (BufferedReader in = new BufferedReader(new FileReader(parameterFile))) {
+		try (BufferedReader in = new BufferedReader(reader)) {
 
 			List<String[]> result = new ArrayList<>();
 
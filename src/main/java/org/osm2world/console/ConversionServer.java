@@ -0,0 +1,507 @@
+package org.osm2world.console;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.osm2world.console.CLIArgumentsUtil.getProgramMode;
+import static org.osm2world.console.CLIArgumentsUtil.ProgramMode.CONVERT;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.ConfigurationException;
+import org.osm2world.core.ConversionFacade.Phase;
+import org.osm2world.core.ConversionFacade.ProgressListener;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * implementation of the mode triggered by {@link CLIArguments#isServerPort()}.
+ * OSM2World keeps running and accepts conversion jobs via HTTP on a local port.
+ * This avoids the startup costs of a new JVM and keeps caches (materials and textures,
+ * configuration files, SRTM tiles) warm between jobs.
+ *
+ * <ul>
+ * <li><code>POST /convert</code> runs a job. The request body contains one or more lines of
+ * command line parameters, using the same format as parameter files.
+ * The response is sent once the job has finished.</li>
+ * <li><code>GET /status</code> returns the queue depth, job counts and
+ * the latency of each phase of the conversions as JSON.</li>
+ * </ul>
+ *
+ * Jobs are run by a fixed number of worker threads. If the queue is full, new jobs are rejected.
+ * Each group of a job's parameter lines is a separate task, and tasks may run in parallel.
+ * Because materials are configured globally, only tasks sharing a configuration are run at the same time.
+ * Waiting tasks are queued per configuration. When other configurations are waiting, the active configuration
+ * only starts the tasks queued before them, then the configuration waiting for the longest time takes over.
+ */
+public class ConversionServer {
+
+	/** maximum number of tasks waiting for a worker thread */
+	private static final int MAX_QUEUE_LENGTH = 64;
+
+	/** configuration for all tasks without a configuration file, never modified */
+	private static final Configuration EMPTY_CONFIG = new BaseConfiguration();
+
+	private final HttpServer httpServer;
+	private final ExecutorService requestExecutor;
+
+	private final int threads;
+	private final ExecutorService workers;
+
+	private final Map<File, CachedConfig> configCache = new HashMap<>();
+
+	/**
+	 * tasks waiting for a worker thread, with one queue for each configuration.
+	 * Configurations are compared by identity and ordered by how long their queue has been waiting.
+	 */
+	private final Map<Configuration, Deque<Task>> waitingTasks = new LinkedHashMap<>();
+	private int waitingTaskCount = 0;
+
+	/** the configuration used by the running tasks, and the number of these tasks */
+	private Configuration activeConfig = null;
+	private int activeTasks = 0;
+
+	/** number of waiting tasks with the active configuration which were queued before any other configuration */
+	private int remainingBatch = 0;
+
+	private final AtomicLong completedJobs = new AtomicLong();
+	private final AtomicLong failedJobs = new AtomicLong();
+	private final AtomicLong rejectedJobs = new AtomicLong();
+
+	/** latency statistics for each phase, in the order of the phases */
+	private final Map<String, LatencyStats> phaseStats = new LinkedHashMap<>();
+
+	public ConversionServer(int port, int threads) throws IOException {
+
+		phaseStats.put("INPUT", new LatencyStats());
+		for (Phase phase : Phase.values()) {
+			if (phase != Phase.FINISHED) {
+				phaseStats.put(phase.name(), new LatencyStats());
+			}
+		}
+		phaseStats.put("OUTPUT", new LatencyStats());
+		phaseStats.put("TOTAL", new LatencyStats());
+
+		this.threads = threads;
+		workers = Executors.newFixedThreadPool(threads);
+
+		requestExecutor = Executors.newCachedThreadPool();
+
+		httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		httpServer.setExecutor(requestExecutor);
+		httpServer.createContext("/convert", this::handleConvert);
+		httpServer.createContext("/status", this::handleStatus);
+
+	}
+
+	/**
+	 * starts a server and returns once it is listening.
+	 * The server keeps running until the JVM is shut down.
+	 */
+	public static void run(int port, int threads) {
+
+		try {
+
+			ConversionServer server = new ConversionServer(port, threads);
+			server.start();
+
+			Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+
+			System.out.println("conversion server listening on port " + server.getPort()
+					+ " with " + threads + " worker threads");
+
+		} catch (IOException e) {
+			System.err.println("could not start conversion server: " + e);
+		}
+
+	}
+
+	public void start() {
+		httpServer.start();
+	}
+
+	/**
+	 * stops accepting jobs and waits for queued and running tasks to finish
+	 */
+	public void stop() {
+
+		httpServer.stop(0);
+
+		synchronized (this) {
+			try {
+				while (waitingTaskCount > 0 || activeTasks > 0) {
+					wait();
+				}
+			} catch (InterruptedException e) {}
+		}
+
+		workers.shutdown();
+		requestExecutor.shutdown();
+
+	}
+
+	/** returns the port the server is listening on */
+	public int getPort() {
+		return httpServer.getAddress().getPort();
+	}
+
+	/** returns the number of tasks that are waiting for a worker thread */
+	public synchronized int getQueueDepth() {
+		return waitingTaskCount;
+	}
+
+	private synchronized int getActiveTasks() {
+		return activeTasks;
+	}
+
+	private void handleConvert(HttpExchange exchange) throws IOException {
+
+		if (!"POST".equals(exchange.getRequestMethod())) {
+			sendResponse(exchange, 405, "use POST to submit conversion jobs\n");
+			return;
+		}
+
+		/* parse the parameter lines */
+
+		List<CLIArguments> argumentsList = new ArrayList<>();
+
+		try {
+
+			List<String[]> unparsedArgsLines = CLIArgumentsUtil.getUnparsedParameterGroups(
+					new InputStreamReader(exchange.getRequestBody(), UTF_8));
+
+			for (String[] unparsedArgsLine : unparsedArgsLines) {
+				CLIArguments arguments = OSM2World.parseArguments(unparsedArgsLine);
+				if (getProgramMode(arguments) != CONVERT) {
+					throw new Exception("only conversions are supported in server mode");
+				}
+				argumentsList.add(arguments);
+			}
+
+		} catch (Exception e) {
+			sendResponse(exchange, 400, "invalid parameters: " + e.getMessage() + "\n");
+			return;
+		}
+
+		if (argumentsList.isEmpty()) {
+			sendResponse(exchange, 400, "no parameters\n");
+			return;
+		}
+
+		/* run the job */
+
+		long start = System.currentTimeMillis();
+
+		List<Task> tasks = new ArrayList<>();
+
+		try {
+
+			for (CLIArgumentsGroup argumentsGroup : OSM2World.groupArguments(argumentsList)) {
+
+				CLIArguments representativeArgs = argumentsGroup.getRepresentative();
+
+				Configuration config = representativeArgs.isConfig()
+						? getConfig(representativeArgs.getConfig())
+						: EMPTY_CONFIG;
+
+				tasks.add(new Task(config, argumentsGroup));
+
+			}
+
+		} catch (ConfigurationException e) {
+			failedJobs.incrementAndGet();
+			sendResponse(exchange, 500, "conversion failed: " + e + "\n");
+			return;
+		}
+
+		if (!enqueue(tasks)) {
+			rejectedJobs.incrementAndGet();
+			sendResponse(exchange, 503, "queue is full, try again later\n");
+			return;
+		}
+
+		try {
+
+			for (Task task : tasks) {
+				task.result.get();
+			}
+
+			long duration = System.currentTimeMillis() - start;
+
+			phaseStats.get("TOTAL").add(duration);
+			completedJobs.incrementAndGet();
+
+			sendResponse(exchange, 200, "finished after " + duration + " ms\n");
+
+		} catch (ExecutionException e) {
+			failedJobs.incrementAndGet();
+			sendResponse(exchange, 500, "conversion failed: " + e.getCause() + "\n");
+		} catch (InterruptedException e) {
+			sendResponse(exchange, 500, "interrupted\n");
+		}
+
+	}
+
+	private void handleStatus(HttpExchange exchange) throws IOException {
+
+		StringBuilder json = new StringBuilder();
+
+		json.append("{\"queueDepth\":").append(getQueueDepth());
+		json.append(",\"runningTasks\":").append(getActiveTasks());
+		json.append(",\"completedJobs\":").append(completedJobs.get());
+		json.append(",\"failedJobs\":").append(failedJobs.get());
+		json.append(",\"rejectedJobs\":").append(rejectedJobs.get());
+		json.append(",\"phases\":{");
+
+		boolean first = true;
+
+		for (Map.Entry<String, LatencyStats> entry : phaseStats.entrySet()) {
+			if (!first) json.append(',');
+			json.append('"').append(entry.getKey()).append("\":");
+			entry.getValue().appendJson(json);
+			first = false;
+		}
+
+		json.append("}}\n");
+
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		sendResponse(exchange, 200, json.toString());
+
+	}
+
+	/**
+	 * returns the configuration from a file. Configurations are only read again if the file has been modified,
+	 * so that the previously configured materials can be reused.
+	 */
+	private synchronized Configuration getConfig(File configFile) throws ConfigurationException {
+
+		File key = configFile.getAbsoluteFile();
+		CachedConfig cached = configCache.get(key);
+
+		if (cached == null || cached.lastModified != key.lastModified()) {
+			cached = new CachedConfig(OSM2World.loadConfig(key), key.lastModified());
+			configCache.put(key, cached);
+		}
+
+		return cached.config;
+
+	}
+
+	/**
+	 * adds a job's tasks to the queues of their configurations and starts them if possible
+	 *
+	 * @return  false if the tasks have been rejected because the queue is full
+	 */
+	private synchronized boolean enqueue(List<Task> tasks) {
+
+		if (waitingTaskCount + tasks.size() > MAX_QUEUE_LENGTH) {
+			return false;
+		}
+
+		for (Task task : tasks) {
+
+			if (task.config == activeConfig && waitingTasks.keySet().stream()
+					.allMatch(config -> config == activeConfig)) {
+				remainingBatch ++;
+			}
+
+			waitingTasks.computeIfAbsent(task.config, config -> new ArrayDeque<>()).add(task);
+			waitingTaskCount ++;
+
+		}
+
+		startTasks();
+
+		return true;
+
+	}
+
+	/**
+	 * starts waiting tasks while worker threads are available
+	 */
+	private synchronized void startTasks() {
+
+		Task task;
+
+		while (activeTasks < threads && (task = nextTask()) != null) {
+
+			Task startedTask = task;
+
+			waitingTaskCount --;
+			activeTasks ++;
+
+			workers.execute(() -> runTask(startedTask));
+
+		}
+
+	}
+
+	/**
+	 * removes the next task which may start now from its queue
+	 *
+	 * @return  the task, null if no task may start until running tasks have finished
+	 */
+	private Task nextTask() {
+
+		if (remainingBatch == 0) {
+
+			if (activeTasks > 0 || waitingTasks.isEmpty()) {
+				return null;
+			}
+
+			/* switch to the configuration waiting for the longest time,
+			 * the previous configuration's remaining tasks have to wait behind it */
+
+			Deque<Task> previousQueue = waitingTasks.remove(activeConfig);
+
+			if (previousQueue != null) {
+				waitingTasks.put(activeConfig, previousQueue);
+			}
+
+			activeConfig = waitingTasks.keySet().iterator().next();
+			remainingBatch = waitingTasks.get(activeConfig).size();
+
+		}
+
+		Deque<Task> queue = waitingTasks.get(activeConfig);
+		Task task = queue.poll();
+
+		if (queue.isEmpty()) {
+			waitingTasks.remove(activeConfig);
+		}
+
+		remainingBatch --;
+
+		return task;
+
+	}
+
+	private void runTask(Task task) {
+
+		try {
+			PhaseTimer timer = new PhaseTimer();
+			Output.output(task.config, task.argumentsGroup, timer);
+			timer.finish();
+			task.result.complete(null);
+		} catch (Throwable t) {
+			task.result.completeExceptionally(t);
+		} finally {
+			synchronized (this) {
+				activeTasks --;
+				startTasks();
+				notifyAll();
+			}
+		}
+
+	}
+
+	private static void sendResponse(HttpExchange exchange, int status, String body) throws IOException {
+
+		byte[] bytes = body.getBytes(UTF_8);
+
+		exchange.sendResponseHeaders(status, bytes.length);
+
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+
+	}
+
+	/** a group of conversions with the same input and configuration, part of a job */
+	private static class Task {
+
+		final Configuration config;
+		final CLIArgumentsGroup argumentsGroup;
+		final CompletableFuture<Void> result = new CompletableFuture<>();
+
+		Task(Configuration config, CLIArgumentsGroup argumentsGroup) {
+			this.config = config;
+			this.argumentsGroup = argumentsGroup;
+		}
+
+	}
+
+	private static class CachedConfig {
+
+		final Configuration config;
+		final long lastModified;
+
+		CachedConfig(Configuration config, long lastModified) {
+			this.config = config;
+			this.lastModified = lastModified;
+		}
+
+	}
+
+	/** measures the duration of each phase of a single conversion */
+	private class PhaseTimer implements ProgressListener {
+
+		private String currentPhase = "INPUT";
+		private long currentPhaseStart = System.currentTimeMillis();
+
+		@Override
+		public void updatePhase(Phase newPhase) {
+			startPhase(newPhase == Phase.FINISHED ? "OUTPUT" : newPhase.name());
+		}
+
+		/** ends the last phase */
+		public void finish() {
+			startPhase(null);
+		}
+
+		private void startPhase(String phase) {
+
+			long now = System.currentTimeMillis();
+
+			if (currentPhase != null) {
+				phaseStats.get(currentPhase).add(now - currentPhaseStart);
+			}
+
+			currentPhase = phase;
+			currentPhaseStart = now;
+
+		}
+
+	}
+
+	/** count, mean and maximum of durations in milliseconds */
+	private static class LatencyStats {
+
+		private long count = 0;
+		private long total = 0;
+		private long max = 0;
+
+		public synchronized void add(long duration) {
+			count ++;
+			total += duration;
+			max = Math.max(max, duration);
+		}
+
+		public synchronized void appendJson(StringBuilder json) {
+			json.append("{\"count\":").append(count);
+			json.append(",\"meanMs\":").append(count == 0 ? 0 : total / count);
+			json.append(",\"maxMs\":").append(max);
+			json.append('}');
+		}
+
+	}
+
+}
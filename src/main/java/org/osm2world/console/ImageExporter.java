@@ -17,6 +17,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.util.function.BiConsumer;
 
 import javax.media.opengl.GL;
 import javax.media.opengl.GLAutoDrawable;
@@ -29,7 +30,10 @@ import javax.media.opengl.GLProfile;
 import org.apache.commons.configuration.Configuration;
 import org.osm2world.console.CLIArgumentsUtil.OutputMode;
 import org.osm2world.core.ConversionFacade.Results;
+import org.osm2world.core.math.AxisAlignedBoundingBoxXZ;
+import org.osm2world.core.target.Target;
 import org.osm2world.core.target.TargetUtil;
+import org.osm2world.core.target.cache.CachedWorld;
 import org.osm2world.core.target.common.lighting.GlobalLightingParameters;
 import org.osm2world.core.target.common.rendering.Camera;
 import org.osm2world.core.target.common.rendering.Projection;
@@ -59,9 +63,14 @@ public class ImageExporter {
 	 */
 	private static final int DEFAULT_CANVAS_LIMIT = 1024;
 
-	private final Results results;
 	private final Configuration config;
 
+	/** the boundary of the rendered map data */
+	private final AxisAlignedBoundingBoxXZ boundary;
+
+	/** renders the content to a target, with or without underground objects */
+	private final BiConsumer<Target<?>, Boolean> content;
+
 	private File backgroundImage;
 	private JOGLTextureManager backgroundTextureManager;
 	private Color clearColor;
@@ -90,9 +99,26 @@ public class ImageExporter {
 	 */
 	public ImageExporter(Configuration config, Results results,
 			CLIArgumentsGroup expectedGroup) {
+		this(config, results.getMapData().getBoundary(),
+				(target, underground) -> TargetUtil.renderWorldObjects(target, results.getMapData(), underground),
+				expectedGroup);
+	}
+
+	/**
+	 * variant of {@link #ImageExporter(Configuration, Results, CLIArgumentsGroup)}
+	 * which renders the result of a previous conversion
+	 */
+	public ImageExporter(Configuration config, CachedWorld cachedWorld,
+			CLIArgumentsGroup expectedGroup) {
+		this(config, cachedWorld.getBoundary(), cachedWorld::renderTo, expectedGroup);
+	}
+
+	private ImageExporter(Configuration config, AxisAlignedBoundingBoxXZ boundary,
+			BiConsumer<Target<?>, Boolean> content, CLIArgumentsGroup expectedGroup) {
 
-		this.results = results;
 		this.config = config;
+		this.boundary = boundary;
+		this.content = content;
 
 		/* parse background color/image and other configuration options */
 
@@ -307,8 +333,7 @@ public class ImageExporter {
         imageWriter.close();
 	}
 
-	private static JOGLTarget createJOGLTarget(GL gl, Results results,
-			Configuration config) {
+	private JOGLTarget createJOGLTarget(GL gl) {
 
 		JOGLTarget target;
 		if ("shader".equals(config.getString("joglImplementation"))) {
@@ -339,8 +364,8 @@ public class ImageExporter {
 
 		boolean underground = config.getBoolean("renderUnderground", true);
 
-		target.setXZBoundary(results.getMapData().getBoundary());
-		TargetUtil.renderWorldObjects(target, results.getMapData(), underground);
+		target.setXZBoundary(boundary);
+		content.accept(target, underground);
 
 		target.finish();
 
@@ -595,7 +620,7 @@ public class ImageExporter {
 
 			/* render map data into buffer if it needs to be rendered multiple times */
 			if (!unbufferedRendering ) {
-				bufferTarget = createJOGLTarget(drawable.getGL(), results, config);
+				bufferTarget = createJOGLTarget(drawable.getGL());
 			}
 		}
 
@@ -642,7 +667,7 @@ public class ImageExporter {
 			/* render to pBuffer */
 
 			JOGLTarget target = (bufferTarget == null)?
-					createJOGLTarget(drawable.getGL(), results, config) : bufferTarget;
+					createJOGLTarget(drawable.getGL()) : bufferTarget;
 
 					if (backgroundImage != null) {
 						target.drawBackgoundImage(backgroundImage,
@@ -60,6 +60,15 @@ public class OSM2World {
 			ParamFileDirMode.run(args.getParameterFileDir());
 		}
 
+		/* check for server mode */
+
+		if (args.isServerPort()) {
+			int threads = args.isServerThreads() ? args.getServerThreads()
+					: Runtime.getRuntime().availableProcessors();
+			ConversionServer.run(args.getServerPort(), threads);
+			return;
+		}
+
 		/* parse lines from parameter file (if one exists) */
 
 		List<CLIArguments> argumentsList = Collections.singletonList(args);
@@ -96,6 +105,36 @@ public class OSM2World {
 		/* collect parameter groups into compatible groups
 		 * (groups of parameter groups that use the same input and config files) */
 
+		List<CLIArgumentsGroup> argumentsGroups = groupArguments(argumentsList);
+
+		/* execute conversions */
+
+		if (argumentsGroups.isEmpty()) {
+			System.err.println("warning: empty parameter file, doing nothing");
+		}
+
+		for (CLIArgumentsGroup argumentsGroup : argumentsGroups) {
+
+			if (argumentsList.size() > 1) {
+				System.out.print("executing conversion for these parameter lines: ");
+				for (CLIArguments p : argumentsGroup.getCLIArgumentsList()) {
+					System.out.print(argumentsList.indexOf(p) + " ");
+				}
+				System.out.print("\n");
+			}
+
+			executeArgumentsGroup(argumentsGroup);
+
+		}
+
+	}
+
+	/**
+	 * collects parameter groups into compatible groups
+	 * (groups of parameter groups that use the same input and config files)
+	 */
+	static List<CLIArgumentsGroup> groupArguments(List<CLIArguments> argumentsList) {
+
 		List<CLIArgumentsGroup> argumentsGroups = new ArrayList<CLIArgumentsGroup>();
 
 		for (CLIArguments arguments : argumentsList) {
@@ -118,29 +157,11 @@ public class OSM2World {
 
 		}
 
-		/* execute conversions */
-
-		if (argumentsGroups.isEmpty()) {
-			System.err.println("warning: empty parameter file, doing nothing");
-		}
-
-		for (CLIArgumentsGroup argumentsGroup : argumentsGroups) {
-
-			if (argumentsList.size() > 1) {
-				System.out.print("executing conversion for these parameter lines: ");
-				for (CLIArguments p : argumentsGroup.getCLIArgumentsList()) {
-					System.out.print(argumentsList.indexOf(p) + " ");
-				}
-				System.out.print("\n");
-			}
-
-			executeArgumentsGroup(argumentsGroup);
-
-		}
+		return argumentsGroups;
 
 	}
 
-	private static CLIArguments parseArguments(String[] unparsedArgs)
+	static CLIArguments parseArguments(String[] unparsedArgs)
 		throws ArgumentValidationException, Exception {
 
 		CLIArguments args = CliFactory.parseArguments(CLIArguments.class, unparsedArgs);
@@ -164,12 +185,7 @@ public class OSM2World {
 		if (representativeArgs.isConfig()) {
 			try {
 				configFile = representativeArgs.getConfig();
-				PropertiesConfiguration fileConfig = new PropertiesConfiguration();
-				fileConfig.setListDelimiter(';');
-				fileConfig.load(configFile);
-				config = fileConfig;
-				ConfigUtil.parseFonts(config);
-
+				config = loadConfig(configFile);
 			} catch (ConfigurationException e) {
 				System.err.println("could not read config, ignoring it: ");
 				System.err.println(e);
@@ -214,4 +230,19 @@ public class OSM2World {
 		}
 	}
 
+	/**
+	 * reads a configuration file
+	 */
+	static Configuration loadConfig(File configFile) throws ConfigurationException {
+
+		PropertiesConfiguration fileConfig = new PropertiesConfiguration();
+		fileConfig.setListDelimiter(';');
+		fileConfig.load(configFile);
+
+		ConfigUtil.parseFonts(fileConfig);
+
+		return fileConfig;
+
+	}
+
 }
\ No newline at end of file
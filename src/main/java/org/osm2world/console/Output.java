@@ -1,6 +1,7 @@
 package org.osm2world.console;
 
 import static java.lang.Double.*;
+import static java.util.Collections.singletonList;
 
 import java.io.File;
 import java.io.FileWriter;
@@ -12,13 +13,16 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.commons.configuration.Configuration;
+import org.osm2world.console.CLIArgumentsUtil.InputMode;
 import org.osm2world.console.CLIArgumentsUtil.OutputMode;
+import org.osm2world.core.ConversionCache;
 import org.osm2world.core.ConversionFacade;
 import org.osm2world.core.ConversionFacade.Phase;
 import org.osm2world.core.ConversionFacade.ProgressListener;
 import org.osm2world.core.ConversionFacade.Results;
 import org.osm2world.core.map_data.creation.LatLon;
 import org.osm2world.core.map_data.creation.MapProjection;
+import org.osm2world.core.map_data.creation.MetricMapProjection;
 import org.osm2world.core.map_elevation.creation.LeastSquaresInterpolator;
 import org.osm2world.core.map_elevation.creation.NaturalNeighborInterpolator;
 import org.osm2world.core.map_elevation.creation.NoneEleConstraintEnforcer;
@@ -27,14 +31,21 @@ import org.osm2world.core.map_elevation.creation.ZeroInterpolator;
 import org.osm2world.core.math.AxisAlignedBoundingBoxXZ;
 import org.osm2world.core.math.VectorXYZ;
 import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.osm.creation.ChunkedOSMFileReader;
 import org.osm2world.core.osm.creation.OSMDataReader;
 import org.osm2world.core.osm.creation.OSMFileReader;
 import org.osm2world.core.osm.creation.OverpassReader;
+import org.osm2world.core.osm.creation.PbfFileReader;
+import org.osm2world.core.target.cache.CachedWorld;
+import org.osm2world.core.target.common.TextureAtlas;
 import org.osm2world.core.target.common.rendering.Camera;
 import org.osm2world.core.target.common.rendering.OrthoTilesUtil;
 import org.osm2world.core.target.common.rendering.OrthoTilesUtil.CardinalDirection;
 import org.osm2world.core.target.common.rendering.Projection;
 import org.osm2world.core.target.frontend_pbf.FrontendPbfTarget;
+import org.osm2world.core.target.frontend_pbf.FrontendPbfTileWriter;
+import org.osm2world.core.target.frontend_pbf.FrontendPbfTileWriter.TileProgressListener;
+import org.osm2world.core.target.gltf.GltfTarget;
 import org.osm2world.core.target.obj.ObjWriter;
 import org.osm2world.core.target.povray.POVRayWriter;
 
@@ -45,6 +56,15 @@ public final class Output {
 	public static void output(Configuration config,
 			CLIArgumentsGroup argumentsGroup)
 		throws IOException {
+		output(config, argumentsGroup, null);
+	}
+
+	/**
+	 * @param progressListener  additional listener that is informed about the conversion's phases; may be null
+	 */
+	public static void output(Configuration config,
+			CLIArgumentsGroup argumentsGroup, ProgressListener progressListener)
+		throws IOException {
 
 		long start = System.currentTimeMillis();
 
@@ -53,7 +73,12 @@ public final class Output {
 		switch (argumentsGroup.getRepresentative().getInputMode()) {
 
 		case FILE:
-			dataReader = new OSMFileReader(argumentsGroup.getRepresentative().getInput());
+			File inputFile = argumentsGroup.getRepresentative().getInput();
+			if (inputFile.getName().endsWith(".pbf")) {
+				dataReader = new PbfFileReader(inputFile);
+			} else {
+				dataReader = new OSMFileReader(inputFile);
+			}
 			break;
 
 		case OVERPASS:
@@ -96,6 +121,9 @@ public final class Output {
 		PerformanceListener perfListener =
 			new PerformanceListener(argumentsGroup.getRepresentative());
 		cf.addProgressListener(perfListener);
+		if (progressListener != null) {
+			cf.addProgressListener(progressListener);
+		}
 
 		String interpolatorType = config.getString("terrainInterpolator");
 		if ("ZeroInterpolator".equals(interpolatorType)) {
@@ -113,7 +141,56 @@ public final class Output {
 			cf.setEleConstraintEnforcerFactory(SimpleEleConstraintEnforcer::new);
 		}
 
-		Results results = cf.createRepresentations(dataReader.getData(), null, config, null);
+		if (config.containsKey("chunkSize")
+				&& argumentsGroup.getRepresentative().getInputMode() == InputMode.FILE) {
+			writeChunkedOutputs(config, argumentsGroup, cf);
+			printPerformance(argumentsGroup, perfListener, start);
+			return;
+		}
+
+		/* use the result of a previous conversion if the outputs can be written from it */
+
+		ConversionCache cache = null;
+		File cacheFile = null;
+		CachedWorld cachedWorld = null;
+
+		if (config.containsKey("conversionCacheDir")
+				&& argumentsGroup.getRepresentative().getInputMode() == InputMode.FILE) {
+			cache = new ConversionCache(new File(config.getString("conversionCacheDir")));
+			cacheFile = cache.getCacheFile(argumentsGroup.getRepresentative().getInput(), config, null);
+			if (isCachedWorldSufficient(config, argumentsGroup)) {
+				cachedWorld = cache.load(cacheFile, config);
+			}
+		}
+
+		Results results = null;
+		MapProjection mapProjection;
+
+		if (cachedWorld != null) {
+
+			for (Phase phase : Phase.values()) {
+				perfListener.updatePhase(phase);
+				if (progressListener != null) {
+					progressListener.updatePhase(phase);
+				}
+			}
+
+			MetricMapProjection cachedProjection = new MetricMapProjection();
+			cachedProjection.setOrigin(cachedWorld.getOrigin());
+			mapProjection = cachedProjection;
+
+		} else {
+
+			results = cf.createRepresentations(dataReader.getData(), null, config, null);
+			mapProjection = results.getMapProjection();
+
+			if (cache != null && !cacheFile.exists()) {
+				cache.store(cacheFile, results);
+			}
+
+		}
+
+		CachedWorld world = cachedWorld;
 
 		ImageExporter exporter = null;
 
@@ -125,12 +202,12 @@ public final class Output {
 			if (args.isOviewTiles()) {
 
 				camera = OrthoTilesUtil.cameraForTiles(
-						results.getMapProjection(),
+						mapProjection,
 						args.getOviewTiles(),
 						args.getOviewAngle(),
 						args.getOviewFrom());
 				projection = OrthoTilesUtil.projectionForTiles(
-						results.getMapProjection(),
+						mapProjection,
 						args.getOviewTiles(),
 						args.getOviewAngle(),
 						args.getOviewFrom());
@@ -142,7 +219,7 @@ public final class Output {
 
 				Collection<VectorXZ> pointsXZ = new ArrayList<VectorXZ>();
 				for (LatLonEle l : args.getOviewBoundingBox()) {
-					pointsXZ.add(results.getMapProjection().calcPos(l.lat, l.lon));
+					pointsXZ.add(mapProjection.calcPos(l.lat, l.lon));
 				}
 				AxisAlignedBoundingBoxXZ bounds =
 					new AxisAlignedBoundingBoxXZ(pointsXZ);
@@ -152,7 +229,7 @@ public final class Output {
 
 			} else if (args.isPviewPos()) {
 
-				MapProjection proj = results.getMapProjection();
+				MapProjection proj = mapProjection;
 
 				LatLonEle pos = args.getPviewPos();
 				LatLonEle lookAt = args.getPviewLookat();
@@ -184,29 +261,44 @@ public final class Output {
 					if (primitiveThresholdOBJ == null) {
 						boolean underground = config.getBoolean("renderUnderground", true);
 
-						ObjWriter.writeObjFile(outputFile,
-								results.getMapData(), results.getMapProjection(),
-								camera, projection, underground);
+						if (results == null) {
+							ObjWriter.writeObjFile(outputFile, mapProjection, config,
+									target -> world.renderTo(target, underground));
+						} else {
+							ObjWriter.writeObjFile(outputFile,
+									results.getMapData(), mapProjection,
+									camera, projection, underground, config);
+						}
 					} else {
 						ObjWriter.writeObjFiles(outputFile,
-								results.getMapData(), results.getMapProjection(),
-								camera, projection, primitiveThresholdOBJ);
+								results.getMapData(), mapProjection,
+								camera, projection, primitiveThresholdOBJ, config);
 					}
 					break;
 
+				case GLB:
+					boolean undergroundGLB = config.getBoolean("renderUnderground", true);
+					GltfTarget.writeGlbFile(outputFile, results.getMapData(), undergroundGLB, config);
+					break;
+
 				case POV:
 					POVRayWriter.writePOVInstructionFile(outputFile,
 							results.getMapData(), camera, projection);
 					break;
 
 				case WEB_PBF:
+					if (CLIArgumentsUtil.isTilePattern(outputFile)) {
+						writeTilePyramid(outputFile, args, config, results);
+						break;
+					}
 					AxisAlignedBoundingBoxXZ bbox = null;
 					if (args.isOviewTiles()) {
 						// TODO define a more generic --tiles parameter (as well as --bbox)
-						bbox = OrthoTilesUtil.boundsForTiles(results.getMapProjection(), args.getOviewTiles());
+						bbox = OrthoTilesUtil.boundsForTiles(mapProjection, args.getOviewTiles());
 					}
 					FrontendPbfTarget.writePbfFile(
-							outputFile, results.getMapData(), bbox, results.getMapProjection());
+							outputFile, results.getMapData(), bbox, mapProjection,
+							createPbfTextureAtlas(config, outputFile.getAbsoluteFile().getParentFile()));
 					break;
 
 				case PNG:
@@ -216,8 +308,11 @@ public final class Output {
 						System.err.println("camera or projection missing");
 					}
 					if (exporter == null) {
-						exporter = new ImageExporter(
-								config, results, argumentsGroup);
+						if (results == null) {
+							exporter = new ImageExporter(config, world, argumentsGroup);
+						} else {
+							exporter = new ImageExporter(config, results, argumentsGroup);
+						}
 					}
 					exporter.writeImageFile(outputFile, outputMode,
 							args.getResolution().x, args.getResolution().y,
@@ -235,6 +330,92 @@ public final class Output {
 			exporter = null;
 		}
 
+		printPerformance(argumentsGroup, perfListener, start);
+
+	}
+
+	/**
+	 * checks whether all outputs can be written from a {@link CachedWorld},
+	 * see {@link #canWriteFromCachedWorld(OutputMode, Configuration)}
+	 */
+	private static boolean isCachedWorldSufficient(Configuration config,
+			CLIArgumentsGroup argumentsGroup) {
+
+		for (CLIArguments args : argumentsGroup.getCLIArgumentsList()) {
+			for (File outputFile : args.getOutput()) {
+				if (!canWriteFromCachedWorld(CLIArgumentsUtil.getOutputMode(outputFile), config)) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+
+	}
+
+	/**
+	 * checks whether an output mode can be written from a {@link CachedWorld}
+	 * with the same result as from a conversion.
+	 *
+	 * This is the case for single-file OBJ output and images, which only depend on the
+	 * geometry drawn by the world objects. Other outputs need the world objects themselves:
+	 * POV-Ray files contain declarations and objects specific to POV-Ray, glTF files
+	 * contain model instances and external resources, web PBF files and tiles select and
+	 * identify the objects in each file, and OBJ output split into several files by
+	 * primitive count needs to sort the objects.
+	 */
+	static boolean canWriteFromCachedWorld(OutputMode outputMode, Configuration config) {
+
+		switch (outputMode) {
+		case OBJ:
+			return !config.containsKey("primitiveThresholdOBJ");
+		case PNG:
+		case PPM:
+		case GD:
+			return true;
+		default:
+			return false;
+		}
+
+	}
+
+	/**
+	 * converts the input file in chunks and writes the results to the output files
+	 * while the conversion is running, see
+	 * {@link ConversionFacade#createRepresentationsInChunks(File, java.util.List, Configuration, java.util.List)}.
+	 * This is used if the "chunkSize" config property is set. Only OBJ output is supported,
+	 * and each output file requires another conversion.
+	 */
+	private static void writeChunkedOutputs(Configuration config,
+			CLIArgumentsGroup argumentsGroup, ConversionFacade cf) throws IOException {
+
+		File inputFile = argumentsGroup.getRepresentative().getInput();
+
+		try (ChunkedOSMFileReader reader = ConversionFacade.createChunkedReader(inputFile, config)) {
+
+			MetricMapProjection mapProjection = new MetricMapProjection();
+			mapProjection.setOrigin(reader.getOrigin());
+
+			for (CLIArguments args : argumentsGroup.getCLIArgumentsList()) {
+				for (File outputFile : args.getOutput()) {
+
+					if (CLIArgumentsUtil.getOutputMode(outputFile) == OutputMode.OBJ) {
+						ObjWriter.writeObjFile(outputFile, mapProjection, config, target ->
+								cf.createRepresentationsInChunks(reader, null, config, singletonList(target)));
+					} else {
+						System.err.println("chunked conversion only supports OBJ output, skipping " + outputFile);
+					}
+
+				}
+			}
+
+		}
+
+	}
+
+	private static void printPerformance(CLIArgumentsGroup argumentsGroup,
+			PerformanceListener perfListener, long start) throws IOException {
+
 		if (argumentsGroup.getRepresentative().getPerformancePrint()) {
 			long timeSec = (System.currentTimeMillis() - start) / 1000;
 			System.out.println("finished after " + timeSec + " s");
@@ -255,6 +436,59 @@ public final class Output {
 
 	}
 
+	/**
+	 * writes the tiles for an output file name with {z}, {x} and {y} placeholders.
+	 * The number of threads can be set with the "tileThreads" config property.
+	 */
+	private static void writeTilePyramid(File outputFile, CLIArguments args,
+			Configuration config, Results results) throws IOException {
+
+		int minZoom = args.getTilesMinZoom();
+		int maxZoom = args.isTilesMaxZoom() ? args.getTilesMaxZoom() : minZoom;
+
+		int threads = config.getInt("tileThreads", Runtime.getRuntime().availableProcessors());
+
+		TileProgressListener listener = null;
+
+		if (args.getPerformancePrint()) {
+			listener = (tile, writtenTiles, totalTiles) -> {
+				if (writtenTiles % 100 == 0 || writtenTiles == totalTiles) {
+					System.out.println("wrote " + writtenTiles + " of " + totalTiles + " tiles");
+				}
+			};
+		}
+
+		/* use the directory above the first placeholder for the atlas images */
+
+		String pattern = outputFile.getAbsolutePath();
+		File tileDirectory = new File(pattern.substring(0, pattern.indexOf('{') + 1)).getParentFile();
+
+		FrontendPbfTileWriter.writeTilePyramid(outputFile.getPath(), results.getMapData(),
+				results.getMapProjection(), minZoom, maxZoom, threads, listener,
+				createPbfTextureAtlas(config, tileDirectory));
+
+	}
+
+	/**
+	 * creates an atlas for small textures if the "textureAtlas" key is set
+	 * in the configuration, otherwise returns null.
+	 * The images are written to the directory set with the "textureAtlasDir" key,
+	 * or a "textures" directory next to the output.
+	 */
+	private static TextureAtlas createPbfTextureAtlas(Configuration config, File outputDirectory) {
+
+		if (!config.getBoolean("textureAtlas", false)) {
+			return null;
+		}
+
+		File directory = config.containsKey("textureAtlasDir")
+				? new File(config.getString("textureAtlasDir"))
+				: new File(outputDirectory, "textures");
+
+		return new TextureAtlas(directory, "atlas");
+
+	}
+
 	private static class PerformanceListener implements ProgressListener {
 
 		private final CLIArguments args;
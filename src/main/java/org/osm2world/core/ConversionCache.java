@@ -0,0 +1,232 @@
+package org.osm2world.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.*;
+import static java.util.Arrays.asList;
+import static org.osm2world.core.util.ConfigUtil.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.configuration.Configuration;
+import org.osm2world.core.ConversionFacade.Results;
+import org.osm2world.core.target.cache.CachedWorld;
+import org.osm2world.core.target.common.material.Materials;
+import org.osm2world.core.world.creation.WorldModule;
+
+/**
+ * a directory with the results of previous conversions, stored as {@link CachedWorld}s.
+ * Results are identified by a hash of the input file's content, the configuration
+ * and the world modules, so any change to these leads to a new conversion.
+ *
+ * Limitations:
+ * <ul>
+ * <li>Elevation data is identified by the names, sizes and modification times of the files
+ * in the SRTM directory, not by their content.</li>
+ * <li>Results are never deleted from the directory. Old files need to be removed externally,
+ * for example based on their last access time.</li>
+ * <li>Results which exceed {@link CachedWorld#MAX_FILE_SIZE} cannot be read,
+ * so they are not stored.</li>
+ * </ul>
+ */
+public class ConversionCache {
+
+	private static final String FILE_EXTENSION = ".o2wc";
+
+	/**
+	 * configuration keys which only affect how outputs are written, not the conversion.
+	 * They are not part of the hash, so the same result can be used for different outputs.
+	 */
+	private static final Set<String> OUTPUT_KEYS = new HashSet<String>(asList(
+			"conversionCacheDir", "chunkSize", "renderUnderground",
+			"objDecimals", "primitiveThresholdOBJ", "textureAtlas", "textureAtlasDir", "tileThreads",
+			BG_COLOR_KEY, BG_IMAGE_KEY, CANVAS_LIMIT_KEY, "exportAlpha",
+			"forceUnbufferedPNGRendering", "joglImplementation", "drawBoundingBox",
+			"shadowImplementation", "shadowMapWidth", "shadowMapHeight", "shadowMapCameraFrustumPadding",
+			"useSSAO", "SSAOkernelSize", "SSAOradius", "overwriteProjectionClippingPlanes", "msaa"));
+
+	private final File directory;
+
+	public ConversionCache(File directory) {
+		this.directory = directory;
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * returns the file for the result of converting an input file,
+	 * regardless of whether the result has already been stored
+	 *
+	 * @param worldModules  the modules used for the conversion; null for the default modules
+	 */
+	public File getCacheFile(File inputFile, Configuration config,
+			List<? extends WorldModule> worldModules) throws IOException {
+
+		MessageDigest digest;
+
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+
+		/* hash the content of the input file */
+
+		try (InputStream input = new FileInputStream(inputFile)) {
+			byte[] buffer = new byte[1 << 16];
+			int length;
+			while ((length = input.read(buffer)) > 0) {
+				digest.update(buffer, 0, length);
+			}
+		}
+
+		/* hash the configuration without output-only keys, sorted by key */
+
+		StringBuilder properties = new StringBuilder();
+
+		properties.append("version=").append(CachedWorld.FORMAT_VERSION).append('\n');
+
+		if (config != null) {
+
+			List<String> keys = new ArrayList<String>();
+
+			for (Iterator<String> it = config.getKeys(); it.hasNext(); ) {
+				String key = it.next();
+				if (!OUTPUT_KEYS.contains(key)) {
+					keys.add(key);
+				}
+			}
+
+			Collections.sort(keys);
+
+			for (String key : keys) {
+				properties.append(key).append('=').append(config.getProperty(key)).append('\n');
+			}
+
+		}
+
+		/* hash the files with elevation data */
+
+		String srtmDir = config == null ? null : config.getString("srtmDir", null);
+
+		if (srtmDir != null) {
+
+			File[] srtmFiles = new File(srtmDir).listFiles();
+
+			if (srtmFiles != null) {
+
+				Arrays.sort(srtmFiles);
+
+				for (File srtmFile : srtmFiles) {
+					properties.append("srtmFile=").append(srtmFile.getName())
+							.append(',').append(srtmFile.length())
+							.append(',').append(srtmFile.lastModified()).append('\n');
+				}
+
+			}
+
+		}
+
+		/* hash the names of the world modules */
+
+		if (worldModules == null) {
+			worldModules = ConversionFacade.createDefaultModuleList();
+		}
+
+		for (WorldModule module : worldModules) {
+			properties.append("module=").append(module.getClass().getName()).append('\n');
+		}
+
+		digest.update(properties.toString().getBytes(UTF_8));
+
+		/* use the hash as file name */
+
+		StringBuilder fileName = new StringBuilder();
+
+		for (byte b : digest.digest()) {
+			fileName.append(String.format("%02x", b));
+		}
+
+		fileName.append(FILE_EXTENSION);
+
+		return new File(directory, fileName.toString());
+
+	}
+
+	/**
+	 * returns the stored result from a cache file, or null if there is no usable result.
+	 * Also configures the {@link Materials} for the configuration.
+	 */
+	public CachedWorld load(File cacheFile, Configuration config) {
+
+		if (!cacheFile.exists()) {
+			return null;
+		}
+
+		try {
+
+			CachedWorld result = CachedWorld.read(cacheFile);
+
+			Materials.configureMaterials(config);
+
+			return result;
+
+		} catch (IOException e) {
+			System.err.println("could not read cached conversion result " + cacheFile + ": " + e);
+			return null;
+		}
+
+	}
+
+	/**
+	 * stores the results of a conversion in a cache file.
+	 * The file is written to a temporary location first, so concurrent readers
+	 * will never see an incomplete file.
+	 * Results which are too large to be read again are discarded.
+	 */
+	public void store(File cacheFile, Results results) throws IOException {
+
+		if (!directory.exists() && !directory.mkdirs()) {
+			throw new IOException("could not create cache directory " + directory);
+		}
+
+		File tempFile = File.createTempFile("conversion", ".tmp", directory);
+
+		try {
+
+			CachedWorld.write(tempFile, results.getMapData(), results.getMapProjection());
+
+			if (tempFile.length() > CachedWorld.MAX_FILE_SIZE) {
+				System.err.println("conversion result is too large to be cached: "
+						+ tempFile.length() + " bytes");
+				return;
+			}
+
+			try {
+				Files.move(tempFile.toPath(), cacheFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile.toPath(), cacheFile.toPath(), REPLACE_EXISTING);
+			}
+
+		} finally {
+			tempFile.delete();
+		}
+
+	}
+
+}
@@ -1,6 +1,6 @@
 package org.osm2world.core;
 
-import static java.util.Collections.emptyList;
+import static java.lang.Math.min;
 
 import java.io.File;
 import java.io.IOException;
@@ -8,24 +8,31 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.lang.time.StopWatch;
+import org.osm2world.core.map_data.creation.LatLon;
 import org.osm2world.core.map_data.creation.MapProjection;
 import org.osm2world.core.map_data.creation.MetricMapProjection;
 import org.osm2world.core.map_data.creation.OSMToMapDataConverter;
 import org.osm2world.core.map_data.creation.OriginMapProjection;
 import org.osm2world.core.map_data.data.MapData;
+import org.osm2world.core.map_data.data.MapElement;
 import org.osm2world.core.map_elevation.creation.EleConstraintEnforcer;
 import org.osm2world.core.map_elevation.creation.EleConstraintValidator;
 import org.osm2world.core.map_elevation.creation.NoneEleConstraintEnforcer;
 import org.osm2world.core.map_elevation.creation.SRTMData;
+import org.osm2world.core.map_elevation.creation.SRTMTileCache;
+import org.osm2world.core.map_elevation.creation.SiteCoordinates;
 import org.osm2world.core.map_elevation.creation.TerrainElevationData;
 import org.osm2world.core.map_elevation.creation.TerrainInterpolator;
 import org.osm2world.core.map_elevation.creation.ZeroInterpolator;
 import org.osm2world.core.map_elevation.data.EleConnector;
-import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.map_elevation.data.GroundState;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.osm.creation.ChunkedOSMFileReader;
 import org.osm2world.core.osm.creation.OSMDataReader;
 import org.osm2world.core.osm.creation.OSMFileReader;
 import org.osm2world.core.osm.data.OSMData;
@@ -129,7 +136,7 @@ public class ConversionFacade {
 	/**
 	 * generates a default list of modules for the conversion
 	 */
-	private static final List<WorldModule> createDefaultModuleList() {
+	static final List<WorldModule> createDefaultModuleList() {
 
 		return Arrays.asList((WorldModule)
 				new RoadModule(),
@@ -243,6 +250,142 @@ public class ConversionFacade {
 			List<? extends WorldModule> worldModules, Configuration config,
 			List<? extends Target<?>> targets)
 			throws IOException, BoundingBoxSizeException {
+		return createRepresentations(osmData, null, worldModules, config, targets);
+	}
+
+	/**
+	 * variant of
+	 * {@link #createRepresentations(File, List, Configuration, List)}
+	 * for files which are too large to be converted at once.
+	 * The data is read and converted in chunks with a {@link ChunkedOSMFileReader}.
+	 * All phases of the conversion are performed for each chunk,
+	 * so {@link ProgressListener}s are informed about each phase once per chunk.
+	 * The results of each chunk are passed on to the targets before the next chunk is read.
+	 *
+	 * Each chunk's data includes a margin around the chunk. World objects are only rendered
+	 * by the chunk which contains the center of their primary map element's bounding box,
+	 * so that each object is rendered exactly once. For objects without a primary map element,
+	 * the map element they are a representation of is used instead.
+	 * All chunks use the same map projection.
+	 *
+	 * The size of the chunks and margins in degrees can be set with the "chunkSize" and
+	 * "chunkMargin" config properties, and the number of chunks collected during each pass
+	 * through the file with the "chunksPerPass" property (default: 16).
+	 * Memory use depends on these values, but can still grow with the file's size
+	 * if the targets keep their content in memory until they are finished.
+	 *
+	 * @param osmFile       file to read OSM data from; != null
+	 * @param worldModules  modules that will create the {@link WorldObject}s
+	 *                      in the result; null to use a default module list
+	 * @param config        set of parameters that controls various aspects
+	 *                      of the modules' behavior; null to use defaults
+	 * @param targets       receivers of the conversion results; != null
+	 */
+	public void createRepresentationsInChunks(File osmFile,
+			List<? extends WorldModule> worldModules, Configuration config,
+			List<? extends Target<?>> targets)
+			throws IOException {
+
+		if (osmFile == null) {
+			throw new IllegalArgumentException("osmFile must not be null");
+		}
+
+		if (config == null) {
+			config = new BaseConfiguration();
+		}
+
+		try (ChunkedOSMFileReader reader = createChunkedReader(osmFile, config)) {
+			createRepresentationsInChunks(reader, worldModules, config, targets);
+		}
+
+	}
+
+	/**
+	 * creates a reader for a chunked conversion, using the "chunkSize" and "chunkMargin" config properties
+	 *
+	 * @see #createRepresentationsInChunks(File, List, Configuration, List)
+	 */
+	public static ChunkedOSMFileReader createChunkedReader(File osmFile, Configuration config) throws IOException {
+		return new ChunkedOSMFileReader(osmFile,
+				config.getDouble("chunkSize", 0.05),
+				config.getDouble("chunkMargin", 0.005));
+	}
+
+	/**
+	 * default for the "chunksPerPass" config property.
+	 * Each pass reads the entire file, so collecting a single chunk per pass would be slow.
+	 */
+	private static final int DEFAULT_CHUNKS_PER_PASS = 16;
+
+	/**
+	 * variant of {@link #createRepresentationsInChunks(File, List, Configuration, List)}
+	 * using an existing reader. The map projection's origin is {@link ChunkedOSMFileReader#getOrigin()}.
+	 */
+	public void createRepresentationsInChunks(ChunkedOSMFileReader reader,
+			List<? extends WorldModule> worldModules, Configuration config,
+			List<? extends Target<?>> targets)
+			throws IOException {
+
+		if (config == null) {
+			config = new BaseConfiguration();
+		}
+
+		final Configuration chunkConfig = config;
+
+		int chunksPerPass = config.getInt("chunksPerPass", DEFAULT_CHUNKS_PER_PASS);
+
+		boolean underground = config.getBoolean("renderUnderground", true);
+
+		LatLon origin = reader.getOrigin();
+
+		reader.readChunks(chunksPerPass, (chunk, osmData) -> {
+
+			Results results = createRepresentations(osmData, origin, worldModules, chunkConfig, null);
+
+			MapProjection mapProjection = results.getMapProjection();
+
+			List<WorldObject> chunkObjects = new ArrayList<WorldObject>();
+
+			for (MapElement mapElement : results.getMapData().getMapElements()) {
+				for (WorldObject object : mapElement.getRepresentations()) {
+
+					if (!underground && object.getGroundState() == GroundState.BELOW) continue;
+
+					MapElement element = object.getPrimaryMapElement();
+
+					if (element == null) {
+						element = mapElement;
+					}
+
+					VectorXZ center = element.getAxisAlignedBoundingBoxXZ().center();
+
+					if (reader.isInChunk(chunk, mapProjection.calcLat(center), mapProjection.calcLon(center))) {
+						chunkObjects.add(object);
+					}
+
+				}
+			}
+
+			for (Target<?> target : targets) {
+				FaultTolerantIterationUtil.iterate(chunkObjects,
+						(WorldObject object) -> TargetUtil.renderObject(target, object));
+			}
+
+		});
+
+		for (Target<?> target : targets) {
+			target.finish();
+		}
+
+	}
+
+	/**
+	 * @param origin  origin for the map projection; null to choose one based on the data
+	 */
+	private Results createRepresentations(OSMData osmData, LatLon origin,
+			List<? extends WorldModule> worldModules, Configuration config,
+			List<? extends Target<?>> targets)
+			throws IOException, BoundingBoxSizeException {
 
 		/* check the inputs */
 
@@ -268,7 +411,12 @@ public class ConversionFacade {
 		updatePhase(Phase.MAP_DATA);
 
 		OriginMapProjection mapProjection = mapProjectionFactory.get();
-		mapProjection.setOrigin(osmData);
+
+		if (origin != null) {
+			mapProjection.setOrigin(origin);
+		} else {
+			mapProjection.setOrigin(osmData);
+		}
 
 		OSMToMapDataConverter converter = new OSMToMapDataConverter(mapProjection, config);
 		MapData mapData = null;
@@ -300,6 +448,9 @@ public class ConversionFacade {
 		TerrainElevationData eleData = null;
 
 		if (srtmDir != null) {
+			if (config.containsKey("srtmTileCacheSize")) {
+				SRTMTileCache.getSharedCache().setMaxTiles(config.getInt("srtmTileCacheSize"));
+			}
 			eleData = new SRTMData(new File(srtmDir), mapProjection);
 		}
 
@@ -327,7 +478,10 @@ public class ConversionFacade {
 	/**
 	 * uses OSM data and an terrain elevation data (usually from an external
 	 * source) to calculate elevations for all {@link EleConnector}s of the
-	 * {@link WorldObject}s
+	 * {@link WorldObject}s.
+	 *
+	 * Connectors are interpolated in chunks. If the interpolator is thread-safe,
+	 * the chunks are processed in parallel unless the "parallelElevation" config property is false.
 	 */
 	private void calculateElevations(MapData mapData,
 			TerrainElevationData eleData, Configuration config) {
@@ -344,11 +498,11 @@ public class ConversionFacade {
 
 		if (!(interpolator instanceof ZeroInterpolator)) {
 
-			Collection<VectorXYZ> sites = emptyList();
+			SiteCoordinates sites = new SiteCoordinates(0);
 
 			try {
 
-				sites = eleData.getSites(mapData);
+				sites = eleData.getSiteCoordinates(mapData);
 
 				System.out.println("time getSites: " + stopWatch);
 				stopWatch.reset();
@@ -371,14 +525,23 @@ public class ConversionFacade {
 		final List<EleConnector> connectors = new ArrayList<EleConnector>();
 
 		FaultTolerantIterationUtil.iterate(mapData.getWorldObjects(), (WorldObject worldObject) -> {
-
 			for (EleConnector conn : worldObject.getEleConnectors()) {
-				conn.setPosXYZ(interpolator.interpolateEle(conn.pos));
 				connectors.add(conn);
 			}
-
 		});
 
+		boolean parallel = interpolator.isThreadSafe() && config.getBoolean("parallelElevation", true);
+
+		int chunkCount = (connectors.size() + INTERPOLATION_CHUNK_SIZE - 1) / INTERPOLATION_CHUNK_SIZE;
+		IntStream chunks = IntStream.range(0, chunkCount);
+
+		(parallel ? chunks.parallel() : chunks).forEach(chunk -> interpolateElevations(interpolator,
+				connectors.subList(chunk * INTERPOLATION_CHUNK_SIZE,
+						min(connectors.size(), (chunk + 1) * INTERPOLATION_CHUNK_SIZE))));
+
+		// connectors where the interpolation failed are not passed on
+		connectors.removeIf(conn -> conn.getPosXYZ() == null);
+
 		System.out.println("time terrain interpolation: " + stopWatch);
 		stopWatch.reset();
 		stopWatch.start();
@@ -413,6 +576,40 @@ public class ConversionFacade {
 
 	}
 
+	/** number of connectors passed to the interpolator at once */
+	private static final int INTERPOLATION_CHUNK_SIZE = 1024;
+
+	/**
+	 * interpolates the elevations of a chunk of connectors.
+	 * If that fails, the connectors are retried one by one, so that only the problematic ones are skipped.
+	 */
+	private static void interpolateElevations(TerrainInterpolator interpolator, List<EleConnector> connectors) {
+
+		double[] xz = new double[2 * connectors.size()];
+		double[] y = new double[connectors.size()];
+
+		for (int i = 0; i < connectors.size(); i++) {
+			xz[2 * i] = connectors.get(i).pos.x;
+			xz[2 * i + 1] = connectors.get(i).pos.z;
+		}
+
+		try {
+
+			interpolator.interpolateEle(xz, y);
+
+			for (int i = 0; i < connectors.size(); i++) {
+				connectors.get(i).setPosXYZ(connectors.get(i).pos.xyz(y[i]));
+			}
+
+		} catch (Exception e) {
+
+			FaultTolerantIterationUtil.iterate(connectors, (EleConnector conn) ->
+					conn.setPosXYZ(interpolator.interpolateEle(conn.pos)));
+
+		}
+
+	}
+
 	public static enum Phase {
 		MAP_DATA,
 		REPRESENTATION,
@@ -13,11 +13,12 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.commons.configuration.Configuration;
-import org.osm2world.core.map_data.creation.index.MapDataIndex;
 import org.osm2world.core.map_data.creation.index.MapIntersectionGrid;
 import org.osm2world.core.map_data.data.MapArea;
 import org.osm2world.core.map_data.data.MapAreaSegment;
@@ -29,6 +30,7 @@ import org.osm2world.core.map_data.data.MapRelation.Element;
 import org.osm2world.core.map_data.data.MapWay;
 import org.osm2world.core.map_data.data.MapWaySegment;
 import org.osm2world.core.map_data.data.overlaps.MapIntersectionWW;
+import org.osm2world.core.map_data.data.overlaps.MapOverlap;
 import org.osm2world.core.map_data.data.overlaps.MapOverlapAA;
 import org.osm2world.core.map_data.data.overlaps.MapOverlapNA;
 import org.osm2world.core.map_data.data.overlaps.MapOverlapType;
@@ -53,7 +55,9 @@ import de.topobyte.osm4j.core.model.iface.OsmWay;
 import de.topobyte.osm4j.core.model.impl.Tag;
 import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
 import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.TObjectIntMap;
 import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
 
 /**
  * converts {@link OSMData} into the internal map data representation
@@ -311,95 +315,169 @@ public class OSMToMapDataConverter {
 
 	/**
 	 * calculates intersections and adds the information to the
-	 * {@link MapElement}s
+	 * {@link MapElement}s.
+	 *
+	 * All elements are first inserted into a {@link MapIntersectionGrid}.
+	 * The candidate pairs of the grid's cells are then tested in parallel
+	 * (unless the "parallelOverlaps" config property is false), with each pair tested only once.
+	 * Finally, the overlaps are attached to the elements in an order which only depends on
+	 * the order of the elements, regardless of how the work was distributed among threads.
 	 */
-	private static void calculateIntersectionsInMapData(MapData mapData) {
+	private void calculateIntersectionsInMapData(MapData mapData) {
 
-		MapDataIndex index = new MapIntersectionGrid(mapData.getDataBoundary());
+		boolean parallel = config == null || config.getBoolean("parallelOverlaps", true);
 
-		for (MapElement e1 : mapData.getMapElements()) {
+		/* build the index and remember the position of each element */
 
-			/* collect all nearby elements */
+		MapIntersectionGrid index = new MapIntersectionGrid(mapData.getDataBoundary());
 
-			Collection<? extends Iterable<MapElement>> leaves
-					= index.insertAndProbe(e1);
+		TObjectIntMap<MapElement> ordinals = new TObjectIntHashMap<MapElement>();
 
-			Iterable<MapElement> nearbyElements;
+		for (MapElement e : mapData.getMapElements()) {
 
-			if (leaves.size() == 1) {
-				nearbyElements = leaves.iterator().next();
-			} else {
-				// collect and de-duplicate elements from all the leaves
-				Set<MapElement> elementSet = new HashSet<MapElement>();
-				for (Iterable<MapElement> leaf : leaves) {
-					for (MapElement e : leaf) {
-						elementSet.add(e);
-					}
-				}
-				nearbyElements = elementSet;
+			ordinals.put(e, ordinals.size());
+			index.insert(e);
+
+			if (e instanceof MapArea) {
+				prepareForConcurrentAccess((MapArea) e);
+			}
+
+		}
+
+		/* test the candidate pairs */
+
+		Queue<FoundOverlap> foundOverlaps = new ConcurrentLinkedQueue<FoundOverlap>();
+
+		index.forEachCandidatePair((e1, e2) -> {
+
+			int ordinal1 = ordinals.get(e1);
+			int ordinal2 = ordinals.get(e2);
+
+			// the element coming later is passed first, as in the order of insertion
+			MapOverlap<?, ?> overlap = ordinal1 < ordinal2
+					? createOverlapBetween(e2, e1)
+					: createOverlapBetween(e1, e2);
+
+			if (overlap != null) {
+				foundOverlaps.add(new FoundOverlap(overlap, ordinal1, ordinal2));
 			}
 
-			for (MapElement e2 : nearbyElements) {
+		}, parallel);
+
+		/* attach the overlaps */
+
+		List<FoundOverlap> sortedOverlaps = new ArrayList<FoundOverlap>(foundOverlaps);
+		sortedOverlaps.sort(null);
+
+		for (FoundOverlap foundOverlap : sortedOverlaps) {
+			addOverlapTo(foundOverlap.overlap.e1, foundOverlap.overlap);
+			addOverlapTo(foundOverlap.overlap.e2, foundOverlap.overlap);
+		}
+
+	}
+
+	/** an overlap found during {@link #calculateIntersectionsInMapData(MapData)} */
+	private static class FoundOverlap implements Comparable<FoundOverlap> {
 
-				if (e1 == e2) { continue; }
+		final MapOverlap<?, ?> overlap;
 
-				addOverlapBetween(e1, e2);
+		/** the positions of the involved elements in the map data, with minOrdinal < maxOrdinal */
+		final int minOrdinal, maxOrdinal;
 
+		FoundOverlap(MapOverlap<?, ?> overlap, int ordinal1, int ordinal2) {
+			this.overlap = overlap;
+			this.minOrdinal = Math.min(ordinal1, ordinal2);
+			this.maxOrdinal = Math.max(ordinal1, ordinal2);
+		}
+
+		@Override
+		public int compareTo(FoundOverlap other) {
+			if (maxOrdinal != other.maxOrdinal) {
+				return Integer.compare(maxOrdinal, other.maxOrdinal);
+			} else {
+				return Integer.compare(minOrdinal, other.minOrdinal);
 			}
+		}
 
+	}
+
+	/**
+	 * performs the lazy calculations of an area which are needed for overlap tests,
+	 * so the area can safely be read by several threads afterwards
+	 */
+	private static void prepareForConcurrentAccess(MapArea area) {
+		area.getAreaSegments();
+		for (SimplePolygonXZ polygon : area.getPolygon().getPolygons()) {
+			polygon.isClockwise();
 		}
+	}
 
+	/**
+	 * adds an overlap to one of its elements.
+	 * Nodes do not store their overlaps.
+	 */
+	private static void addOverlapTo(MapElement element, MapOverlap<?, ?> overlap) {
+		if (element instanceof MapWaySegment) {
+			((MapWaySegment) element).addOverlap(overlap);
+		} else if (element instanceof MapArea) {
+			((MapArea) element).addOverlap(overlap);
+		}
 	}
 
 	/**
-	 * adds the overlap between two {@link MapElement}s
-	 * to both, if it exists. It calls the appropriate
-	 * subtype-specific addOverlapBetween method
+	 * returns the overlap between two {@link MapElement}s,
+	 * or null if there is none. It calls the appropriate
+	 * subtype-specific createOverlapBetween method.
+	 * Does not modify the elements.
 	 */
-	private static void addOverlapBetween(MapElement e1, MapElement e2) {
+	private static MapOverlap<?, ?> createOverlapBetween(MapElement e1, MapElement e2) {
 
 		if (e1 instanceof MapWaySegment
 				&& e2 instanceof MapWaySegment) {
 
-			addOverlapBetween((MapWaySegment) e1, (MapWaySegment) e2);
+			return createOverlapBetween((MapWaySegment) e1, (MapWaySegment) e2);
 
 		} else if (e1 instanceof MapWaySegment
 				&& e2 instanceof MapArea) {
 
-			addOverlapBetween((MapWaySegment) e1, (MapArea) e2);
+			return createOverlapBetween((MapWaySegment) e1, (MapArea) e2);
 
 		} else if (e1 instanceof MapArea
 				&& e2 instanceof MapWaySegment) {
 
-			addOverlapBetween((MapWaySegment) e2, (MapArea) e1);
+			return createOverlapBetween((MapWaySegment) e2, (MapArea) e1);
 
 		} else if (e1 instanceof MapArea
 				&& e2 instanceof MapArea) {
 
-			addOverlapBetween((MapArea) e1, (MapArea) e2);
+			return createOverlapBetween((MapArea) e1, (MapArea) e2);
 
 		} else if (e1 instanceof MapNode
 				&& e2 instanceof MapArea) {
 
-			addOverlapBetween((MapNode) e1, (MapArea) e2);
+			return createOverlapBetween((MapNode) e1, (MapArea) e2);
 
 		} else if (e1 instanceof MapArea
 				&& e2 instanceof MapNode) {
 
-			addOverlapBetween((MapNode) e2, (MapArea) e1);
+			return createOverlapBetween((MapNode) e2, (MapArea) e1);
+
+		} else {
+
+			return null;
 
 		}
 
 	}
 
 	/**
-	 * adds the overlap between two {@link MapWaySegment}s
-	 * to both, if it exists
+	 * returns the overlap between two {@link MapWaySegment}s,
+	 * or null if there is none
 	 */
-	private static void addOverlapBetween(
+	private static MapIntersectionWW createOverlapBetween(
 			MapWaySegment line1, MapWaySegment line2) {
 
-		if (line1.isConnectedTo(line2)) { return; }
+		if (line1.isConnectedTo(line2)) { return null; }
 
 		VectorXZ intersection = GeometryUtil.getLineSegmentIntersection(
 				line1.getStartNode().getPos(),
@@ -409,23 +487,21 @@ public class OSMToMapDataConverter {
 
 		if (intersection != null) {
 
-			/* add the intersection */
+			return new MapIntersectionWW(line1, line2, intersection);
 
-			MapIntersectionWW newIntersection =
-				new MapIntersectionWW(line1, line2, intersection);
+		} else {
 
-			line1.addOverlap(newIntersection);
-			line2.addOverlap(newIntersection);
+			return null;
 
 		}
 
 	}
 
 	/**
-	 * adds the overlap between a {@link MapWaySegment}
-	 * and a {@link MapArea} to both, if it exists
+	 * returns the overlap between a {@link MapWaySegment}
+	 * and a {@link MapArea}, or null if there is none
 	 */
-	private static void addOverlapBetween(
+	private static MapOverlapWA createOverlapBetween(
 			MapWaySegment line, MapArea area) {
 
 		final LineSegmentXZ segmentXZ = line.getLineSegment();
@@ -435,15 +511,9 @@ public class OSMToMapDataConverter {
 		for (MapAreaSegment areaSegment : area.getAreaSegments()) {
 			if (areaSegment.sharesBothNodes(line)) {
 
-				MapOverlapWA newOverlap =
-					new MapOverlapWA(line, area, MapOverlapType.SHARE_SEGMENT,
-							Collections.<VectorXZ>emptyList(),
-							Collections.<MapAreaSegment>emptyList());
-
-				line.addOverlap(newOverlap);
-				area.addOverlap(newOverlap);
-
-				return;
+				return new MapOverlapWA(line, area, MapOverlapType.SHARE_SEGMENT,
+						Collections.<VectorXZ>emptyList(),
+						Collections.<MapAreaSegment>emptyList());
 
 			}
 		}
@@ -490,7 +560,7 @@ public class OSMToMapDataConverter {
 
 		}
 
-		/* add an overlap if detected */
+		/* create an overlap if detected */
 
 		if (contains || intersects) {
 
@@ -519,24 +589,23 @@ public class OSMToMapDataConverter {
 
 			}
 
-			/* add the overlap */
-
-			MapOverlapWA newOverlap = new MapOverlapWA(line, area,
+			return new MapOverlapWA(line, area,
 						intersects ? MapOverlapType.INTERSECT : MapOverlapType.CONTAIN,
 						intersectionPositions, intersectingSegments);
 
-			line.addOverlap(newOverlap);
-			area.addOverlap(newOverlap);
+		} else {
+
+			return null;
 
 		}
 
 	}
 
 	/**
-	 * adds the overlap between two {@link MapArea}s
-	 * to both, if it exists
+	 * returns the overlap between two {@link MapArea}s,
+	 * or null if there is none
 	 */
-	private static void addOverlapBetween(
+	private static MapOverlapAA createOverlapBetween(
 			MapArea area1, MapArea area2) {
 
 		/* check whether the areas have a shared segment */
@@ -548,12 +617,7 @@ public class OSMToMapDataConverter {
 			for (MapAreaSegment area2Segment : area2Segments) {
 				if (area1Segment.sharesBothNodes(area2Segment)) {
 
-					MapOverlapAA newOverlap =
-						new MapOverlapAA(area1, area2, MapOverlapType.SHARE_SEGMENT);
-					area1.addOverlap(newOverlap);
-					area2.addOverlap(newOverlap);
-
-					return;
+					return new MapOverlapAA(area1, area2, MapOverlapType.SHARE_SEGMENT);
 
 				}
 			}
@@ -612,40 +676,30 @@ public class OSMToMapDataConverter {
 
 		}
 
-		/* add an overlap if detected */
-
-		if (contains1 || contains2 || intersects) {
-
-			/* add the overlap */
-
-			MapOverlapAA newOverlap = null;
-
-			if (contains1) {
-				newOverlap = new MapOverlapAA(area2, area1, MapOverlapType.CONTAIN);
-			} else if (contains2) {
-				newOverlap = new MapOverlapAA(area1, area2, MapOverlapType.CONTAIN);
-			} else {
-				newOverlap = new MapOverlapAA(area1, area2, MapOverlapType.INTERSECT);
-			}
-
-			area1.addOverlap(newOverlap);
-			area2.addOverlap(newOverlap);
+		/* create an overlap if detected */
 
+		if (contains1) {
+			return new MapOverlapAA(area2, area1, MapOverlapType.CONTAIN);
+		} else if (contains2) {
+			return new MapOverlapAA(area1, area2, MapOverlapType.CONTAIN);
+		} else if (intersects) {
+			return new MapOverlapAA(area1, area2, MapOverlapType.INTERSECT);
+		} else {
+			return null;
 		}
 
 	}
 
-	private static void addOverlapBetween(MapNode node, MapArea area) {
+	/**
+	 * returns the overlap between a {@link MapNode} and a {@link MapArea},
+	 * or null if there is none. Such overlaps are only stored by the area.
+	 */
+	private static MapOverlapNA createOverlapBetween(MapNode node, MapArea area) {
 
 		if (area.getPolygon().contains(node.getPos())) {
-
-			/* add the overlap */
-
-			MapOverlapNA newOverlap =
-					new MapOverlapNA(node, area, MapOverlapType.CONTAIN);
-
-			area.addOverlap(newOverlap);
-
+			return new MapOverlapNA(node, area, MapOverlapType.CONTAIN);
+		} else {
+			return null;
 		}
 
 	}
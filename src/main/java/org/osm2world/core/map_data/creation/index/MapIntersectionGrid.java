@@ -1,6 +1,11 @@
 package org.osm2world.core.map_data.creation.index;
 
 import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
 
 import org.osm2world.core.map_data.data.MapElement;
 import org.osm2world.core.math.AxisAlignedBoundingBoxXZ;
@@ -11,6 +16,10 @@ public class MapIntersectionGrid implements MapDataIndex {
 
 	private final IntersectionGrid<MapElement> intersectionGrid;
 
+	/** bounding boxes of all inserted elements */
+	private final Map<MapElement, AxisAlignedBoundingBoxXZ> boundingBoxes =
+			new IdentityHashMap<MapElement, AxisAlignedBoundingBoxXZ>();
+
 	public MapIntersectionGrid(AxisAlignedBoundingBoxXZ dataBoundary) {
 
 		AxisAlignedBoundingBoxXZ gridBounds = dataBoundary.pad(10);
@@ -25,6 +34,7 @@ public class MapIntersectionGrid implements MapDataIndex {
 	@Override
 	public void insert(MapElement e) {
 		intersectionGrid.insert(e);
+		boundingBoxes.put(e, e.getAxisAlignedBoundingBoxXZ());
 	}
 
 	@Override
@@ -38,4 +48,68 @@ public class MapIntersectionGrid implements MapDataIndex {
 		return intersectionGrid.getCells();
 	}
 
+	/**
+	 * calls the consumer once for each pair of inserted elements with intersecting bounding boxes.
+	 * Even if the two elements share several cells, the pair is only reported by the cell
+	 * containing the minimum corner of the intersection of their bounding boxes.
+	 * The element that has been inserted first is the consumer's first argument.
+	 *
+	 * Must not be called concurrently with {@link #insert(MapElement)}.
+	 *
+	 * @param parallel  whether the cells are processed in parallel.
+	 *                  If true, the consumer needs to be thread-safe.
+	 */
+	public void forEachCandidatePair(BiConsumer<MapElement, MapElement> consumer, boolean parallel) {
+
+		Collection<MapElement>[][] cells = intersectionGrid.getCellArray();
+
+		int cellCountX = cells.length;
+		int cellCountZ = cellCountX > 0 ? cells[0].length : 0;
+
+		IntStream cellIndices = IntStream.range(0, cellCountX * cellCountZ);
+
+		if (parallel) {
+			cellIndices = cellIndices.parallel();
+		}
+
+		cellIndices.forEach(i -> {
+
+			int cellX = i / cellCountZ;
+			int cellZ = i % cellCountZ;
+
+			List<MapElement> cell = (List<MapElement>) cells[cellX][cellZ];
+
+			if (cell == null) return;
+
+			AxisAlignedBoundingBoxXZ[] boxes = new AxisAlignedBoundingBoxXZ[cell.size()];
+			for (int a = 0; a < boxes.length; a++) {
+				boxes[a] = boundingBoxes.get(cell.get(a));
+			}
+
+			for (int a = 0; a < boxes.length; a++) {
+				for (int b = a + 1; b < boxes.length; b++) {
+
+					AxisAlignedBoundingBoxXZ boxA = boxes[a];
+					AxisAlignedBoundingBoxXZ boxB = boxes[b];
+
+					if (boxA.minX > boxB.maxX || boxB.minX > boxA.maxX
+							|| boxA.minZ > boxB.maxZ || boxB.minZ > boxA.maxZ) {
+						continue;
+					}
+
+					double refX = Math.max(boxA.minX, boxB.minX);
+					double refZ = Math.max(boxA.minZ, boxB.minZ);
+
+					if (intersectionGrid.cellXForCoord(refX, refZ) == cellX
+							&& intersectionGrid.cellZForCoord(refX, refZ) == cellZ) {
+						consumer.accept(cell.get(a), cell.get(b));
+					}
+
+				}
+			}
+
+		});
+
+	}
+
 }
@@ -1,6 +1,5 @@
 package org.osm2world.core.map_data.data;
 
-import static de.topobyte.osm4j.core.model.util.OsmModelUtil.getTagsAsMap;
 import static java.util.Collections.*;
 
 import java.util.ArrayList;
@@ -8,8 +7,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
-import org.openstreetmap.josm.plugins.graphview.core.data.MapBasedTagGroup;
-import org.openstreetmap.josm.plugins.graphview.core.data.TagGroup;
 import org.osm2world.core.map_data.data.overlaps.MapOverlap;
 import org.osm2world.core.math.AxisAlignedBoundingBoxXZ;
 import org.osm2world.core.math.InvalidGeometryException;
@@ -143,11 +140,6 @@ public class MapArea extends MapRelation.Element implements MapElement {
 		return objectWithTags;
 	}
 
-	@Override
-	public TagGroup getTags() {
-		return new MapBasedTagGroup(getTagsAsMap(objectWithTags));
-	}
-
 	/**
 	 * returns the area as a polygon.
 	 */
@@ -205,7 +197,7 @@ public class MapArea extends MapRelation.Element implements MapElement {
 	}
 
 	@Override
-	public AreaWorldObject getPrimaryRepresentation() {
+	public synchronized AreaWorldObject getPrimaryRepresentation() {
 		if (representations.isEmpty()) {
 			return null;
 		} else {
@@ -214,9 +206,10 @@ public class MapArea extends MapRelation.Element implements MapElement {
 	}
 
 	/**
-	 * adds a visual representation for this area
+	 * adds a visual representation for this area.
+	 * Thread-safe, so that modules can be applied to several elements in parallel.
 	 */
-	public void addRepresentation(AreaWorldObject representation) {
+	public synchronized void addRepresentation(AreaWorldObject representation) {
 		this.representations.add(representation);
 	}
 
@@ -235,7 +228,7 @@ public class MapArea extends MapRelation.Element implements MapElement {
 
 	@Override
 	public AxisAlignedBoundingBoxXZ getAxisAlignedBoundingBoxXZ() {
-		return new AxisAlignedBoundingBoxXZ(getOuterPolygon().getVertexCollection());
+		return getOuterPolygon().getAxisAlignedBoundingBoxXZ();
 	}
 
 	@Override
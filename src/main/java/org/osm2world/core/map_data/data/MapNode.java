@@ -1,6 +1,5 @@
 package org.osm2world.core.map_data.data;
 
-import static de.topobyte.osm4j.core.model.util.OsmModelUtil.getTagsAsMap;
 import static java.util.Comparator.comparingDouble;
 
 import java.util.ArrayList;
@@ -8,8 +7,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
-import org.openstreetmap.josm.plugins.graphview.core.data.MapBasedTagGroup;
-import org.openstreetmap.josm.plugins.graphview.core.data.TagGroup;
 import org.osm2world.core.map_data.data.overlaps.MapOverlap;
 import org.osm2world.core.math.AxisAlignedBoundingBoxXZ;
 import org.osm2world.core.math.VectorXZ;
@@ -52,11 +49,6 @@ public class MapNode extends MapRelation.Element implements MapElement {
 		return osmNode;
 	}
 
-	@Override
-	public TagGroup getTags() {
-		return new MapBasedTagGroup(getTagsAsMap(osmNode));
-	}
-
 	public Collection<MapArea> getAdjacentAreas() {
 		return adjacentAreas;
 	}
@@ -181,7 +173,7 @@ public class MapNode extends MapRelation.Element implements MapElement {
 	}
 
 	@Override
-	public NodeWorldObject getPrimaryRepresentation() {
+	public synchronized NodeWorldObject getPrimaryRepresentation() {
 		if (representations.isEmpty()) {
 			return null;
 		} else {
@@ -190,9 +182,10 @@ public class MapNode extends MapRelation.Element implements MapElement {
 	}
 
 	/**
-	 * adds a visual representation for this node
+	 * adds a visual representation for this node.
+	 * Thread-safe, so that modules can be applied to several elements in parallel.
 	 */
-	public void addRepresentation(NodeWorldObject representation) {
+	public synchronized void addRepresentation(NodeWorldObject representation) {
 		this.representations.add(representation);
 	}
 
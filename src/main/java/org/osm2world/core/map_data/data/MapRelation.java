@@ -1,17 +1,17 @@
 package org.osm2world.core.map_data.data;
 
-import static de.topobyte.osm4j.core.model.util.OsmModelUtil.getTagsAsMap;
 import static java.util.Collections.emptyList;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
-import org.openstreetmap.josm.plugins.graphview.core.data.MapBasedTagGroup;
+import org.openstreetmap.josm.plugins.graphview.core.data.SortedArrayTagGroup;
 import org.openstreetmap.josm.plugins.graphview.core.data.TagGroup;
 
 import de.topobyte.osm4j.core.model.iface.OsmEntity;
 import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmTag;
 
 /**
  * A relation from an OSM dataset.
@@ -29,6 +29,8 @@ public class MapRelation {
 
 		private List<Membership> memberships = emptyList();
 
+		private TagGroup tags = null;
+
 		/** returns all relation memberships containing this element */
 		public Collection<Membership> getMemberships() {
 			return memberships;
@@ -49,8 +51,17 @@ public class MapRelation {
 		/** see {@link MapElement#getOsmElement()} */
 		public abstract OsmEntity getOsmElement();
 
-		/** see {@link MapElement#getTags()} */
-		public abstract TagGroup getTags();
+		/**
+		 * see {@link MapElement#getTags()}.
+		 * The tags are converted from the {@link #getOsmElement()} on the first call and cached afterwards.
+		 */
+		public TagGroup getTags() {
+			TagGroup result = tags;
+			if (result == null) {
+				tags = result = createTagGroup(getOsmElement());
+			}
+			return result;
+		}
 
 	}
 
@@ -84,6 +95,8 @@ public class MapRelation {
 	private final OsmRelation osmRelation;
 	private final List<Membership> memberships = new ArrayList<MapRelation.Membership>();
 
+	private TagGroup tags = null;
+
 	public MapRelation(OsmRelation osmRelation) {
 		this.osmRelation = osmRelation;
 	}
@@ -104,7 +117,11 @@ public class MapRelation {
 	}
 
 	public TagGroup getTags() {
-		return new MapBasedTagGroup(getTagsAsMap(osmRelation));
+		TagGroup result = tags;
+		if (result == null) {
+			tags = result = createTagGroup(osmRelation);
+		}
+		return result;
 	}
 
 	@Override
@@ -112,4 +129,26 @@ public class MapRelation {
 		return "r" + osmRelation.getId();
 	}
 
+	/**
+	 * converts an OSM entity's tags into an immutable {@link TagGroup}.
+	 * The result is safe to share between threads even without synchronization,
+	 * because it only has final fields.
+	 */
+	static TagGroup createTagGroup(OsmEntity entity) {
+
+		int numberOfTags = entity.getNumberOfTags();
+
+		String[] keys = new String[numberOfTags];
+		String[] values = new String[numberOfTags];
+
+		for (int i = 0; i < numberOfTags; i++) {
+			OsmTag tag = entity.getTag(i);
+			keys[i] = tag.getKey();
+			values[i] = tag.getValue();
+		}
+
+		return new SortedArrayTagGroup(keys, values);
+
+	}
+
 }
@@ -1,12 +1,8 @@
 package org.osm2world.core.map_data.data;
 
-import static de.topobyte.osm4j.core.model.util.OsmModelUtil.getTagsAsMap;
-
 import java.util.ArrayList;
 import java.util.List;
 
-import org.openstreetmap.josm.plugins.graphview.core.data.MapBasedTagGroup;
-import org.openstreetmap.josm.plugins.graphview.core.data.TagGroup;
 import org.osm2world.core.math.AxisAlignedBoundingBoxXZ;
 import org.osm2world.core.math.VectorXZ;
 import org.osm2world.core.math.shapes.PolylineXZ;
@@ -81,10 +77,6 @@ public class MapWay extends MapRelation.Element {
 		return osmWay;
 	}
 
-	public TagGroup getTags() {
-		return new MapBasedTagGroup(getTagsAsMap(osmWay));
-	}
-
 	@Override
 	public String toString() {
 		return "w" + osmWay.getId();
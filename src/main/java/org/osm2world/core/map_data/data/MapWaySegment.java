@@ -82,7 +82,7 @@ public class MapWaySegment extends MapSegment implements MapElement {
 	}
 
 	@Override
-	public WaySegmentWorldObject getPrimaryRepresentation() {
+	public synchronized WaySegmentWorldObject getPrimaryRepresentation() {
 		if (representations.isEmpty()) {
 			return null;
 		} else {
@@ -91,9 +91,10 @@ public class MapWaySegment extends MapSegment implements MapElement {
 	}
 
 	/**
-	 * adds a visual representation for this way segment
+	 * adds a visual representation for this way segment.
+	 * Thread-safe, so that modules can be applied to several elements in parallel.
 	 */
-	public void addRepresentation(WaySegmentWorldObject representation) {
+	public synchronized void addRepresentation(WaySegmentWorldObject representation) {
 		this.representations.add(representation);
 	}
 
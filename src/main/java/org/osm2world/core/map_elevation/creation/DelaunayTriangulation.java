@@ -1,9 +1,9 @@
 package org.osm2world.core.map_elevation.creation;
 
 import static java.lang.Math.*;
-import static org.osm2world.core.math.GeometryUtil.isRightOf;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -15,6 +15,7 @@ import java.util.Set;
 import java.util.Stack;
 
 import org.osm2world.core.math.AxisAlignedBoundingBoxXZ;
+import org.osm2world.core.math.GeometryUtil;
 import org.osm2world.core.math.TriangleXYZ;
 import org.osm2world.core.math.TriangleXZ;
 import org.osm2world.core.math.VectorXYZ;
@@ -25,7 +26,6 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 
 //TODO: test performance effects of:
-// * starting point choice of the walk
 // * caching circumcircles
 // * only calculating area of triangles that are actually changed
 
@@ -34,6 +34,9 @@ import com.google.common.collect.Multimap;
  * Built to be used as a Voronoi Diagram dual for natural neighbor
  * interpolation of the y elevation values carried by each point.
  * The triangulation is constructed by incremental insertion.
+ * Point location walks start at the most recently located triangle,
+ * so inserting or probing nearby points one after another is fast.
+ * For bulk insertion, use {@link #insertAll(Collection)}, which sorts the points accordingly.
  */
 public class DelaunayTriangulation {
 
@@ -403,6 +406,11 @@ public class DelaunayTriangulation {
 
 		}
 
+		NaturalNeighbors(VectorXYZ[] neighbors, double[] relativeWeights) {
+			this.neighbors = neighbors;
+			this.relativeWeights = relativeWeights;
+		}
+
 	}
 
 	/**
@@ -491,6 +499,27 @@ public class DelaunayTriangulation {
 	 */
 	public final DelaunayTriangle handleTriangle;
 
+	/**
+	 * a triangle which is part of the triangulation and has been close to the last point
+	 * that has been located. Used as the start of the next walk.
+	 */
+	private DelaunayTriangle walkStart;
+
+	/**
+	 * number of insertions so far. Used to check whether a thread's walk start
+	 * for {@link #locate(VectorXZ)} may have been removed from the triangulation.
+	 */
+	private int modificationCount = 0;
+
+	/** each thread's start for the walks of {@link #locate(VectorXZ)} */
+	private final ThreadLocal<QueryWalkStart> queryWalkStart =
+			ThreadLocal.withInitial(QueryWalkStart::new);
+
+	private static class QueryWalkStart {
+		DelaunayTriangle triangle = null;
+		int modificationCount = -1;
+	}
+
 	public DelaunayTriangulation(AxisAlignedBoundingBoxXZ bounds) {
 
 		VectorXYZ boundV0 = bounds.bottomLeft().xyz(0);
@@ -510,6 +539,8 @@ public class DelaunayTriangulation {
 		t1.setNeighbor(0, handleTriangle);
 		handleTriangle.setNeighbor(0, t1);
 
+		walkStart = handleTriangle;
+
 	}
 
 	/**
@@ -519,6 +550,16 @@ public class DelaunayTriangulation {
 		return ITERABLE;
 	}
 
+	/**
+	 * inserts all points. They are inserted in the order of a Hilbert curve through their bounding box
+	 * rather than in the order of the collection, which keeps the point location walks short.
+	 */
+	public void insertAll(Collection<VectorXYZ> points) {
+		for (VectorXYZ point : sortAlongHilbertCurve(points)) {
+			insert(point);
+		}
+	}
+
 	public Stack<Flip> insert(VectorXYZ point) { //TODO: should use <T extends Has(Immutable)Position>
 
 		DelaunayTriangle triangleEnclosingPoint = getEnlosingTriangle(point.xz());
@@ -563,6 +604,11 @@ public class DelaunayTriangulation {
 
 		}
 
+		// the triangles created by the last flip have not been replaced by any later flip
+		walkStart = flipStack.peek().getCreatedTriangles()[0];
+
+		modificationCount ++;
+
 		return flipStack;
 
 	}
@@ -633,10 +679,15 @@ public class DelaunayTriangulation {
 
 		/* undo insertion */
 
+		Flip13 initialFlip = (Flip13) flipStack.firstElement();
+
 		while (!flipStack.isEmpty()) {
 			flipStack.pop().undo();
 		}
 
+		// the triangle which enclosed the point is part of the triangulation again
+		walkStart = initialFlip.originalTriangle;
+
 		/* calculate difference of voronoi cell size with and without the point */
 
 		double areaDifferenceSum = 0;
@@ -661,6 +712,120 @@ public class DelaunayTriangulation {
 
 	}
 
+	/**
+	 * calculates the natural neighbors of a point and their relative (Sibson) weights
+	 * without modifying the triangulation.
+	 * Unlike {@link #probe(VectorXZ)}, this can be used by several threads at the same time,
+	 * as long as no points are inserted concurrently.
+	 *
+	 * The triangles whose circumcircles contain the point (the Bowyer-Watson cavity) are collected.
+	 * Each neighbor's weight is the part of its Voronoi cell that would be taken over by the point,
+	 * calculated from the circumcircle centers of the cavity triangles and of the triangles that would replace them.
+	 * Only the weights of the bounds' corners, whose Voronoi cells are unbounded, can differ from the probe's.
+	 *
+	 * @param point  must lie within the triangulation; != null
+	 */
+	public NaturalNeighbors getNaturalNeighbors(VectorXZ point) {
+
+		DelaunayTriangle enclosingTriangle = locate(point);
+
+		for (int i = 0; i <= 2; i++) {
+			VectorXYZ p = enclosingTriangle.getPoint(i);
+			if (p.x == point.x && p.z == point.z) {
+				return new NaturalNeighbors(new VectorXYZ[] {p}, new double[] {1});
+			}
+		}
+
+		/* collect the triangles whose circumcircle contains the point */
+
+		List<DelaunayTriangle> cavity = new ArrayList<DelaunayTriangle>();
+		cavity.add(enclosingTriangle);
+
+		for (int t = 0; t < cavity.size(); t++) {
+			for (int i = 0; i <= 2; i++) {
+				DelaunayTriangle neighbor = cavity.get(t).getNeighbor(i);
+				if (neighbor != null && neighbor != handleTriangle
+						&& !cavity.contains(neighbor)
+						&& isInCircumcircle(neighbor, point)) {
+					cavity.add(neighbor);
+				}
+			}
+		}
+
+		/* find the cavity's boundary edges and sort them counterclockwise around the point */
+
+		List<DelaunayTriangle> edgeTriangles = new ArrayList<DelaunayTriangle>();
+		List<VectorXYZ> edgeStarts = new ArrayList<VectorXYZ>();
+		List<VectorXYZ> edgeEnds = new ArrayList<VectorXYZ>();
+
+		for (DelaunayTriangle triangle : cavity) {
+			for (int i = 0; i <= 2; i++) {
+				if (!cavity.contains(triangle.getNeighbor(i))) {
+					edgeTriangles.add(triangle);
+					edgeStarts.add(triangle.getPoint(i));
+					edgeEnds.add(triangle.getPoint((i + 1) % 3));
+				}
+			}
+		}
+
+		int edgeCount = edgeStarts.size();
+
+		for (int k = 0; k + 1 < edgeCount; k++) {
+			for (int l = k + 1; l < edgeCount; l++) {
+				if (edgeStarts.get(l) == edgeEnds.get(k)) {
+					Collections.swap(edgeTriangles, k + 1, l);
+					Collections.swap(edgeStarts, k + 1, l);
+					Collections.swap(edgeEnds, k + 1, l);
+					break;
+				}
+			}
+		}
+
+		/* calculate the area each neighbor's Voronoi cell would lose to the point.
+		 * The neighbor at the end of edge k is also the start of edge k + 1. */
+
+		VectorXYZ[] neighbors = new VectorXYZ[edgeCount];
+		double[] weights = new double[edgeCount];
+		double weightSum = 0;
+
+		List<VectorXZ> lostCellPart = new ArrayList<VectorXZ>();
+
+		for (int k = 0; k < edgeCount; k++) {
+
+			int nextK = (k + 1) % edgeCount;
+			VectorXYZ neighbor = edgeEnds.get(k);
+
+			lostCellPart.clear();
+			lostCellPart.add(getCircumcircleCenter(edgeStarts.get(k), neighbor, point));
+
+			// rotate around the neighbor through the cavity, from edge k's triangle to edge k + 1's triangle
+			DelaunayTriangle triangle = edgeTriangles.get(k);
+			lostCellPart.add(triangle.getCircumcircleCenter());
+
+			while (triangle != edgeTriangles.get(nextK)) {
+				triangle = triangle.getNeighbor(triangle.indexOfPoint(neighbor));
+				lostCellPart.add(triangle.getCircumcircleCenter());
+				if (lostCellPart.size() > cavity.size() + 1) {
+					throw new IllegalStateException("inconsistent cavity around " + neighbor);
+				}
+			}
+
+			lostCellPart.add(getCircumcircleCenter(neighbor, edgeEnds.get(nextK), point));
+
+			neighbors[k] = neighbor;
+			weights[k] = getPolygonArea(lostCellPart);
+			weightSum += weights[k];
+
+		}
+
+		for (int k = 0; k < edgeCount; k++) {
+			weights[k] /= weightSum;
+		}
+
+		return new NaturalNeighbors(neighbors, weights);
+
+	}
+
 	public List<DelaunayTriangle> getIncidentTriangles(final VectorXYZ point) {
 
 		List<DelaunayTriangle> result = new ArrayList<DelaunayTriangle>();
@@ -805,9 +970,42 @@ public class DelaunayTriangulation {
 	public DelaunayTriangle getEnlosingTriangle(VectorXZ point) {
 
 		/* use a 'visibility walk' through the triangulation,
-		 * starting at the handleTriangle */
+		 * starting at the most recently located triangle */
+
+		return walk(point, walkStart);
+
+	}
+
+	/**
+	 * returns the triangle containing the given point.
+	 * Unlike {@link #getEnlosingTriangle(VectorXZ)}, this can be used by several threads at the same time,
+	 * as long as no points are inserted concurrently.
+	 * Each thread's walk starts at the triangle it has located previously.
+	 *
+	 * @param point  must lie within the triangulation; != null
+	 */
+	public DelaunayTriangle locate(VectorXZ point) {
 
-		DelaunayTriangle currentTriangle = handleTriangle;
+		QueryWalkStart start = queryWalkStart.get();
+
+		if (start.modificationCount != modificationCount) {
+			start.triangle = walkStart;
+			start.modificationCount = modificationCount;
+		}
+
+		start.triangle = walk(point, start.triangle);
+
+		return start.triangle;
+
+	}
+
+	/**
+	 * returns the triangle containing the given point
+	 * using a 'visibility walk' from the start triangle
+	 */
+	private static DelaunayTriangle walk(VectorXZ point, DelaunayTriangle startTriangle) {
+
+		DelaunayTriangle currentTriangle = startTriangle;
 
 		boolean triangleContainsPoint = false;
 
@@ -822,8 +1020,8 @@ public class DelaunayTriangulation {
 				// (relies on counterclockwise winding)
 
 				if (isRightOf(point,
-						currentTriangle.getPoint(i).xz(),
-						currentTriangle.getPoint((i + 1) % 3).xz())) { //TODO avoid xz()
+						currentTriangle.getPoint(i),
+						currentTriangle.getPoint((i + 1) % 3))) {
 
 					triangleContainsPoint = false;
 					currentTriangle = currentTriangle.getNeighbor(i);
@@ -839,4 +1037,137 @@ public class DelaunayTriangulation {
 
 	}
 
+	/**
+	 * variant of {@link GeometryUtil#isRightOf(VectorXZ, VectorXZ, VectorXZ)}
+	 * which ignores the y coordinate of the line's points
+	 */
+	private static boolean isRightOf(VectorXZ p, VectorXYZ l1, VectorXYZ l2) {
+		return 0 > (p.z-l1.z) * (l2.x-l1.x) - (p.x-l1.x) * (l2.z-l1.z);
+	}
+
+	/**
+	 * checks whether a point is strictly inside the circumcircle of a (counterclockwise) triangle
+	 */
+	private static boolean isInCircumcircle(DelaunayTriangle triangle, VectorXZ point) {
+
+		double adx = triangle.p0.x - point.x, adz = triangle.p0.z - point.z;
+		double bdx = triangle.p1.x - point.x, bdz = triangle.p1.z - point.z;
+		double cdx = triangle.p2.x - point.x, cdz = triangle.p2.z - point.z;
+
+		double det = (adx * adx + adz * adz) * (bdx * cdz - cdx * bdz)
+				+ (bdx * bdx + bdz * bdz) * (cdx * adz - adx * cdz)
+				+ (cdx * cdx + cdz * cdz) * (adx * bdz - bdx * adz);
+
+		return det > 0;
+
+	}
+
+	/**
+	 * returns the circumcircle center of the triangle formed by two existing points and a new point
+	 */
+	private static VectorXZ getCircumcircleCenter(VectorXYZ p0, VectorXYZ p1, VectorXZ p2) {
+
+		double bX = p1.x - p0.x, bZ = p1.z - p0.z;
+		double cX = p2.x - p0.x, cZ = p2.z - p0.z;
+
+		double d = 2 * (bX * cZ - bZ * cX);
+
+		double rX = (cZ * (bX * bX + bZ * bZ) - bZ * (cX * cX + cZ * cZ)) / d;
+		double rZ = (bX * (cX * cX + cZ * cZ) - cX * (bX * bX + bZ * bZ)) / d;
+
+		return new VectorXZ(rX + p0.x, rZ + p0.z);
+
+	}
+
+	/** returns the area of a simple polygon, regardless of its winding */
+	private static double getPolygonArea(List<VectorXZ> vertices) {
+
+		double doubleArea = 0;
+
+		for (int i = 0; i < vertices.size(); i++) {
+			VectorXZ v1 = vertices.get(i);
+			VectorXZ v2 = vertices.get((i + 1) % vertices.size());
+			doubleArea += v1.x * v2.z - v2.x * v1.z;
+		}
+
+		return abs(doubleArea) / 2;
+
+	}
+
+	/**
+	 * returns the points sorted by their position along a Hilbert curve
+	 * covering the points' bounding box, so that successive points are usually close to each other
+	 */
+	static List<VectorXYZ> sortAlongHilbertCurve(Collection<VectorXYZ> points) {
+
+		List<VectorXYZ> pointList = new ArrayList<VectorXYZ>(points);
+
+		if (pointList.size() < 2) return pointList;
+
+		AxisAlignedBoundingBoxXZ bounds = new AxisAlignedBoundingBoxXZ(pointList);
+
+		int gridSize = 1 << HILBERT_ORDER;
+		double scaleX = bounds.sizeX() > 0 ? (gridSize - 1) / bounds.sizeX() : 0;
+		double scaleZ = bounds.sizeZ() > 0 ? (gridSize - 1) / bounds.sizeZ() : 0;
+
+		/* sort keys which combine the curve position (upper bits) and the original index (lower bits) */
+
+		long[] keys = new long[pointList.size()];
+
+		for (int i = 0; i < keys.length; i++) {
+			VectorXYZ p = pointList.get(i);
+			int x = (int) ((p.x - bounds.minX) * scaleX);
+			int z = (int) ((p.z - bounds.minZ) * scaleZ);
+			keys[i] = ((long) hilbertIndex(gridSize, x, z) << 32) | i;
+		}
+
+		Arrays.sort(keys);
+
+		List<VectorXYZ> result = new ArrayList<VectorXYZ>(keys.length);
+
+		for (long key : keys) {
+			result.add(pointList.get((int) key));
+		}
+
+		return result;
+
+	}
+
+	/** number of bits per coordinate used for {@link #sortAlongHilbertCurve(Collection)} */
+	private static final int HILBERT_ORDER = 15;
+
+	/**
+	 * returns the distance along a Hilbert curve for a cell of a grid
+	 *
+	 * @param gridSize  number of cells in each dimension, must be a power of 2
+	 */
+	private static int hilbertIndex(int gridSize, int x, int z) {
+
+		int d = 0;
+
+		for (int s = gridSize / 2; s > 0; s /= 2) {
+
+			int rx = (x & s) > 0 ? 1 : 0;
+			int rz = (z & s) > 0 ? 1 : 0;
+
+			d += s * s * ((3 * rx) ^ rz);
+
+			/* rotate the quadrant */
+
+			if (rz == 0) {
+				if (rx == 1) {
+					x = s - 1 - x;
+					z = s - 1 - z;
+				}
+				int t = x;
+				x = z;
+				z = t;
+			}
+
+		}
+
+		return d;
+
+	}
+
 }
@@ -43,13 +43,24 @@ public class InverseDistanceWeightingInterpolator implements TerrainInterpolator
 
 	@Override
 	public VectorXYZ interpolateEle(VectorXZ pos) {
+		return pos.xyz(interpolateEle(pos.x, pos.z));
+	}
+
+	@Override
+	public void interpolateEle(double[] xz, double[] outY) {
+		for (int i = 0; 2 * i + 1 < xz.length; i++) {
+			outY[i] = interpolateEle(xz[2 * i], xz[2 * i + 1]);
+		}
+	}
+
+	private double interpolateEle(double x, double z) {
 
 		double weightSum = 0;
 		double eleSum = 0;
 
 		Collection<VectorXYZ>[][] cellArray = siteGrid.getCellArray();
-		int cellX = siteGrid.cellXForCoord(pos.x, pos.z);
-		int cellZ = siteGrid.cellZForCoord(pos.x, pos.z);
+		int cellX = siteGrid.cellXForCoord(x, z);
+		int cellZ = siteGrid.cellZForCoord(x, z);
 
 		for (int i = max(cellX-1, 0); i < min(cellX+2, cellArray.length); i++) {
 			for (int j = max(cellZ-1, 0); j < min(cellZ+2, cellArray[i].length); j++) {
@@ -60,7 +71,9 @@ public class InverseDistanceWeightingInterpolator implements TerrainInterpolator
 
 				for (VectorXYZ site : sitesInCell) {
 
-					double distance = site.distanceToXZ(pos);
+					double dx = x - site.x;
+					double dz = z - site.z;
+					double distance = sqrt(dx * dx + dz * dz);
 
 					if (distance < CUTOFF) {
 						double weight = pow(distance, negExp);
@@ -73,10 +86,13 @@ public class InverseDistanceWeightingInterpolator implements TerrainInterpolator
 			}
 		}
 
-		//System.out.println(pos + ": " + eleSum + ", " + weightSum + ", " + eleSum / weightSum);
+		return eleSum / weightSum;
 
-		return pos.xyz(eleSum / weightSum);
+	}
 
+	@Override
+	public boolean isThreadSafe() {
+		return true;
 	}
 
 }
@@ -4,99 +4,95 @@ import static java.lang.Math.*;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.PriorityQueue;
 
 import org.apache.commons.lang.time.StopWatch;
-import org.apache.commons.math3.linear.Array2DRowRealMatrix;
-import org.apache.commons.math3.linear.ArrayRealVector;
-import org.apache.commons.math3.linear.QRDecomposition;
-import org.apache.commons.math3.linear.RealMatrix;
-import org.apache.commons.math3.linear.RealVector;
 import org.osm2world.core.math.AxisAlignedBoundingBoxXZ;
 import org.osm2world.core.math.VectorXYZ;
 import org.osm2world.core.math.VectorXZ;
-import org.osm2world.core.math.datastructures.IntersectionGrid;
+import org.osm2world.core.math.algorithms.LeastSquaresSolver;
 import org.osm2world.core.math.datastructures.IntersectionTestObject;
+import org.osm2world.core.math.datastructures.KDTreeXZ;
 
 /**
  * uses least squares method to approximate a polynomial at each site,
  * and calculates elevations based on the polynomials at the nearest sites.
+ *
+ * Nearest sites are found using {@link KDTreeXZ}s, one for all sites
+ * and one for the sites where a polynomial could be approximated.
  */
 public class LeastSquaresInterpolator implements TerrainInterpolator {
 
-	private static final double CELL_SIZE = 50; //should only affect performance
 	private static final int SITES_FOR_APPROX = 9;
 	private static final int SITES_FOR_INTERPOL = 29;
 
-	private Collection<SiteWithPolynomial> sites;
-	private IntersectionGrid<SiteWithPolynomial> siteGrid; //TODO: rename IntersectionGrid to something more generic
+	private SiteCoordinates sites;
+
+	/** the polynomial for each site, null if none could be approximated */
+	private Polynomial[] sitePolynomials;
+
+	/** the polynomials of the sites which have one, indexed like the points of {@link #polynomialSiteTree} */
+	private Polynomial[] polynomials;
+	private KDTreeXZ polynomialSiteTree;
 
 	@Override
 	public void setKnownSites(Collection<VectorXYZ> siteVectors) {
+		setKnownSites(SiteCoordinates.of(siteVectors));
+	}
+
+	@Override
+	public void setKnownSites(SiteCoordinates sites) {
 
 		StopWatch stopWatch = new StopWatch();
 		stopWatch.start();
 
-		sites = new ArrayList<SiteWithPolynomial>(siteVectors.size());
+		this.sites = sites;
+
+		int siteCount = sites.size();
 
-		siteGrid = new IntersectionGrid<SiteWithPolynomial>(
-				new AxisAlignedBoundingBoxXZ(siteVectors).pad(CELL_SIZE/2),
-				CELL_SIZE, CELL_SIZE);
+		double[] xs = new double[siteCount];
+		double[] zs = new double[siteCount];
 
-		for (VectorXYZ siteVector : siteVectors) {
-			SiteWithPolynomial s = new SiteWithPolynomial(siteVector);
-			sites.add(s);
-			siteGrid.insert(s);
+		for (int s = 0; s < siteCount; s++) {
+			xs[s] = sites.getX(s);
+			zs[s] = sites.getZ(s);
 		}
 
-		System.out.println("  time grid: " + stopWatch);
+		KDTreeXZ siteTree = new KDTreeXZ(xs, zs);
+
+		System.out.println("  time tree: " + stopWatch);
 		stopWatch.reset();
 		stopWatch.start();
 
-		/* approximate a polynomial at each site */
-
-		Map<SiteWithPolynomial, List<SiteWithPolynomial>> nearestSiteMap
-			= new HashMap<SiteWithPolynomial, List<SiteWithPolynomial>>();
+		/* approximate a polynomial at each site, using the nearest sites */
 
-		for (SiteWithPolynomial site : sites) {
+		LeastSquaresSolver solver = new LeastSquaresSolver(
+				SITES_FOR_APPROX, DefaultPolynomial.NUM_COEFFS);
 
-			List<SiteWithPolynomial> nearestSites =
-					findNearestSites(site.pos.xz(), SITES_FOR_APPROX, false);
+		int[] nearestSites = new int[SITES_FOR_APPROX];
+		double[] distancesSq = new double[SITES_FOR_APPROX];
 
-			nearestSiteMap.put(site, nearestSites);
-
-		}
-
-		System.out.println("  time nearest sites: " + stopWatch);
-		stopWatch.reset();
-		stopWatch.start();
+		sitePolynomials = new Polynomial[siteCount];
+		int polynomialCount = 0;
 
 		calculatePolynomials:
-		for (SiteWithPolynomial site : sites) {
+		for (int s = 0; s < siteCount; s++) {
 
-			List<SiteWithPolynomial> nearestSites =
-					nearestSiteMap.get(site);
+			int count = siteTree.findNearest(sites.getX(s), sites.getZ(s),
+					SITES_FOR_APPROX, nearestSites, distancesSq);
 
-			RealVector vector = new ArrayRealVector(SITES_FOR_APPROX);
-			RealMatrix matrix = new Array2DRowRealMatrix(
-					SITES_FOR_APPROX, DefaultPolynomial.NUM_COEFFS);
+			if (count < SITES_FOR_APPROX) break; // not enough sites
 
 			for (int row = 0; row < SITES_FOR_APPROX; row++) {
-				SiteWithPolynomial nearSite = nearestSites.get(row);
-				DefaultPolynomial.populateMatrix(matrix, row, nearSite.pos.x, nearSite.pos.z);
-				vector.setEntry(row, nearSite.pos.y);
+				int nearSite = nearestSites[row];
+				DefaultPolynomial.populateRow(solver, row, sites.getX(nearSite), sites.getZ(nearSite));
+				solver.setRightHandSide(row, sites.getY(nearSite));
 			}
 
-			QRDecomposition qr = new QRDecomposition(matrix);
-			RealVector solution = qr.getSolver().solve(vector);
+			double[] coeffs = new double[DefaultPolynomial.NUM_COEFFS];
 
-			double[] coeffs = solution.toArray();
+			if (!solver.solve(coeffs)) continue;
 
 			for (double coeff : coeffs) {
 				if (coeff > 10e3) {
@@ -104,7 +100,8 @@ public class LeastSquaresInterpolator implements TerrainInterpolator {
 				}
 			}
 
-			site.setPolynomial(new DefaultPolynomial(coeffs));
+			sitePolynomials[s] = new DefaultPolynomial(coeffs);
+			polynomialCount ++;
 
 		}
 
@@ -112,112 +109,96 @@ public class LeastSquaresInterpolator implements TerrainInterpolator {
 		stopWatch.reset();
 		stopWatch.start();
 
-	}
-
-	@Override
-	public VectorXYZ interpolateEle(VectorXZ pos) {
-
-		List<SiteWithPolynomial> nearestSites =
-				findNearestSites(pos, SITES_FOR_INTERPOL, true);
-
-		double eleSum = 0;
-		double weightSum = 0;
+		/* index the sites with polynomials for the interpolation */
 
-		for (SiteWithPolynomial site : nearestSites) {
+		polynomials = new Polynomial[polynomialCount];
+		xs = new double[polynomialCount];
+		zs = new double[polynomialCount];
 
-			double distance = site.pos.distanceToXZ(pos);
-
-			double weight = max(1 - distance / 120, 0);
-
-			weightSum += weight;
-
-			eleSum += weight * site.getPolynomial().evaluateAt(pos.x, pos.z);
+		int i = 0;
 
+		for (int s = 0; s < siteCount; s++) {
+			if (sitePolynomials[s] != null) {
+				polynomials[i] = sitePolynomials[s];
+				xs[i] = sites.getX(s);
+				zs[i] = sites.getZ(s);
+				i++;
+			}
 		}
 
-		double ele = eleSum / weightSum;
+		polynomialSiteTree = new KDTreeXZ(xs, zs);
 
-		return pos.xyz(ele);
+		System.out.println("  time polynomial tree: " + stopWatch);
 
 	}
 
-	/**
-	 * provides access to the polynomials approximated internally.
-	 * This is usually only interesting for debugging or similar tasks.
-	 */
-	public Collection<SiteWithPolynomial> getSitesWithPolynomials() {
-		return sites;
+	@Override
+	public VectorXYZ interpolateEle(VectorXZ pos) {
+		return pos.xyz(interpolateEle(pos.x, pos.z,
+				new int[SITES_FOR_INTERPOL], new double[SITES_FOR_INTERPOL]));
 	}
 
-	private List<SiteWithPolynomial> findNearestSites(
-			final VectorXZ pos, int numberSites, boolean requirePolynomial) {
-
-		PriorityQueue<SiteWithPolynomial> result =
-				new PriorityQueue<SiteWithPolynomial>(numberSites,
-						new Comparator<SiteWithPolynomial>() {
-					@Override
-					public int compare(SiteWithPolynomial s1, SiteWithPolynomial s2) {
-						return - Double.compare(s1.pos.distanceToXZ(pos),
-								s2.pos.distanceToXZ(pos));
-					}
-				});
-
-		Collection<SiteWithPolynomial>[][] cellArray = siteGrid.getCellArray();
-		int cellX = siteGrid.cellXForCoord(pos.x, pos.z);
-		int cellZ = siteGrid.cellZForCoord(pos.x, pos.z);
-
-		int cellRange = 0;
-
-		do {
+	@Override
+	public void interpolateEle(double[] xz, double[] outY) {
 
-			for (int i = max(cellX-cellRange, 0); i < min(cellX+cellRange+1, cellArray.length); i++) {
-				for (int j = max(cellZ-cellRange, 0); j < min(cellZ+cellRange+1, cellArray[i].length); j++) {
+		int[] nearestSites = new int[SITES_FOR_INTERPOL];
+		double[] distancesSq = new double[SITES_FOR_INTERPOL];
 
-					//needs to be on the outer ring of cells (others have been checked before)
-					if (i == cellX-cellRange || i == cellX+cellRange
-							|| j == cellZ-cellRange || j == cellZ+cellRange) {
+		for (int i = 0; 2 * i + 1 < xz.length; i++) {
+			outY[i] = interpolateEle(xz[2 * i], xz[2 * i + 1], nearestSites, distancesSq);
+		}
 
-						Collection<SiteWithPolynomial> sitesInCell = cellArray[i][j];
+	}
 
-						if (sitesInCell != null) {
-							for (SiteWithPolynomial site : sitesInCell) {
+	/**
+	 * @param nearestSites  buffer for the nearest sites' indices, will be overwritten
+	 * @param distancesSq  buffer for the nearest sites' squared distances, will be overwritten
+	 */
+	private double interpolateEle(double x, double z, int[] nearestSites, double[] distancesSq) {
 
-								if (requirePolynomial && site.polynomial == null) continue;
+		int count = polynomialSiteTree.findNearest(x, z,
+				SITES_FOR_INTERPOL, nearestSites, distancesSq);
 
-								if (result.size() < numberSites) {
+		double eleSum = 0;
+		double weightSum = 0;
 
-									result.add(site);
+		for (int i = 0; i < count; i++) {
 
-								} else if (site.pos.distanceToXZ(pos) <
-										result.peek().pos.distanceToXZ(pos)) {
+			double distance = sqrt(distancesSq[i]);
 
-									result.remove();
-									result.add(site);
+			double weight = max(1 - distance / 120, 0);
 
-								}
-							}
-						}
+			weightSum += weight;
 
-					}
+			eleSum += weight * polynomials[nearestSites[i]].evaluateAt(x, z);
 
-				}
-			}
+		}
 
-			cellRange ++;
+		return eleSum / weightSum;
 
-		} while (result.size() < numberSites
-				|| cellRange * CELL_SIZE < result.peek().pos.distanceToXZ(pos));
+	}
 
-		//TODO error handling (not enough sites)
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
 
-		/* get the result as a list with ascending distance */
+	/**
+	 * provides access to the polynomials approximated internally.
+	 * This is usually only interesting for debugging or similar tasks.
+	 */
+	public Collection<SiteWithPolynomial> getSitesWithPolynomials() {
 
-		List<SiteWithPolynomial> resultList =
-				new ArrayList<SiteWithPolynomial>(result);
+		List<SiteWithPolynomial> result = new ArrayList<SiteWithPolynomial>(sites.size());
 
-		Collections.reverse(resultList);
+		for (int s = 0; s < sites.size(); s++) {
+			SiteWithPolynomial site = new SiteWithPolynomial(
+					new VectorXYZ(sites.getX(s), sites.getY(s), sites.getZ(s)));
+			site.setPolynomial(sitePolynomials[s]);
+			result.add(site);
+		}
 
-		return resultList;
+		return result;
 
 	}
 
@@ -248,15 +229,19 @@ public class LeastSquaresInterpolator implements TerrainInterpolator {
 					+ coeffs[5] * z*z;
 		}
 
-		public static void populateMatrix(RealMatrix matrix, int row,
+		/**
+		 * sets a row of a least squares system for approximating the polynomial's coefficients
+		 * based on a site at the given coordinates
+		 */
+		public static void populateRow(LeastSquaresSolver solver, int row,
 				double x, double z) {
 
-			matrix.setEntry(row, 0, 1);
-			matrix.setEntry(row, 1, x);
-			matrix.setEntry(row, 2, z);
-			matrix.setEntry(row, 3, x*x);
-			matrix.setEntry(row, 4, x*z);
-			matrix.setEntry(row, 5, z*z);
+			solver.setEntry(row, 0, 1);
+			solver.setEntry(row, 1, x);
+			solver.setEntry(row, 2, z);
+			solver.setEntry(row, 3, x*x);
+			solver.setEntry(row, 4, x*z);
+			solver.setEntry(row, 5, z*z);
 
 		}
 
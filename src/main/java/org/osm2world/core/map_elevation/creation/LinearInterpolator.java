@@ -4,6 +4,7 @@ import java.util.Collection;
 
 import org.osm2world.core.map_elevation.creation.DelaunayTriangulation.DelaunayTriangle;
 import org.osm2world.core.math.AxisAlignedBoundingBoxXZ;
+import org.osm2world.core.math.TriangleXYZ;
 import org.osm2world.core.math.VectorXYZ;
 import org.osm2world.core.math.VectorXZ;
 
@@ -23,22 +24,25 @@ public class LinearInterpolator implements TerrainInterpolator {
 		boundingBox = boundingBox.pad(100);
 
 		triangulation = new DelaunayTriangulation(boundingBox);
-
-		for (VectorXYZ site : sites) {
-			triangulation.insert(site);
-		}
+		triangulation.insertAll(sites);
 
 	}
 
 	@Override
 	public VectorXYZ interpolateEle(VectorXZ pos) {
 
-		DelaunayTriangle triangle = triangulation.getEnlosingTriangle(pos);
+		DelaunayTriangle triangle = triangulation.locate(pos);
 
-		double ele = triangle.asTriangleXYZ().getYAt(pos);
+		// not using the triangle's cached TriangleXYZ, which is not thread-safe
+		double ele = new TriangleXYZ(triangle.p0, triangle.p1, triangle.p2).getYAt(pos);
 
 		return pos.xyz(ele);
 
 	}
 
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 }
@@ -8,7 +8,8 @@ import org.osm2world.core.math.VectorXYZ;
 import org.osm2world.core.math.VectorXZ;
 
 /**
- * uses natural neighbor interpolation of heights
+ * uses natural neighbor interpolation of heights.
+ * After the known sites have been set, {@link #interpolateEle(VectorXZ)} can be called by several threads.
  */
 public class NaturalNeighborInterpolator implements TerrainInterpolator {
 
@@ -21,24 +22,14 @@ public class NaturalNeighborInterpolator implements TerrainInterpolator {
 		boundingBox = boundingBox.pad(100);
 
 		triangulation = new DelaunayTriangulation(boundingBox);
-
-		int i = 0; //TODO remove
-		int total = sites.size();
-		long startTime = System.currentTimeMillis();
-
-		for (VectorXYZ site : sites) {
-			if (++i % 1000 == 0) System.out.println("KS: " + i + "/" + total
-					+ " after " + ((System.currentTimeMillis() - startTime) / 1e3));
-			triangulation.insert(site);
-
-		}
+		triangulation.insertAll(sites);
 
 	}
 
 	@Override
 	public VectorXYZ interpolateEle(VectorXZ pos) {
 
-		NaturalNeighbors nn = triangulation.probe(pos);
+		NaturalNeighbors nn = triangulation.getNaturalNeighbors(pos);
 
 		double ele = 0;
 
@@ -50,4 +41,9 @@ public class NaturalNeighborInterpolator implements TerrainInterpolator {
 
 	}
 
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 }
@@ -21,33 +21,61 @@ public class SRTMData implements TerrainElevationData {
 
 	private final File tileDirectory;
 	private final MapProjection projection;
-	private final SRTMTile[][] tiles;
+	private final SRTMTileCache tileCache;
 
+	/**
+	 * creates an instance using the {@link SRTMTileCache#getSharedCache() shared tile cache}
+	 */
 	public SRTMData(File tileDirectory, MapProjection projection) {
+		this(tileDirectory, projection, SRTMTileCache.getSharedCache());
+	}
+
+	public SRTMData(File tileDirectory, MapProjection projection, SRTMTileCache tileCache) {
 		this.tileDirectory = tileDirectory;
 		this.projection = projection;
-		this.tiles = new SRTMTile[360][180];
+		this.tileCache = tileCache;
 	}
 
 	@Override
 	public Collection<VectorXYZ> getSites(double minLon, double minLat,
 			double maxLon, double maxLat) throws IOException {
+		return new ArrayList<VectorXYZ>(
+				getSiteCoordinates(minLon, minLat, maxLon, maxLat).asVectors());
+	}
 
-		Collection<VectorXYZ> result = new ArrayList<VectorXYZ>();
+	/**
+	 * variant of getSites which calculates minimum and maximum lat/lon
+	 * from the bounds of a {@link MapData} instance
+	 *
+	 * TODO: make projection reversible, then replace both getSites methods
+	 *       with a single getSite(AxisAlignedBoundingBox dataBounds) method
+	 */
+	@Override
+	public Collection<VectorXYZ> getSites(MapData mapData) throws IOException {
+		double[] bounds = getLatLonBounds(mapData);
+		return getSites(bounds[0], bounds[1], bounds[2], bounds[3]);
+	}
+
+	/**
+	 * returns the same sites as {@link #getSites(double, double, double, double)},
+	 * without creating an object for each site
+	 */
+	public SiteCoordinates getSiteCoordinates(double minLon, double minLat,
+			double maxLon, double maxLat) throws IOException {
 
-		int minLonInt = (int)floor(minLon);
-		int minLatInt = (int)floor(minLat);
-		int maxLonInt = (int)ceil(maxLon);
-		int maxLatInt = (int)ceil(maxLat);
+		SiteCoordinates result = new SiteCoordinates();
 
-		for (int lon = minLonInt; lon < maxLonInt; lon++) {
-			for (int lat = minLatInt; lat < maxLatInt; lat++) {
+		SiteIterator iterator = siteIterator(minLon, minLat, maxLon, maxLat);
 
-				loadTileIfNecessary(lon, lat);
+		double[] x = new double[4096];
+		double[] y = new double[4096];
+		double[] z = new double[4096];
 
-				addTileSites(result, lon, lat,
-						minLon, minLat, maxLon, maxLat);
+		int count;
 
+		while ((count = iterator.next(x, y, z)) > 0) {
+			for (int i = 0; i < count; i++) {
+				result.add(x[i], y[i], z[i]);
 			}
 		}
 
@@ -55,15 +83,19 @@ public class SRTMData implements TerrainElevationData {
 
 	}
 
+	@Override
+	public SiteCoordinates getSiteCoordinates(MapData mapData) throws IOException {
+		double[] bounds = getLatLonBounds(mapData);
+		return getSiteCoordinates(bounds[0], bounds[1], bounds[2], bounds[3]);
+	}
+
 	/**
-	 * variant of getSites which calculates minimum and maximum lat/lon
-	 * from the bounds of a {@link MapData} instance
+	 * calculates minimum and maximum lat/lon from the nodes of a {@link MapData} instance,
+	 * including a small seam
 	 *
-	 * TODO: make projection reversible, then replace both getSites methods
-	 *       with a single getSite(AxisAlignedBoundingBox dataBounds) method
+	 * @return  minLon, minLat, maxLon and maxLat
 	 */
-	@Override
-	public Collection<VectorXYZ> getSites(MapData mapData) throws IOException {
+	private static double[] getLatLonBounds(MapData mapData) {
 
 		double minLon = Double.POSITIVE_INFINITY;
 		double minLat = Double.POSITIVE_INFINITY;
@@ -96,91 +128,184 @@ public class SRTMData implements TerrainElevationData {
 		maxLon += 0.005; maxLat += 0.005;
 		*/
 
-		/* retrieve the sites for the query */
+		return new double[] {minLon, minLat, maxLon, maxLat};
 
-		return getSites(minLon, minLat, maxLon, maxLat);
+	}
 
+	/**
+	 * returns an iterator over the same sites as {@link #getSites(double, double, double, double)},
+	 * in the same order. Avoids creating an object for each site.
+	 */
+	public SiteIterator siteIterator(double minLon, double minLat,
+			double maxLon, double maxLat) {
+		return new SiteIterator(minLon, minLat, maxLon, maxLat);
 	}
 
-	private void loadTileIfNecessary(int lon, int lat) throws IOException {
+	/**
+	 * streams the sites for a bounding box into arrays of coordinates.
+	 * Tiles are loaded when the iteration reaches them.
+	 *
+	 * Not thread-safe.
+	 */
+	public class SiteIterator {
 
-		if (getTile(lon, lat) == null) {
+		private final double minLon, minLat, maxLon, maxLat;
 
-			String fileName = tileDirectory.getPath() + File.separator;
+		private final int maxLonInt, maxLatInt;
 
-			if (lat >= 0) {
-				fileName += String.format("N%02d", lat);
-			} else {
-				fileName += String.format("S%02d", -lat);
-			}
+		/** the current tile, null if iteration has not started for the tile at (lon, lat) */
+		private SRTMTile tile = null;
+		private int lon, lat;
 
-			if (lon >= 0) {
-				fileName += String.format("E%03d", lon);
-			} else {
-				fileName += String.format("W%03d", -lon);
-			}
+		/** pixel range for the current tile, and position of the next pixel */
+		private int minX, maxX, minY, maxY;
+		private int x, y;
 
-			fileName += ".hgt";
+		private SiteIterator(double minLon, double minLat, double maxLon, double maxLat) {
 
-			File file = new File(fileName);
+			this.minLon = minLon;
+			this.minLat = minLat;
+			this.maxLon = maxLon;
+			this.maxLat = maxLat;
 
-			if (file.exists()) {
-				setTile(lon, lat, new SRTMTile(file));
-			} else {
-				System.err.println("warning: missing SRTM tile " + file.getName());
-			}
+			this.maxLonInt = (int)ceil(maxLon);
+			this.maxLatInt = (int)ceil(maxLat);
+
+			this.lon = (int)floor(minLon);
+			this.lat = (int)floor(minLat);
 
 		}
 
-	}
+		/**
+		 * writes the next sites into the arrays, up to the arrays' length
+		 *
+		 * @param xs  receives the sites' x coordinates
+		 * @param ys  receives the sites' elevations
+		 * @param zs  receives the sites' z coordinates
+		 * @return  the number of sites written, 0 if there are no more sites
+		 */
+		public int next(double[] xs, double[] ys, double[] zs) throws IOException {
+
+			int capacity = min(xs.length, min(ys.length, zs.length));
+			int count = 0;
 
-	private void addTileSites(Collection<VectorXYZ> result,
-			int tileLon, int tileLat,
-			double minLon, double minLat, double maxLon, double maxLat) {
+			while (count < capacity && lon < maxLonInt) {
+
+				if (tile == null && !startTile()) {
+					nextTile();
+					continue;
+				}
 
-		SRTMTile tile = getTile(tileLon, tileLat);
+				/* add a site for each SRTM pixel (except last line and column,
+				 * which is duplicated in adjacent tiles) */
 
-		if (tile == null) return;
+				double pixelSize = 1.0 / tile.getPixels();
 
-		/* add a site for each SRTM pixel (except last line and column,
-		 * which is duplicated in adjacent tiles) */
+				while (count < capacity && x < maxX) {
 
-		int minX = max(0,
-				(int)ceil(SRTMTile.PIXELS * (minLon - tileLon)));
-		int maxX = min(SRTMTile.PIXELS - 1,
-				(int)floor(SRTMTile.PIXELS * (maxLon - tileLon)));
+					short value = tile.getData(x, y);
 
-		int minY = max(0,
-				(int)ceil(SRTMTile.PIXELS * (minLat - tileLat)));
-		int maxY = min(SRTMTile.PIXELS - 1,
-				(int)floor(SRTMTile.PIXELS * (maxLat - tileLat)));
+					double siteLat = lat + pixelSize * (y + 0.5);
+					double siteLon = lon + pixelSize * (x + 0.5);
 
-		for (int x = minX; x < maxX; x++) {
-			for (int y = minY; y < maxY; y++) {
+					VectorXZ pos = projection.calcPos(siteLat, siteLon);
 
-				short value = tile.getData(x, y);
+					if (value != SRTMTile.BLANK_VALUE &&
+							!Double.isNaN(pos.x) && !Double.isNaN(pos.z)) {
+						xs[count] = pos.x;
+						ys[count] = value;
+						zs[count] = pos.z;
+						count ++;
+					}
 
-				double lat = tileLat + 1.0 / SRTMTile.PIXELS * (y + 0.5);
-				double lon = tileLon + 1.0 / SRTMTile.PIXELS * (x + 0.5);
+					if (++y >= maxY) {
+						y = minY;
+						x ++;
+					}
 
-				VectorXZ pos = projection.calcPos(lat, lon);
+				}
 
-				if (value != SRTMTile.BLANK_VALUE &&
-						!Double.isNaN(pos.x) && !Double.isNaN(pos.z)) {
-					result.add(pos.xyz(value));
+				if (x >= maxX) {
+					nextTile();
 				}
 
 			}
+
+			return count;
+
 		}
 
-	}
+		/**
+		 * loads the tile at (lon, lat) and determines the range of pixels within the bounding box
+		 *
+		 * @return  false if the tile is not available or contributes no pixels
+		 */
+		private boolean startTile() throws IOException {
+
+			if (lat >= maxLatInt) {
+				return false;
+			}
+
+			SRTMTile newTile = tileCache.getTile(getTileFile(lon, lat));
+
+			if (newTile == null) {
+				System.err.println("warning: missing SRTM tile " + getTileFile(lon, lat).getName());
+				return false;
+			}
+
+			int pixels = newTile.getPixels();
+
+			minX = max(0, (int)ceil(pixels * (minLon - lon)));
+			maxX = min(pixels - 1, (int)floor(pixels * (maxLon - lon)));
+
+			minY = max(0, (int)ceil(pixels * (minLat - lat)));
+			maxY = min(pixels - 1, (int)floor(pixels * (maxLat - lat)));
+
+			if (minX >= maxX || minY >= maxY) {
+				return false;
+			}
+
+			tile = newTile;
+			x = minX;
+			y = minY;
+
+			return true;
+
+		}
+
+		private void nextTile() {
+
+			tile = null;
+
+			if (++lat >= maxLatInt) {
+				lat = (int)floor(minLat);
+				lon ++;
+			}
+
+		}
 
-	private SRTMTile getTile(int tileLon, int tileLat) {
-		return tiles[tileLon+180][tileLat+90];
 	}
 
-	private void setTile(int tileLon, int tileLat, SRTMTile tile) {
-		tiles[tileLon+180][tileLat+90] = tile;
+	private File getTileFile(int lon, int lat) {
+
+		String fileName = tileDirectory.getPath() + File.separator;
+
+		if (lat >= 0) {
+			fileName += String.format("N%02d", lat);
+		} else {
+			fileName += String.format("S%02d", -lat);
+		}
+
+		if (lon >= 0) {
+			fileName += String.format("E%03d", lon);
+		} else {
+			fileName += String.format("W%03d", -lon);
+		}
+
+		fileName += ".hgt";
+
+		return new File(fileName);
+
 	}
 
 }
@@ -1,60 +1,71 @@
 package org.osm2world.core.map_elevation.creation;
 
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.ShortBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 /**
  * a single SRTM data tile.
  *
  * Multiple such tiles are used by {@link SRTMData} to build coverage
- * for larger regions.
+ * for larger regions. The .hgt file is memory-mapped rather than read,
+ * so only the parts which are actually accessed are loaded by the OS.
+ * Both 3 arc second (1201x1201 pixels) and 1 arc second (3601x3601 pixels)
+ * tiles are supported, the resolution is determined from the file size.
+ *
+ * Instances are immutable and can be shared between threads.
  */
 class SRTMTile {
 
 	/** value indicating a lack of data */
 	public static final short BLANK_VALUE = -32768;
 
-	/** length of each dimension of an SRTM tile in pixels */
+	/** length of each dimension of a 3 arc second SRTM tile in pixels */
 	static final int PIXELS = 1201;
 
+	/** length of each dimension of a 1 arc second SRTM tile in pixels */
+	static final int PIXELS_1_ARCSECOND = 3601;
+
 	public final File file;
+	private final int pixels;
 	private final ShortBuffer data;
 
 	public SRTMTile(File file) throws IOException {
 
 		this.file = file;
 
-		data = loadDataFromFile(file);
-
-	}
+		try (FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
 
-	private static ShortBuffer loadDataFromFile(File file) throws IOException {
+			long size = fc.size();
 
-		try (
-			FileInputStream fis = new FileInputStream(file);
-			FileChannel fc = fis.getChannel();
-		) {
+			if (size == 2L * PIXELS * PIXELS) {
+				pixels = PIXELS;
+			} else if (size == 2L * PIXELS_1_ARCSECOND * PIXELS_1_ARCSECOND) {
+				pixels = PIXELS_1_ARCSECOND;
+			} else {
+				throw new IOException("unsupported size of SRTM tile " + file.getName() + ": " + size);
+			}
 
-			ByteBuffer bb = ByteBuffer.allocateDirect((int) fc.size());
-			while (bb.remaining() > 0) fc.read(bb);
-
-			bb.flip();
-
-			// choose the right endianness
-			return bb.order(ByteOrder.BIG_ENDIAN).asShortBuffer();
+			// the mapping remains valid after the channel has been closed
+			data = fc.map(READ_ONLY, 0, size).order(ByteOrder.BIG_ENDIAN).asShortBuffer();
 
 		}
 
 	}
 
+	/** returns the length of each dimension of this tile in pixels */
+	public int getPixels() {
+		return pixels;
+	}
+
 	public final short getData(int x, int y) {
-		assert 0 <= x && x < PIXELS && 0 <= y && y < PIXELS;
-		return data.get((1200 - y) * 1201 + x);
+		assert 0 <= x && x < pixels && 0 <= y && y < pixels;
+		return data.get((pixels - 1 - y) * pixels + x);
 	}
 
 	@Override
@@ -0,0 +1,88 @@
+package org.osm2world.core.map_elevation.creation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * a bounded cache of {@link SRTMTile}s, shared by {@link SRTMData} instances.
+ *
+ * When the maximum number of tiles is exceeded, the least recently used tile is dropped.
+ * Because tiles are memory-mapped, this mainly limits the address space and file handles in use
+ * when many regions are converted in the same JVM.
+ *
+ * This class is thread-safe.
+ */
+public class SRTMTileCache {
+
+	/** default for the maximum number of tiles */
+	public static final int DEFAULT_MAX_TILES = 64;
+
+	private static final SRTMTileCache SHARED_CACHE = new SRTMTileCache(DEFAULT_MAX_TILES);
+
+	private final LinkedHashMap<File, SRTMTile> tiles = new LinkedHashMap<File, SRTMTile>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<File, SRTMTile> eldest) {
+			return size() > maxTiles;
+		}
+	};
+
+	private int maxTiles;
+
+	public SRTMTileCache(int maxTiles) {
+		setMaxTiles(maxTiles);
+	}
+
+	/** returns the cache which is used by default */
+	public static SRTMTileCache getSharedCache() {
+		return SHARED_CACHE;
+	}
+
+	public synchronized int getMaxTiles() {
+		return maxTiles;
+	}
+
+	/** changes the maximum number of tiles, dropping least recently used tiles if necessary */
+	public synchronized void setMaxTiles(int maxTiles) {
+
+		if (maxTiles < 1) {
+			throw new IllegalArgumentException("maximum number of tiles must be positive: " + maxTiles);
+		}
+
+		this.maxTiles = maxTiles;
+
+		while (tiles.size() > maxTiles) {
+			File eldest = tiles.keySet().iterator().next();
+			tiles.remove(eldest);
+		}
+
+	}
+
+	/** returns the number of tiles currently in the cache */
+	public synchronized int size() {
+		return tiles.size();
+	}
+
+	/**
+	 * returns the tile for a file, loading it if necessary.
+	 *
+	 * @return  the tile, or null if the file does not exist
+	 */
+	synchronized SRTMTile getTile(File file) throws IOException {
+
+		File key = file.getAbsoluteFile();
+
+		SRTMTile tile = tiles.get(key);
+
+		if (tile == null && key.exists()) {
+			tile = new SRTMTile(key);
+			tiles.put(key, tile);
+		}
+
+		return tile;
+
+	}
+
+}
@@ -1,17 +1,17 @@
 package org.osm2world.core.map_elevation.creation;
 
-import static java.util.Arrays.asList;
-
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.BitSet;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.osm2world.core.map_elevation.data.EleConnector;
+import org.osm2world.core.math.VectorXZ;
+
+import gnu.trove.impl.Constants;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TObjectIntHashMap;
 
 /**
  * enforcer implementation that ignores many of the constraints,
@@ -20,108 +20,109 @@ import org.osm2world.core.map_elevation.data.EleConnector;
  * It tries to produce an output that is "good enough" for some purposes,
  * and is therefore a compromise between the {@link NoneEleConstraintEnforcer}
  * and a full implementation.
+ *
+ * Connectors which are required to have the same elevation are grouped into
+ * "stiff sets" using a union-find structure. Candidates for joining connectors
+ * are found through an index keyed by position, so adding connectors takes
+ * roughly linear time.
+ *
+ * Connectors which are passed to one of the requireSameEle methods without
+ * having been added using {@link #addConnectors(Iterable)} are registered on demand.
+ * They become part of the stiff set, but are not otherwise modified.
  */
 public final class SimpleEleConstraintEnforcer implements EleConstraintEnforcer {
 
-	private Collection<EleConnector> connectors = new ArrayList<EleConnector>();
+	private List<EleConnector> connectors = new ArrayList<EleConnector>();
+
+	/** the indices of connectors which have been added using {@link #addConnectors(Iterable)} */
+	private BitSet addedConnectors = new BitSet();
+
+	/** the index of each connector in {@link #connectors} */
+	private TObjectIntHashMap<EleConnector> connectorIndexMap = new TObjectIntHashMap<EleConnector>(
+			Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, -1);
+
+	/** all connectors at a given position, used to find connectors that need to be joined */
+	private Map<VectorXZ, List<EleConnector>> connectorsByPos = new HashMap<VectorXZ, List<EleConnector>>();
 
 	/**
-	 * associates each EleConnector with the {@link StiffConnectorSet}
-	 * it is part of (if any)
+	 * union-find parent of each connector (by index).
+	 * Connectors which are the root of their tree point to themselves.
 	 */
-	private Map<EleConnector, StiffConnectorSet> stiffSetMap =
-			new HashMap<EleConnector, StiffConnectorSet>();
+	private TIntArrayList parents = new TIntArrayList();
+
+	/** for each root connector, the number of connectors in its stiff set */
+	private TIntArrayList setSizes = new TIntArrayList();
 
 	@Override
 	public void addConnectors(Iterable<EleConnector> newConnectors) {
 
 		for (EleConnector c : newConnectors) {
-			connectors.add(c);
-		}
 
-		/* connect connectors */
+			int index = register(c);
 
-		for (EleConnector c1 : newConnectors) {
-			for (EleConnector c2 : connectors) {
+			if (addedConnectors.get(index)) continue;
 
-				if (c1 != c2 && c1.connectsTo(c2)) {
-					requireSameEle(c1, c2);
-				}
+			addedConnectors.set(index);
 
-			}
-		}
+			/* connect to previously added connectors at the same position */
 
-	}
+			List<EleConnector> connectorsAtPos = connectorsByPos.computeIfAbsent(
+					positionKey(c.pos), k -> new ArrayList<EleConnector>(2));
 
-	@Override
-	public void requireSameEle(EleConnector c1, EleConnector c2) {
+			for (EleConnector other : connectorsAtPos) {
+				if (c.connectsTo(other)) {
+					union(index, connectorIndexMap.get(other));
+				}
+			}
 
-		//SUGGEST (performance): a special case implementation would be faster
+			connectorsAtPos.add(c);
 
-		requireSameEle(asList(c1, c2));
+		}
 
 	}
 
-	@Override
-	public void requireSameEle(Iterable<EleConnector> cs) {
-
-		/* find stiff sets containing any of the affected connectors */
-
-		Set<EleConnector> looseConnectors = new HashSet<EleConnector>();
-		Set<StiffConnectorSet> existingStiffSets = new HashSet<StiffConnectorSet>();
-
-		for (EleConnector c : cs) {
-
-			StiffConnectorSet stiffSet = stiffSetMap.get(c);
+	/**
+	 * returns the index of a connector, adding it to the union-find structure
+	 * as a set of its own if it is not yet known
+	 */
+	private int register(EleConnector c) {
 
-			if (stiffSet != null) {
-				existingStiffSets.add(stiffSet);
-			} else {
-				looseConnectors.add(c);
-			}
+		int index = connectorIndexMap.get(c);
 
+		if (index < 0) {
+			index = connectors.size();
+			connectors.add(c);
+			connectorIndexMap.put(c, index);
+			parents.add(index);
+			setSizes.add(1);
 		}
 
-		/* return if the connectors are already in a set together */
+		return index;
 
-		if (existingStiffSets.size() == 1 && looseConnectors.isEmpty()) return;
-
-		/* merge existing sets (if any) into a single set */
-
-		StiffConnectorSet commonStiffSet = null;
-
-		if (existingStiffSets.isEmpty()) {
-			commonStiffSet = new StiffConnectorSet();
-		} else {
+	}
 
-			for (StiffConnectorSet stiffSet : existingStiffSets) {
+	@Override
+	public void requireSameEle(EleConnector c1, EleConnector c2) {
+		union(register(c1), register(c2));
+	}
 
-				if (commonStiffSet == null) {
-					commonStiffSet = stiffSet;
-				} else {
+	@Override
+	public void requireSameEle(Iterable<EleConnector> cs) {
 
-					for (EleConnector c : stiffSet) {
-						stiffSetMap.put(c, commonStiffSet);
-					}
+		int first = -1;
 
-					commonStiffSet.mergeFrom(stiffSet);
+		for (EleConnector c : cs) {
 
-				}
+			int index = register(c);
 
+			if (first < 0) {
+				first = index;
+			} else {
+				union(first, index);
 			}
 
 		}
 
-		/* add remaining (loose) connectors into the common set */
-
-		for (EleConnector c : looseConnectors) {
-
-			commonStiffSet.add(c);
-
-			stiffSetMap.put(c, commonStiffSet);
-
-		}
-
 	}
 
 	@Override
@@ -156,18 +157,21 @@ public final class SimpleEleConstraintEnforcer implements EleConstraintEnforcer
 		/* assign elevation to stiff sets by averaging terrain elevation */
 		//TODO what for stiff sets above the ground?
 
-		for (StiffConnectorSet stiffSet : stiffSetMap.values()) {
+		int count = connectors.size();
 
-			double averageEle = 0;
+		double[] eleSums = new double[count];
 
-			for (EleConnector connector : stiffSet) {
-				averageEle += connector.getPosXYZ().y;
-			}
+		for (int i = 0; i < count; i++) {
+			eleSums[find(i)] += connectors.get(i).getPosXYZ().y;
+		}
 
-			averageEle /= stiffSet.size();
+		for (int i = 0; i < count; i++) {
 
-			for (EleConnector connector : stiffSet) {
-				connector.setPosXYZ(connector.pos.xyz(averageEle));
+			int root = find(i);
+
+			if (setSizes.get(root) > 1) {
+				EleConnector connector = connectors.get(i);
+				connector.setPosXYZ(connector.pos.xyz(eleSums[root] / setSizes.get(root)));
 			}
 
 		}
@@ -177,7 +181,9 @@ public final class SimpleEleConstraintEnforcer implements EleConstraintEnforcer
 		 * - then assign ele for ABOVE and BELOW based on min vertical distance constraints, and clearing
 		 */
 
-		for (EleConnector c : connectors) {
+		for (int i = addedConnectors.nextSetBit(0); i >= 0; i = addedConnectors.nextSetBit(i + 1)) {
+
+			EleConnector c = connectors.get(i);
 
 			//TODO use clearing
 
@@ -192,45 +198,54 @@ public final class SimpleEleConstraintEnforcer implements EleConstraintEnforcer
 	}
 
 	/**
-	 * a set of connectors that are required to have the same elevation
-	 * TODO or a precise vertical offset
+	 * returns the root of the stiff set containing the connector with the given index.
+	 * Uses path halving to keep the trees flat.
 	 */
-	private static class StiffConnectorSet implements Iterable<EleConnector> {
-
-		//TODO maybe look for a more efficient set implementation
-		private Set<EleConnector> connectors = new HashSet<EleConnector>();
+	private int find(int index) {
 
-		/**
-		 * adds a connector to this set, requiring it to be at the set's
-		 * reference elevation
-		 */
-		public void add(EleConnector connector) {
-			connectors.add(connector);
+		while (parents.get(index) != index) {
+			int grandParent = parents.get(parents.get(index));
+			parents.set(index, grandParent);
+			index = grandParent;
 		}
 
-		/**
-		 * combines this set with another, and makes the other set unusable.
-		 * This set will contain all {@link EleConnector}s from the other set
-		 * afterwards.
-		 */
-		public void mergeFrom(StiffConnectorSet otherSet) {
+		return index;
 
-			connectors.addAll(otherSet.connectors);
+	}
 
-			// make sure that the other set cannot be used anymore
-			otherSet.connectors = null;
+	/**
+	 * merges the stiff sets containing two connectors,
+	 * attaching the smaller set to the larger one
+	 */
+	private void union(int index1, int index2) {
 
-		}
+		int root1 = find(index1);
+		int root2 = find(index2);
 
-		public double size() {
-			return connectors.size();
-		}
+		if (root1 == root2) return;
 
-		@Override
-		public Iterator<EleConnector> iterator() {
-			return connectors.iterator();
+		if (setSizes.get(root1) < setSizes.get(root2)) {
+			int temp = root1;
+			root1 = root2;
+			root2 = temp;
 		}
 
+		parents.set(root2, root1);
+		setSizes.set(root1, setSizes.get(root1) + setSizes.get(root2));
+
+	}
+
+	/**
+	 * returns the key for {@link #connectorsByPos}.
+	 * Needed because {@link VectorXZ#equals(Object)} treats 0.0 and -0.0 as equal,
+	 * but {@link VectorXZ#hashCode()} does not.
+	 */
+	private static VectorXZ positionKey(VectorXZ pos) {
+		if (pos.x == 0 || pos.z == 0) {
+			return new VectorXZ(pos.x + 0.0, pos.z + 0.0);
+		} else {
+			return pos;
+		}
 	}
 
 }
@@ -0,0 +1,103 @@
+package org.osm2world.core.map_elevation.creation;
+
+import static java.util.Arrays.copyOf;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+
+import org.osm2world.core.math.VectorXYZ;
+
+/**
+ * sites with known elevation, stored as arrays of coordinates.
+ * Avoids creating an object for each site of large raster data such as SRTM.
+ */
+public class SiteCoordinates {
+
+	private double[] xs;
+	private double[] ys;
+	private double[] zs;
+
+	private int size = 0;
+
+	public SiteCoordinates(int initialCapacity) {
+		xs = new double[Math.max(initialCapacity, 16)];
+		ys = new double[xs.length];
+		zs = new double[xs.length];
+	}
+
+	public SiteCoordinates() {
+		this(1024);
+	}
+
+	public static SiteCoordinates of(Collection<VectorXYZ> sites) {
+
+		SiteCoordinates result = new SiteCoordinates(sites.size());
+
+		for (VectorXYZ site : sites) {
+			result.add(site.x, site.y, site.z);
+		}
+
+		return result;
+
+	}
+
+	/**
+	 * @param y  the site's elevation
+	 */
+	public void add(double x, double y, double z) {
+
+		if (size == xs.length) {
+			xs = copyOf(xs, size * 2);
+			ys = copyOf(ys, size * 2);
+			zs = copyOf(zs, size * 2);
+		}
+
+		xs[size] = x;
+		ys[size] = y;
+		zs[size] = z;
+		size ++;
+
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public double getX(int i) {
+		return xs[i];
+	}
+
+	/** returns the elevation of a site */
+	public double getY(int i) {
+		return ys[i];
+	}
+
+	public double getZ(int i) {
+		return zs[i];
+	}
+
+	/**
+	 * returns a read-only view of the sites as vectors.
+	 * A new vector is created each time an element is accessed.
+	 */
+	public List<VectorXYZ> asVectors() {
+		return new AbstractList<VectorXYZ>() {
+
+			@Override
+			public VectorXYZ get(int index) {
+				if (index < 0 || index >= size) {
+					throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+				}
+				return new VectorXYZ(xs[index], ys[index], zs[index]);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+
+		};
+	}
+
+}
@@ -17,4 +17,12 @@ public interface TerrainElevationData {
 
 	Collection<VectorXYZ> getSites(MapData mapData) throws IOException;
 
+	/**
+	 * returns the same sites as {@link #getSites(MapData)}.
+	 * Implementations for large data sets should avoid creating an object for each site.
+	 */
+	default SiteCoordinates getSiteCoordinates(MapData mapData) throws IOException {
+		return SiteCoordinates.of(getSites(mapData));
+	}
+
 }
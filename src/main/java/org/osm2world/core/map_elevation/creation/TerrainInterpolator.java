@@ -12,6 +12,35 @@ public interface TerrainInterpolator {
 
 	void setKnownSites(Collection<VectorXYZ> sites);
 
+	/**
+	 * variant of {@link #setKnownSites(Collection)} for sites stored as coordinate arrays.
+	 * Implementations which do not need a vector for each site should override this.
+	 */
+	default void setKnownSites(SiteCoordinates sites) {
+		setKnownSites(sites.asVectors());
+	}
+
 	VectorXYZ interpolateEle(VectorXZ pos);
 
+	/**
+	 * interpolates the elevations of several positions at once
+	 *
+	 * @param xz    the positions' coordinates, in the order x0, z0, x1, z1, ...
+	 * @param outY  receives the elevation for each position,
+	 *              must have at least half the length of xz
+	 */
+	default void interpolateEle(double[] xz, double[] outY) {
+		for (int i = 0; 2 * i + 1 < xz.length; i++) {
+			outY[i] = interpolateEle(new VectorXZ(xz[2 * i], xz[2 * i + 1])).y;
+		}
+	}
+
+	/**
+	 * returns true if the interpolation methods can be called by several threads at the same time
+	 * once {@link #setKnownSites(Collection)} has finished
+	 */
+	default boolean isThreadSafe() {
+		return false;
+	}
+
 }
@@ -1,5 +1,6 @@
 package org.osm2world.core.map_elevation.creation;
 
+import java.util.Arrays;
 import java.util.Collection;
 
 import org.osm2world.core.math.VectorXYZ;
@@ -15,9 +16,24 @@ public class ZeroInterpolator implements TerrainInterpolator {
 		// do nothing
 	}
 
+	@Override
+	public void setKnownSites(SiteCoordinates sites) {
+		// do nothing
+	}
+
 	@Override
 	public VectorXYZ interpolateEle(VectorXZ pos) {
 		return pos.xyz(0);
 	}
 
+	@Override
+	public void interpolateEle(double[] xz, double[] outY) {
+		Arrays.fill(outY, 0, xz.length / 2, 0);
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 }
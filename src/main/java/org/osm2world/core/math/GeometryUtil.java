@@ -597,8 +597,7 @@ public final class GeometryUtil {
 
 		Random rand = new Random(seed);
 
-		AxisAlignedBoundingBoxXZ outerBox = new AxisAlignedBoundingBoxXZ(
-				polygonWithHolesXZ.getOuter().getVertices());
+		AxisAlignedBoundingBoxXZ outerBox = polygonWithHolesXZ.getAxisAlignedBoundingBoxXZ();
 
 		double boxSize = sqrt(100 / density);
 
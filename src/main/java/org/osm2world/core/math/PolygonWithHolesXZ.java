@@ -36,6 +36,11 @@ public class PolygonWithHolesXZ implements PolygonShapeXZ {
 		return outerPolygon;
 	}
 
+	/** returns the bounding box of the outer polygon. The result is cached. */
+	public AxisAlignedBoundingBoxXZ getAxisAlignedBoundingBoxXZ() {
+		return outerPolygon.getAxisAlignedBoundingBoxXZ();
+	}
+
 	@Override
 	public List<SimplePolygonXZ> getHoles() {
 		return holes;
@@ -91,6 +96,9 @@ public class PolygonWithHolesXZ implements PolygonShapeXZ {
 	//TODO (duplicate code): do something like intersects(geometricObject)
 
 	public boolean intersects(LineSegmentXZ lineSegment) {
+		if (!outerPolygon.getPrepared().mayIntersect(lineSegment.p1, lineSegment.p2)) {
+			return false;
+		}
 		for (SimplePolygonXZ hole : holes) {
 			if (hole.intersects(lineSegment)) {
 				return true;
@@ -100,6 +108,9 @@ public class PolygonWithHolesXZ implements PolygonShapeXZ {
 	}
 
 	public boolean intersects(SimplePolygonXZ other) {
+		if (!outerPolygon.getPrepared().mayIntersect(other.getAxisAlignedBoundingBoxXZ())) {
+			return false;
+		}
 		for (SimplePolygonXZ hole : holes) {
 			if (hole.intersects(other)) {
 				return true;
@@ -110,6 +121,9 @@ public class PolygonWithHolesXZ implements PolygonShapeXZ {
 
 	public List<VectorXZ> intersectionPositions(LineSegmentXZ lineSegment) {
 		List<VectorXZ> intersectionPositions = new ArrayList<VectorXZ>();
+		if (!outerPolygon.getPrepared().mayIntersect(lineSegment.p1, lineSegment.p2)) {
+			return intersectionPositions;
+		}
 		for (SimplePolygonXZ hole : holes) {
 			intersectionPositions.addAll(hole.intersectionPositions(lineSegment));
 		}
@@ -119,6 +133,9 @@ public class PolygonWithHolesXZ implements PolygonShapeXZ {
 
 	public Collection<VectorXZ> intersectionPositions(PolygonWithHolesXZ p2) {
 		List<VectorXZ> intersectionPositions = new ArrayList<VectorXZ>();
+		if (!outerPolygon.getPrepared().mayIntersect(p2.getAxisAlignedBoundingBoxXZ())) {
+			return intersectionPositions;
+		}
 		for (SimplePolygonXZ simplePoly : p2.getPolygons()) {
 			for (LineSegmentXZ lineSegment : simplePoly.getSegments()) {
 				intersectionPositions.addAll(
@@ -0,0 +1,351 @@
+package org.osm2world.core.math;
+
+import static java.lang.Math.*;
+import static org.osm2world.core.math.GeometryUtil.getTrueLineSegmentIntersection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * a polygon outline which has been prepared for repeated containment and intersection tests.
+ *
+ * The bounding box is calculated once and used to reject tests early.
+ * For larger polygons, an index of the outline's edges is built when it is first needed.
+ * It divides the bounding box into horizontal bands, each listing the edges overlapping it,
+ * so that tests only look at the edges near the relevant z coordinates.
+ * Results are the same as those of a linear scan over all edges, in the same order.
+ *
+ * Apart from the lazy initialization, instances are immutable. They can be used by several threads.
+ */
+public final class PreparedPolygonXZ {
+
+	/** polygons with fewer edges are not indexed, as a linear scan is fast enough */
+	static final int MIN_INDEXED_EDGES = 16;
+
+	private static final int EDGES_PER_BAND = 4;
+	private static final int MAX_BANDS = 4096;
+
+	/** index of the edges from each vertex to its successor */
+	private static final class EdgeIndex {
+
+		final double minZ;
+		final double bandsPerUnit;
+		final int[][] bandEdges;
+
+		EdgeIndex(List<VectorXZ> vertexLoop, AxisAlignedBoundingBoxXZ bbox) {
+
+			int edgeCount = vertexLoop.size() - 1;
+			int bandCount = bbox.sizeZ() > 0 ? min(MAX_BANDS, max(1, edgeCount / EDGES_PER_BAND)) : 1;
+
+			this.minZ = bbox.minZ;
+			this.bandsPerUnit = bbox.sizeZ() > 0 ? bandCount / bbox.sizeZ() : 0;
+
+			/* count the edges in each band, then fill the arrays */
+
+			int[] counts = new int[bandCount];
+
+			for (int i = 0; i < edgeCount; i++) {
+				int lastBand = band(edgeMaxZ(vertexLoop, i), bandCount);
+				for (int b = band(edgeMinZ(vertexLoop, i), bandCount); b <= lastBand; b++) {
+					counts[b] ++;
+				}
+			}
+
+			bandEdges = new int[bandCount][];
+
+			for (int b = 0; b < bandCount; b++) {
+				bandEdges[b] = new int[counts[b]];
+				counts[b] = 0;
+			}
+
+			for (int i = 0; i < edgeCount; i++) {
+				int lastBand = band(edgeMaxZ(vertexLoop, i), bandCount);
+				for (int b = band(edgeMinZ(vertexLoop, i), bandCount); b <= lastBand; b++) {
+					bandEdges[b][counts[b]++] = i;
+				}
+			}
+
+		}
+
+		int band(double z) {
+			return band(z, bandEdges.length);
+		}
+
+		private int band(double z, int bandCount) {
+			int band = (int) ((z - minZ) * bandsPerUnit);
+			return max(0, min(bandCount - 1, band));
+		}
+
+	}
+
+	private final List<VectorXZ> vertexLoop;
+	private final AxisAlignedBoundingBoxXZ bbox;
+
+	/** lazily created, null until first needed and for small polygons */
+	private volatile EdgeIndex edgeIndex;
+
+	/** lazily created set of the polygon's vertices */
+	private volatile Set<VectorXZ> vertexSet;
+
+	/**
+	 * @param vertexLoop  vertices of the polygon; first and last vertex must be equal.
+	 *                    Must not be modified afterwards.
+	 */
+	public PreparedPolygonXZ(List<VectorXZ> vertexLoop) {
+		this.vertexLoop = vertexLoop;
+		this.bbox = new AxisAlignedBoundingBoxXZ(vertexLoop);
+	}
+
+	public AxisAlignedBoundingBoxXZ getBoundingBox() {
+		return bbox;
+	}
+
+	/**
+	 * returns false if the line segment is certainly neither intersecting nor contained in the polygon,
+	 * based on the bounding boxes. Touching bounding boxes count as overlapping.
+	 */
+	public boolean mayIntersect(VectorXZ p1, VectorXZ p2) {
+		return max(p1.x, p2.x) >= bbox.minX && min(p1.x, p2.x) <= bbox.maxX
+				&& max(p1.z, p2.z) >= bbox.minZ && min(p1.z, p2.z) <= bbox.maxZ;
+	}
+
+	/** @see #mayIntersect(VectorXZ, VectorXZ) */
+	public boolean mayIntersect(AxisAlignedBoundingBoxXZ box) {
+		return box.maxX >= bbox.minX && box.minX <= bbox.maxX
+				&& box.maxZ >= bbox.minZ && box.minZ <= bbox.maxZ;
+	}
+
+	/** returns true if the position is one of the polygon's vertices */
+	public boolean isVertex(VectorXZ v) {
+
+		Set<VectorXZ> result = vertexSet;
+
+		if (result == null) {
+			result = new HashSet<>(vertexLoop);
+			vertexSet = result;
+		}
+
+		return result.contains(v);
+
+	}
+
+	/**
+	 * returns true if the polygon contains a given position.
+	 * Equivalent to {@link SimplePolygonXZ#contains(List, VectorXZ)}.
+	 */
+	public boolean contains(VectorXZ test) {
+
+		if (test.x < bbox.minX || test.x > bbox.maxX
+				|| test.z < bbox.minZ || test.z > bbox.maxZ) {
+			return false;
+		}
+
+		EdgeIndex index = getEdgeIndex();
+
+		boolean c = false;
+
+		if (index == null) {
+			for (int edge = 0; edge + 1 < vertexLoop.size(); edge++) {
+				if (crossesRay(edge, test)) c = !c;
+			}
+		} else {
+			for (int edge : index.bandEdges[index.band(test.z)]) {
+				if (crossesRay(edge, test)) c = !c;
+			}
+		}
+
+		return c;
+
+	}
+
+	/**
+	 * checks if the polygon's outline intersects the line segment between the two points.
+	 * Shared end points do not count as intersections.
+	 */
+	public boolean intersects(VectorXZ p1, VectorXZ p2) {
+
+		if (!mayIntersect(p1, p2)) return false;
+
+		for (int edge : candidateEdges(p1, p2)) {
+			if (getTrueLineSegmentIntersection(p1, p2,
+					vertexLoop.get(edge), vertexLoop.get(edge + 1)) != null) {
+				return true;
+			}
+		}
+
+		return false;
+
+	}
+
+	/**
+	 * checks if the polygon's outline intersects any segment of another outline.
+	 *
+	 * @param vertexList  vertices of the other outline, each pair of successive vertices forms a segment
+	 */
+	public boolean intersectsOutline(List<VectorXZ> vertexList) {
+
+		for (int i = 0; i + 1 < vertexList.size(); i++) {
+			if (intersects(vertexList.get(i), vertexList.get(i + 1))) {
+				return true;
+			}
+		}
+
+		return false;
+
+	}
+
+	/**
+	 * returns the positions where the polygon's outline intersects the line segment,
+	 * ordered by the polygon's edges. Shared end points do not count as intersections.
+	 */
+	public List<VectorXZ> intersectionPositions(VectorXZ p1, VectorXZ p2) {
+
+		List<VectorXZ> result = new ArrayList<>();
+
+		if (!mayIntersect(p1, p2)) return result;
+
+		for (int edge : candidateEdges(p1, p2)) {
+
+			VectorXZ intersection = getTrueLineSegmentIntersection(p1, p2,
+					vertexLoop.get(edge), vertexLoop.get(edge + 1));
+
+			if (intersection != null) {
+				result.add(intersection);
+			}
+
+		}
+
+		return result;
+
+	}
+
+	/**
+	 * returns the polygon's edges which intersect the line segment,
+	 * in the polygon's order. Shared end points do not count as intersections.
+	 */
+	public List<LineSegmentXZ> intersectionSegments(VectorXZ p1, VectorXZ p2) {
+
+		List<LineSegmentXZ> result = new ArrayList<>();
+
+		if (!mayIntersect(p1, p2)) return result;
+
+		for (int edge : candidateEdges(p1, p2)) {
+
+			VectorXZ v1 = vertexLoop.get(edge);
+			VectorXZ v2 = vertexLoop.get(edge + 1);
+
+			if (getTrueLineSegmentIntersection(p1, p2, v1, v2) != null) {
+				result.add(new LineSegmentXZ(v1, v2));
+			}
+
+		}
+
+		return result;
+
+	}
+
+	/**
+	 * returns the edges whose bounding boxes overlap that of the line segment, in ascending order
+	 */
+	private int[] candidateEdges(VectorXZ p1, VectorXZ p2) {
+
+		double segMinX = min(p1.x, p2.x);
+		double segMaxX = max(p1.x, p2.x);
+		double segMinZ = min(p1.z, p2.z);
+		double segMaxZ = max(p1.z, p2.z);
+
+		EdgeIndex index = getEdgeIndex();
+
+		int[] result;
+		int count = 0;
+
+		if (index == null) {
+
+			result = new int[vertexLoop.size() - 1];
+
+			for (int edge = 0; edge + 1 < vertexLoop.size(); edge++) {
+				if (edgeOverlaps(edge, segMinX, segMinZ, segMaxX, segMaxZ)) {
+					result[count++] = edge;
+				}
+			}
+
+		} else {
+
+			int firstBand = index.band(segMinZ);
+			int lastBand = index.band(segMaxZ);
+
+			int maxCount = 0;
+			for (int b = firstBand; b <= lastBand; b++) {
+				maxCount += index.bandEdges[b].length;
+			}
+
+			result = new int[maxCount];
+
+			for (int b = firstBand; b <= lastBand; b++) {
+				for (int edge : index.bandEdges[b]) {
+					// edges spanning several bands are only reported in the band of the overlap's lower end
+					if (b == firstBand || index.band(edgeMinZ(vertexLoop, edge)) == b) {
+						if (edgeOverlaps(edge, segMinX, segMinZ, segMaxX, segMaxZ)) {
+							result[count++] = edge;
+						}
+					}
+				}
+			}
+
+			Arrays.sort(result, 0, count);
+
+		}
+
+		return Arrays.copyOf(result, count);
+
+	}
+
+	private EdgeIndex getEdgeIndex() {
+
+		EdgeIndex result = edgeIndex;
+
+		if (result == null && vertexLoop.size() - 1 >= MIN_INDEXED_EDGES) {
+			result = new EdgeIndex(vertexLoop, bbox);
+			edgeIndex = result;
+		}
+
+		return result;
+
+	}
+
+	/**
+	 * returns true if a ray from the test position in positive x direction crosses an edge.
+	 * Same calculation as {@link SimplePolygonXZ#contains(List, VectorXZ)}.
+	 */
+	private boolean crossesRay(int edge, VectorXZ test) {
+
+		VectorXZ vj = vertexLoop.get(edge);
+		VectorXZ vi = vertexLoop.get(edge + 1);
+
+		return ((vi.z > test.z) != (vj.z > test.z))
+				&& (test.x < (vj.x - vi.x) * (test.z - vi.z) / (vj.z - vi.z) + vi.x);
+
+	}
+
+	private boolean edgeOverlaps(int edge, double minX, double minZ, double maxX, double maxZ) {
+
+		VectorXZ v1 = vertexLoop.get(edge);
+		VectorXZ v2 = vertexLoop.get(edge + 1);
+
+		return max(v1.x, v2.x) >= minX && min(v1.x, v2.x) <= maxX
+				&& max(v1.z, v2.z) >= minZ && min(v1.z, v2.z) <= maxZ;
+
+	}
+
+	private static double edgeMinZ(List<VectorXZ> vertexLoop, int edge) {
+		return min(vertexLoop.get(edge).z, vertexLoop.get(edge + 1).z);
+	}
+
+	private static double edgeMaxZ(List<VectorXZ> vertexLoop, int edge) {
+		return max(vertexLoop.get(edge).z, vertexLoop.get(edge + 1).z);
+	}
+
+}
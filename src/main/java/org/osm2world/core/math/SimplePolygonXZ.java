@@ -10,6 +10,7 @@ import java.util.Collections;
 import java.util.List;
 
 import org.osm2world.core.math.algorithms.TriangulationUtil;
+import org.osm2world.core.math.shapes.PolygonShapeXZ;
 import org.osm2world.core.math.shapes.SimplePolygonShapeXZ;
 
 /**
@@ -26,6 +27,9 @@ public class SimplePolygonXZ extends PolygonXZ implements SimplePolygonShapeXZ {
 	/** stores the result for {@link #isClockwise()} */
 	private Boolean clockwise;
 
+	/** stores the result for {@link #getPrepared()} */
+	private volatile PreparedPolygonXZ prepared;
+
 	/**
 	 * @param vertexLoop  vertices defining the polygon;
 	 *                    first and last vertex must be equal
@@ -49,6 +53,28 @@ public class SimplePolygonXZ extends PolygonXZ implements SimplePolygonShapeXZ {
 		assertNonzeroArea();
 	}
 
+	/**
+	 * returns this polygon prepared for repeated containment and intersection tests.
+	 * Created when first needed.
+	 */
+	public PreparedPolygonXZ getPrepared() {
+
+		PreparedPolygonXZ result = prepared;
+
+		if (result == null) {
+			result = new PreparedPolygonXZ(vertexLoop);
+			prepared = result;
+		}
+
+		return result;
+
+	}
+
+	/** returns the polygon's bounding box. The result is cached. */
+	public AxisAlignedBoundingBoxXZ getAxisAlignedBoundingBoxXZ() {
+		return getPrepared().getBoundingBox();
+	}
+
 	/** returns the polygon's area */
 	public double getArea() {
 		if (area == null) {
@@ -198,19 +224,66 @@ public class SimplePolygonXZ extends PolygonXZ implements SimplePolygonShapeXZ {
 
 	}
 
+	@Override
+	public boolean contains(VectorXZ v) {
+		return getPrepared().contains(v);
+	}
+
 	/**
 	 * returns true if this polygon contains the parameter polygon
 	 */
 	public boolean contains(PolygonXZ p) {
 		//FIXME: it is possible that a polygon contains all vertices of another polygon, but still not the entire polygon
+		PreparedPolygonXZ preparedPolygon = getPrepared();
 		for (VectorXZ v : p.getVertices()) {
-			if (!vertexLoop.contains(v) && !this.contains(v)) {
+			if (!preparedPolygon.isVertex(v) && !preparedPolygon.contains(v)) {
 				return false;
 			}
 		}
 		return true;
 	}
 
+	@Override
+	public boolean intersects(VectorXZ segmentP1, VectorXZ segmentP2) {
+		return getPrepared().intersects(segmentP1, segmentP2);
+	}
+
+	/**
+	 * returns true if there is an intersection between this polygon's and the parameter polygon's outlines.
+	 * If both are {@link SimplePolygonXZ}s, the edges of the polygon with fewer vertices
+	 * are tested against the other one.
+	 */
+	@Override
+	public boolean intersects(PolygonShapeXZ other) {
+
+		if (other instanceof SimplePolygonXZ) {
+
+			SimplePolygonXZ otherPolygon = (SimplePolygonXZ) other;
+
+			if (!getPrepared().mayIntersect(otherPolygon.getAxisAlignedBoundingBoxXZ())) {
+				return false;
+			} else if (otherPolygon.size() > size()) {
+				return otherPolygon.getPrepared().intersectsOutline(vertexLoop);
+			} else {
+				return getPrepared().intersectsOutline(otherPolygon.vertexLoop);
+			}
+
+		} else {
+			return SimplePolygonShapeXZ.super.intersects(other);
+		}
+
+	}
+
+	@Override
+	public Collection<LineSegmentXZ> intersectionSegments(LineSegmentXZ lineSegment) {
+		return getPrepared().intersectionSegments(lineSegment.p1, lineSegment.p2);
+	}
+
+	@Override
+	public List<VectorXZ> intersectionPositions(LineSegmentXZ lineSegment) {
+		return getPrepared().intersectionPositions(lineSegment.p1, lineSegment.p2);
+	}
+
 	/**
 	 * returns the distance of a point to the segments this polygon.
 	 * Note that the distance can be > 0 even if the polygon contains the point
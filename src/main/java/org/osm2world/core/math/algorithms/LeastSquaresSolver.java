@@ -0,0 +1,145 @@
+package org.osm2world.core.math.algorithms;
+
+import static java.lang.Math.sqrt;
+
+/**
+ * solves small overdetermined linear systems A * x = b in the least squares sense,
+ * using a Householder QR decomposition of A.
+ *
+ * The matrix and right hand side are stored in arrays which are reused for each system,
+ * so solving many systems of the same size does not allocate any objects.
+ * Instances are not thread-safe.
+ */
+public final class LeastSquaresSolver {
+
+	private final int rows;
+	private final int columns;
+
+	/** the matrix A in row-major order, replaced with its decomposition by {@link #solve(double[])} */
+	private final double[] a;
+
+	/** the right hand side b, replaced with Q^T * b by {@link #solve(double[])} */
+	private final double[] b;
+
+	private final double[] rDiagonal;
+
+	public LeastSquaresSolver(int rows, int columns) {
+
+		if (rows < columns) {
+			throw new IllegalArgumentException("system is underdetermined");
+		}
+
+		this.rows = rows;
+		this.columns = columns;
+
+		a = new double[rows * columns];
+		b = new double[rows];
+		rDiagonal = new double[columns];
+
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public int getColumns() {
+		return columns;
+	}
+
+	/** sets an entry of the matrix A */
+	public void setEntry(int row, int column, double value) {
+		a[row * columns + column] = value;
+	}
+
+	/** sets an entry of the right hand side b */
+	public void setRightHandSide(int row, double value) {
+		b[row] = value;
+	}
+
+	/**
+	 * solves the system defined by the current entries.
+	 * The entries need to be set again before the next call.
+	 *
+	 * @param result  receives the solution x, needs a length of at least the number of columns
+	 * @return  false if the matrix does not have full rank, and there is no unique solution
+	 */
+	public boolean solve(double[] result) {
+
+		/* decompose the matrix, and apply each reflection to the right hand side */
+
+		for (int k = 0; k < columns; k++) {
+
+			double norm = 0;
+
+			for (int i = k; i < rows; i++) {
+				double v = a[i * columns + k];
+				norm += v * v;
+			}
+
+			norm = sqrt(norm);
+
+			if (norm == 0) {
+				return false;
+			}
+
+			if (a[k * columns + k] < 0) {
+				norm = -norm;
+			}
+
+			for (int i = k; i < rows; i++) {
+				a[i * columns + k] /= norm;
+			}
+
+			double akk = a[k * columns + k] += 1;
+
+			for (int j = k + 1; j < columns; j++) {
+
+				double s = 0;
+
+				for (int i = k; i < rows; i++) {
+					s += a[i * columns + k] * a[i * columns + j];
+				}
+
+				s = -s / akk;
+
+				for (int i = k; i < rows; i++) {
+					a[i * columns + j] += s * a[i * columns + k];
+				}
+
+			}
+
+			double s = 0;
+
+			for (int i = k; i < rows; i++) {
+				s += a[i * columns + k] * b[i];
+			}
+
+			s = -s / akk;
+
+			for (int i = k; i < rows; i++) {
+				b[i] += s * a[i * columns + k];
+			}
+
+			rDiagonal[k] = -norm;
+
+		}
+
+		/* solve R * x = Q^T * b by back substitution */
+
+		for (int k = columns - 1; k >= 0; k--) {
+
+			double x = b[k];
+
+			for (int j = k + 1; j < columns; j++) {
+				x -= a[k * columns + j] * result[j];
+			}
+
+			result[k] = x / rDiagonal[k];
+
+		}
+
+		return true;
+
+	}
+
+}
@@ -0,0 +1,214 @@
+package org.osm2world.core.math.datastructures;
+
+import static java.lang.Math.*;
+
+/**
+ * a static 2d tree of points in the XZ plane, used for k-nearest-neighbor queries.
+ *
+ * The tree is balanced and stored implicitly in packed coordinate arrays:
+ * the node of a range of the arrays is the element in the range's middle,
+ * the elements before it form the left subtree and the elements after it the right one.
+ * Each node splits along the axis where its range has the larger extent.
+ *
+ * Points are identified by their index in the arrays passed to the constructor.
+ * Queries do not allocate any objects and can be run by several threads at the same time.
+ */
+public final class KDTreeXZ {
+
+	/** coordinates in tree order */
+	private final double[] xs;
+	private final double[] zs;
+
+	/** original index of the point at each position in tree order */
+	private final int[] indices;
+
+	/** split axis of the node at each position: true for x, false for z */
+	private final boolean[] splitX;
+
+	/**
+	 * builds a tree for points given as coordinate arrays.
+	 * The arrays are not modified, and not referenced by the tree afterwards.
+	 */
+	public KDTreeXZ(double[] xs, double[] zs) {
+
+		if (xs.length != zs.length) {
+			throw new IllegalArgumentException("coordinate arrays have different lengths");
+		}
+
+		int size = xs.length;
+
+		indices = new int[size];
+		for (int i = 0; i < size; i++) {
+			indices[i] = i;
+		}
+
+		splitX = new boolean[size];
+
+		build(xs, zs, 0, size);
+
+		this.xs = new double[size];
+		this.zs = new double[size];
+
+		for (int i = 0; i < size; i++) {
+			this.xs[i] = xs[indices[i]];
+			this.zs[i] = zs[indices[i]];
+		}
+
+	}
+
+	/** returns the number of points in the tree */
+	public int size() {
+		return indices.length;
+	}
+
+	/**
+	 * finds the k points closest to a position.
+	 *
+	 * @param outIndices      receives the indices of the nearest points, ordered by ascending distance.
+	 *                        Needs a length of at least k.
+	 * @param outDistancesSq  receives the squared distances of these points. Needs a length of at least k.
+	 * @return  the number of points found, which is k unless the tree contains fewer points
+	 */
+	public int findNearest(double x, double z, int k,
+			int[] outIndices, double[] outDistancesSq) {
+
+		if (k <= 0) return 0;
+
+		return search(0, indices.length, x, z, k, 0, outIndices, outDistancesSq);
+
+	}
+
+	private int search(int lo, int hi, double x, double z, int k, int count,
+			int[] outIndices, double[] outDistancesSq) {
+
+		if (lo >= hi) return count;
+
+		int mid = (lo + hi) >>> 1;
+
+		double dx = x - xs[mid];
+		double dz = z - zs[mid];
+		double distanceSq = dx * dx + dz * dz;
+
+		if (count < k || distanceSq < outDistancesSq[k - 1]) {
+			count = insertResult(indices[mid], distanceSq, k, count, outIndices, outDistancesSq);
+		}
+
+		double diff = splitX[mid] ? dx : dz;
+
+		/* visit the side containing the position first, then the other side if it can still contain results */
+
+		if (diff < 0) {
+			count = search(lo, mid, x, z, k, count, outIndices, outDistancesSq);
+			if (count < k || diff * diff < outDistancesSq[k - 1]) {
+				count = search(mid + 1, hi, x, z, k, count, outIndices, outDistancesSq);
+			}
+		} else {
+			count = search(mid + 1, hi, x, z, k, count, outIndices, outDistancesSq);
+			if (count < k || diff * diff < outDistancesSq[k - 1]) {
+				count = search(lo, mid, x, z, k, count, outIndices, outDistancesSq);
+			}
+		}
+
+		return count;
+
+	}
+
+	/**
+	 * inserts a point into the sorted results, replacing the most distant one if k results exist
+	 *
+	 * @return  the new number of results
+	 */
+	private static int insertResult(int index, double distanceSq, int k, int count,
+			int[] outIndices, double[] outDistancesSq) {
+
+		int i;
+
+		if (count < k) {
+			i = count;
+			count ++;
+		} else {
+			i = k - 1;
+		}
+
+		while (i > 0 && outDistancesSq[i - 1] > distanceSq) {
+			outIndices[i] = outIndices[i - 1];
+			outDistancesSq[i] = outDistancesSq[i - 1];
+			i --;
+		}
+
+		outIndices[i] = index;
+		outDistancesSq[i] = distanceSq;
+
+		return count;
+
+	}
+
+	/**
+	 * arranges the index range so that it forms a subtree
+	 */
+	private void build(double[] xs, double[] zs, int lo, int hi) {
+
+		while (hi - lo > 1) {
+
+			double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+			double minZ = Double.POSITIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+
+			for (int i = lo; i < hi; i++) {
+				minX = min(minX, xs[indices[i]]);
+				maxX = max(maxX, xs[indices[i]]);
+				minZ = min(minZ, zs[indices[i]]);
+				maxZ = max(maxZ, zs[indices[i]]);
+			}
+
+			int mid = (lo + hi) >>> 1;
+			boolean x = maxX - minX >= maxZ - minZ;
+
+			select(x ? xs : zs, lo, hi - 1, mid);
+			splitX[mid] = x;
+
+			build(xs, zs, lo, mid);
+
+			lo = mid + 1;
+
+		}
+
+	}
+
+	/**
+	 * partially sorts the indices in the range from first to last (inclusive) by a coordinate
+	 * so that the k-th position holds the correct element,
+	 * with elements that are not larger before it and elements that are not smaller after it.
+	 * Uses Wirth's selection algorithm, which copes well with the many equal coordinates of grid data.
+	 */
+	private void select(double[] coords, int first, int last, int k) {
+
+		while (first < last) {
+
+			double pivot = coords[indices[k]];
+
+			int i = first;
+			int j = last;
+
+			do {
+
+				while (coords[indices[i]] < pivot) i++;
+				while (pivot < coords[indices[j]]) j--;
+
+				if (i <= j) {
+					int temp = indices[i];
+					indices[i] = indices[j];
+					indices[j] = temp;
+					i++;
+					j--;
+				}
+
+			} while (i <= j);
+
+			if (j < k) first = i;
+			if (k < i) last = j;
+
+		}
+
+	}
+
+}
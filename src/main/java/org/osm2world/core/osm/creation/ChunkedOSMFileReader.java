@@ -0,0 +1,766 @@
+package org.osm2world.core.osm.creation;
+
+import static java.lang.Math.*;
+import static java.util.Collections.singletonList;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.osm2world.core.map_data.creation.LatLon;
+import org.osm2world.core.osm.data.OSMData;
+
+import de.topobyte.osm4j.core.access.OsmIterator;
+import de.topobyte.osm4j.core.model.iface.EntityContainer;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmBounds;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmRelationMember;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.model.impl.Bounds;
+import de.topobyte.osm4j.core.model.impl.Node;
+import de.topobyte.osm4j.pbf.seq.PbfIterator;
+import de.topobyte.osm4j.xml.dynsax.OsmXmlIterator;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.set.hash.TLongHashSet;
+
+/**
+ * reads an OSM file in spatial chunks, so that files which are too large
+ * to be held in memory at once can still be converted.
+ *
+ * The file is read once when the reader is created, building temporary indices on disk:
+ * the coordinates of all nodes, which are accessed through memory mapping,
+ * and the bounding box of each way. Only a compact form of the relations is kept in memory.
+ * After that, {@link #readChunks(int, ChunkHandler)} reads the file again for groups of chunks.
+ *
+ * The chunks form a grid of cells with a fixed size in degrees, covering the data's extent.
+ * Only cells which can contain the center of a feature are used: cells with nodes, and cells
+ * intersecting the bounding box of a way or relation. Empty cells are skipped entirely,
+ * unless they are within the margin of a coastline, which can create areas in otherwise empty cells.
+ * A chunk's data contains everything within the chunk's bounds extended by a margin,
+ * so that features close to the chunk's border can be modelled with their surroundings.
+ * Ways touching that area are always complete, nodes outside of it are added without tags.
+ * Relations are included if any of their node or way members touch that area, along with
+ * their way members. Relation members of relations are not taken into account.
+ * The {@link OSMData} of a chunk has the chunk's own bounds without the margin.
+ *
+ * The nodes in the file need to be sorted by id, and need to precede the ways,
+ * which in turn precede the relations. This is the case for most extracts,
+ * and can be achieved with tools such as osmium sort.
+ */
+public class ChunkedOSMFileReader implements Closeable {
+
+	/** a cell of the chunk grid */
+	public static final class Chunk {
+
+		/** position of the chunk in the grid */
+		public final int row, column;
+
+		private final double minLat, minLon, maxLat, maxLon;
+		private final double margin;
+
+		private Chunk(int row, int column, double chunkSize, double margin) {
+			this.row = row;
+			this.column = column;
+			this.minLat = row * chunkSize;
+			this.minLon = column * chunkSize;
+			this.maxLat = (row + 1) * chunkSize;
+			this.maxLon = (column + 1) * chunkSize;
+			this.margin = margin;
+		}
+
+		/** returns the chunk's bounds, without the margin */
+		public OsmBounds getBounds() {
+			return new Bounds(minLon, maxLon, maxLat, minLat);
+		}
+
+		/** checks whether a position is within the bounds extended by the margin */
+		public boolean extendedBoundsContain(double lat, double lon) {
+			return lat >= minLat - margin && lat <= maxLat + margin
+					&& lon >= minLon - margin && lon <= maxLon + margin;
+		}
+
+		/** checks whether a bounding box intersects the bounds extended by the margin */
+		public boolean extendedBoundsIntersect(double minLat, double minLon, double maxLat, double maxLon) {
+			return minLat <= this.maxLat + margin && maxLat >= this.minLat - margin
+					&& minLon <= this.maxLon + margin && maxLon >= this.minLon - margin;
+		}
+
+		@Override
+		public String toString() {
+			return "chunk (" + row + ", " + column + ")";
+		}
+
+	}
+
+	/** receives the data of each chunk */
+	public static interface ChunkHandler {
+
+		public void handleChunk(Chunk chunk, OSMData data) throws IOException;
+
+	}
+
+	/** factor for storing coordinates as fixed-point ints */
+	private static final double COORD_FACTOR = 1e7;
+
+	private final File file;
+	private final double chunkSize;
+	private final double margin;
+
+	/** index with the coordinates of each node, see {@link NodeLocationStore} */
+	private final File nodeFile;
+
+	/** index with a record of id, minLat, minLon, maxLat and maxLon for each way, in the file's order */
+	private final File wayFile;
+
+	private NodeLocationStore nodeStore = null;
+	private long wayCount = 0;
+
+	private final List<RelationInfo> relations = new ArrayList<RelationInfo>();
+
+	/** the cells which are used as chunks, see {@link #cellKey(int, int)} */
+	private final TLongHashSet occupiedCells = new TLongHashSet();
+
+	private OsmBounds fileBounds = null;
+
+	private double minLat = Double.POSITIVE_INFINITY, minLon = Double.POSITIVE_INFINITY;
+	private double maxLat = Double.NEGATIVE_INFINITY, maxLon = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * reads the file for the first time to build the indices
+	 *
+	 * @param chunkSize  width and height of each chunk in degrees
+	 * @param margin     width of the margin around each chunk in degrees
+	 */
+	public ChunkedOSMFileReader(File file, double chunkSize, double margin) throws IOException {
+
+		if (chunkSize <= 0 || margin < 0) {
+			throw new IllegalArgumentException("invalid chunk size or margin");
+		}
+
+		this.file = file;
+		this.chunkSize = chunkSize;
+		this.margin = margin;
+
+		nodeFile = File.createTempFile("osm2world-nodes", ".bin");
+		wayFile = File.createTempFile("osm2world-ways", ".bin");
+
+		try {
+			readIndices();
+		} catch (IOException | RuntimeException e) {
+			close();
+			throw e;
+		}
+
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * returns a suitable origin for a map projection shared by all chunks.
+	 * This is the center of the file's bounds, or of the nodes' extent if the file has no bounds.
+	 */
+	public LatLon getOrigin() {
+		if (fileBounds != null) {
+			return new LatLon((fileBounds.getTop() + fileBounds.getBottom()) / 2,
+					(fileBounds.getLeft() + fileBounds.getRight()) / 2);
+		} else if (minLat <= maxLat) {
+			return new LatLon((minLat + maxLat) / 2, (minLon + maxLon) / 2);
+		} else {
+			return new LatLon(0, 0);
+		}
+	}
+
+	/**
+	 * returns the chunks covering the data, ordered by row and column.
+	 * Cells of the grid which do not contain any data are omitted.
+	 */
+	public List<Chunk> getChunks() {
+
+		List<Chunk> chunks = new ArrayList<Chunk>();
+
+		if (minLat <= maxLat) {
+			for (int row = cellIndex(minLat); row <= cellIndex(maxLat); row++) {
+				for (int column = cellIndex(minLon); column <= cellIndex(maxLon); column++) {
+					if (occupiedCells.contains(cellKey(row, column))) {
+						chunks.add(new Chunk(row, column, chunkSize, margin));
+					}
+				}
+			}
+		}
+
+		return chunks;
+
+	}
+
+	/**
+	 * checks whether a position belongs to a chunk. Each position belongs to exactly one chunk,
+	 * even if it is located on the border between two chunks.
+	 */
+	public boolean isInChunk(Chunk chunk, double lat, double lon) {
+		return cellIndex(lat) == chunk.row && cellIndex(lon) == chunk.column;
+	}
+
+	private int cellIndex(double degrees) {
+		return (int) floor(degrees / chunkSize);
+	}
+
+	private static long cellKey(int row, int column) {
+		return ((long) row << 32) | (column & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * marks all cells intersecting a bounding box as occupied.
+	 * The bounding box is limited to the data's extent.
+	 *
+	 * @param extension  distance in degrees by which the bounding box is extended
+	 */
+	private void markOccupiedCells(int[] bbox, double extension) {
+
+		if (bbox[0] > bbox[2]) return;
+
+		int minRow = cellIndex(max(minLat, fromFixed(bbox[0]) - extension));
+		int minColumn = cellIndex(max(minLon, fromFixed(bbox[1]) - extension));
+		int maxRow = cellIndex(min(maxLat, fromFixed(bbox[2]) + extension));
+		int maxColumn = cellIndex(min(maxLon, fromFixed(bbox[3]) + extension));
+
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				occupiedCells.add(cellKey(row, column));
+			}
+		}
+
+	}
+
+	/**
+	 * reads the data for all chunks and passes it to a handler, one chunk at a time.
+	 * The data of a chunk can be garbage collected once the handler returns.
+	 *
+	 * @param chunksPerPass  number of chunks collected during each pass through the file.
+	 *                       Higher values mean fewer passes, but more memory use.
+	 */
+	public void readChunks(int chunksPerPass, ChunkHandler handler) throws IOException {
+
+		List<Chunk> chunks = getChunks();
+
+		for (int i = 0; i < chunks.size(); i += chunksPerPass) {
+			readChunks(chunks.subList(i, min(chunks.size(), i + chunksPerPass)), handler);
+		}
+
+	}
+
+	/**
+	 * deletes the temporary files
+	 */
+	@Override
+	public void close() throws IOException {
+
+		if (nodeStore != null) {
+			nodeStore.close();
+			nodeStore = null;
+		}
+
+		nodeFile.delete();
+		wayFile.delete();
+
+	}
+
+	private OsmIterator createIterator(InputStream input) {
+		if (file.getName().endsWith(".pbf")) {
+			return new PbfIterator(input, true);
+		} else {
+			return new OsmXmlIterator(input, true);
+		}
+	}
+
+	/**
+	 * first pass through the file.
+	 * Writes the node and way indices, and collects the relations.
+	 */
+	private void readIndices() throws IOException {
+
+		long nodeCount = 0;
+		long lastNodeId = Long.MIN_VALUE;
+
+		DataOutputStream nodeOutput = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(nodeFile)));
+
+		try (InputStream input = new BufferedInputStream(new FileInputStream(file));
+				DataOutputStream wayOutput = new DataOutputStream(
+						new BufferedOutputStream(new FileOutputStream(wayFile)))) {
+
+			OsmIterator iterator = createIterator(input);
+
+			if (iterator.hasBounds()) {
+				fileBounds = iterator.getBounds();
+			}
+
+			for (EntityContainer container : iterator) {
+
+				if (container.getType() == EntityType.Node) {
+
+					if (nodeStore != null) {
+						throw new IOException("nodes need to precede ways and relations in " + file);
+					}
+
+					OsmNode node = (OsmNode) container.getEntity();
+
+					if (node.getId() <= lastNodeId) {
+						throw new IOException("nodes need to be sorted by id in " + file);
+					}
+
+					nodeOutput.writeLong(node.getId());
+					nodeOutput.writeInt(toFixed(node.getLatitude()));
+					nodeOutput.writeInt(toFixed(node.getLongitude()));
+
+					lastNodeId = node.getId();
+					nodeCount ++;
+
+					minLat = min(minLat, node.getLatitude());
+					minLon = min(minLon, node.getLongitude());
+					maxLat = max(maxLat, node.getLatitude());
+					maxLon = max(maxLon, node.getLongitude());
+
+					occupiedCells.add(cellKey(cellIndex(node.getLatitude()), cellIndex(node.getLongitude())));
+
+				} else {
+
+					if (nodeStore == null) {
+						nodeOutput.close();
+						nodeStore = new NodeLocationStore(nodeFile, nodeCount);
+					}
+
+					if (container.getType() == EntityType.Way) {
+
+						if (!relations.isEmpty()) {
+							throw new IOException("ways need to precede relations in " + file);
+						}
+
+						OsmWay way = (OsmWay) container.getEntity();
+
+						int[] bbox = emptyBbox();
+
+						for (int i = 0; i < way.getNumberOfNodes(); i++) {
+							long index = nodeStore.find(way.getNodeId(i));
+							if (index >= 0) {
+								addToBbox(bbox, nodeStore.getLat(index), nodeStore.getLon(index));
+							}
+						}
+
+						wayOutput.writeLong(way.getId());
+						for (int value : bbox) {
+							wayOutput.writeInt(value);
+						}
+
+						markOccupiedCells(bbox, isCoastline(way) ? margin : 0);
+
+						wayCount ++;
+
+					} else if (container.getType() == EntityType.Relation) {
+
+						OsmRelation relation = (OsmRelation) container.getEntity();
+
+						RelationInfo relationInfo = new RelationInfo(relation.getId());
+
+						TLongHashSet wayIds = new TLongHashSet();
+
+						for (int i = 0; i < relation.getNumberOfMembers(); i++) {
+
+							OsmRelationMember member = relation.getMember(i);
+
+							if (member.getType() == EntityType.Node) {
+								long index = nodeStore.find(member.getId());
+								if (index >= 0) {
+									addToBbox(relationInfo.bbox, nodeStore.getLat(index), nodeStore.getLon(index));
+								}
+							} else if (member.getType() == EntityType.Way) {
+								wayIds.add(member.getId());
+							}
+
+						}
+
+						relationInfo.wayIds = wayIds.toArray();
+
+						relations.add(relationInfo);
+
+					}
+
+				}
+
+			}
+
+		} finally {
+			nodeOutput.close();
+		}
+
+		if (nodeStore == null) {
+			nodeStore = new NodeLocationStore(nodeFile, nodeCount);
+		}
+
+		addWayBboxesToRelations();
+
+		for (RelationInfo relation : relations) {
+			markOccupiedCells(relation.bbox, 0);
+		}
+
+	}
+
+	/**
+	 * extends the relations' bounding boxes with those of their way members
+	 */
+	private void addWayBboxesToRelations() throws IOException {
+
+		TLongObjectHashMap<TIntArrayList> relationsByWay = new TLongObjectHashMap<TIntArrayList>();
+
+		for (int r = 0; r < relations.size(); r++) {
+			for (long wayId : relations.get(r).wayIds) {
+				if (!relationsByWay.containsKey(wayId)) {
+					relationsByWay.put(wayId, new TIntArrayList(1));
+				}
+				relationsByWay.get(wayId).add(r);
+			}
+		}
+
+		if (relationsByWay.isEmpty()) return;
+
+		try (DataInputStream wayInput = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(wayFile)))) {
+
+			int[] bbox = new int[4];
+
+			for (long w = 0; w < wayCount; w++) {
+
+				long wayId = readWayRecord(wayInput, bbox);
+
+				TIntArrayList relationIndices = relationsByWay.get(wayId);
+
+				if (relationIndices != null && bbox[0] <= bbox[2]) {
+					for (int i = 0; i < relationIndices.size(); i++) {
+						int[] relationBbox = relations.get(relationIndices.get(i)).bbox;
+						addToBbox(relationBbox, bbox[0], bbox[1]);
+						addToBbox(relationBbox, bbox[2], bbox[3]);
+					}
+				}
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * another pass through the file, collecting the data for a group of chunks
+	 */
+	private void readChunks(List<Chunk> chunks, ChunkHandler handler) throws IOException {
+
+		int n = chunks.size();
+
+		/* determine the relations and the ways required by them for each chunk */
+
+		List<TLongHashSet> chunkRelationIds = new ArrayList<TLongHashSet>(n);
+		List<TLongHashSet> chunkRelationWayIds = new ArrayList<TLongHashSet>(n);
+
+		for (Chunk chunk : chunks) {
+
+			TLongHashSet relationIds = new TLongHashSet();
+			TLongHashSet relationWayIds = new TLongHashSet();
+
+			for (RelationInfo relation : relations) {
+				int[] bbox = relation.bbox;
+				if (bbox[0] <= bbox[2] && chunk.extendedBoundsIntersect(
+						fromFixed(bbox[0]), fromFixed(bbox[1]), fromFixed(bbox[2]), fromFixed(bbox[3]))) {
+					relationIds.add(relation.id);
+					relationWayIds.addAll(relation.wayIds);
+				}
+			}
+
+			chunkRelationIds.add(relationIds);
+			chunkRelationWayIds.add(relationWayIds);
+
+		}
+
+		/* collect the entities */
+
+		List<TLongObjectHashMap<OsmNode>> chunkNodes = new ArrayList<TLongObjectHashMap<OsmNode>>(n);
+		List<List<OsmWay>> chunkWays = new ArrayList<List<OsmWay>>(n);
+		List<List<OsmRelation>> chunkRelations = new ArrayList<List<OsmRelation>>(n);
+
+		for (int i = 0; i < n; i++) {
+			chunkNodes.add(new TLongObjectHashMap<OsmNode>());
+			chunkWays.add(new ArrayList<OsmWay>());
+			chunkRelations.add(new ArrayList<OsmRelation>());
+		}
+
+		try (InputStream input = new BufferedInputStream(new FileInputStream(file));
+				DataInputStream wayInput = new DataInputStream(
+						new BufferedInputStream(new FileInputStream(wayFile)))) {
+
+			int[] bbox = new int[4];
+
+			for (EntityContainer container : createIterator(input)) {
+
+				if (container.getType() == EntityType.Node) {
+
+					OsmNode node = (OsmNode) container.getEntity();
+
+					for (int i = 0; i < n; i++) {
+						if (chunks.get(i).extendedBoundsContain(node.getLatitude(), node.getLongitude())) {
+							chunkNodes.get(i).put(node.getId(), node);
+						}
+					}
+
+				} else if (container.getType() == EntityType.Way) {
+
+					OsmWay way = (OsmWay) container.getEntity();
+
+					if (readWayRecord(wayInput, bbox) != way.getId()) {
+						throw new IOException("file has been modified: " + file);
+					}
+
+					for (int i = 0; i < n; i++) {
+						if ((bbox[0] <= bbox[2] && chunks.get(i).extendedBoundsIntersect(
+									fromFixed(bbox[0]), fromFixed(bbox[1]), fromFixed(bbox[2]), fromFixed(bbox[3])))
+								|| chunkRelationWayIds.get(i).contains(way.getId())) {
+							chunkWays.get(i).add(way);
+						}
+					}
+
+				} else if (container.getType() == EntityType.Relation) {
+
+					OsmRelation relation = (OsmRelation) container.getEntity();
+
+					for (int i = 0; i < n; i++) {
+						if (chunkRelationIds.get(i).contains(relation.getId())) {
+							chunkRelations.get(i).add(relation);
+						}
+					}
+
+				}
+
+			}
+
+		}
+
+		/* pass the data to the handler, releasing each chunk's data afterwards */
+
+		for (int i = 0; i < n; i++) {
+
+			TLongObjectHashMap<OsmNode> nodes = chunkNodes.get(i);
+			List<OsmWay> ways = chunkWays.get(i);
+
+			addMissingWayNodes(nodes, ways);
+
+			OSMData data = new OSMData(singletonList(chunks.get(i).getBounds()),
+					nodes.valueCollection(), ways, chunkRelations.get(i));
+
+			chunkNodes.set(i, null);
+			chunkWays.set(i, null);
+			chunkRelations.set(i, null);
+
+			handler.handleChunk(chunks.get(i), data);
+
+		}
+
+	}
+
+	/**
+	 * adds untagged nodes from the node index for those nodes of the ways
+	 * which are not part of the chunk yet. Ways with nodes missing from the file are removed.
+	 */
+	private void addMissingWayNodes(TLongObjectHashMap<OsmNode> nodes, List<OsmWay> ways) {
+
+		ways.removeIf(way -> {
+
+			for (int i = 0; i < way.getNumberOfNodes(); i++) {
+
+				long nodeId = way.getNodeId(i);
+
+				if (!nodes.containsKey(nodeId)) {
+
+					long index = nodeStore.find(nodeId);
+
+					if (index < 0) {
+						return true;
+					}
+
+					nodes.put(nodeId, new Node(nodeId,
+							fromFixed(nodeStore.getLon(index)), fromFixed(nodeStore.getLat(index))));
+
+				}
+
+			}
+
+			return false;
+
+		});
+
+	}
+
+	private static boolean isCoastline(OsmWay way) {
+		for (int i = 0; i < way.getNumberOfTags(); i++) {
+			if ("natural".equals(way.getTag(i).getKey())
+					&& "coastline".equals(way.getTag(i).getValue())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int toFixed(double degrees) {
+		return (int) round(degrees * COORD_FACTOR);
+	}
+
+	private static double fromFixed(int fixed) {
+		return fixed / COORD_FACTOR;
+	}
+
+	/** returns a bounding box (minLat, minLon, maxLat, maxLon) which does not contain anything */
+	private static int[] emptyBbox() {
+		return new int[] {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+	}
+
+	private static void addToBbox(int[] bbox, int lat, int lon) {
+		bbox[0] = min(bbox[0], lat);
+		bbox[1] = min(bbox[1], lon);
+		bbox[2] = max(bbox[2], lat);
+		bbox[3] = max(bbox[3], lon);
+	}
+
+	/**
+	 * reads the next record from the way index
+	 *
+	 * @param bbox  receives the way's bounding box
+	 * @return  the way's id
+	 */
+	private static long readWayRecord(DataInputStream wayInput, int[] bbox) throws IOException {
+
+		try {
+
+			long id = wayInput.readLong();
+
+			for (int i = 0; i < 4; i++) {
+				bbox[i] = wayInput.readInt();
+			}
+
+			return id;
+
+		} catch (EOFException e) {
+			throw new IOException("way index is incomplete", e);
+		}
+
+	}
+
+	private static class RelationInfo {
+
+		final long id;
+		final int[] bbox = emptyBbox();
+		long[] wayIds;
+
+		RelationInfo(long id) {
+			this.id = id;
+		}
+
+	}
+
+	/**
+	 * node coordinates in a file with records of id, latitude and longitude, sorted by id.
+	 * The file is memory mapped in several segments, because each mapping is limited to 2 GiB.
+	 */
+	private static class NodeLocationStore implements Closeable {
+
+		private static final int RECORD_SIZE = 16;
+		private static final int RECORDS_PER_SEGMENT = 1 << 26;
+
+		private final FileChannel channel;
+		private final MappedByteBuffer[] segments;
+		private final long size;
+
+		public NodeLocationStore(File file, long size) throws IOException {
+
+			this.size = size;
+
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+			segments = new MappedByteBuffer[(int) ((size + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT)];
+
+			for (int s = 0; s < segments.length; s++) {
+				long start = (long) s * RECORDS_PER_SEGMENT;
+				long count = min(RECORDS_PER_SEGMENT, size - start);
+				segments[s] = channel.map(MapMode.READ_ONLY, start * RECORD_SIZE, count * RECORD_SIZE);
+			}
+
+		}
+
+		/**
+		 * returns the index of the node with an id, or -1 if there is no such node
+		 */
+		public long find(long id) {
+
+			long lo = 0;
+			long hi = size - 1;
+
+			while (lo <= hi) {
+
+				long mid = (lo + hi) >>> 1;
+				long midId = getId(mid);
+
+				if (midId < id) {
+					lo = mid + 1;
+				} else if (midId > id) {
+					hi = mid - 1;
+				} else {
+					return mid;
+				}
+
+			}
+
+			return -1;
+
+		}
+
+		private long getId(long index) {
+			return segment(index).getLong(offset(index));
+		}
+
+		public int getLat(long index) {
+			return segment(index).getInt(offset(index) + 8);
+		}
+
+		public int getLon(long index) {
+			return segment(index).getInt(offset(index) + 12);
+		}
+
+		private MappedByteBuffer segment(long index) {
+			return segments[(int) (index / RECORDS_PER_SEGMENT)];
+		}
+
+		private static int offset(long index) {
+			return (int) (index % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+
+	}
+
+}
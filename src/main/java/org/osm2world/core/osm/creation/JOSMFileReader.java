@@ -1,132 +1,211 @@
 package org.osm2world.core.osm.creation;
 
 import static java.lang.Double.parseDouble;
+import static java.lang.Long.parseLong;
 import static java.lang.Math.*;
+import static javax.xml.stream.XMLStreamConstants.*;
 
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.osm2world.core.osm.data.OSMData;
+
+import de.topobyte.osm4j.core.dataset.InMemoryMapDataSet;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmRelationMember;
+import de.topobyte.osm4j.core.model.impl.Bounds;
+import de.topobyte.osm4j.core.model.impl.Node;
+import de.topobyte.osm4j.core.model.impl.Relation;
+import de.topobyte.osm4j.core.model.impl.RelationMember;
+import de.topobyte.osm4j.core.model.impl.Tag;
+import de.topobyte.osm4j.core.model.impl.Way;
+import gnu.trove.list.array.TLongArrayList;
 
 /**
  * variant of {@link StrictOSMFileReader} with the necessary robustness to
  * ignore small standard incompabilities in .osm files written by JOSM.
+ *
+ * The file is parsed in a single streaming pass. Elements marked for deletion
+ * are skipped, missing versions and other metadata are ignored,
+ * and multiple bound elements are merged.
  */
-public class JOSMFileReader extends StrictOSMFileReader {
+public class JOSMFileReader implements OSMDataReader {
 
-	public JOSMFileReader(File file) throws IOException,
-			ParserConfigurationException, SAXException,
-			TransformerException {
-		super(createTempOSMFile(file));
-	}
+	private final File file;
 
-	/**
-	 * creates a temporary file in the .osm format. This removes some
-	 * JOSM-specific attributes present in the original file,
-	 * sets fake versions for unversioned elements,
-	 * and merges multiple bound elements.
-	 *
-	 * The generated file should <em>not</em> be used for anything except
-	 * feeding it to OSM2World.
-	 */
-	private static final File createTempOSMFile(File josmFile) throws
-			IOException, ParserConfigurationException, SAXException,
-			TransformerException {
-
-		/* parse original file */
-
-		DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-		DocumentBuilder db = dbf.newDocumentBuilder();
-		Document doc = db.parse(josmFile);
-
-		/* modify DOM */
-
-		NodeList nodes = doc.getDocumentElement().getChildNodes();
-		List<Node> nodesToDelete = new ArrayList<Node>();
-		List<Element> boundsElements = new ArrayList<Element>();
-
-		for (int i = 0; i < nodes.getLength(); i++) {
-			if (nodes.item(i) instanceof Element) {
-				Element element = (Element) nodes.item(i);
-				if ("node".equals(element.getNodeName())
-						|| "way".equals(element.getNodeName())
-						|| "relation".equals(element.getNodeName())) {
-					if ("delete".equals(element.getAttribute("action"))) {
-						nodesToDelete.add(element);
-					} else if (!element.hasAttribute("version")) {
-						element.setAttribute("version", "424242");
-					}
-				} else if ("bounds".equals(element.getNodeName())) {
-					boundsElements.add(element);
-				}
-			}
+	public JOSMFileReader(File file) throws FileNotFoundException {
+		this.file = file;
+		if (!file.exists()) {
+			throw new FileNotFoundException(file.toString());
 		}
+	}
 
-		if (boundsElements.size() > 1) {
+	public File getFile() {
+		return file;
+	}
 
-			double minLat = Double.POSITIVE_INFINITY;
-			double minLon = Double.POSITIVE_INFINITY;
-			double maxLat = Double.NEGATIVE_INFINITY;
-			double maxLon = Double.NEGATIVE_INFINITY;
+	@Override
+	public OSMData getData() throws IOException {
 
-			for (Element bounds : boundsElements) {
-				minLat = min(minLat, parseDouble(bounds.getAttribute("minlat")));
-				minLon = min(minLon, parseDouble(bounds.getAttribute("minlon")));
-				maxLat = max(maxLat, parseDouble(bounds.getAttribute("maxlat")));
-				maxLon = max(maxLon, parseDouble(bounds.getAttribute("maxlon")));
-			}
+		InMemoryMapDataSet data = new InMemoryMapDataSet();
 
-			Element firstBounds = boundsElements.remove(0);
-			firstBounds.setAttribute("minlat", Double.toString(minLat));
-			firstBounds.setAttribute("minlon", Double.toString(minLon));
-			firstBounds.setAttribute("maxlat", Double.toString(maxLat));
-			firstBounds.setAttribute("maxlon", Double.toString(maxLon));
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
 
-			nodesToDelete.addAll(boundsElements);
+		try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
 
-			System.out.println("WARNING: input file contains multiple <bounds>." +
-					" This can lead to wrong coastlines and other issues."); //TODO proper logging
+			XMLStreamReader reader = factory.createXMLStreamReader(input);
 
-		}
+			try {
+				read(reader, data);
+			} finally {
+				reader.close();
+			}
 
-		for (Node node : nodesToDelete) {
-			doc.getDocumentElement().removeChild(node);
+		} catch (XMLStreamException | RuntimeException e) {
+			throw new IOException("could not parse " + file, e);
 		}
 
-		/* write result */
+		return new OSMData(data);
+
+	}
+
+	private static void read(XMLStreamReader reader, InMemoryMapDataSet data) throws XMLStreamException {
+
+		int boundsCount = 0;
+		double minLat = Double.POSITIVE_INFINITY;
+		double minLon = Double.POSITIVE_INFINITY;
+		double maxLat = Double.NEGATIVE_INFINITY;
+		double maxLon = Double.NEGATIVE_INFINITY;
+
+		/* state of the node, way or relation which is currently being read */
+
+		String elementType = null;
+		boolean deleted = false;
+		long id = 0;
+		double lat = Double.NaN;
+		double lon = Double.NaN;
+		List<Tag> tags = new ArrayList<Tag>();
+		TLongArrayList nodeIds = new TLongArrayList();
+		List<OsmRelationMember> members = new ArrayList<OsmRelationMember>();
+
+		while (reader.hasNext()) {
+
+			int event = reader.next();
+
+			if (event == START_ELEMENT) {
+
+				switch (reader.getLocalName()) {
+
+				case "bounds":
+					boundsCount ++;
+					minLat = min(minLat, parseDouble(reader.getAttributeValue(null, "minlat")));
+					minLon = min(minLon, parseDouble(reader.getAttributeValue(null, "minlon")));
+					maxLat = max(maxLat, parseDouble(reader.getAttributeValue(null, "maxlat")));
+					maxLon = max(maxLon, parseDouble(reader.getAttributeValue(null, "maxlon")));
+					break;
+
+				case "node":
+				case "way":
+				case "relation":
+					elementType = reader.getLocalName();
+					deleted = "delete".equals(reader.getAttributeValue(null, "action"));
+					id = parseLong(reader.getAttributeValue(null, "id"));
+					if ("node".equals(elementType)) {
+						lat = parseDoubleOrNaN(reader.getAttributeValue(null, "lat"));
+						lon = parseDoubleOrNaN(reader.getAttributeValue(null, "lon"));
+					}
+					break;
+
+				case "tag":
+					if (elementType != null) {
+						tags.add(new Tag(reader.getAttributeValue(null, "k"), reader.getAttributeValue(null, "v")));
+					}
+					break;
 
-		File tempFile = File.createTempFile("workaround", ".osm", null);
-		tempFile.deleteOnExit();
+				case "nd":
+					if (elementType != null) {
+						nodeIds.add(parseLong(reader.getAttributeValue(null, "ref")));
+					}
+					break;
+
+				case "member":
+					if (elementType != null) {
+						String role = reader.getAttributeValue(null, "role");
+						members.add(new RelationMember(parseLong(reader.getAttributeValue(null, "ref")),
+								parseMemberType(reader.getAttributeValue(null, "type")),
+								role == null ? "" : role));
+					}
+					break;
 
-		try (FileOutputStream outputStream = new FileOutputStream(tempFile)) {
+				}
 
-			TransformerFactory tFactory = TransformerFactory.newInstance();
-			Transformer transformer = tFactory.newTransformer();
+			} else if (event == END_ELEMENT && elementType != null
+					&& elementType.equals(reader.getLocalName())) {
+
+				/* add the completed element to the data */
+
+				List<Tag> elementTags = tags.isEmpty() ? Collections.<Tag>emptyList() : tags;
+
+				if (!deleted) {
+					switch (elementType) {
+					case "node":
+						if (!Double.isNaN(lat) && !Double.isNaN(lon)) {
+							data.getNodes().put(id, new Node(id, lon, lat, elementTags));
+						}
+						break;
+					case "way":
+						data.getWays().put(id, new Way(id, nodeIds, elementTags));
+						break;
+					case "relation":
+						data.getRelations().put(id, new Relation(id, members, elementTags));
+						break;
+					}
+				}
+
+				elementType = null;
+				tags = new ArrayList<Tag>();
+				nodeIds = new TLongArrayList();
+				members = new ArrayList<OsmRelationMember>();
+
+			}
 
-			StreamResult result = new StreamResult(outputStream);
-			DOMSource source = new DOMSource(doc);
-			transformer.transform(source, result);
+		}
 
-			return tempFile;
+		if (boundsCount > 0) {
+			data.setBounds(new Bounds(minLon, maxLon, maxLat, minLat));
+		}
 
+		if (boundsCount > 1) {
+			System.out.println("WARNING: input file contains multiple <bounds>." +
+					" This can lead to wrong coastlines and other issues."); //TODO proper logging
 		}
 
 	}
 
-}
\ No newline at end of file
+	private static double parseDoubleOrNaN(String value) {
+		return value == null ? Double.NaN : parseDouble(value);
+	}
+
+	private static EntityType parseMemberType(String type) {
+		switch (type) {
+		case "node": return EntityType.Node;
+		case "way": return EntityType.Way;
+		case "relation": return EntityType.Relation;
+		default: throw new IllegalArgumentException("invalid member type " + type);
+		}
+	}
+
+}
@@ -15,7 +15,7 @@ import org.osm2world.core.osm.data.OSMData;
  * changed later. This class internally uses osm4j to read the file.
  *
  * At its core, this reader combines the capabilities of the {@link OSMFileReader}
- * and the {@link JOSMFileReader}.
+ * and the {@link JOSMFileReader}. Files with the .pbf extension are read with a {@link PbfFileReader}.
  */
 public class OSMFileReader implements OSMDataReader {
 
@@ -35,6 +35,10 @@ public class OSMFileReader implements OSMDataReader {
 	@Override
 	public OSMData getData() throws IOException {
 
+		if (file.getName().endsWith(".pbf")) {
+			return new PbfFileReader(file).getData();
+		}
+
 		OSMData osmData = null;
 		boolean useJOSMReader = false;
 
@@ -86,7 +90,7 @@ public class OSMFileReader implements OSMDataReader {
 			for (int i=0; i<100; i++) {
 				String line = reader.readLine();
 				if (line != null) {
-					if (line.contains("generator='JOSM'")) {
+					if (line.contains("generator='JOSM'") || line.contains("generator=\"JOSM\"")) {
 						return true;
 					}
 				}
@@ -0,0 +1,817 @@
+package org.osm2world.core.osm.creation;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.osm2world.core.osm.data.OSMData;
+
+import de.topobyte.osm4j.core.dataset.InMemoryMapDataSet;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmRelationMember;
+import de.topobyte.osm4j.core.model.impl.Bounds;
+import de.topobyte.osm4j.core.model.impl.Node;
+import de.topobyte.osm4j.core.model.impl.Relation;
+import de.topobyte.osm4j.core.model.impl.RelationMember;
+import de.topobyte.osm4j.core.model.impl.Tag;
+import de.topobyte.osm4j.core.model.impl.Way;
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.list.array.TLongArrayList;
+
+/**
+ * DataSource providing information from a single .osm.pbf file.
+ * The file is read during the {@link #getData()} call.
+ *
+ * The file's blocks are read sequentially, but decompressed and decoded by several threads.
+ * Decoding writes ids, coordinates and tags into primitive arrays for each block.
+ * The osm4j objects stored in the resulting {@link OSMData} are only created afterwards,
+ * in the order of the blocks in the file.
+ * Metadata such as versions and timestamps is not read.
+ */
+public class PbfFileReader implements OSMDataReader {
+
+	/** the features a file may require, see the format's HeaderBlock */
+	private static final Set<String> SUPPORTED_FEATURES =
+			new HashSet<String>(asList("OsmSchema-V0.6", "DenseNodes"));
+
+	private static final int MAX_HEADER_SIZE = 64 * 1024;
+	private static final int MAX_BLOB_SIZE = 32 * 1024 * 1024;
+
+	private final File file;
+	private final int threads;
+
+	public PbfFileReader(File file) throws FileNotFoundException {
+		this(file, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param threads  number of threads decoding blocks at the same time
+	 */
+	public PbfFileReader(File file, int threads) throws FileNotFoundException {
+		this.file = file;
+		this.threads = threads;
+		if (!file.exists()) {
+			throw new FileNotFoundException(file.toString());
+		}
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	@Override
+	public OSMData getData() throws IOException {
+
+		InMemoryMapDataSet data = new InMemoryMapDataSet();
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+		try (DataInputStream input = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(file)))) {
+
+			/* blocks which are being decoded, in the file's order.
+			 * Limited in size so that the memory use does not depend on how fast blocks can be added. */
+
+			Deque<Future<DecodedBlock>> pendingBlocks = new ArrayDeque<Future<DecodedBlock>>();
+
+			FileBlock fileBlock;
+
+			while ((fileBlock = readFileBlock(input)) != null) {
+
+				if ("OSMHeader".equals(fileBlock.type)) {
+
+					readHeader(decompress(fileBlock.blob), data);
+
+				} else if ("OSMData".equals(fileBlock.type)) {
+
+					final byte[] blob = fileBlock.blob;
+					pendingBlocks.add(executor.submit(() -> decodeBlock(decompress(blob))));
+
+					while (pendingBlocks.size() > 2 * threads) {
+						pendingBlocks.poll().get().addTo(data);
+					}
+
+				}
+
+			}
+
+			while (!pendingBlocks.isEmpty()) {
+				pendingBlocks.poll().get().addTo(data);
+			}
+
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			} else {
+				throw new IOException("could not decode " + file, e.getCause());
+			}
+		} catch (InterruptedException e) {
+			throw new IOException("interrupted while reading " + file, e);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return new OSMData(data);
+
+	}
+
+	/** a block from the file, with the blob still compressed */
+	private static class FileBlock {
+
+		final String type;
+		final byte[] blob;
+
+		FileBlock(String type, byte[] blob) {
+			this.type = type;
+			this.blob = blob;
+		}
+
+	}
+
+	/**
+	 * reads the next block's header and blob
+	 *
+	 * @return  the block, or null at the end of the file
+	 */
+	private static FileBlock readFileBlock(DataInputStream input) throws IOException {
+
+		int headerSize;
+
+		try {
+			headerSize = input.readInt();
+		} catch (EOFException e) {
+			return null;
+		}
+
+		if (headerSize < 0 || headerSize > MAX_HEADER_SIZE) {
+			throw new IOException("invalid blob header size " + headerSize);
+		}
+
+		byte[] header = new byte[headerSize];
+		input.readFully(header);
+
+		String type = null;
+		int blobSize = -1;
+
+		ProtobufReader headerReader = new ProtobufReader(header);
+
+		while (headerReader.hasNext()) {
+			int tag = headerReader.readTag();
+			switch (tag) {
+			case (1 << 3) | 2: type = headerReader.readString(); break;
+			case (3 << 3) | 0: blobSize = (int) headerReader.readVarint(); break;
+			default: headerReader.skip(tag);
+			}
+		}
+
+		if (type == null || blobSize < 0 || blobSize > MAX_BLOB_SIZE) {
+			throw new IOException("invalid blob header");
+		}
+
+		byte[] blob = new byte[blobSize];
+		input.readFully(blob);
+
+		return new FileBlock(type, blob);
+
+	}
+
+	/**
+	 * returns the uncompressed content of a blob
+	 */
+	private static ProtobufReader decompress(byte[] blob) throws IOException {
+
+		ProtobufReader reader = new ProtobufReader(blob);
+
+		int rawSize = -1;
+		ProtobufReader raw = null;
+		ProtobufReader zlibData = null;
+
+		while (reader.hasNext()) {
+			int tag = reader.readTag();
+			switch (tag) {
+			case (1 << 3) | 2: raw = reader.readMessage(); break;
+			case (2 << 3) | 0: rawSize = (int) reader.readVarint(); break;
+			case (3 << 3) | 2: zlibData = reader.readMessage(); break;
+			case (4 << 3) | 2: case (6 << 3) | 2: case (7 << 3) | 2:
+				throw new IOException("only uncompressed and zlib-compressed blobs are supported");
+			default: reader.skip(tag);
+			}
+		}
+
+		if (raw != null) {
+			return raw;
+		} else if (zlibData != null && rawSize >= 0 && rawSize <= MAX_BLOB_SIZE) {
+
+			byte[] result = new byte[rawSize];
+
+			Inflater inflater = new Inflater();
+
+			try {
+
+				inflater.setInput(zlibData.buffer, zlibData.pos, zlibData.limit - zlibData.pos);
+
+				int length = 0;
+
+				while (length < rawSize && !inflater.finished()) {
+					int inflated = inflater.inflate(result, length, rawSize - length);
+					if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+					length += inflated;
+				}
+
+				if (length != rawSize) {
+					throw new IOException("blob has a different size than declared");
+				}
+
+			} catch (DataFormatException e) {
+				throw new IOException(e);
+			} finally {
+				inflater.end();
+			}
+
+			return new ProtobufReader(result);
+
+		} else {
+			throw new IOException("blob without content");
+		}
+
+	}
+
+	/**
+	 * reads a HeaderBlock, checking the required features and setting the bounds
+	 */
+	private static void readHeader(ProtobufReader reader, InMemoryMapDataSet data) throws IOException {
+
+		while (reader.hasNext()) {
+
+			int tag = reader.readTag();
+
+			switch (tag) {
+
+			case (1 << 3) | 2:
+
+				ProtobufReader bboxReader = reader.readMessage();
+				double left = 0, right = 0, top = 0, bottom = 0;
+
+				while (bboxReader.hasNext()) {
+					int bboxTag = bboxReader.readTag();
+					switch (bboxTag) {
+					case (1 << 3) | 0: left = bboxReader.readSInt64() * 1e-9; break;
+					case (2 << 3) | 0: right = bboxReader.readSInt64() * 1e-9; break;
+					case (3 << 3) | 0: top = bboxReader.readSInt64() * 1e-9; break;
+					case (4 << 3) | 0: bottom = bboxReader.readSInt64() * 1e-9; break;
+					default: bboxReader.skip(bboxTag);
+					}
+				}
+
+				data.setBounds(new Bounds(left, right, top, bottom));
+				break;
+
+			case (4 << 3) | 2:
+
+				String feature = reader.readString();
+
+				if (!SUPPORTED_FEATURES.contains(feature)) {
+					throw new IOException("unsupported feature required by file: " + feature);
+				}
+
+				break;
+
+			default:
+				reader.skip(tag);
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * decodes a PrimitiveBlock. Can be called by several threads at the same time.
+	 */
+	private static DecodedBlock decodeBlock(ProtobufReader reader) throws IOException {
+
+		String[] strings = new String[0];
+		List<ProtobufReader> groups = new ArrayList<ProtobufReader>();
+
+		int granularity = 100;
+		long latOffset = 0;
+		long lonOffset = 0;
+
+		while (reader.hasNext()) {
+
+			int tag = reader.readTag();
+
+			switch (tag) {
+
+			case (1 << 3) | 2:
+
+				ProtobufReader stringTableReader = reader.readMessage();
+				List<String> stringList = new ArrayList<String>();
+
+				while (stringTableReader.hasNext()) {
+					int stringTag = stringTableReader.readTag();
+					if (stringTag == ((1 << 3) | 2)) {
+						stringList.add(stringTableReader.readString());
+					} else {
+						stringTableReader.skip(stringTag);
+					}
+				}
+
+				strings = stringList.toArray(strings);
+				break;
+
+			case (2 << 3) | 2: groups.add(reader.readMessage()); break;
+			case (17 << 3) | 0: granularity = (int) reader.readVarint(); break;
+			case (19 << 3) | 0: latOffset = reader.readVarint(); break;
+			case (20 << 3) | 0: lonOffset = reader.readVarint(); break;
+			default: reader.skip(tag);
+
+			}
+
+		}
+
+		DecodedBlock block = new DecodedBlock(strings, granularity, latOffset, lonOffset);
+
+		for (ProtobufReader groupReader : groups) {
+			while (groupReader.hasNext()) {
+				int tag = groupReader.readTag();
+				switch (tag) {
+				case (1 << 3) | 2: block.decodeNode(groupReader.readMessage()); break;
+				case (2 << 3) | 2: block.decodeDenseNodes(groupReader.readMessage()); break;
+				case (3 << 3) | 2: block.decodeWay(groupReader.readMessage()); break;
+				case (4 << 3) | 2: block.decodeRelation(groupReader.readMessage()); break;
+				default: groupReader.skip(tag);
+				}
+			}
+		}
+
+		return block;
+
+	}
+
+	/**
+	 * the content of a PrimitiveBlock, stored in primitive arrays.
+	 * Tags of all elements are stored as indices into the block's string table.
+	 */
+	private static class DecodedBlock {
+
+		private final String[] strings;
+
+		private final int granularity;
+		private final long latOffset;
+		private final long lonOffset;
+
+		/** key and value string indices of all elements' tags */
+		private final TIntArrayList tagKeys = new TIntArrayList();
+		private final TIntArrayList tagValues = new TIntArrayList();
+
+		private final TLongArrayList nodeIds = new TLongArrayList();
+		private final TDoubleArrayList nodeLats = new TDoubleArrayList();
+		private final TDoubleArrayList nodeLons = new TDoubleArrayList();
+		private final TIntArrayList nodeTagStarts = new TIntArrayList();
+		private final TIntArrayList nodeTagEnds = new TIntArrayList();
+
+		private final TLongArrayList wayIds = new TLongArrayList();
+		private final TIntArrayList wayTagStarts = new TIntArrayList();
+		private final TIntArrayList wayTagEnds = new TIntArrayList();
+		private final TIntArrayList wayRefStarts = new TIntArrayList();
+		private final TLongArrayList wayRefs = new TLongArrayList();
+
+		private final TLongArrayList relationIds = new TLongArrayList();
+		private final TIntArrayList relationTagStarts = new TIntArrayList();
+		private final TIntArrayList relationTagEnds = new TIntArrayList();
+		private final TIntArrayList relationMemberStarts = new TIntArrayList();
+		private final TLongArrayList memberIds = new TLongArrayList();
+		private final TIntArrayList memberTypes = new TIntArrayList();
+		private final TIntArrayList memberRoles = new TIntArrayList();
+
+		DecodedBlock(String[] strings, int granularity, long latOffset, long lonOffset) {
+			this.strings = strings;
+			this.granularity = granularity;
+			this.latOffset = latOffset;
+			this.lonOffset = lonOffset;
+		}
+
+		private double lat(long value) {
+			return 1e-9 * (latOffset + granularity * value);
+		}
+
+		private double lon(long value) {
+			return 1e-9 * (lonOffset + granularity * value);
+		}
+
+		void decodeNode(ProtobufReader reader) throws IOException {
+
+			long id = 0, lat = 0, lon = 0;
+			TIntArrayList keys = new TIntArrayList();
+			TIntArrayList values = new TIntArrayList();
+
+			while (reader.hasNext()) {
+				int tag = reader.readTag();
+				switch (tag) {
+				case (1 << 3) | 0: id = reader.readSInt64(); break;
+				case (2 << 3) | 0: case (2 << 3) | 2: reader.readVarints(tag, keys); break;
+				case (3 << 3) | 0: case (3 << 3) | 2: reader.readVarints(tag, values); break;
+				case (8 << 3) | 0: lat = reader.readSInt64(); break;
+				case (9 << 3) | 0: lon = reader.readSInt64(); break;
+				default: reader.skip(tag);
+				}
+			}
+
+			nodeIds.add(id);
+			nodeLats.add(lat(lat));
+			nodeLons.add(lon(lon));
+			nodeTagStarts.add(tagKeys.size());
+			addTags(keys, values);
+			nodeTagEnds.add(tagKeys.size());
+
+		}
+
+		void decodeDenseNodes(ProtobufReader reader) throws IOException {
+
+			int firstNode = nodeIds.size();
+			TIntArrayList keysVals = new TIntArrayList();
+
+			long id = 0, lat = 0, lon = 0;
+			int latIndex = firstNode, lonIndex = firstNode;
+
+			while (reader.hasNext()) {
+
+				int tag = reader.readTag();
+
+				switch (tag) {
+
+				case (1 << 3) | 2:
+					ProtobufReader ids = reader.readMessage();
+					while (ids.hasNext()) {
+						id += ids.readSInt64();
+						nodeIds.add(id);
+					}
+					break;
+
+				case (8 << 3) | 2:
+					ProtobufReader lats = reader.readMessage();
+					while (lats.hasNext()) {
+						lat += lats.readSInt64();
+						setOrAdd(nodeLats, latIndex++, lat(lat));
+					}
+					break;
+
+				case (9 << 3) | 2:
+					ProtobufReader lons = reader.readMessage();
+					while (lons.hasNext()) {
+						lon += lons.readSInt64();
+						setOrAdd(nodeLons, lonIndex++, lon(lon));
+					}
+					break;
+
+				case (10 << 3) | 2:
+					reader.readVarints(tag, keysVals);
+					break;
+
+				default:
+					reader.skip(tag);
+
+				}
+
+			}
+
+			if (latIndex != nodeIds.size() || lonIndex != nodeIds.size()) {
+				throw new IOException("dense nodes with inconsistent array lengths");
+			}
+
+			/* keys and values are stored as a sequence of key-value pairs for each node, ended by 0 */
+
+			int k = 0;
+
+			for (int i = firstNode; i < nodeIds.size(); i++) {
+
+				nodeTagStarts.add(tagKeys.size());
+
+				while (k < keysVals.size() && keysVals.get(k) != 0) {
+					if (k + 1 >= keysVals.size()) {
+						throw new IOException("dense nodes with incomplete tags");
+					}
+					tagKeys.add(keysVals.get(k));
+					tagValues.add(keysVals.get(k + 1));
+					k += 2;
+				}
+
+				nodeTagEnds.add(tagKeys.size());
+
+				k++;
+
+			}
+
+		}
+
+		private static void setOrAdd(TDoubleArrayList list, int index, double value) {
+			if (index < list.size()) {
+				list.set(index, value);
+			} else {
+				list.add(value);
+			}
+		}
+
+		void decodeWay(ProtobufReader reader) throws IOException {
+
+			long id = 0;
+			TIntArrayList keys = new TIntArrayList();
+			TIntArrayList values = new TIntArrayList();
+
+			wayRefStarts.add(wayRefs.size());
+
+			while (reader.hasNext()) {
+
+				int tag = reader.readTag();
+
+				switch (tag) {
+
+				case (1 << 3) | 0: id = reader.readVarint(); break;
+				case (2 << 3) | 0: case (2 << 3) | 2: reader.readVarints(tag, keys); break;
+				case (3 << 3) | 0: case (3 << 3) | 2: reader.readVarints(tag, values); break;
+
+				case (8 << 3) | 2:
+					ProtobufReader refs = reader.readMessage();
+					long ref = 0;
+					while (refs.hasNext()) {
+						ref += refs.readSInt64();
+						wayRefs.add(ref);
+					}
+					break;
+
+				default: reader.skip(tag);
+
+				}
+
+			}
+
+			wayIds.add(id);
+			wayTagStarts.add(tagKeys.size());
+			addTags(keys, values);
+			wayTagEnds.add(tagKeys.size());
+
+		}
+
+		void decodeRelation(ProtobufReader reader) throws IOException {
+
+			long id = 0;
+			TIntArrayList keys = new TIntArrayList();
+			TIntArrayList values = new TIntArrayList();
+
+			relationMemberStarts.add(memberIds.size());
+
+			while (reader.hasNext()) {
+
+				int tag = reader.readTag();
+
+				switch (tag) {
+
+				case (1 << 3) | 0: id = reader.readVarint(); break;
+				case (2 << 3) | 0: case (2 << 3) | 2: reader.readVarints(tag, keys); break;
+				case (3 << 3) | 0: case (3 << 3) | 2: reader.readVarints(tag, values); break;
+				case (8 << 3) | 0: case (8 << 3) | 2: reader.readVarints(tag, memberRoles); break;
+
+				case (9 << 3) | 2:
+					ProtobufReader memids = reader.readMessage();
+					long memid = 0;
+					while (memids.hasNext()) {
+						memid += memids.readSInt64();
+						memberIds.add(memid);
+					}
+					break;
+
+				case (10 << 3) | 0: case (10 << 3) | 2: reader.readVarints(tag, memberTypes); break;
+
+				default: reader.skip(tag);
+
+				}
+
+			}
+
+			if (memberRoles.size() != memberIds.size() || memberTypes.size() != memberIds.size()) {
+				throw new IOException("relation " + id + " has inconsistent member arrays");
+			}
+
+			relationIds.add(id);
+			relationTagStarts.add(tagKeys.size());
+			addTags(keys, values);
+			relationTagEnds.add(tagKeys.size());
+
+		}
+
+		private void addTags(TIntArrayList keys, TIntArrayList values) throws IOException {
+			if (keys.size() != values.size()) {
+				throw new IOException("element with different numbers of keys and values");
+			}
+			tagKeys.addAll(keys);
+			tagValues.addAll(values);
+		}
+
+		/**
+		 * returns the tags in a range of the tag arrays
+		 */
+		private List<Tag> getTags(int start, int end) throws IOException {
+
+			if (start == end) {
+				return Collections.emptyList();
+			}
+
+			List<Tag> tags = new ArrayList<Tag>(end - start);
+
+			for (int i = start; i < end; i++) {
+				tags.add(new Tag(getString(tagKeys.get(i)), getString(tagValues.get(i))));
+			}
+
+			return tags;
+
+		}
+
+		private String getString(int index) throws IOException {
+			if (index < 0 || index >= strings.length) {
+				throw new IOException("invalid string table index " + index);
+			}
+			return strings[index];
+		}
+
+		/**
+		 * creates the osm4j objects for the block's content and adds them to a data set
+		 */
+		void addTo(InMemoryMapDataSet data) throws IOException {
+
+			for (int i = 0; i < nodeIds.size(); i++) {
+				data.getNodes().put(nodeIds.get(i), new Node(nodeIds.get(i), nodeLons.get(i), nodeLats.get(i),
+						getTags(nodeTagStarts.get(i), nodeTagEnds.get(i))));
+			}
+
+			for (int i = 0; i < wayIds.size(); i++) {
+
+				int refEnd = (i + 1 < wayIds.size()) ? wayRefStarts.get(i + 1) : wayRefs.size();
+
+				TLongArrayList nodes = TLongArrayList.wrap(
+						wayRefs.toArray(wayRefStarts.get(i), refEnd - wayRefStarts.get(i)));
+
+				data.getWays().put(wayIds.get(i), new Way(wayIds.get(i),
+						nodes, getTags(wayTagStarts.get(i), wayTagEnds.get(i))));
+
+			}
+
+			for (int i = 0; i < relationIds.size(); i++) {
+
+				int memberEnd = (i + 1 < relationIds.size()) ? relationMemberStarts.get(i + 1) : memberIds.size();
+
+				List<OsmRelationMember> members = new ArrayList<OsmRelationMember>(
+						memberEnd - relationMemberStarts.get(i));
+
+				for (int m = relationMemberStarts.get(i); m < memberEnd; m++) {
+					members.add(new RelationMember(memberIds.get(m),
+							toEntityType(memberTypes.get(m)), getString(memberRoles.get(m))));
+				}
+
+				data.getRelations().put(relationIds.get(i), new Relation(relationIds.get(i),
+						members, getTags(relationTagStarts.get(i), relationTagEnds.get(i))));
+
+			}
+
+		}
+
+		private static EntityType toEntityType(int type) throws IOException {
+			switch (type) {
+			case 0: return EntityType.Node;
+			case 1: return EntityType.Way;
+			case 2: return EntityType.Relation;
+			default: throw new IOException("invalid member type " + type);
+			}
+		}
+
+	}
+
+	/**
+	 * reads values in the protocol buffer wire format from a section of a byte array
+	 */
+	private static class ProtobufReader {
+
+		final byte[] buffer;
+		int pos;
+		final int limit;
+
+		ProtobufReader(byte[] buffer) {
+			this(buffer, 0, buffer.length);
+		}
+
+		ProtobufReader(byte[] buffer, int pos, int limit) {
+			this.buffer = buffer;
+			this.pos = pos;
+			this.limit = limit;
+		}
+
+		boolean hasNext() {
+			return pos < limit;
+		}
+
+		/** reads a field's tag, consisting of the field number and wire type */
+		int readTag() throws IOException {
+			return (int) readVarint();
+		}
+
+		long readVarint() throws IOException {
+
+			long result = 0;
+
+			for (int shift = 0; shift < 64; shift += 7) {
+
+				if (pos >= limit) {
+					throw new IOException("truncated protocol buffer message");
+				}
+
+				byte b = buffer[pos++];
+				result |= (long) (b & 0x7F) << shift;
+
+				if ((b & 0x80) == 0) {
+					return result;
+				}
+
+			}
+
+			throw new IOException("malformed varint");
+
+		}
+
+		long readSInt64() throws IOException {
+			long value = readVarint();
+			return (value >>> 1) ^ -(value & 1);
+		}
+
+		/** reads a length-delimited field, returning a reader for its content */
+		ProtobufReader readMessage() throws IOException {
+
+			int length = (int) readVarint();
+
+			if (length < 0 || length > limit - pos) {
+				throw new IOException("truncated protocol buffer message");
+			}
+
+			ProtobufReader result = new ProtobufReader(buffer, pos, pos + length);
+			pos += length;
+
+			return result;
+
+		}
+
+		String readString() throws IOException {
+			ProtobufReader content = readMessage();
+			return new String(buffer, content.pos, content.limit - content.pos, UTF_8);
+		}
+
+		/**
+		 * reads a repeated integer field, which can either be packed or a single value
+		 */
+		void readVarints(int tag, TIntArrayList result) throws IOException {
+			if ((tag & 7) == 2) {
+				ProtobufReader packed = readMessage();
+				while (packed.hasNext()) {
+					result.add((int) packed.readVarint());
+				}
+			} else {
+				result.add((int) readVarint());
+			}
+		}
+
+		/** skips a field with a tag */
+		void skip(int tag) throws IOException {
+			switch (tag & 7) {
+			case 0: readVarint(); break;
+			case 1: pos += 8; break;
+			case 2: readMessage(); break;
+			case 5: pos += 4; break;
+			default: throw new IOException("unsupported wire type " + (tag & 7));
+			}
+			if (pos > limit) {
+				throw new IOException("truncated protocol buffer message");
+			}
+		}
+
+	}
+
+}
@@ -9,7 +9,10 @@ import java.util.function.Consumer;
 import org.osm2world.core.map_data.data.MapData;
 import org.osm2world.core.map_data.data.MapElement;
 import org.osm2world.core.map_elevation.data.GroundState;
+import org.osm2world.core.math.VectorXYZ;
 import org.osm2world.core.target.common.RenderableToPrimitiveTarget;
+import org.osm2world.core.target.common.model.Model;
+import org.osm2world.core.target.frontend_pbf.ModelTarget;
 import org.osm2world.core.target.statistics.StatisticsTarget;
 import org.osm2world.core.world.data.WorldObject;
 
@@ -115,4 +118,20 @@ public final class TargetUtil {
 
 	}
 
+	/**
+	 * draws an instance of a model. Uses {@link ModelTarget#drawModel} if the target supports it,
+	 * so the model's geometry can be shared by all of its instances.
+	 * Otherwise, the model is rendered directly.
+	 */
+	public static final void drawModel(Target<?> target, Model model, VectorXYZ position,
+			double direction, Double height, Double width, Double length) {
+
+		if (target instanceof ModelTarget<?>) {
+			((ModelTarget<?>)target).drawModel(model, position, direction, height, width, length);
+		} else {
+			model.render(target, position, direction, height, width, length);
+		}
+
+	}
+
 }
@@ -0,0 +1,696 @@
+package org.osm2world.core.target.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static org.osm2world.core.math.GeometryUtil.*;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.plugins.graphview.core.data.TagGroup;
+import org.osm2world.core.map_data.creation.LatLon;
+import org.osm2world.core.map_data.creation.MapProjection;
+import org.osm2world.core.map_data.data.MapData;
+import org.osm2world.core.map_elevation.data.GroundState;
+import org.osm2world.core.math.AxisAlignedBoundingBoxXZ;
+import org.osm2world.core.math.TriangleXYZ;
+import org.osm2world.core.math.TriangleXYZWithNormals;
+import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.target.RenderableToAllTargets;
+import org.osm2world.core.target.Target;
+import org.osm2world.core.target.TargetUtil;
+import org.osm2world.core.target.common.AbstractTarget;
+import org.osm2world.core.target.common.ImageTextureData;
+import org.osm2world.core.target.common.TextTextureData;
+import org.osm2world.core.target.common.TextureData;
+import org.osm2world.core.target.common.TextureData.Wrap;
+import org.osm2world.core.target.common.material.ImmutableMaterial;
+import org.osm2world.core.target.common.material.Material;
+import org.osm2world.core.target.common.material.Material.AmbientOcclusion;
+import org.osm2world.core.target.common.material.Material.Interpolation;
+import org.osm2world.core.target.common.material.Material.Shadow;
+import org.osm2world.core.target.common.material.Material.Transparency;
+import org.osm2world.core.target.common.material.Materials;
+import org.osm2world.core.target.common.material.NamedTexCoordFunction;
+import org.osm2world.core.target.common.model.InstanceParameters;
+import org.osm2world.core.target.common.model.Model;
+import org.osm2world.core.target.common.model.ModelGeometry;
+import org.osm2world.core.target.common.model.ModelKey;
+import org.osm2world.core.target.frontend_pbf.ModelTarget;
+import org.osm2world.core.target.obj.ObjTarget;
+import org.osm2world.core.world.data.WorldObject;
+
+/**
+ * the rendered geometry of a converted world, stored in a compact binary file.
+ * It can be written after a conversion and rendered to targets later on
+ * without repeating the conversion.
+ *
+ * The file is memory-mapped when it is read, and objects are only decoded
+ * while they are being rendered. Objects are stored as the triangles, strips, fans and polygons
+ * they have been drawn with, so target-specific renderables and model instances
+ * are replaced with the geometry they produce for {@link RenderableToAllTargets}.
+ * Coordinates are stored as doubles, so OBJ output is identical to output written without the cache.
+ */
+public class CachedWorld {
+
+	/** version of the file format, needs to be increased for each incompatible change */
+	public static final int FORMAT_VERSION = 2;
+
+	/** maximum size of a file which can be read, files are mapped into a single buffer */
+	public static final long MAX_FILE_SIZE = Integer.MAX_VALUE;
+
+	private static final int MAGIC = 0x4F325743; // "O2WC"
+
+	private static final byte END = 0;
+	private static final byte OBJECT = 1;
+	private static final byte MATERIAL = 2;
+	private static final byte TRIANGLES = 3;
+	private static final byte TRIANGLES_WITH_NORMALS = 4;
+	private static final byte TRIANGLE_STRIP = 5;
+	private static final byte TRIANGLE_FAN = 6;
+	private static final byte CONVEX_POLYGON = 7;
+
+	private static final byte IMAGE_TEXTURE = 0;
+	private static final byte TEXT_TEXTURE = 1;
+
+	private final LatLon origin;
+	private final AxisAlignedBoundingBoxXZ boundary;
+
+	/** the content of the file, positioned at the first record after the header */
+	private final ByteBuffer content;
+
+	private CachedWorld(LatLon origin, AxisAlignedBoundingBoxXZ boundary, ByteBuffer content) {
+		this.origin = origin;
+		this.boundary = boundary;
+		this.content = content;
+	}
+
+	/**
+	 * returns the origin of the map projection which has been used for the conversion
+	 */
+	public LatLon getOrigin() {
+		return origin;
+	}
+
+	/**
+	 * returns the boundary of the converted map data, see {@link MapData#getBoundary()}
+	 */
+	public AxisAlignedBoundingBoxXZ getBoundary() {
+		return boundary;
+	}
+
+	/**
+	 * renders all objects to a target.
+	 * Calls {@link Target#beginObject(WorldObject)} with null for each object,
+	 * except for {@link ObjTarget}s, which receive the original object's group and name.
+	 * Named materials from {@link Materials} are looked up again, so they need to
+	 * be configured before calling this.
+	 */
+	public void renderTo(Target<?> target, boolean renderUnderground) {
+
+		ByteBuffer buffer = content.duplicate();
+
+		List<Material> materials = new ArrayList<Material>();
+
+		boolean skipObject = false;
+
+		byte record;
+
+		while ((record = buffer.get()) != END) {
+
+			switch (record) {
+
+			case OBJECT:
+
+				GroundState groundState = GroundState.values()[buffer.get()];
+				String groupName = readString(buffer);
+				String label = readString(buffer);
+
+				skipObject = !renderUnderground && groundState == GroundState.BELOW;
+
+				if (!skipObject) {
+					if (target instanceof ObjTarget) {
+						((ObjTarget)target).beginObject(groupName, label);
+					} else {
+						target.beginObject(null);
+					}
+				}
+
+				break;
+
+			case MATERIAL:
+				materials.add(readMaterial(buffer));
+				break;
+
+			default:
+
+				Material material = materials.get(buffer.getInt());
+				int numVertices = buffer.getInt();
+				int numTextureLayers = buffer.get();
+
+				List<VectorXYZ> vs = readVectorsXYZ(buffer, numVertices);
+				List<VectorXYZ> normals = null;
+				if (record == TRIANGLES_WITH_NORMALS) {
+					normals = readVectorsXYZ(buffer, numVertices);
+				}
+
+				List<List<VectorXZ>> texCoordLists = emptyList();
+				if (numTextureLayers > 0) {
+					texCoordLists = new ArrayList<List<VectorXZ>>(numTextureLayers);
+					for (int layer = 0; layer < numTextureLayers; layer++) {
+						texCoordLists.add(readVectorsXZ(buffer, numVertices));
+					}
+				}
+
+				if (!skipObject) {
+					draw(target, record, material, vs, normals, texCoordLists);
+				}
+
+				break;
+
+			}
+
+		}
+
+	}
+
+	private static void draw(Target<?> target, byte type, Material material,
+			List<VectorXYZ> vs, List<VectorXYZ> normals, List<List<VectorXZ>> texCoordLists) {
+
+		switch (type) {
+
+		case TRIANGLES:
+			target.drawTriangles(material, trianglesFromVertexList(vs), texCoordLists);
+			break;
+
+		case TRIANGLES_WITH_NORMALS:
+			List<TriangleXYZWithNormals> triangles = new ArrayList<TriangleXYZWithNormals>(vs.size() / 3);
+			for (int i = 0; i + 2 < vs.size(); i += 3) {
+				triangles.add(new TriangleXYZWithNormals(vs.get(i), vs.get(i + 1), vs.get(i + 2),
+						normals.get(i), normals.get(i + 1), normals.get(i + 2)));
+			}
+			target.drawTrianglesWithNormals(material, triangles, texCoordLists);
+			break;
+
+		case TRIANGLE_STRIP:
+			target.drawTriangleStrip(material, vs, texCoordLists);
+			break;
+
+		case TRIANGLE_FAN:
+			target.drawTriangleFan(material, vs, texCoordLists);
+			break;
+
+		case CONVEX_POLYGON:
+			target.drawConvexPolygon(material, vs, texCoordLists);
+			break;
+
+		default:
+			throw new IllegalStateException("invalid record type " + type);
+
+		}
+
+	}
+
+	/**
+	 * reads a file which has been written by {@link #write(File, MapData, MapProjection)}.
+	 * The file must not be modified while the returned instance is in use.
+	 */
+	public static CachedWorld read(File file) throws IOException {
+
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+
+			FileChannel channel = randomAccessFile.getChannel();
+
+			if (channel.size() > MAX_FILE_SIZE) {
+				throw new IOException("cache file is too large to be mapped: " + file);
+			}
+
+			ByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+
+			if (buffer.remaining() < 25 || buffer.getInt() != MAGIC) {
+				throw new IOException("not a cached world: " + file);
+			} else if (buffer.getInt() != FORMAT_VERSION) {
+				throw new IOException("unsupported version of cached world: " + file);
+			}
+
+			LatLon origin = new LatLon(buffer.getDouble(), buffer.getDouble());
+
+			AxisAlignedBoundingBoxXZ boundary = null;
+			if (buffer.get() != 0) {
+				boundary = new AxisAlignedBoundingBoxXZ(buffer.getDouble(), buffer.getDouble(),
+						buffer.getDouble(), buffer.getDouble());
+			}
+
+			return new CachedWorld(origin, boundary, buffer.slice());
+
+		}
+
+	}
+
+	/**
+	 * renders all world objects (including underground objects) and writes them to a file
+	 *
+	 * @param mapProjection  the projection used for the conversion, its origin is stored in the file
+	 */
+	public static void write(File file, MapData mapData, MapProjection mapProjection)
+			throws IOException {
+
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeDouble(mapProjection.getOrigin().lat);
+			out.writeDouble(mapProjection.getOrigin().lon);
+
+			AxisAlignedBoundingBoxXZ boundary = mapData.getBoundary();
+			out.writeBoolean(boundary != null);
+			if (boundary != null) {
+				out.writeDouble(boundary.minX);
+				out.writeDouble(boundary.minZ);
+				out.writeDouble(boundary.maxX);
+				out.writeDouble(boundary.maxZ);
+			}
+
+			RecordingTarget target = new RecordingTarget(out);
+
+			TargetUtil.renderWorldObjects(target, mapData, true);
+
+			if (target.exception != null) {
+				throw target.exception;
+			}
+
+			out.writeByte(END);
+
+		}
+
+	}
+
+	/**
+	 * target which writes the records for all draw calls.
+	 * Other draw methods are turned into triangle strips and fans by {@link AbstractTarget}.
+	 * Models are drawn from their {@link ModelGeometry} like in {@link ObjTarget},
+	 * so OBJ files written from the cache are identical to those written without it.
+	 */
+	private static class RecordingTarget extends AbstractTarget<RenderableToAllTargets>
+			implements ModelTarget<RenderableToAllTargets> {
+
+		private final DataOutputStream out;
+
+		private final Map<Material, Integer> materialIndices = new HashMap<Material, Integer>();
+
+		private final Map<ModelKey, ModelGeometry> modelGeometries = new HashMap<ModelKey, ModelGeometry>();
+
+		/**
+		 * the first exception that occurred while writing.
+		 * Exceptions are not thrown from the draw methods because
+		 * {@link TargetUtil} would ignore them.
+		 */
+		private IOException exception = null;
+
+		public RecordingTarget(DataOutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public Class<RenderableToAllTargets> getRenderableType() {
+			return RenderableToAllTargets.class;
+		}
+
+		@Override
+		public void render(RenderableToAllTargets renderable) {
+			renderable.renderTo(this);
+		}
+
+		@Override
+		public void beginObject(WorldObject object) {
+
+			if (exception != null) return;
+
+			try {
+
+				out.writeByte(OBJECT);
+
+				if (object == null) {
+					out.writeByte(GroundState.ON.ordinal());
+					writeString(out, null);
+					writeString(out, null);
+				} else {
+					out.writeByte(object.getGroundState().ordinal());
+					writeString(out, object.getClass().getSimpleName());
+					writeString(out, getLabel(object));
+				}
+
+			} catch (IOException e) {
+				exception = e;
+			}
+
+		}
+
+		@Override
+		public void drawTriangles(Material material,
+				Collection<? extends TriangleXYZ> triangles,
+				List<List<VectorXZ>> texCoordLists) {
+
+			List<VectorXYZ> vs = new ArrayList<VectorXYZ>(triangles.size() * 3);
+
+			for (TriangleXYZ triangle : triangles) {
+				vs.add(triangle.v1);
+				vs.add(triangle.v2);
+				vs.add(triangle.v3);
+			}
+
+			writePrimitive(TRIANGLES, material, vs, null, texCoordLists);
+
+		}
+
+		@Override
+		public void drawTrianglesWithNormals(Material material,
+				Collection<? extends TriangleXYZWithNormals> triangles,
+				List<List<VectorXZ>> texCoordLists) {
+
+			List<VectorXYZ> vs = new ArrayList<VectorXYZ>(triangles.size() * 3);
+			List<VectorXYZ> normals = new ArrayList<VectorXYZ>(triangles.size() * 3);
+
+			for (TriangleXYZWithNormals triangle : triangles) {
+				vs.add(triangle.v1);
+				vs.add(triangle.v2);
+				vs.add(triangle.v3);
+				normals.add(triangle.n1);
+				normals.add(triangle.n2);
+				normals.add(triangle.n3);
+			}
+
+			writePrimitive(TRIANGLES_WITH_NORMALS, material, vs, normals, texCoordLists);
+
+		}
+
+		@Override
+		public void drawTriangleStrip(Material material, List<VectorXYZ> vs,
+				List<List<VectorXZ>> texCoordLists) {
+			writePrimitive(TRIANGLE_STRIP, material, vs, null, texCoordLists);
+		}
+
+		@Override
+		public void drawTriangleFan(Material material, List<VectorXYZ> vs,
+				List<List<VectorXZ>> texCoordLists) {
+			writePrimitive(TRIANGLE_FAN, material, vs, null, texCoordLists);
+		}
+
+		@Override
+		public void drawConvexPolygon(Material material, List<VectorXYZ> vs,
+				List<List<VectorXZ>> texCoordLists) {
+			writePrimitive(CONVEX_POLYGON, material, vs, null, texCoordLists);
+		}
+
+		@Override
+		public void drawModel(Model model, VectorXYZ position,
+				double direction, Double height, Double width, Double length) {
+
+			ModelKey key = new ModelKey(model, width, length);
+			ModelGeometry geometry = modelGeometries.get(key);
+
+			if (geometry == null) {
+				geometry = ModelGeometry.record(key);
+				modelGeometries.put(key, geometry);
+			}
+
+			if (geometry.isInstanceable()) {
+				geometry.drawTo(this, new InstanceParameters(position, direction, height, width, length));
+			} else {
+				model.render(this, position, direction, height, width, length);
+			}
+
+		}
+
+		@Override
+		public void finish() {}
+
+		private void writePrimitive(byte type, Material material, List<VectorXYZ> vs,
+				List<VectorXYZ> normals, List<List<VectorXZ>> texCoordLists) {
+
+			if (exception != null) return;
+
+			try {
+
+				Integer materialIndex = materialIndices.get(material);
+
+				if (materialIndex == null) {
+					materialIndex = materialIndices.size();
+					materialIndices.put(material, materialIndex);
+					out.writeByte(MATERIAL);
+					writeMaterial(out, material);
+				}
+
+				int numTextureLayers = texCoordLists == null ? 0 : texCoordLists.size();
+
+				out.writeByte(type);
+				out.writeInt(materialIndex);
+				out.writeInt(vs.size());
+				out.writeByte(numTextureLayers);
+
+				for (VectorXYZ v : vs) {
+					out.writeDouble(v.x);
+					out.writeDouble(v.y);
+					out.writeDouble(v.z);
+				}
+
+				if (normals != null) {
+					for (VectorXYZ n : normals) {
+						out.writeDouble(n.x);
+						out.writeDouble(n.y);
+						out.writeDouble(n.z);
+					}
+				}
+
+				for (int layer = 0; layer < numTextureLayers; layer++) {
+					for (VectorXZ t : texCoordLists.get(layer)) {
+						out.writeDouble(t.x);
+						out.writeDouble(t.z);
+					}
+				}
+
+			} catch (IOException e) {
+				exception = e;
+			}
+
+		}
+
+	}
+
+	/**
+	 * returns the name or ref of an object's primary map element, or null if there is none
+	 */
+	private static String getLabel(WorldObject object) {
+
+		if (object.getPrimaryMapElement() == null) return null;
+
+		TagGroup tags = object.getPrimaryMapElement().getTags();
+
+		if (tags.containsKey("name")) {
+			return tags.getValue("name");
+		} else if (tags.containsKey("ref")) {
+			return tags.getValue("ref");
+		} else {
+			return null;
+		}
+
+	}
+
+	/**
+	 * writes a material. Named materials from {@link Materials} are only stored by name.
+	 */
+	private static void writeMaterial(DataOutputStream out, Material material) throws IOException {
+
+		String name = Materials.getUniqueName(material);
+
+		writeString(out, name);
+
+		if (name != null) return;
+
+		out.writeByte(material.getInterpolation().ordinal());
+		out.writeInt(material.getColor().getRGB());
+		out.writeFloat(material.getAmbientFactor());
+		out.writeFloat(material.getDiffuseFactor());
+		out.writeFloat(material.getSpecularFactor());
+		out.writeInt(material.getShininess());
+		out.writeByte(material.getTransparency().ordinal());
+		out.writeByte(material.getShadow().ordinal());
+		out.writeByte(material.getAmbientOcclusion().ordinal());
+
+		List<TextureData> textures = material.getTextureDataList();
+
+		out.writeInt(textures == null ? 0 : textures.size());
+
+		if (textures == null) return;
+
+		for (TextureData texture : textures) {
+
+			if (texture instanceof TextTextureData) {
+				out.writeByte(TEXT_TEXTURE);
+			} else if (texture instanceof ImageTextureData) {
+				out.writeByte(IMAGE_TEXTURE);
+			} else {
+				throw new IOException("unsupported texture type " + texture.getClass());
+			}
+
+			out.writeDouble(texture.width);
+			out.writeDouble(texture.height);
+			out.writeByte(texture.wrap.ordinal());
+			writeString(out, texture.coordFunction instanceof NamedTexCoordFunction
+					? ((NamedTexCoordFunction)texture.coordFunction).name() : null);
+			out.writeBoolean(texture.colorable);
+			out.writeBoolean(texture.isBumpMap);
+
+			if (texture instanceof TextTextureData) {
+
+				TextTextureData textTexture = (TextTextureData)texture;
+
+				writeString(out, textTexture.text);
+				out.writeBoolean(textTexture.font != null);
+				if (textTexture.font != null) {
+					writeString(out, textTexture.font.getName());
+					out.writeInt(textTexture.font.getStyle());
+					out.writeInt(textTexture.font.getSize());
+				}
+				out.writeDouble(textTexture.topOffset);
+				out.writeDouble(textTexture.leftOffset);
+				out.writeBoolean(textTexture.textColor != null);
+				if (textTexture.textColor != null) {
+					out.writeInt(textTexture.textColor.getRGB());
+				}
+				out.writeDouble(textTexture.relativeFontSize);
+
+			} else {
+
+				writeString(out, ((ImageTextureData)texture).getFile().getPath());
+
+			}
+
+		}
+
+	}
+
+	private static Material readMaterial(ByteBuffer buffer) {
+
+		String name = readString(buffer);
+
+		if (name != null) {
+			return Materials.getMaterial(name);
+		}
+
+		Interpolation interpolation = Interpolation.values()[buffer.get()];
+		Color color = new Color(buffer.getInt(), true);
+		float ambientFactor = buffer.getFloat();
+		float diffuseFactor = buffer.getFloat();
+		float specularFactor = buffer.getFloat();
+		int shininess = buffer.getInt();
+		Transparency transparency = Transparency.values()[buffer.get()];
+		Shadow shadow = Shadow.values()[buffer.get()];
+		AmbientOcclusion ao = AmbientOcclusion.values()[buffer.get()];
+
+		int numTextures = buffer.getInt();
+
+		List<TextureData> textures = new ArrayList<TextureData>(numTextures);
+
+		for (int i = 0; i < numTextures; i++) {
+
+			byte textureType = buffer.get();
+
+			double width = buffer.getDouble();
+			double height = buffer.getDouble();
+			Wrap wrap = Wrap.values()[buffer.get()];
+			String coordFunctionName = readString(buffer);
+			NamedTexCoordFunction coordFunction = coordFunctionName == null
+					? null : NamedTexCoordFunction.valueOf(coordFunctionName);
+			boolean colorable = buffer.get() != 0;
+			boolean isBumpMap = buffer.get() != 0;
+
+			if (textureType == TEXT_TEXTURE) {
+
+				String text = readString(buffer);
+				Font font = null;
+				if (buffer.get() != 0) {
+					font = new Font(readString(buffer), buffer.getInt(), buffer.getInt());
+				}
+				double topOffset = buffer.getDouble();
+				double leftOffset = buffer.getDouble();
+				Color textColor = null;
+				if (buffer.get() != 0) {
+					textColor = new Color(buffer.getInt(), true);
+				}
+				double relativeFontSize = buffer.getDouble();
+
+				textures.add(new TextTextureData(text, font, width, height, topOffset, leftOffset,
+						textColor, relativeFontSize, wrap, coordFunction, colorable, isBumpMap));
+
+			} else {
+
+				File file = new File(readString(buffer));
+
+				textures.add(new ImageTextureData(file, width, height, wrap, coordFunction,
+						colorable, isBumpMap));
+
+			}
+
+		}
+
+		return ImmutableMaterial.intern(new ImmutableMaterial(interpolation, color, ambientFactor,
+				diffuseFactor, specularFactor, shininess, transparency, shadow, ao, textures));
+
+	}
+
+	private static List<VectorXYZ> readVectorsXYZ(ByteBuffer buffer, int count) {
+		List<VectorXYZ> result = new ArrayList<VectorXYZ>(count);
+		for (int i = 0; i < count; i++) {
+			result.add(new VectorXYZ(buffer.getDouble(), buffer.getDouble(), buffer.getDouble()));
+		}
+		return result;
+	}
+
+	private static List<VectorXZ> readVectorsXZ(ByteBuffer buffer, int count) {
+		List<VectorXZ> result = new ArrayList<VectorXZ>(count);
+		for (int i = 0; i < count; i++) {
+			result.add(new VectorXZ(buffer.getDouble(), buffer.getDouble()));
+		}
+		return result;
+	}
+
+	/** writes a string as UTF-8 bytes with a length prefix, or a length of -1 for null */
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		if (s == null) {
+			out.writeInt(-1);
+		} else {
+			byte[] bytes = s.getBytes(UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		} else {
+			byte[] bytes = new byte[length];
+			buffer.get(bytes);
+			return new String(bytes, UTF_8);
+		}
+	}
+
+}
@@ -1,12 +1,15 @@
 package org.osm2world.core.target.common;
 
 import static java.lang.Math.abs;
+import static java.util.Arrays.asList;
 import static java.util.Collections.nCopies;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 
 import org.osm2world.core.math.TriangleXYZ;
 import org.osm2world.core.math.TriangleXYZWithNormals;
@@ -16,6 +19,8 @@ import org.osm2world.core.target.Renderable;
 import org.osm2world.core.target.common.material.Material;
 import org.osm2world.core.world.data.WorldObject;
 
+import gnu.trove.list.array.TIntArrayList;
+
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 
@@ -75,68 +80,87 @@ public abstract class FaceTarget<R extends Renderable>
 		 */
 		public boolean tryInsert(IsolatedTriangle t) {
 
-			for (int i = 0; i < vs.size(); i++) {
-				int j = (i+1) % vs.size();
-				int k = (i+2) % vs.size();
-
-				if (vs.get(i).equals(t.triangle.v3)
-						&& vs.get(j).equals(t.triangle.v2)) { /* TODO tex coords equal */
-
-					if (vs.get(k).equals(t.triangle.v1)) {
-
-						removeVertex(j);
+			int i = findInsertionEdge(t);
 
-					} else {
+			if (i < 0) {
+				return false;
+			} else {
+				insert(i, t);
+				return true;
+			}
 
-						insertVertex(j, t.triangle.v1,
-								texCoordLists, t.texCoordOffset + 0);
+		}
 
-					}
+		/**
+		 * returns the first position i where the edge from vertex i to its successor
+		 * is also an edge of the triangle (in the opposite direction), or -1 if there is none
+		 */
+		private int findInsertionEdge(IsolatedTriangle t) {
 
-					return true;
+			for (int i = 0; i < vs.size(); i++) {
+				int j = (i+1) % vs.size();
 
+				if (vs.get(i).equals(t.triangle.v3)
+						&& vs.get(j).equals(t.triangle.v2)) { /* TODO tex coords equal */
+					return i;
 				}
 
 				if (vs.get(i).equals(t.triangle.v1)
 						&& vs.get(j).equals(t.triangle.v3)) { /* TODO tex coords equal */
+					return i;
+				}
 
-					if (vs.get(k).equals(t.triangle.v2)) {
-
-						removeVertex(j);
-
-					} else {
-
-						insertVertex(j, t.triangle.v2,
-								texCoordLists, t.texCoordOffset + 1);
+				if (vs.get(i).equals(t.triangle.v2)
+						&& vs.get(j).equals(t.triangle.v1)) { /* TODO tex coords equal */
+					return i;
+				}
 
-					}
+			}
 
-					return true;
+			return -1;
 
-				}
+		}
 
-				if (vs.get(i).equals(t.triangle.v2)
-						&& vs.get(j).equals(t.triangle.v1)) { /* TODO tex coords equal */
+		/**
+		 * inserts a triangle at the edge starting at position i,
+		 * which must have been found with {@link #findInsertionEdge(IsolatedTriangle)}
+		 */
+		private void insert(int i, IsolatedTriangle t) {
 
-					if (vs.get(k).equals(t.triangle.v3)) {
+			int j = (i+1) % vs.size();
+			int k = (i+2) % vs.size();
 
-						removeVertex(j);
+			if (vs.get(i).equals(t.triangle.v3)
+					&& vs.get(j).equals(t.triangle.v2)) {
 
-					} else {
+				if (vs.get(k).equals(t.triangle.v1)) {
+					removeVertex(j);
+				} else {
+					insertVertex(j, t.triangle.v1,
+							t.texCoordLists, t.texCoordOffset + 0);
+				}
 
-						insertVertex(j, t.triangle.v3,
-								texCoordLists, t.texCoordOffset + 2);
+			} else if (vs.get(i).equals(t.triangle.v1)
+					&& vs.get(j).equals(t.triangle.v3)) {
 
-					}
+				if (vs.get(k).equals(t.triangle.v2)) {
+					removeVertex(j);
+				} else {
+					insertVertex(j, t.triangle.v2,
+							t.texCoordLists, t.texCoordOffset + 1);
+				}
 
-					return true;
+			} else {
 
+				if (vs.get(k).equals(t.triangle.v3)) {
+					removeVertex(j);
+				} else {
+					insertVertex(j, t.triangle.v3,
+							t.texCoordLists, t.texCoordOffset + 2);
 				}
 
 			}
 
-			return false;
-
 		}
 
 		public void removeDuplicateEdges() {
@@ -328,46 +352,106 @@ public abstract class FaceTarget<R extends Renderable>
 	}
 
 	/**
+	 * combines triangles into faces. Each step inserts the first remaining triangle
+	 * which shares an edge with one of the existing faces into the first such face.
+	 * If there is no such triangle, the first remaining triangle starts a new face.
+	 *
+	 * Instead of testing all remaining triangles against all faces, the faces' edges
+	 * and the triangles waiting for each edge are kept in hash maps.
+	 *
 	 * @param isolatedTriangles  non-empty collection of triangles
 	 */
 	protected static Collection<Face> combineTrianglesToFaces(
 			Collection<IsolatedTriangle> isolatedTriangles) {
 
-		List<IsolatedTriangle> triangles =
-				new LinkedList<IsolatedTriangle>(isolatedTriangles);
+		IsolatedTriangle[] triangles = isolatedTriangles.toArray(
+				new IsolatedTriangle[isolatedTriangles.size()]);
+
+		boolean[] used = new boolean[triangles.length];
+		int firstUnused = 0;
 
-		Collection<Face> faces = new ArrayList<Face>();
+		List<Face> faces = new ArrayList<Face>();
 
-		/* turn one triangle into a face */
+		/* the faces having each edge, and the triangles which can be attached to each edge */
 
-		faces.add(createFaceFromTriangle(triangles.remove(0)));
+		Map<Edge, TIntArrayList> facesByEdge = new HashMap<Edge, TIntArrayList>();
+		Map<Edge, TIntArrayList> trianglesByEdge = new HashMap<Edge, TIntArrayList>();
 
-		/* turn remaining triangles into faces or insert them into existing ones */
+		for (int t = 0; t < triangles.length; t++) {
+			TriangleXYZ triangle = triangles[t].triangle;
+			addToIndex(trianglesByEdge, new Edge(triangle.v2, triangle.v1), t);
+			addToIndex(trianglesByEdge, new Edge(triangle.v3, triangle.v2), t);
+			addToIndex(trianglesByEdge, new Edge(triangle.v1, triangle.v3), t);
+		}
 
-		trianglesToFacesLoop: while (!triangles.isEmpty()) {
+		/* triangles which might be insertable into an existing face */
 
-			/* try to insert triangles into existing faces */
+		PriorityQueue<Integer> candidates = new PriorityQueue<Integer>();
 
-			for (IsolatedTriangle triangle : triangles) {
-				for (Face face : faces) {
+		while (true) {
 
-					if (normalAlmostEquals(face.normal, triangle.normal)) {
+			/* insert the first triangle that fits into an existing face */
 
-						boolean inserted = face.tryInsert(triangle);
+			while (!candidates.isEmpty()) {
 
-						if (inserted) {
-							triangles.remove(triangle);
-							continue trianglesToFacesLoop;
-						}
+				int t = candidates.poll();
+
+				if (used[t]) continue;
+
+				int f = findFaceForTriangle(triangles[t], faces, facesByEdge);
 
+				if (f < 0) continue;
+
+				used[t] = true;
+
+				Face face = faces.get(f);
+				int i = face.findInsertionEdge(triangles[t]);
+
+				if (face.vs.size() < 4) {
+
+					removeEdgesFromIndex(facesByEdge, face, f);
+					face.insert(i, triangles[t]);
+					addEdgesToIndex(facesByEdge, trianglesByEdge, candidates, face, f);
+
+				} else {
+
+					int size = face.vs.size();
+					int j = (i+1) % size;
+					VectorXYZ a = face.vs.get(i);
+					VectorXYZ b = face.vs.get(j);
+					VectorXYZ c = face.vs.get((i+2) % size);
+
+					face.insert(i, triangles[t]);
+
+					removeFromIndex(facesByEdge, new Edge(a, b), f);
+
+					if (face.vs.size() < size) {
+						removeFromIndex(facesByEdge, new Edge(b, c), f);
+						addEdgeToIndex(facesByEdge, trianglesByEdge, candidates, new Edge(a, c), f);
+					} else {
+						VectorXYZ newVertex = face.vs.get(j);
+						addEdgeToIndex(facesByEdge, trianglesByEdge, candidates, new Edge(a, newVertex), f);
+						addEdgeToIndex(facesByEdge, trianglesByEdge, candidates, new Edge(newVertex, b), f);
 					}
 
 				}
+
 			}
 
 			/* could not extend existing faces, start a new face instead */
 
-			faces.add(createFaceFromTriangle(triangles.remove(0)));
+			while (firstUnused < triangles.length && used[firstUnused]) {
+				firstUnused ++;
+			}
+
+			if (firstUnused == triangles.length) break;
+
+			used[firstUnused] = true;
+
+			Face face = createFaceFromTriangle(triangles[firstUnused]);
+			faces.add(face);
+
+			addEdgesToIndex(facesByEdge, trianglesByEdge, candidates, face, faces.size() - 1);
 
 		}
 
@@ -381,6 +465,134 @@ public abstract class FaceTarget<R extends Renderable>
 
 	}
 
+	/**
+	 * returns the index of the first face which shares an edge with the triangle
+	 * and has a similar normal, or -1 if there is none
+	 */
+	private static int findFaceForTriangle(IsolatedTriangle t,
+			List<Face> faces, Map<Edge, TIntArrayList> facesByEdge) {
+
+		int result = -1;
+
+		for (Edge edge : asList(new Edge(t.triangle.v2, t.triangle.v1),
+				new Edge(t.triangle.v3, t.triangle.v2),
+				new Edge(t.triangle.v1, t.triangle.v3))) {
+
+			TIntArrayList faceIndices = facesByEdge.get(edge);
+
+			if (faceIndices != null) {
+				for (int i = 0; i < faceIndices.size(); i++) {
+					int f = faceIndices.get(i);
+					if ((result < 0 || f < result)
+							&& normalAlmostEquals(faces.get(f).normal, t.normal)) {
+						result = f;
+					}
+				}
+			}
+
+		}
+
+		return result;
+
+	}
+
+	private static void addEdgesToIndex(Map<Edge, TIntArrayList> facesByEdge,
+			Map<Edge, TIntArrayList> trianglesByEdge, PriorityQueue<Integer> candidates,
+			Face face, int f) {
+		for (int i = 0; i < face.vs.size(); i++) {
+			Edge edge = new Edge(face.vs.get(i), face.vs.get((i+1) % face.vs.size()));
+			addEdgeToIndex(facesByEdge, trianglesByEdge, candidates, edge, f);
+		}
+	}
+
+	private static void removeEdgesFromIndex(Map<Edge, TIntArrayList> facesByEdge, Face face, int f) {
+		for (int i = 0; i < face.vs.size(); i++) {
+			Edge edge = new Edge(face.vs.get(i), face.vs.get((i+1) % face.vs.size()));
+			removeFromIndex(facesByEdge, edge, f);
+		}
+	}
+
+	/**
+	 * adds a face's edge to the index,
+	 * and makes the triangles which can be attached to it candidates for insertion
+	 */
+	private static void addEdgeToIndex(Map<Edge, TIntArrayList> facesByEdge,
+			Map<Edge, TIntArrayList> trianglesByEdge, PriorityQueue<Integer> candidates,
+			Edge edge, int f) {
+
+		addToIndex(facesByEdge, edge, f);
+
+		TIntArrayList waitingTriangles = trianglesByEdge.get(edge);
+
+		if (waitingTriangles != null) {
+			for (int i = 0; i < waitingTriangles.size(); i++) {
+				candidates.add(waitingTriangles.get(i));
+			}
+		}
+
+	}
+
+	private static void addToIndex(Map<Edge, TIntArrayList> index, Edge edge, int value) {
+
+		TIntArrayList values = index.get(edge);
+
+		if (values == null) {
+			values = new TIntArrayList(1);
+			index.put(edge, values);
+		}
+
+		values.add(value);
+
+	}
+
+	private static void removeFromIndex(Map<Edge, TIntArrayList> index, Edge edge, int value) {
+
+		TIntArrayList values = index.get(edge);
+
+		if (values != null) {
+			values.remove(value);
+		}
+
+	}
+
+	/**
+	 * a directed edge, with the same notion of equality as {@link VectorXYZ#equals(Object)}
+	 */
+	private static final class Edge {
+
+		private final VectorXYZ from;
+		private final VectorXYZ to;
+
+		public Edge(VectorXYZ from, VectorXYZ to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Edge)) return false;
+			Edge other = (Edge) obj;
+			return from.equals(other.from) && to.equals(other.to);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * hashCode(from) + hashCode(to);
+		}
+
+		/**
+		 * hash code which is consistent with {@link VectorXYZ#equals(Object)},
+		 * unlike {@link VectorXYZ#hashCode()}, by treating -0.0 like 0.0
+		 */
+		private static int hashCode(VectorXYZ v) {
+			int result = Double.hashCode(v.x + 0.0);
+			result = 31 * result + Double.hashCode(v.y + 0.0);
+			result = 31 * result + Double.hashCode(v.z + 0.0);
+			return result;
+		}
+
+	}
+
 	protected static boolean normalAlmostEquals(VectorXYZ n1, VectorXYZ n2) {
 
 		return abs(n1.x - n2.x) <= 0.01
@@ -1,9 +1,8 @@
 package org.osm2world.core.target.common;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.nio.file.Files;
 
 import org.apache.batik.transcoder.TranscoderException;
 import org.apache.batik.transcoder.TranscoderInput;
@@ -37,7 +36,7 @@ public class ImageTextureData extends TextureData {
 	}
 
 	@Override
-	public File getRasterImage() {
+	public synchronized File getRasterImage() {
 
 		if(this.file.getName().endsWith(".svg")) {
 
@@ -55,42 +54,41 @@ public class ImageTextureData extends TextureData {
 
 
 	/**
-	 * Converts an .svg image file into a (temporary) .png
+	 * Converts an .svg image file into a .png.
+	 * The png is stored in the {@link RasterImageCache} based on the svg's content,
+	 * so it is only converted again if the svg changes.
 	 *
 	 * @param svg The svg file to be converted
 	 * @return a File object representation of the generated png
 	 */
 	private File SVG2PNG(File svg) {
 
-		String prefix = svg.getName().substring(0, svg.getName().indexOf('.')) + "osm2World";
-
-		PNGTranscoder t = new PNGTranscoder();
-
-		//create the transcoder input
-		String svgURI = svg.toURI().toString();
-		TranscoderInput input = new TranscoderInput(svgURI);
-
 		try {
 
-			File outputFile = null;
+			String key = "svg\n" + RasterImageCache.hash(Files.readAllBytes(svg.toPath()));
 
-			//create a temporary file in the default temporary-file directory
-			outputFile = File.createTempFile(prefix, ".png");
-			outputFile.deleteOnExit();
+			return RasterImageCache.getDefault().getPng(key, ostream -> {
 
-			try(OutputStream ostream = new FileOutputStream(outputFile)) {
+				PNGTranscoder t = new PNGTranscoder();
+
+				//create the transcoder input
+				String svgURI = svg.toURI().toString();
+				TranscoderInput input = new TranscoderInput(svgURI);
 
 				TranscoderOutput output = new TranscoderOutput(ostream);
 
 				//save the image.
-				t.transcode(input, output);
+				try {
+					t.transcode(input, output);
+				} catch (TranscoderException e) {
+					throw new IOException(e);
+				}
 
 				ostream.flush();
-			}
 
-			return outputFile;
+			});
 
-		} catch (IOException | TranscoderException e) {
+		} catch (IOException e) {
 
 			throw new RuntimeException(e);
 		}
@@ -106,7 +104,7 @@ public class ImageTextureData extends TextureData {
 	@Override
 	public int hashCode() {
 		final int prime = 31;
-		int result = 1;
+		int result = hashCodeOfCommonFields();
 		result = prime * result + ((file == null) ? 0 : file.hashCode());
 		return result;
 	}
@@ -121,6 +119,8 @@ public class ImageTextureData extends TextureData {
 		if (getClass() != obj.getClass())
 			return false;
 		ImageTextureData other = (ImageTextureData) obj;
+		if (!commonFieldsEqual(other))
+			return false;
 		if (file == null) {
 			if (other.file != null)
 				return false;
@@ -0,0 +1,170 @@
+package org.osm2world.core.target.common;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * a directory with png images which have been generated from text or vector graphics.
+ *
+ * Files are named after a hash of a key describing everything which affects the image,
+ * so they can be reused by later runs and other processes.
+ * Within a run, each image is only generated once, even if it is requested
+ * by several threads at the same time. Different images can be generated in parallel.
+ */
+public class RasterImageCache {
+
+	/** writes the content of a png file */
+	public static interface PngWriter {
+
+		public void writePng(OutputStream output) throws IOException;
+
+	}
+
+	/** needs to be changed when the generated images change for the same keys */
+	private static final int FORMAT_VERSION = 1;
+
+	private static final File DEFAULT_DIRECTORY =
+			new File(System.getProperty("java.io.tmpdir"), "osm2world-raster-images");
+
+	private static volatile RasterImageCache defaultCache = new RasterImageCache(DEFAULT_DIRECTORY);
+
+	/** returns the cache used for textures */
+	public static RasterImageCache getDefault() {
+		return defaultCache;
+	}
+
+	/**
+	 * sets the directory of the cache used for textures
+	 *
+	 * @param directory  the directory, or null for a directory in the default temporary-file directory
+	 */
+	public static void setDefaultDirectory(File directory) {
+		if (directory == null) {
+			directory = DEFAULT_DIRECTORY;
+		}
+		if (!directory.equals(defaultCache.getDirectory())) {
+			defaultCache = new RasterImageCache(directory);
+		}
+	}
+
+	private final File directory;
+
+	private final ConcurrentMap<String, FutureTask<File>> files =
+			new ConcurrentHashMap<String, FutureTask<File>>();
+
+	public RasterImageCache(File directory) {
+		this.directory = directory;
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * returns the png file for a key. Writes the file if it doesn't exist yet.
+	 *
+	 * @param key  describes all inputs of the image. Equal keys need to result in equal images.
+	 * @param writer  creates the image if necessary
+	 */
+	public File getPng(String key, PngWriter writer) throws IOException {
+
+		String hash = hash((FORMAT_VERSION + "\n" + key).getBytes(UTF_8));
+
+		FutureTask<File> task = new FutureTask<File>(() -> createPng(hash, writer));
+		FutureTask<File> existingTask = files.putIfAbsent(hash, task);
+
+		if (existingTask == null) {
+			task.run();
+		} else {
+			task = existingTask;
+		}
+
+		try {
+			return task.get();
+		} catch (ExecutionException e) {
+			files.remove(hash, task);
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			} else {
+				throw new RuntimeException(e.getCause());
+			}
+		} catch (InterruptedException e) {
+			throw new IOException("interrupted while waiting for " + key, e);
+		}
+
+	}
+
+	/**
+	 * writes a png file unless it has been written before, possibly by another process.
+	 * The file is written to a temporary location first,
+	 * so other processes will never see an incomplete file.
+	 */
+	private File createPng(String hash, PngWriter writer) throws IOException {
+
+		File file = new File(directory, hash + ".png");
+
+		if (file.length() > 0) {
+			return file;
+		}
+
+		if (!directory.exists() && !directory.mkdirs() && !directory.exists()) {
+			throw new IOException("could not create cache directory " + directory);
+		}
+
+		File tempFile = File.createTempFile(hash, ".tmp", directory);
+
+		try {
+
+			try (OutputStream output = new FileOutputStream(tempFile)) {
+				writer.writePng(output);
+			}
+
+			try {
+				Files.move(tempFile.toPath(), file.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile.toPath(), file.toPath(), REPLACE_EXISTING);
+			}
+
+		} finally {
+			tempFile.delete();
+		}
+
+		return file;
+
+	}
+
+	/** returns the hex representation of a SHA-256 hash */
+	static String hash(byte[] data) {
+
+		MessageDigest digest;
+
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+
+		StringBuilder result = new StringBuilder();
+
+		for (byte b : digest.digest(data)) {
+			result.append(String.format("%02x", b));
+		}
+
+		return result.toString();
+
+	}
+
+}
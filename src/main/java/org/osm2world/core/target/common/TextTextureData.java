@@ -16,9 +16,12 @@ import org.osm2world.core.target.common.material.TexCoordFunction;
 
 public class TextTextureData extends TextureData {
 
+	private static final Font DEFAULT_FONT = new Font("Interstate", Font.BOLD, 100);
+
 	/**
-	 * File generated based on {@link #text}
-	 * and temporarily saved until application termination
+	 * File generated based on {@link #text}.
+	 * Stored in the {@link RasterImageCache}, so it is shared with
+	 * equal text textures and kept for later runs.
 	 */
 	private File file;
 
@@ -49,78 +52,87 @@ public class TextTextureData extends TextureData {
 	}
 
 	@Override
-	public File getRasterImage() {
+	public synchronized File getRasterImage() {
 
-		if(file == null) {
+		if (file == null) {
 
-			if(!(text.equals(""))) {
+			try {
+				file = RasterImageCache.getDefault().getPng(getCacheKey(),
+						output -> ImageIO.write(createImage(), "png", output));
+			} catch (IOException e) {
+				System.err.println("Exception in createPng: " + text);
+				e.printStackTrace();
+			}
 
-				//temporary BufferedImage to extract font metrics
-				BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
-				Graphics2D g2d = image.createGraphics();
+		}
 
-				Font font = this.font == null ? new Font("Interstate", Font.BOLD, 100) : this.font ;
+		return this.file;
+	}
 
-				//extract font metrics
-				FontMetrics fm = g2d.getFontMetrics(font);
-				int stringWidth = fm.stringWidth(this.text);
-				int stringHeight = fm.getHeight();
-				g2d.dispose();
+	/**
+	 * returns a key for the {@link RasterImageCache} with all values affecting {@link #createImage()}
+	 */
+	private String getCacheKey() {
 
-				//image with actual size and text
-				int imageHeight = (int) (stringHeight/(relativeFontSize/100));
+		if (text.equals("")) {
+			return "text\n";
+		}
 
-				double signAspectRatio = this.width/this.height;
-				int imageWidth = (int) (imageHeight*signAspectRatio);
+		Font font = this.font == null ? DEFAULT_FONT : this.font;
 
-				image = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_ARGB);
-				g2d = image.createGraphics();
-				g2d.setFont(font);
-				g2d.setPaint(textColor);
+		return "text\n" + text
+				+ "\n" + font.getName() + "," + font.getStyle() + "," + font.getSize2D()
+				+ "\n" + (textColor == null ? "null" : Integer.toHexString(textColor.getRGB()))
+				+ "\n" + topOffset + "," + leftOffset + "," + relativeFontSize
+				+ "\n" + width + "," + height;
 
-				//place text
-				int xCoord = (int)(imageWidth*leftOffset/100 - stringWidth/2);
-				int yCoord = (int)(imageHeight*topOffset/100 + stringHeight/3 );
+	}
 
-				g2d.drawString(this.text, xCoord, yCoord);
+	private BufferedImage createImage() {
 
-				g2d.dispose();
+		if(!(text.equals(""))) {
 
-				String prefix = text+"osm2world";
+			//temporary BufferedImage to extract font metrics
+			BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+			Graphics2D g2d = image.createGraphics();
 
-				this.file = createPng(prefix, image);
-				return this.file;
+			Font font = this.font == null ? DEFAULT_FONT : this.font ;
 
-			} else {
+			//extract font metrics
+			FontMetrics fm = g2d.getFontMetrics(font);
+			int stringWidth = fm.stringWidth(this.text);
+			int stringHeight = fm.getHeight();
+			g2d.dispose();
 
-				//create blank texture
+			//image with actual size and text
+			int imageHeight = (int) (stringHeight/(relativeFontSize/100));
 
-				BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+			double signAspectRatio = this.width/this.height;
+			int imageWidth = (int) (imageHeight*signAspectRatio);
 
-				String prefix = "osm2world";
+			image = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_ARGB);
+			g2d = image.createGraphics();
+			g2d.setFont(font);
+			g2d.setPaint(textColor);
 
-				this.file = createPng(prefix, image);
-				return this.file;
-			}
-		}
+			//place text
+			int xCoord = (int)(imageWidth*leftOffset/100 - stringWidth/2);
+			int yCoord = (int)(imageHeight*topOffset/100 + stringHeight/3 );
 
-		return this.file;
-	}
+			g2d.drawString(this.text, xCoord, yCoord);
 
-	private File createPng(String prefix, BufferedImage image) {
+			g2d.dispose();
 
-		File outputFile = null;
+			return image;
+
+		} else {
+
+			//create blank texture
+
+			return new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
 
-		try {
-			outputFile = File.createTempFile(prefix, ".png");
-			outputFile.deleteOnExit();
-			ImageIO.write(image, "png", outputFile);
-		}catch(IOException e) {
-			System.err.println("Exception in createPng: "+prefix);
-			e.printStackTrace();
 		}
 
-		return outputFile;
 	}
 
 	public static enum FontStyle {
@@ -168,12 +180,15 @@ public class TextTextureData extends TextureData {
 				+ ", leftOffset=" + leftOffset + "]";
 	}
 
-	//auto-generated
+	/*
+	 * equality is based on the parameters of the text,
+	 * not on the temporary file which is created on demand
+	 */
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
-		int result = 1;
-		result = prime * result + ((file == null) ? 0 : file.hashCode());
+		int result = hashCodeOfCommonFields();
 		result = prime * result + ((font == null) ? 0 : font.hashCode());
 		long temp;
 		temp = Double.doubleToLongBits(leftOffset);
@@ -181,10 +196,12 @@ public class TextTextureData extends TextureData {
 		result = prime * result + ((text == null) ? 0 : text.hashCode());
 		temp = Double.doubleToLongBits(topOffset);
 		result = prime * result + (int) (temp ^ (temp >>> 32));
+		result = prime * result + ((textColor == null) ? 0 : textColor.hashCode());
+		temp = Double.doubleToLongBits(relativeFontSize);
+		result = prime * result + (int) (temp ^ (temp >>> 32));
 		return result;
 	}
 
-	//auto-generated
 	@Override
 	public boolean equals(Object obj) {
 		if (this == obj)
@@ -194,10 +211,7 @@ public class TextTextureData extends TextureData {
 		if (getClass() != obj.getClass())
 			return false;
 		TextTextureData other = (TextTextureData) obj;
-		if (file == null) {
-			if (other.file != null)
-				return false;
-		} else if (!file.equals(other.file))
+		if (!commonFieldsEqual(other))
 			return false;
 		if (font == null) {
 			if (other.font != null)
@@ -213,6 +227,13 @@ public class TextTextureData extends TextureData {
 			return false;
 		if (Double.doubleToLongBits(topOffset) != Double.doubleToLongBits(other.topOffset))
 			return false;
+		if (textColor == null) {
+			if (other.textColor != null)
+				return false;
+		} else if (!textColor.equals(other.textColor))
+			return false;
+		if (Double.doubleToLongBits(relativeFontSize) != Double.doubleToLongBits(other.relativeFontSize))
+			return false;
 		return true;
 	}
 
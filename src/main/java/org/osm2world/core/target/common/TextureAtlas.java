@@ -0,0 +1,415 @@
+package org.osm2world.core.target.common;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.target.common.TextureData.Wrap;
+import org.osm2world.core.target.common.material.ImmutableMaterial;
+import org.osm2world.core.target.common.material.Material;
+
+/**
+ * packs small, non-repeating textures into shared atlas images.
+ *
+ * Targets pass the material and texture coordinates of each draw call through the atlas
+ * before writing them, see {@link #apply(Material, List)}. If all of a material's
+ * texture layers are suitable and all texture coordinates are within the textures,
+ * the material is replaced with one using atlas images, and the texture coordinates
+ * are moved into the textures' regions of the atlas. Materials which only differ
+ * in their textures therefore become the same material, and can be drawn together.
+ *
+ * Only textures with {@link Wrap#CLAMP} are packed, and only for texture coordinates
+ * between 0 and 1, because a region of a larger image can be neither repeated nor clamped.
+ * Other draw calls keep their original material and texture coordinates.
+ * The atlas is built incrementally, so textures can be added while the output is written.
+ * The atlas images need to be written using {@link #write()} after the output is complete.
+ *
+ * All methods are thread-safe, so an atlas can be shared by targets in different threads.
+ */
+public class TextureAtlas {
+
+	public static final int DEFAULT_PAGE_SIZE = 2048;
+	public static final int DEFAULT_MAX_TEXTURE_SIZE = 512;
+
+	/**
+	 * number of pixels around each texture which repeat the texture's border pixels.
+	 * Prevents neighboring textures from bleeding in due to filtering.
+	 */
+	private static final int PADDING = 2;
+
+	/** marks textures which cannot be packed */
+	private static final Region NO_REGION = new Region(-1, 0, 0, 0, 0);
+
+	/**
+	 * how far texture coordinates may be outside the range from 0 to 1
+	 * due to rounding errors, and still be placed on the atlas
+	 */
+	private static final double TEX_COORD_TOLERANCE = 1e-6;
+
+	private final File directory;
+	private final String fileNamePrefix;
+	private final int pageSize;
+	private final int maxTextureSize;
+
+	private final List<Page> pages = new ArrayList<Page>();
+
+	private final Map<TextureData, Region> textureRegions = new HashMap<TextureData, Region>();
+	private final Map<File, Region> fileRegions = new HashMap<File, Region>();
+	private final Map<Material, Material> atlasMaterials = new HashMap<Material, Material>();
+
+	/**
+	 * @param directory  directory for the atlas images
+	 * @param fileNamePrefix  prefix for the names of the atlas images, followed by their number
+	 */
+	public TextureAtlas(File directory, String fileNamePrefix) {
+		this(directory, fileNamePrefix, DEFAULT_PAGE_SIZE, DEFAULT_MAX_TEXTURE_SIZE);
+	}
+
+	/**
+	 * @param pageSize  width and height of each atlas image, in pixels
+	 * @param maxTextureSize  maximum width and height of packed textures, in pixels.
+	 *                        Larger textures remain standalone.
+	 */
+	public TextureAtlas(File directory, String fileNamePrefix, int pageSize, int maxTextureSize) {
+
+		if (maxTextureSize + 2 * PADDING > pageSize) {
+			throw new IllegalArgumentException("textures of size " + maxTextureSize
+					+ " do not fit into pages of size " + pageSize);
+		}
+
+		this.directory = directory;
+		this.fileNamePrefix = fileNamePrefix;
+		this.pageSize = pageSize;
+		this.maxTextureSize = maxTextureSize;
+
+	}
+
+	/** a material and its texture coordinates, as they are written to the output */
+	public static final class AtlasResult {
+
+		public final Material material;
+		public final List<List<VectorXZ>> texCoordLists;
+
+		AtlasResult(Material material, List<List<VectorXZ>> texCoordLists) {
+			this.material = material;
+			this.texCoordLists = texCoordLists;
+		}
+
+	}
+
+	/**
+	 * returns the material and texture coordinates which replace those of a draw call in the output.
+	 * These are the original material and texture coordinates unless all texture layers
+	 * can be packed and all texture coordinates are between 0 and 1.
+	 */
+	public synchronized AtlasResult apply(Material material, List<List<VectorXZ>> texCoordLists) {
+
+		if (texCoordLists == null || texCoordLists.size() != material.getNumTextureLayers()
+				|| !isWithinTextures(texCoordLists)) {
+			return new AtlasResult(material, texCoordLists);
+		}
+
+		List<Region> regions = getRegions(material);
+
+		if (regions == null) {
+			return new AtlasResult(material, texCoordLists);
+		}
+
+		List<List<VectorXZ>> atlasTexCoordLists = new ArrayList<List<VectorXZ>>(texCoordLists.size());
+
+		for (int layer = 0; layer < texCoordLists.size(); layer++) {
+
+			Region region = regions.get(layer);
+
+			List<VectorXZ> texCoords = new ArrayList<VectorXZ>(texCoordLists.get(layer).size());
+
+			for (VectorXZ t : texCoordLists.get(layer)) {
+				texCoords.add(region.toAtlasTexCoord(t, pageSize));
+			}
+
+			atlasTexCoordLists.add(texCoords);
+
+		}
+
+		return new AtlasResult(getAtlasMaterial(material, regions), atlasTexCoordLists);
+
+	}
+
+	private static boolean isWithinTextures(List<List<VectorXZ>> texCoordLists) {
+
+		for (List<VectorXZ> texCoords : texCoordLists) {
+			for (VectorXZ t : texCoords) {
+				if (t.x < -TEX_COORD_TOLERANCE || t.x > 1 + TEX_COORD_TOLERANCE
+						|| t.z < -TEX_COORD_TOLERANCE || t.z > 1 + TEX_COORD_TOLERANCE) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+
+	}
+
+	/**
+	 * returns the material using atlas images which replaces a material in the output
+	 *
+	 * @param regions  the regions of all of the material's texture layers
+	 */
+	private Material getAtlasMaterial(Material material, List<Region> regions) {
+
+		Material result = atlasMaterials.get(material);
+
+		if (result == null) {
+
+			List<TextureData> textureDataList = new ArrayList<TextureData>(regions.size());
+
+			for (int layer = 0; layer < regions.size(); layer++) {
+				TextureData textureData = material.getTextureDataList().get(layer);
+				textureDataList.add(new ImageTextureData(pages.get(regions.get(layer).page).file,
+						1, 1, Wrap.CLAMP, null, textureData.colorable, textureData.isBumpMap));
+			}
+
+			result = ImmutableMaterial.intern(new ImmutableMaterial(
+					material.getInterpolation(), material.getColor(),
+					material.getAmbientFactor(), material.getDiffuseFactor(),
+					material.getSpecularFactor(), material.getShininess(),
+					material.getTransparency(), material.getShadow(),
+					material.getAmbientOcclusion(), textureDataList));
+
+			atlasMaterials.put(material, result);
+
+		}
+
+		return result;
+
+	}
+
+	/** returns the number of atlas images which have been started so far */
+	public synchronized int getNumPages() {
+		return pages.size();
+	}
+
+	/**
+	 * writes all atlas images as png files.
+	 * Needs to be called after all materials have been passed to the atlas.
+	 *
+	 * @return  the files which have been written
+	 */
+	public synchronized List<File> write() throws IOException {
+
+		List<File> result = new ArrayList<File>(pages.size());
+
+		if (!pages.isEmpty() && !directory.exists()) {
+			directory.mkdirs();
+		}
+
+		for (Page page : pages) {
+			ImageIO.write(page.image, "png", page.file);
+			result.add(page.file);
+		}
+
+		return result;
+
+	}
+
+	/**
+	 * returns the regions for all of a material's texture layers,
+	 * or null if the material has no textures or not all of them can be packed
+	 */
+	private List<Region> getRegions(Material material) {
+
+		if (material.getNumTextureLayers() == 0) {
+			return null;
+		}
+
+		for (TextureData textureData : material.getTextureDataList()) {
+			if (textureData.wrap != Wrap.CLAMP) {
+				return null;
+			}
+		}
+
+		List<Region> result = new ArrayList<Region>(material.getNumTextureLayers());
+
+		for (TextureData textureData : material.getTextureDataList()) {
+
+			Region region = textureRegions.get(textureData);
+
+			if (region == null) {
+				region = addTexture(textureData);
+				textureRegions.put(textureData, region);
+			}
+
+			if (region == NO_REGION) {
+				return null;
+			}
+
+			result.add(region);
+
+		}
+
+		return result;
+
+	}
+
+	/**
+	 * packs a texture's image into the atlas, unless it has been packed before.
+	 *
+	 * @return  the texture's region, or {@link #NO_REGION} if it cannot be packed
+	 */
+	private Region addTexture(TextureData textureData) {
+
+		File file = textureData.getRasterImage();
+
+		if (file == null || isPageFile(file)) {
+			return NO_REGION;
+		} else if (fileRegions.containsKey(file)) {
+			return fileRegions.get(file);
+		}
+
+		Region region = NO_REGION;
+
+		try {
+
+			BufferedImage image = ImageIO.read(file);
+
+			if (image != null
+					&& image.getWidth() <= maxTextureSize
+					&& image.getHeight() <= maxTextureSize) {
+				region = pack(image);
+			}
+
+		} catch (IOException e) {
+			System.err.println("could not read texture " + file + ": " + e);
+		}
+
+		fileRegions.put(file, region);
+
+		return region;
+
+	}
+
+	/** checks whether a file is one of this atlas' own images */
+	private boolean isPageFile(File file) {
+		for (Page page : pages) {
+			if (page.file.equals(file)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * places an image on the current page, or a new page if it doesn't fit.
+	 * Uses a simple shelf algorithm: images are placed next to each other in rows
+	 * as high as the highest image in the row.
+	 */
+	private Region pack(BufferedImage image) {
+
+		int w = image.getWidth();
+		int h = image.getHeight();
+
+		int paddedW = w + 2 * PADDING;
+		int paddedH = h + 2 * PADDING;
+
+		Page page = pages.isEmpty() ? null : pages.get(pages.size() - 1);
+
+		if (page != null && page.cursorX + paddedW > pageSize) {
+			page.shelfY += page.shelfHeight;
+			page.shelfHeight = 0;
+			page.cursorX = 0;
+		}
+
+		if (page == null || page.shelfY + paddedH > pageSize) {
+			page = new Page(new File(directory, fileNamePrefix + pages.size() + ".png"), pageSize);
+			pages.add(page);
+		}
+
+		int x = page.cursorX;
+		int y = page.shelfY;
+
+		page.cursorX += paddedW;
+		page.shelfHeight = max(page.shelfHeight, paddedH);
+
+		/* copy the image, repeating its border pixels in the padding */
+
+		int[] pixels = image.getRGB(0, 0, w, h, null, 0, w);
+		int[] row = new int[paddedW];
+
+		for (int dy = 0; dy < paddedH; dy++) {
+
+			int sourceY = min(max(dy - PADDING, 0), h - 1);
+
+			for (int dx = 0; dx < paddedW; dx++) {
+				int sourceX = min(max(dx - PADDING, 0), w - 1);
+				row[dx] = pixels[sourceY * w + sourceX];
+			}
+
+			page.image.setRGB(x, y + dy, paddedW, 1, row, 0, paddedW);
+
+		}
+
+		return new Region(pages.size() - 1, x + PADDING, y + PADDING, w, h);
+
+	}
+
+	private static class Page {
+
+		final File file;
+		final BufferedImage image;
+
+		int shelfY = 0;
+		int shelfHeight = 0;
+		int cursorX = 0;
+
+		Page(File file, int pageSize) {
+			this.file = file;
+			this.image = new BufferedImage(pageSize, pageSize, BufferedImage.TYPE_INT_ARGB);
+		}
+
+	}
+
+	/** the pixels of a page occupied by a texture, excluding the padding */
+	static class Region {
+
+		final int page;
+		final int x, y, width, height;
+
+		Region(int page, int x, int y, int width, int height) {
+			this.page = page;
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+		}
+
+		/**
+		 * converts a texture coordinate of the original texture to a coordinate on the page.
+		 * The range from 0 to 1 is mapped to the centers of the texture's border pixels.
+		 * Coordinates need to be within that range, except for rounding errors.
+		 * The origin of texture coordinates is at the bottom of the image.
+		 */
+		VectorXZ toAtlasTexCoord(VectorXZ t, int pageSize) {
+
+			double u = min(max(t.x, 0), 1);
+			double v = min(max(t.z, 0), 1);
+
+			double pixelX = x + 0.5 + u * (width - 1);
+			double pixelY = y + 0.5 + (1 - v) * (height - 1);
+
+			return new VectorXZ(pixelX / pageSize, 1 - pixelY / pageSize);
+
+		}
+
+	}
+
+}
@@ -58,6 +58,38 @@ public abstract class TextureData {
 				+ ", texCoordFunction=" + coordFunction + ", colorable=" + colorable + ", isBumpMap=" + isBumpMap + "]";
 	}
 
+	/**
+	 * returns a hash code for the fields defined in this class.
+	 * Meant to be used by subclasses' implementations of {@link #hashCode()}.
+	 */
+	protected int hashCodeOfCommonFields() {
+		final int prime = 31;
+		int result = 1;
+		long temp;
+		temp = Double.doubleToLongBits(width);
+		result = prime * result + (int) (temp ^ (temp >>> 32));
+		temp = Double.doubleToLongBits(height);
+		result = prime * result + (int) (temp ^ (temp >>> 32));
+		result = prime * result + ((wrap == null) ? 0 : wrap.hashCode());
+		result = prime * result + ((coordFunction == null) ? 0 : coordFunction.hashCode());
+		result = prime * result + (colorable ? 1231 : 1237);
+		result = prime * result + (isBumpMap ? 1231 : 1237);
+		return result;
+	}
+
+	/**
+	 * checks whether the fields defined in this class are equal.
+	 * Meant to be used by subclasses' implementations of {@link #equals(Object)}.
+	 */
+	protected boolean commonFieldsEqual(TextureData other) {
+		return Double.doubleToLongBits(width) == Double.doubleToLongBits(other.width)
+				&& Double.doubleToLongBits(height) == Double.doubleToLongBits(other.height)
+				&& wrap == other.wrap
+				&& (coordFunction == null ? other.coordFunction == null : coordFunction.equals(other.coordFunction))
+				&& colorable == other.colorable
+				&& isBumpMap == other.isBumpMap;
+	}
+
 	@Override
 	public abstract int hashCode();
 
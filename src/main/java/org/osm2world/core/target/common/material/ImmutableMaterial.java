@@ -5,12 +5,18 @@ import java.util.List;
 
 import org.osm2world.core.target.common.TextureData;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
 /**
  * a simple material class that offers no capabilities beyond the minimum
  * requirements of {@link Material}
  */
 public final class ImmutableMaterial extends Material {
 
+	/** canonical instances of materials, see {@link #intern(ImmutableMaterial)} */
+	private static final Interner<ImmutableMaterial> INTERNER = Interners.newWeakInterner();
+
 	public ImmutableMaterial(Interpolation interpolation, Color color,
 			float ambientFactor, float diffuseFactor, float specularFactor, int shininess,
 			Transparency transparency, Shadow shadow, AmbientOcclusion ao, List<TextureData> textureDataList) {
@@ -27,6 +33,16 @@ public final class ImmutableMaterial extends Material {
 		super(interpolation, color);
 	}
 
+	/**
+	 * returns the canonical instance for materials that are equal to this one.
+	 * Materials with identical visual parameters will share one instance,
+	 * which allows targets to group them efficiently.
+	 * Instances that are no longer in use can be garbage-collected.
+	 */
+	public static ImmutableMaterial intern(ImmutableMaterial material) {
+		return INTERNER.intern(material);
+	}
+
 	// auto-generated
 	@Override
 	public int hashCode() {
@@ -131,15 +131,15 @@ public abstract class Material {
 	}
 
 	public Material brighter() {
-		return new ImmutableMaterial(interpolation, getColor().brighter(),
+		return ImmutableMaterial.intern(new ImmutableMaterial(interpolation, getColor().brighter(),
 				getAmbientFactor(), getDiffuseFactor(), getSpecularFactor(), getShininess(),
-				getTransparency(), getShadow(), getAmbientOcclusion(), getTextureDataList());
+				getTransparency(), getShadow(), getAmbientOcclusion(), getTextureDataList()));
 	}
 
 	public Material darker() {
-		return new ImmutableMaterial(interpolation, getColor().darker(),
+		return ImmutableMaterial.intern(new ImmutableMaterial(interpolation, getColor().darker(),
 				getAmbientFactor(), getDiffuseFactor(), getSpecularFactor(), getShininess(),
-				getTransparency(), getShadow(), getAmbientOcclusion(), getTextureDataList());
+				getTransparency(), getShadow(), getAmbientOcclusion(), getTextureDataList()));
 	}
 
 	public static final Color multiplyColor(Color c, float factor) {
@@ -153,9 +153,9 @@ public abstract class Material {
 	}
 
 	public Material makeSmooth() {
-		return new ImmutableMaterial(Interpolation.SMOOTH, getColor(),
+		return ImmutableMaterial.intern(new ImmutableMaterial(Interpolation.SMOOTH, getColor(),
 				getAmbientFactor(), getDiffuseFactor(), getSpecularFactor(), getShininess(),
-				getTransparency(), getShadow(), getAmbientOcclusion(), getTextureDataList());
+				getTransparency(), getShadow(), getAmbientOcclusion(), getTextureDataList()));
 	}
 
 	/**
@@ -171,9 +171,9 @@ public abstract class Material {
 
 		textureDataList.addAll(textureLayers);
 
-	    return new ImmutableMaterial(getInterpolation(), getColor(),
+	    return ImmutableMaterial.intern(new ImmutableMaterial(getInterpolation(), getColor(),
 	    		getAmbientFactor(), getDiffuseFactor(), getSpecularFactor(), getShininess(),
-	    		getTransparency(), getShadow(), getAmbientOcclusion(), textureDataList);
+	    		getTransparency(), getShadow(), getAmbientOcclusion(), textureDataList));
 
 	}
 
@@ -185,9 +185,9 @@ public abstract class Material {
 
 		if (color == null) return this;
 
-		return new ImmutableMaterial(getInterpolation(), color,
+		return ImmutableMaterial.intern(new ImmutableMaterial(getInterpolation(), color,
 				getAmbientFactor(), getDiffuseFactor(), getSpecularFactor(), getShininess(),
-				getTransparency(), getShadow(), getAmbientOcclusion(), getTextureDataList());
+				getTransparency(), getShadow(), getAmbientOcclusion(), getTextureDataList()));
 
 	}
 
@@ -220,10 +220,10 @@ public abstract class Material {
 					textureDataList.set(numberOfTextLayer, textData);
 
 					//return a copy of the material with the new textureDataList
-					return new ConfMaterial(getInterpolation(),getColor(),
+					return ImmutableMaterial.intern(new ImmutableMaterial(getInterpolation(),getColor(),
 							getAmbientFactor(),getDiffuseFactor(),getSpecularFactor(),
 							getShininess(),getTransparency(),getShadow(),
-							getAmbientOcclusion(),textureDataList);
+							getAmbientOcclusion(),textureDataList));
 				}
 
 				counter++;
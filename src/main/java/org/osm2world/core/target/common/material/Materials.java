@@ -19,6 +19,7 @@ import java.util.regex.Pattern;
 
 import org.apache.commons.configuration.Configuration;
 import org.osm2world.core.target.common.ImageTextureData;
+import org.osm2world.core.target.common.RasterImageCache;
 import org.osm2world.core.target.common.TextTextureData;
 import org.osm2world.core.target.common.TextTextureData.FontStyle;
 import org.osm2world.core.target.common.TextureData;
@@ -336,14 +337,28 @@ public final class Materials {
 		return fieldNameMap.get(material);
 	}
 
+	/** the configuration that has been applied by the last call to {@link #configureMaterials(Configuration)} */
+	private static Configuration configuredFor = null;
+
 	private static final String CONF_KEY_REGEX =
 					"material_(.+)_(diffuseFactor|ambientFactor|interpolation|color|specular|shininess|shadow|ssao|transparency|texture\\d*_(?:file|width|height|bumpmap|colorable|type|text|font|topOffset|leftOffset|textColor|relative_font_size))";
 
 	/**
 	 * configures the attributes of the materials within this class
-	 * based on external configuration settings
+	 * based on external configuration settings.
+	 * Does nothing if the same configuration instance was used for the previous call,
+	 * so materials and their textures are kept when running several conversions with one configuration.
 	 */
-	public static final void configureMaterials(Configuration config) {
+	public static final synchronized void configureMaterials(Configuration config) {
+
+		if (config == configuredFor) return;
+
+		/* only remembered once the configuration has been applied completely */
+		configuredFor = null;
+
+		String rasterImageCacheDir = config.getString("rasterImageCacheDir", null);
+		RasterImageCache.setDefaultDirectory(
+				rasterImageCacheDir == null ? null : new File(rasterImageCacheDir));
 
 		// unchecked type parameter necessary due to Apache libs' old interface
 		@SuppressWarnings("unchecked")
@@ -582,6 +597,9 @@ public final class Materials {
 				}
 			}
 		}
+
+		configuredFor = config;
+
 	}
 
 
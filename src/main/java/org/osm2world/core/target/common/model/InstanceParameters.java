@@ -24,4 +24,21 @@ public final class InstanceParameters {
 		this.length = length;
 	}
 
+	/**
+	 * transforms a position relative to the model's origin, as drawn with direction 0 and
+	 * no height, into a position of this instance. The height is used as a scale factor
+	 * relative to the model's default height, as with the frontend_pbf and glTF targets.
+	 */
+	public VectorXYZ transformPosition(VectorXYZ v) {
+		if (height != null) {
+			v = v.mult(height);
+		}
+		return position.add(v.rotateY(direction));
+	}
+
+	/** transforms a normal vector of the model into a normal vector of this instance */
+	public VectorXYZ transformDirection(VectorXYZ v) {
+		return v.rotateY(direction);
+	}
+
 }
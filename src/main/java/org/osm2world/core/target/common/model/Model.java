@@ -4,7 +4,17 @@ import org.osm2world.core.math.VectorXYZ;
 import org.osm2world.core.target.Target;
 
 /**
- * a single 3D model, typically loaded from a file or other resource
+ * a single 3D model, typically loaded from a file or other resource.
+ *
+ * Targets may render a model only once and draw all of its instances by transforming
+ * that geometry (see {@link ModelGeometry}). Therefore, an instance drawn with a
+ * direction and height needs to look like the instance at the origin with direction 0
+ * and no height, rotated around the y axis and scaled by the height.
+ * Texture coordinates which depend on the instance's position or direction, e.g. from global
+ * texture coordinate functions, cannot be shared. Targets detect this and render such models
+ * for each instance (see {@link ModelGeometry#isInstanceable()}).
+ * Models which result in the same geometry should be equal according to
+ * {@link #equals(Object)} and {@link #hashCode()}, so the geometry can be shared.
  */
 public interface Model {
 
@@ -0,0 +1,253 @@
+package org.osm2world.core.target.common.model;
+
+import static org.osm2world.core.math.VectorXYZ.NULL_VECTOR;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.osm2world.core.math.TriangleXYZWithNormals;
+import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.target.Renderable;
+import org.osm2world.core.target.Target;
+import org.osm2world.core.target.common.Primitive;
+import org.osm2world.core.target.common.PrimitiveTarget;
+import org.osm2world.core.target.common.material.Material;
+import org.osm2world.core.target.common.material.NamedTexCoordFunction;
+
+/**
+ * the geometry of a {@link Model}, relative to the model's origin.
+ *
+ * Used by targets without a representation for instances in their output format.
+ * The model is only rendered once, and each instance is drawn by transforming
+ * the recorded geometry. Texture coordinates are shared by all instances.
+ * This is not possible for models whose texture coordinates depend on the instance's
+ * position or direction, see {@link #isInstanceable()}.
+ */
+public class ModelGeometry {
+
+	/** position and direction of the second rendering used to detect instance-dependent texture coordinates */
+	private static final VectorXYZ TEST_POSITION = new VectorXYZ(123.45, 6.7, -89.01);
+	private static final double TEST_DIRECTION = 1.234;
+
+	private static final double TEX_COORD_TOLERANCE = 1e-6;
+
+	private final Map<Material, List<Primitive>> primitiveMap = new LinkedHashMap<Material, List<Primitive>>();
+
+	private boolean instanceable = true;
+
+	private ModelGeometry() {}
+
+	/**
+	 * renders a model at the origin, with direction 0 and no height, and records the result.
+	 * {@link ExternalResourceModel}s cannot be rendered and result in empty geometry.
+	 *
+	 * If the model uses textured materials, it is rendered a second time at a different
+	 * position and direction to find out whether the texture coordinates can be shared.
+	 */
+	public static ModelGeometry record(ModelKey key) {
+
+		ModelGeometry result = new ModelGeometry();
+
+		if (!(key.model instanceof ExternalResourceModel)) {
+
+			key.model.render(result.new RecordingTarget(), NULL_VECTOR, 0, null, key.width, key.length);
+
+			if (result.isTextured()) {
+				ModelGeometry transformed = new ModelGeometry();
+				key.model.render(transformed.new RecordingTarget(),
+						TEST_POSITION, TEST_DIRECTION, null, key.width, key.length);
+				result.instanceable = result.hasSameTexCoords(transformed);
+			}
+
+		}
+
+		return result;
+
+	}
+
+	/**
+	 * returns false if the texture coordinates of the model depend on the position or direction
+	 * of an instance, e.g. because a material uses a global texture coordinate function
+	 * such as {@link NamedTexCoordFunction#GLOBAL_X_Z}. Such models cannot be drawn from
+	 * the recorded geometry, targets need to render the model for each instance instead.
+	 */
+	public boolean isInstanceable() {
+		return instanceable;
+	}
+
+	public Set<Material> getMaterials() {
+		return primitiveMap.keySet();
+	}
+
+	/**
+	 * returns the primitives for a material, transformed for an instance.
+	 * The texture coordinate lists are shared with the recorded primitives.
+	 * Must only be used if {@link #isInstanceable()}.
+	 */
+	public List<Primitive> getPrimitives(Material material, InstanceParameters instance) {
+
+		List<Primitive> primitives = primitiveMap.get(material);
+		List<Primitive> result = new ArrayList<Primitive>(primitives.size());
+
+		for (Primitive primitive : primitives) {
+
+			List<VectorXYZ> vertices = new ArrayList<VectorXYZ>(primitive.vertices.size());
+			List<VectorXYZ> normals = new ArrayList<VectorXYZ>(primitive.normals.size());
+
+			for (VectorXYZ v : primitive.vertices) {
+				vertices.add(instance.transformPosition(v));
+			}
+
+			for (VectorXYZ n : primitive.normals) {
+				normals.add(instance.transformDirection(n));
+			}
+
+			result.add(new Primitive(primitive.type, vertices, normals, primitive.texCoordLists));
+
+		}
+
+		return result;
+
+	}
+
+	/**
+	 * draws an instance to any target using the target's regular methods.
+	 * Normals of triangle strips, fans and polygons are calculated by the target,
+	 * as for other geometry. Must only be used if {@link #isInstanceable()}.
+	 */
+	public void drawTo(Target<?> target, InstanceParameters instance) {
+
+		for (Material material : getMaterials()) {
+			for (Primitive primitive : getPrimitives(material, instance)) {
+
+				switch (primitive.type) {
+
+				case CONVEX_POLYGON:
+					target.drawConvexPolygon(material, primitive.vertices, primitive.texCoordLists);
+					break;
+
+				case TRIANGLE_STRIP:
+					target.drawTriangleStrip(material, primitive.vertices, primitive.texCoordLists);
+					break;
+
+				case TRIANGLE_FAN:
+					target.drawTriangleFan(material, primitive.vertices, primitive.texCoordLists);
+					break;
+
+				case TRIANGLES:
+					List<TriangleXYZWithNormals> triangles =
+							new ArrayList<TriangleXYZWithNormals>(primitive.vertices.size() / 3);
+					for (int i = 0; i + 2 < primitive.vertices.size(); i += 3) {
+						triangles.add(new TriangleXYZWithNormals(
+								primitive.vertices.get(i),
+								primitive.vertices.get(i + 1),
+								primitive.vertices.get(i + 2),
+								primitive.normals.get(i),
+								primitive.normals.get(i + 1),
+								primitive.normals.get(i + 2)));
+					}
+					target.drawTrianglesWithNormals(material, triangles, primitive.texCoordLists);
+					break;
+
+				}
+
+			}
+		}
+
+	}
+
+	private boolean isTextured() {
+
+		for (Material material : getMaterials()) {
+			if (material.getNumTextureLayers() > 0) {
+				return true;
+			}
+		}
+
+		return false;
+
+	}
+
+	/**
+	 * checks whether another recording of the same model has the same texture coordinates.
+	 * Differences in the vertices are ignored.
+	 */
+	private boolean hasSameTexCoords(ModelGeometry other) {
+
+		if (!primitiveMap.keySet().equals(other.primitiveMap.keySet())) return false;
+
+		for (Material material : getMaterials()) {
+
+			List<Primitive> primitives = primitiveMap.get(material);
+			List<Primitive> otherPrimitives = other.primitiveMap.get(material);
+
+			if (primitives.size() != otherPrimitives.size()) return false;
+
+			for (int p = 0; p < primitives.size(); p++) {
+
+				List<List<VectorXZ>> texCoordLists = primitives.get(p).texCoordLists;
+				List<List<VectorXZ>> otherTexCoordLists = otherPrimitives.get(p).texCoordLists;
+
+				if (texCoordLists == null || otherTexCoordLists == null) {
+					if (texCoordLists != otherTexCoordLists) return false;
+					continue;
+				}
+
+				if (texCoordLists.size() != otherTexCoordLists.size()) return false;
+
+				for (int layer = 0; layer < texCoordLists.size(); layer++) {
+
+					List<VectorXZ> texCoords = texCoordLists.get(layer);
+					List<VectorXZ> otherTexCoords = otherTexCoordLists.get(layer);
+
+					if (texCoords.size() != otherTexCoords.size()) return false;
+
+					for (int i = 0; i < texCoords.size(); i++) {
+						if (texCoords.get(i).distanceTo(otherTexCoords.get(i)) > TEX_COORD_TOLERANCE) {
+							return false;
+						}
+					}
+
+				}
+
+			}
+
+		}
+
+		return true;
+
+	}
+
+	private class RecordingTarget extends PrimitiveTarget<Renderable> {
+
+		@Override
+		public Class<Renderable> getRenderableType() {
+			return Renderable.class;
+		}
+
+		@Override
+		public void render(Renderable renderable) {}
+
+		@Override
+		protected void drawPrimitive(Primitive.Type type, Material material,
+				List<VectorXYZ> vs, List<VectorXYZ> normals,
+				List<List<VectorXZ>> texCoordLists) {
+
+			List<Primitive> primitives = primitiveMap.get(material);
+
+			if (primitives == null) {
+				primitives = new ArrayList<Primitive>();
+				primitiveMap.put(material, primitives);
+			}
+
+			primitives.add(new Primitive(type, vs, normals, texCoordLists));
+
+		}
+
+	}
+
+}
@@ -0,0 +1,38 @@
+package org.osm2world.core.target.common.model;
+
+import java.util.Objects;
+
+/**
+ * identifies the geometry shared by instances of a model.
+ * The height is not part of the key because it only scales the geometry,
+ * see {@link InstanceParameters#transformPosition(org.osm2world.core.math.VectorXYZ)}.
+ * Models are compared using {@link Model#equals(Object)}, so models with value semantics
+ * share their geometry even if they are separate instances.
+ */
+public final class ModelKey {
+
+	public final Model model;
+	public final Double width;
+	public final Double length;
+
+	public ModelKey(Model model, Double width, Double length) {
+		this.model = model;
+		this.width = width;
+		this.length = length;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(model, width, length);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof ModelKey)) return false;
+		ModelKey other = (ModelKey) obj;
+		return model.equals(other.model)
+				&& Objects.equals(width, other.width)
+				&& Objects.equals(length, other.length);
+	}
+
+}
@@ -3,6 +3,7 @@ package org.osm2world.core.target.common.rendering;
 import static java.lang.Math.PI;
 import static org.osm2world.core.math.AxisAlignedBoundingBoxXZ.union;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -142,7 +143,7 @@ public final class OrthoTilesUtil {
 
 	}
 
-	private static final AxisAlignedBoundingBoxXZ boundsForTile(
+	public static final AxisAlignedBoundingBoxXZ boundsForTile(
 			MapProjection mapProjection, TileNumber tile) {
 
 		VectorXZ tilePos1 = mapProjection.calcPos(
@@ -169,6 +170,61 @@ public final class OrthoTilesUtil {
 
 	}
 
+	/**
+	 * returns the tile containing a position at a zoom level
+	 */
+	public static final TileNumber tileForPosition(MapProjection mapProjection,
+			VectorXZ pos, int zoom) {
+
+		int tileCount = 1 << zoom;
+
+		int x = lon2tile(mapProjection.calcLon(pos), zoom);
+		int y = lat2tile(mapProjection.calcLat(pos), zoom);
+
+		return new TileNumber(zoom,
+				Math.max(0, Math.min(tileCount - 1, x)),
+				Math.max(0, Math.min(tileCount - 1, y)));
+
+	}
+
+	/**
+	 * returns all tiles at a zoom level which overlap a bounding box, ordered by x, then y
+	 */
+	public static final List<TileNumber> tilesForBounds(MapProjection mapProjection,
+			AxisAlignedBoundingBoxXZ bounds, int zoom) {
+
+		int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+		int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+
+		for (VectorXZ corner : bounds.getVertexList()) {
+			TileNumber tile = tileForPosition(mapProjection, corner, zoom);
+			minX = Math.min(minX, tile.x);
+			maxX = Math.max(maxX, tile.x);
+			minY = Math.min(minY, tile.y);
+			maxY = Math.max(maxY, tile.y);
+		}
+
+		List<TileNumber> result = new ArrayList<TileNumber>();
+
+		for (int x = minX; x <= maxX; x++) {
+			for (int y = minY; y <= maxY; y++) {
+				result.add(new TileNumber(zoom, x, y));
+			}
+		}
+
+		return result;
+
+	}
+
+	private static final int lon2tile(double lon, int z) {
+		return (int) Math.floor((lon + 180) / 360.0 * (1 << z));
+	}
+
+	private static final int lat2tile(double lat, int z) {
+		double latRad = Math.toRadians(lat);
+		return (int) Math.floor((1 - Math.log(Math.tan(latRad) + 1 / Math.cos(latRad)) / Math.PI) / 2 * (1 << z));
+	}
+
 	private static final double tile2lon(int x, int z) {
 		return x / Math.pow(2.0, z) * 360.0 - 180;
 	}
@@ -48,9 +48,10 @@ public class TileNumber {
 	 * @throws IllegalArgumentException  for incorrect field values
 	 */
 	private void validateValues() {
-		if (zoom <= 0 || x <= 0 || y <= 0) {
-			//TODO (robustness): more validation
-			throw new IllegalArgumentException("not positive: " + x + ", " + y);
+		if (zoom < 0 || zoom > 30) {
+			throw new IllegalArgumentException("invalid zoom level: " + zoom);
+		} else if (x < 0 || y < 0 || x >= (1 << zoom) || y >= (1 << zoom)) {
+			throw new IllegalArgumentException("invalid tile at zoom level " + zoom + ": " + x + ", " + y);
 		}
 	}
 
@@ -59,4 +60,16 @@ public class TileNumber {
 		return zoom + "," + x + "," + y;
 	}
 
+	@Override
+	public int hashCode() {
+		return 31 * (31 * zoom + x) + y;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof TileNumber)) return false;
+		TileNumber other = (TileNumber) obj;
+		return zoom == other.zoom && x == other.x && y == other.y;
+	}
+
 }
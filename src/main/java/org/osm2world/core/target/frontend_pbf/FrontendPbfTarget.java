@@ -50,6 +50,8 @@ import org.osm2world.core.target.TargetUtil;
 import org.osm2world.core.target.common.AbstractTarget;
 import org.osm2world.core.target.common.ExtrudeOption;
 import org.osm2world.core.target.common.ImageTextureData;
+import org.osm2world.core.target.common.TextureAtlas;
+import org.osm2world.core.target.common.TextureAtlas.AtlasResult;
 import org.osm2world.core.target.common.TextureData;
 import org.osm2world.core.target.common.material.Material;
 import org.osm2world.core.target.common.material.Material.Shadow;
@@ -84,7 +86,6 @@ import org.osm2world.core.world.modules.WaterModule.RiverJunction;
 import org.osm2world.core.world.modules.WaterModule.Water;
 import org.osm2world.core.world.modules.WaterModule.Waterway;
 
-import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 
@@ -149,32 +150,17 @@ public class FrontendPbfTarget extends AbstractTarget<RenderableToModelTarget>
 
 	/**
 	 * implementation of {@link Block} that's optimized for {@link Vector3D} instances.
+	 * Uses an open-addressing hash table of element indices, keyed by the exact coordinate values.
+	 * Elements are therefore considered identical under the same conditions as with {@link Double#compare(double, double)}.
 	 */
 	static class VectorBlock<T extends Vector3D> implements Block<T> {
 
-		private static class Entry<T extends Vector3D> implements Comparable<Entry<T>> {
-
-			private final T element;
-			private final int index;
-
-			public Entry(T element, int index) {
-				this.element = element;
-				this.index = index;
-			}
-
-			@Override
-			public int compareTo(Entry<T> o) {
-				return ComparisonChain.start()
-						.compare(this.element.getX(), o.element.getX())
-						.compare(this.element.getY(), o.element.getY())
-						.compare(this.element.getZ(), o.element.getZ())
-						.result();
-			}
-
-		}
+		private static final int INITIAL_CAPACITY = 1024;
 
 		List<T> elements = new ArrayList<T>();
-		List<Entry<T>> sortedEntrys = new ArrayList<Entry<T>>();
+
+		/** hash table containing element index + 1 for occupied slots, 0 for empty slots */
+		private int[] slots = new int[INITIAL_CAPACITY];
 
 		public List<T> getElements() {
 			return elements;
@@ -183,23 +169,74 @@ public class FrontendPbfTarget extends AbstractTarget<RenderableToModelTarget>
 		/** adds the element to the block if necessary, and returns its index */
 		public int toIndex(T element) {
 
-			int index = binarySearch(sortedEntrys, new Entry<T>(element, -1));
+			long xBits = Double.doubleToLongBits(element.getX());
+			long yBits = Double.doubleToLongBits(element.getY());
+			long zBits = Double.doubleToLongBits(element.getZ());
 
-			if (index >= 0) {
-				return sortedEntrys.get(index).index;
-			} else {
+			int mask = slots.length - 1;
+			int slot = hash(xBits, yBits, zBits) & mask;
 
-				elements.add(element);
+			while (slots[slot] != 0) {
 
-				Entry<T> entry = new Entry<T>(element, elements.size() - 1);
-				sortedEntrys.add(-(index + 1), entry);
+				int index = slots[slot] - 1;
+				T other = elements.get(index);
+
+				if (xBits == Double.doubleToLongBits(other.getX())
+						&& yBits == Double.doubleToLongBits(other.getY())
+						&& zBits == Double.doubleToLongBits(other.getZ())) {
+					return index;
+				}
+
+				slot = (slot + 1) & mask;
+
+			}
+
+			elements.add(element);
+			int index = elements.size() - 1;
+			slots[slot] = index + 1;
+
+			if (elements.size() * 2 > slots.length) {
+				rehash();
+			}
+
+			return index;
+
+		}
+
+		/** doubles the size of the hash table, keeping the load factor at or below 0.5 */
+		private void rehash() {
+
+			slots = new int[slots.length * 2];
+			int mask = slots.length - 1;
+
+			for (int index = 0; index < elements.size(); index++) {
+
+				T element = elements.get(index);
+
+				int slot = hash(Double.doubleToLongBits(element.getX()),
+						Double.doubleToLongBits(element.getY()),
+						Double.doubleToLongBits(element.getZ())) & mask;
+
+				while (slots[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
 
-				return entry.index;
+				slots[slot] = index + 1;
 
 			}
 
 		}
 
+		private static int hash(long xBits, long yBits, long zBits) {
+			long h = xBits * 0x9E3779B97F4A7C15L;
+			h = (h ^ yBits) * 0xC2B2AE3D27D4EB4FL;
+			h = (h ^ zBits) * 0x165667B19E3779F9L;
+			h ^= h >>> 33;
+			h *= 0xFF51AFD7ED558CCDL;
+			h ^= h >>> 33;
+			return (int) h;
+		}
+
 	}
 
 	private static class TriangleData {
@@ -289,6 +326,14 @@ public class FrontendPbfTarget extends AbstractTarget<RenderableToModelTarget>
 		public void drawTriangles(Material material, Collection<? extends TriangleXYZ> triangles,
 				List<List<VectorXZ>> texCoordLists) {
 
+			/* extrusions are not affected, their texture coordinates are calculated by the frontend */
+
+			if (textureAtlas != null) {
+				AtlasResult atlasResult = textureAtlas.apply(material, texCoordLists);
+				material = atlasResult.material;
+				texCoordLists = atlasResult.texCoordLists;
+			}
+
 			TriangleData triangleData;
 
 			if (currentTriangles.containsKey(material)) {
@@ -577,6 +622,7 @@ public class FrontendPbfTarget extends AbstractTarget<RenderableToModelTarget>
 	private final OutputStream outputStream;
 	private final AxisAlignedBoundingBoxXZ bbox;
 	private final MapProjection projection;
+	private final TextureAtlas textureAtlas;
 
 	private final Block<VectorXYZ> vector3dBlock = new VectorBlock<VectorXYZ>();
 	private final Block<VectorXZ> vector2dBlock = new VectorBlock<VectorXZ>();
@@ -599,10 +645,21 @@ public class FrontendPbfTarget extends AbstractTarget<RenderableToModelTarget>
 	 * @param projection
 	 */
 	public FrontendPbfTarget(OutputStream outputStream, AxisAlignedBoundingBoxXZ bbox, MapProjection projection) {
+		this(outputStream, bbox, projection, null);
+	}
+
+	/**
+	 * @param textureAtlas  atlas for small textures, can be null.
+	 *                      Its images need to be available at the texture URL prefix,
+	 *                      and need to be written by the caller.
+	 */
+	public FrontendPbfTarget(OutputStream outputStream, AxisAlignedBoundingBoxXZ bbox, MapProjection projection,
+			TextureAtlas textureAtlas) {
 
 		this.outputStream = outputStream;
 		this.bbox = bbox;
 		this.projection = projection;
+		this.textureAtlas = textureAtlas;
 
 		/* reserve index 0 for optional strings */
 
@@ -819,15 +876,7 @@ public class FrontendPbfTarget extends AbstractTarget<RenderableToModelTarget>
 
 			MapElement mapElement = currentObjectBuilder.worldObject.getPrimaryMapElement();
 
-			VectorXZ center = null;
-
-			if (mapElement instanceof MapNode) {
-				center = ((MapNode) mapElement).getPos();
-			} else if (mapElement instanceof MapWaySegment) {
-				center = ((MapWaySegment) mapElement).getCenter();
-			} else if (mapElement instanceof MapArea) {
-				center = ((MapArea) mapElement).getOuterPolygon().getCenter();
-			}
+			VectorXZ center = getCenter(mapElement);
 
 			// ignore objects (mostly) outside the bbox, except forests (which are filtered on a per-tree level)
 			ignoreCurrentObject |= !bbox.contains(center) && !(currentObjectBuilder.worldObject instanceof Forest);
@@ -874,7 +923,23 @@ public class FrontendPbfTarget extends AbstractTarget<RenderableToModelTarget>
 
 	}
 
-	private static final boolean isWater(WorldObject object) {
+	/**
+	 * returns the position deciding whether an element's objects are part of the output,
+	 * or null if there is none
+	 */
+	static final VectorXZ getCenter(MapElement mapElement) {
+		if (mapElement instanceof MapNode) {
+			return ((MapNode) mapElement).getPos();
+		} else if (mapElement instanceof MapWaySegment) {
+			return ((MapWaySegment) mapElement).getCenter();
+		} else if (mapElement instanceof MapArea) {
+			return ((MapArea) mapElement).getOuterPolygon().getCenter();
+		} else {
+			return null;
+		}
+	}
+
+	static final boolean isWater(WorldObject object) {
 
 		return object instanceof Water
 			|| object instanceof AreaFountain
@@ -966,6 +1031,16 @@ public class FrontendPbfTarget extends AbstractTarget<RenderableToModelTarget>
 
 	public static void writePbfFile(File outputFile, MapData mapData,
 			AxisAlignedBoundingBoxXZ bbox, MapProjection projection) throws IOException {
+		writePbfFile(outputFile, mapData, bbox, projection, null);
+	}
+
+	/**
+	 * @param textureAtlas  atlas for small textures, can be null.
+	 *                      Its images are written after the file.
+	 */
+	public static void writePbfFile(File outputFile, MapData mapData,
+			AxisAlignedBoundingBoxXZ bbox, MapProjection projection,
+			TextureAtlas textureAtlas) throws IOException {
 
 		FileOutputStream output = null;
 
@@ -973,7 +1048,11 @@ public class FrontendPbfTarget extends AbstractTarget<RenderableToModelTarget>
 
 			output = new FileOutputStream(outputFile);
 
-			writePbfStream(output, mapData, bbox, projection);
+			writePbfStream(output, mapData, bbox, projection, textureAtlas);
+
+			if (textureAtlas != null) {
+				textureAtlas.write();
+			}
 
 		} finally {
 			if (output != null) {
@@ -985,12 +1064,22 @@ public class FrontendPbfTarget extends AbstractTarget<RenderableToModelTarget>
 
 	public static void writePbfStream(OutputStream output, MapData mapData,
 			AxisAlignedBoundingBoxXZ bbox, MapProjection projection) throws IOException {
+		writePbfStream(output, mapData, bbox, projection, null);
+	}
+
+	/**
+	 * @param textureAtlas  atlas for small textures, can be null.
+	 *                      Its images need to be written by the caller.
+	 */
+	public static void writePbfStream(OutputStream output, MapData mapData,
+			AxisAlignedBoundingBoxXZ bbox, MapProjection projection,
+			TextureAtlas textureAtlas) throws IOException {
 
 		if (bbox == null) {
 			bbox = mapData.getBoundary();
 		}
 
-		FrontendPbfTarget target = new FrontendPbfTarget(output, bbox, projection);
+		FrontendPbfTarget target = new FrontendPbfTarget(output, bbox, projection, textureAtlas);
 
 		TargetUtil.renderWorldObjects(target, mapData, false);
 
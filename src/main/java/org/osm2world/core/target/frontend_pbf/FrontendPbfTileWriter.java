@@ -0,0 +1,261 @@
+package org.osm2world.core.target.frontend_pbf;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.osm2world.core.target.common.rendering.OrthoTilesUtil.*;
+import static org.osm2world.core.util.FaultTolerantIterationUtil.iterate;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.osm2world.core.map_data.creation.MapProjection;
+import org.osm2world.core.map_data.data.MapData;
+import org.osm2world.core.map_data.data.MapElement;
+import org.osm2world.core.map_elevation.data.GroundState;
+import org.osm2world.core.math.AxisAlignedBoundingBoxXZ;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.target.TargetUtil;
+import org.osm2world.core.target.common.TextureAtlas;
+import org.osm2world.core.target.common.rendering.TileNumber;
+import org.osm2world.core.world.data.WorldObject;
+import org.osm2world.core.world.modules.TreeModule.Forest;
+
+/**
+ * writes a pyramid of slippy map tiles in the {@link FrontendPbfTarget} format
+ * from the results of a single conversion.
+ *
+ * The world objects are distributed into buckets for each tile first.
+ * Most objects belong to the tile containing their element's center,
+ * the same criterion used by {@link FrontendPbfTarget}. Forests and water areas
+ * are put into all tiles overlapping their element's bounding box.
+ * Then the tiles are written in parallel, each one rendering only its bucket,
+ * so that the map data does not need to be traversed again for each tile.
+ */
+public final class FrontendPbfTileWriter {
+
+	/** receives progress updates. Can be called from several threads at the same time. */
+	public static interface TileProgressListener {
+
+		/**
+		 * @param writtenTiles  number of tiles written so far, including this one
+		 * @param totalTiles  number of tiles in the pyramid
+		 */
+		public void tileWritten(TileNumber tile, int writtenTiles, int totalTiles);
+
+	}
+
+	private FrontendPbfTileWriter() {}
+
+	/**
+	 * writes all tiles at the zoom levels from minZoom to maxZoom which overlap the map data's boundary.
+	 * Each tile is written to a separate file as soon as it is finished.
+	 *
+	 * @param filePattern  path of the tile files, with placeholders {z}, {x} and {y}.
+	 *                     Missing directories are created.
+	 * @param threads  number of tiles written at the same time
+	 * @param listener  receives progress updates, can be null
+	 */
+	public static void writeTilePyramid(String filePattern, MapData mapData, MapProjection projection,
+			int minZoom, int maxZoom, int threads, TileProgressListener listener) throws IOException {
+		writeTilePyramid(filePattern, mapData, projection, minZoom, maxZoom, threads, listener, null);
+	}
+
+	/**
+	 * variant of {@link #writeTilePyramid(String, MapData, MapProjection, int, int, int, TileProgressListener)}
+	 * with a texture atlas shared by all tiles
+	 *
+	 * @param textureAtlas  atlas for small textures, can be null.
+	 *                      Its images are written after all tiles.
+	 */
+	public static void writeTilePyramid(String filePattern, MapData mapData, MapProjection projection,
+			int minZoom, int maxZoom, int threads, TileProgressListener listener,
+			TextureAtlas textureAtlas) throws IOException {
+
+		List<TileNumber> tiles = new ArrayList<TileNumber>();
+
+		for (int zoom = minZoom; zoom <= maxZoom; zoom++) {
+			tiles.addAll(tilesForBounds(projection, mapData.getBoundary(), zoom));
+		}
+
+		Map<TileNumber, List<WorldObject>> buckets = bucketWorldObjects(mapData, projection, tiles);
+
+		/* write the tiles */
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+		try {
+
+			AtomicInteger writtenTiles = new AtomicInteger();
+
+			List<Future<?>> futures = new ArrayList<Future<?>>(tiles.size());
+
+			for (TileNumber tile : tiles) {
+				futures.add(executor.submit(() -> {
+
+					File file = new File(filePattern
+							.replace("{z}", Integer.toString(tile.zoom))
+							.replace("{x}", Integer.toString(tile.x))
+							.replace("{y}", Integer.toString(tile.y)));
+
+					writeTile(file, boundsForTile(projection, tile), buckets.get(tile), projection, textureAtlas);
+
+					int count = writtenTiles.incrementAndGet();
+
+					if (listener != null) {
+						listener.tileWritten(tile, count, tiles.size());
+					}
+
+					return null;
+
+				}));
+			}
+
+			for (Future<?> future : futures) {
+				future.get();
+			}
+
+			if (textureAtlas != null) {
+				textureAtlas.write();
+			}
+
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			} else {
+				throw new RuntimeException(e.getCause());
+			}
+		} catch (InterruptedException e) {
+			throw new IOException("interrupted while writing tiles", e);
+		} finally {
+			executor.shutdownNow();
+		}
+
+	}
+
+	/**
+	 * distributes the world objects into buckets for the tiles they can be part of.
+	 * Within each bucket, the objects keep the order of a complete traversal of the map data.
+	 * Objects below the ground are left out.
+	 */
+	static Map<TileNumber, List<WorldObject>> bucketWorldObjects(MapData mapData,
+			MapProjection projection, List<TileNumber> tiles) {
+
+		Map<TileNumber, List<WorldObject>> buckets = new LinkedHashMap<TileNumber, List<WorldObject>>();
+		Map<TileNumber, AxisAlignedBoundingBoxXZ> tileBounds = new LinkedHashMap<TileNumber, AxisAlignedBoundingBoxXZ>();
+
+		int minZoom = Integer.MAX_VALUE;
+		int maxZoom = Integer.MIN_VALUE;
+
+		for (TileNumber tile : tiles) {
+			buckets.put(tile, new ArrayList<WorldObject>());
+			tileBounds.put(tile, boundsForTile(projection, tile));
+			minZoom = Math.min(minZoom, tile.zoom);
+			maxZoom = Math.max(maxZoom, tile.zoom);
+		}
+
+		for (MapElement mapElement : mapData.getMapElements()) {
+			for (WorldObject object : mapElement.getRepresentations()) {
+
+				if (object.getGroundState() == GroundState.BELOW) continue;
+
+				MapElement primaryElement = object.getPrimaryMapElement();
+
+				VectorXZ center = null;
+
+				if (primaryElement != null
+						&& !(object instanceof Forest) && !FrontendPbfTarget.isWater(object)) {
+					center = FrontendPbfTarget.getCenter(primaryElement);
+				}
+
+				for (int zoom = minZoom; zoom <= maxZoom; zoom++) {
+
+					if (center != null) {
+
+						/* add the object to the tile(s) containing the center */
+
+						TileNumber centerTile = tileForPosition(projection, center, zoom);
+
+						for (int x = centerTile.x - 1; x <= centerTile.x + 1; x++) {
+							for (int y = centerTile.y - 1; y <= centerTile.y + 1; y++) {
+								if (x >= 0 && y >= 0 && x < (1 << zoom) && y < (1 << zoom)) {
+									TileNumber tile = new TileNumber(zoom, x, y);
+									if (buckets.containsKey(tile) && tileBounds.get(tile).contains(center)) {
+										buckets.get(tile).add(object);
+									}
+								}
+							}
+						}
+
+					} else {
+
+						/* add the object to all tiles overlapping its bounding box */
+
+						AxisAlignedBoundingBoxXZ bbox = primaryElement == null
+								? mapData.getBoundary()
+								: primaryElement.getAxisAlignedBoundingBoxXZ();
+
+						for (TileNumber tile : tilesForBounds(projection, bbox, zoom)) {
+							if (buckets.containsKey(tile)) {
+								buckets.get(tile).add(object);
+							}
+						}
+
+					}
+
+				}
+
+			}
+		}
+
+		return buckets;
+
+	}
+
+	/**
+	 * writes a tile to a temporary file, then moves it to its final location
+	 */
+	private static void writeTile(File file, AxisAlignedBoundingBoxXZ bounds,
+			List<WorldObject> objects, MapProjection projection,
+			TextureAtlas textureAtlas) throws IOException {
+
+		if (file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+
+		File tempFile = new File(file.getPath() + ".tmp");
+
+		try (OutputStream output = new BufferedOutputStream(new FileOutputStream(tempFile))) {
+
+			FrontendPbfTarget target = new FrontendPbfTarget(output, bounds, projection, textureAtlas);
+
+			iterate(objects, (WorldObject object) -> {
+
+				/* objects might be shared with tiles written by other threads */
+
+				synchronized (object) {
+					TargetUtil.renderObject(target, object);
+				}
+
+			});
+
+			target.finish();
+
+		}
+
+		Files.move(tempFile.toPath(), file.toPath(), REPLACE_EXISTING);
+
+	}
+
+}
@@ -0,0 +1,698 @@
+package org.osm2world.core.target.gltf;
+
+import static java.awt.Color.WHITE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.osm2world.core.math.VectorXZ.NULL_VECTOR;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.configuration.Configuration;
+import org.osm2world.core.GlobalValues;
+import org.osm2world.core.map_data.data.MapData;
+import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.target.TargetUtil;
+import org.osm2world.core.target.common.Primitive;
+import org.osm2world.core.target.common.PrimitiveTarget;
+import org.osm2world.core.target.common.TextureData;
+import org.osm2world.core.target.common.TextureData.Wrap;
+import org.osm2world.core.target.common.material.Material;
+import org.osm2world.core.target.common.material.Material.Transparency;
+import org.osm2world.core.target.common.material.Materials;
+import org.osm2world.core.target.common.model.ExternalResourceModel;
+import org.osm2world.core.target.common.model.InstanceParameters;
+import org.osm2world.core.target.common.model.Model;
+import org.osm2world.core.target.common.model.ModelKey;
+import org.osm2world.core.target.frontend_pbf.ModelTarget;
+import org.osm2world.core.target.frontend_pbf.RenderableToModelTarget;
+
+/**
+ * a target which writes binary glTF 2.0 (.glb) files.
+ *
+ * Geometry is collected in one {@link IndexedVertexBuffer} per material and written as
+ * a single mesh. Each distinct {@link Model} is written as a separate mesh
+ * which is referenced by one node per instance.
+ * Textures are embedded in the file. Only the first texture layer of each material is used.
+ *
+ * The file is written when {@link #finish()} is called.
+ */
+public class GltfTarget extends PrimitiveTarget<RenderableToModelTarget>
+		implements ModelTarget<RenderableToModelTarget> {
+
+	private static final int GLB_MAGIC = 0x46546C67;
+	private static final int GLB_VERSION = 2;
+	private static final int CHUNK_TYPE_JSON = 0x4E4F534A;
+	private static final int CHUNK_TYPE_BIN = 0x004E4942;
+
+	private static final int FLOAT = 5126;
+	private static final int UNSIGNED_INT = 5125;
+	private static final int ARRAY_BUFFER = 34962;
+	private static final int ELEMENT_ARRAY_BUFFER = 34963;
+	private static final int LINEAR = 9729;
+	private static final int LINEAR_MIPMAP_LINEAR = 9987;
+	private static final int REPEAT = 10497;
+	private static final int CLAMP_TO_EDGE = 33071;
+
+	/** geometry for a single glTF mesh, with one primitive per material */
+	private static class MeshData {
+
+		final Map<Material, IndexedVertexBuffer> buffers = new LinkedHashMap<>();
+
+		IndexedVertexBuffer getBuffer(Material material, boolean textured) {
+			IndexedVertexBuffer buffer = buffers.get(material);
+			if (buffer == null) {
+				buffer = new IndexedVertexBuffer(textured);
+				buffers.put(material, buffer);
+			}
+			return buffer;
+		}
+
+		boolean isEmpty() {
+			for (IndexedVertexBuffer buffer : buffers.values()) {
+				if (!buffer.isEmpty()) return false;
+			}
+			return true;
+		}
+
+	}
+
+	/** a glTF node, representing either an instance of a mesh or an external resource */
+	private static class Node {
+
+		final MeshData mesh;
+		final String resourceIdentifier;
+		final InstanceParameters params;
+
+		Node(MeshData mesh, String resourceIdentifier, InstanceParameters params) {
+			this.mesh = mesh;
+			this.resourceIdentifier = resourceIdentifier;
+			this.params = params;
+		}
+
+	}
+
+	private final WritableByteChannel channel;
+
+	private final MeshData staticMesh = new MeshData();
+	private final Map<ModelKey, MeshData> modelMeshes = new LinkedHashMap<>();
+	private final List<Node> instanceNodes = new ArrayList<>();
+
+	/** the mesh draw calls currently go to; differs from {@link #staticMesh} while rendering models */
+	private MeshData currentMesh = staticMesh;
+
+	/**
+	 * @param channel  the channel the glb file is written to when calling {@link #finish()}.
+	 *                 Will not be closed by the target.
+	 */
+	public GltfTarget(WritableByteChannel channel) {
+		this.channel = channel;
+	}
+
+	@Override
+	public Class<RenderableToModelTarget> getRenderableType() {
+		return RenderableToModelTarget.class;
+	}
+
+	@Override
+	public void render(RenderableToModelTarget renderable) {
+		renderable.renderTo(this);
+	}
+
+	@Override
+	protected void drawPrimitive(Primitive.Type type, Material material,
+			List<VectorXYZ> vs, List<VectorXYZ> normals,
+			List<List<VectorXZ>> texCoordLists) {
+
+		int textureLayer = getTextureLayer(material);
+
+		List<VectorXZ> texCoords = null;
+		if (textureLayer >= 0 && texCoordLists != null && textureLayer < texCoordLists.size()) {
+			texCoords = texCoordLists.get(textureLayer);
+		}
+
+		IndexedVertexBuffer buffer = currentMesh.getBuffer(material, textureLayer >= 0);
+
+		int[] indices = new int[vs.size()];
+
+		for (int i = 0; i < vs.size(); i++) {
+			indices[i] = buffer.addVertex(vs.get(i), normals.get(i),
+					texCoords != null ? texCoords.get(i) : NULL_VECTOR);
+		}
+
+		switch (type) {
+
+		case TRIANGLES:
+			for (int i = 0; i + 2 < indices.length; i += 3) {
+				addTriangle(buffer, indices[i], indices[i + 1], indices[i + 2]);
+			}
+			break;
+
+		case TRIANGLE_STRIP:
+			for (int i = 0; i + 2 < indices.length; i++) {
+				if (i % 2 == 0) {
+					addTriangle(buffer, indices[i], indices[i + 1], indices[i + 2]);
+				} else {
+					addTriangle(buffer, indices[i + 1], indices[i], indices[i + 2]);
+				}
+			}
+			break;
+
+		case TRIANGLE_FAN:
+		case CONVEX_POLYGON:
+			for (int i = 1; i + 1 < indices.length; i++) {
+				addTriangle(buffer, indices[0], indices[i], indices[i + 1]);
+			}
+			break;
+
+		}
+
+	}
+
+	/**
+	 * draws an instance of a model. Each combination of model, width and length is stored as
+	 * a mesh once, and all instances reference that mesh. As with the frontend_pbf target,
+	 * the height is used as a scale factor relative to the model's default height.
+	 */
+	@Override
+	public void drawModel(Model model, VectorXYZ position,
+			double direction, Double height, Double width, Double length) {
+
+		InstanceParameters params = new InstanceParameters(position, direction, height, width, length);
+
+		if (model instanceof ExternalResourceModel) {
+
+			String identifier = ((ExternalResourceModel) model).getResourceIdentifier();
+			instanceNodes.add(new Node(null, identifier, params));
+
+		} else if (currentMesh != staticMesh) {
+
+			// models drawn as part of another model become part of that model's mesh
+			model.render(this, position, direction, height, width, length);
+
+		} else {
+
+			ModelKey key = new ModelKey(model, width, length);
+			MeshData mesh = modelMeshes.get(key);
+
+			if (mesh == null) {
+				mesh = new MeshData();
+				modelMeshes.put(key, mesh);
+				currentMesh = mesh;
+				try {
+					model.render(this, VectorXYZ.NULL_VECTOR, 0, null, width, length);
+				} finally {
+					currentMesh = staticMesh;
+				}
+			}
+
+			instanceNodes.add(new Node(mesh, null, params));
+
+		}
+
+	}
+
+	@Override
+	public void finish() {
+		try {
+			write();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * writes the collected geometry as a glb file to the channel
+	 */
+	private void write() throws IOException {
+
+		/* assign indices to the non-empty meshes */
+
+		List<MeshData> meshes = new ArrayList<>();
+		Map<MeshData, Integer> meshIndices = new HashMap<>();
+
+		for (MeshData mesh : concat(staticMesh, modelMeshes.values())) {
+			if (!mesh.isEmpty()) {
+				meshIndices.put(mesh, meshes.size());
+				meshes.add(mesh);
+			}
+		}
+
+		/* collect materials and textures */
+
+		Map<Material, Integer> materialIndices = new LinkedHashMap<>();
+		Map<TextureData, Integer> textureIndices = new LinkedHashMap<>();
+		Map<TextureData, byte[]> imageData = new HashMap<>();
+
+		for (MeshData mesh : meshes) {
+			for (Material material : mesh.buffers.keySet()) {
+
+				if (!materialIndices.containsKey(material)) {
+					materialIndices.put(material, materialIndices.size());
+				}
+
+				int textureLayer = getTextureLayer(material);
+
+				if (textureLayer >= 0) {
+					TextureData textureData = material.getTextureDataList().get(textureLayer);
+					if (!imageData.containsKey(textureData)) {
+						File imageFile = textureData.getRasterImage();
+						byte[] bytes = imageFile != null && getMimeType(imageFile) != null
+								? Files.readAllBytes(imageFile.toPath()) : null;
+						imageData.put(textureData, bytes);
+						if (bytes != null) {
+							textureIndices.put(textureData, textureIndices.size());
+						}
+					}
+				}
+
+			}
+		}
+
+		/* calculate the size of the binary buffer */
+
+		long binaryLength = 0;
+
+		for (MeshData mesh : meshes) {
+			for (IndexedVertexBuffer buffer : mesh.buffers.values()) {
+				if (!buffer.isEmpty()) {
+					binaryLength += (long) buffer.getVertexCount() * buffer.getByteStride();
+					binaryLength += (long) buffer.getIndexCount() * 4;
+				}
+			}
+		}
+
+		for (TextureData textureData : textureIndices.keySet()) {
+			binaryLength += paddedLength(imageData.get(textureData).length);
+		}
+
+		if (binaryLength > Integer.MAX_VALUE) {
+			throw new IOException("geometry is too large for a single glb file");
+		}
+
+		ByteBuffer binary = ByteBuffer.allocate((int) binaryLength).order(ByteOrder.LITTLE_ENDIAN);
+
+		/* fill the binary buffer and create the corresponding json */
+
+		StringBuilder bufferViews = new StringBuilder();
+		StringBuilder accessors = new StringBuilder();
+		StringBuilder meshesJson = new StringBuilder();
+		int bufferViewCount = 0;
+		int accessorCount = 0;
+
+		for (MeshData mesh : meshes) {
+
+			StringBuilder primitives = new StringBuilder();
+
+			for (Map.Entry<Material, IndexedVertexBuffer> entry : mesh.buffers.entrySet()) {
+
+				IndexedVertexBuffer buffer = entry.getValue();
+				if (buffer.isEmpty()) continue;
+
+				int vertexView = bufferViewCount++;
+				appendBufferView(bufferViews, binary.position(),
+						buffer.getVertexCount() * buffer.getByteStride(), buffer.getByteStride(), ARRAY_BUFFER);
+				buffer.writeVertices(binary);
+
+				int indexView = bufferViewCount++;
+				appendBufferView(bufferViews, binary.position(), buffer.getIndexCount() * 4, 0, ELEMENT_ARRAY_BUFFER);
+				buffer.writeIndices(binary);
+
+				int positionAccessor = accessorCount++;
+				appendAccessor(accessors, vertexView, 0, FLOAT, buffer.getVertexCount(), "VEC3",
+						buffer.getPositionMin(), buffer.getPositionMax());
+				int normalAccessor = accessorCount++;
+				appendAccessor(accessors, vertexView, 12, FLOAT, buffer.getVertexCount(), "VEC3", null, null);
+				int texCoordAccessor = -1;
+				if (buffer.isTextured()) {
+					texCoordAccessor = accessorCount++;
+					appendAccessor(accessors, vertexView, 24, FLOAT, buffer.getVertexCount(), "VEC2", null, null);
+				}
+				int indexAccessor = accessorCount++;
+				appendAccessor(accessors, indexView, 0, UNSIGNED_INT, buffer.getIndexCount(), "SCALAR", null, null);
+
+				separate(primitives);
+				primitives.append("{\"attributes\":{\"POSITION\":").append(positionAccessor)
+						.append(",\"NORMAL\":").append(normalAccessor);
+				if (texCoordAccessor >= 0) {
+					primitives.append(",\"TEXCOORD_0\":").append(texCoordAccessor);
+				}
+				primitives.append("},\"indices\":").append(indexAccessor)
+						.append(",\"material\":").append(materialIndices.get(entry.getKey()))
+						.append('}');
+
+			}
+
+			separate(meshesJson);
+			meshesJson.append("{\"primitives\":[").append(primitives).append("]}");
+
+		}
+
+		StringBuilder images = new StringBuilder();
+		StringBuilder textures = new StringBuilder();
+		StringBuilder samplers = new StringBuilder();
+		Map<Wrap, Integer> samplerIndices = new HashMap<>();
+
+		for (TextureData textureData : textureIndices.keySet()) {
+
+			byte[] bytes = imageData.get(textureData);
+
+			int imageView = bufferViewCount++;
+			appendBufferView(bufferViews, binary.position(), bytes.length, 0, 0);
+			binary.put(bytes);
+			for (int i = bytes.length; i < paddedLength(bytes.length); i++) {
+				binary.put((byte) 0);
+			}
+
+			separate(images);
+			images.append("{\"bufferView\":").append(imageView)
+					.append(",\"mimeType\":\"").append(getMimeType(textureData.getRasterImage())).append("\"}");
+
+			Integer sampler = samplerIndices.get(textureData.wrap);
+
+			if (sampler == null) {
+				sampler = samplerIndices.size();
+				samplerIndices.put(textureData.wrap, sampler);
+				int wrap = textureData.wrap == Wrap.REPEAT ? REPEAT : CLAMP_TO_EDGE;
+				separate(samplers);
+				samplers.append("{\"magFilter\":").append(LINEAR)
+						.append(",\"minFilter\":").append(LINEAR_MIPMAP_LINEAR)
+						.append(",\"wrapS\":").append(wrap)
+						.append(",\"wrapT\":").append(wrap).append('}');
+			}
+
+			separate(textures);
+			textures.append("{\"sampler\":").append(sampler)
+					.append(",\"source\":").append(textureIndices.get(textureData)).append('}');
+
+		}
+
+		StringBuilder materials = new StringBuilder();
+
+		for (Material material : materialIndices.keySet()) {
+			separate(materials);
+			appendMaterial(materials, material, textureIndices);
+		}
+
+		StringBuilder nodes = new StringBuilder();
+		int nodeCount = 0;
+
+		if (meshIndices.containsKey(staticMesh)) {
+			nodes.append("{\"mesh\":").append(meshIndices.get(staticMesh)).append('}');
+			nodeCount ++;
+		}
+
+		for (Node node : instanceNodes) {
+			if (node.mesh == null || meshIndices.containsKey(node.mesh)) {
+				separate(nodes);
+				appendNode(nodes, node, meshIndices);
+				nodeCount ++;
+			}
+		}
+
+		/* assemble the json document */
+
+		StringBuilder json = new StringBuilder();
+
+		json.append("{\"asset\":{\"version\":\"2.0\",\"generator\":\"OSM2World ")
+				.append(GlobalValues.VERSION_STRING).append("\"}");
+
+		json.append(",\"scene\":0,\"scenes\":[{\"nodes\":[");
+		for (int i = 0; i < nodeCount; i++) {
+			if (i > 0) json.append(',');
+			json.append(i);
+		}
+		json.append("]}]");
+
+		appendArray(json, "nodes", nodes);
+		appendArray(json, "meshes", meshesJson);
+		appendArray(json, "materials", materials);
+		appendArray(json, "textures", textures);
+		appendArray(json, "images", images);
+		appendArray(json, "samplers", samplers);
+		appendArray(json, "accessors", accessors);
+		appendArray(json, "bufferViews", bufferViews);
+
+		if (binaryLength > 0) {
+			json.append(",\"buffers\":[{\"byteLength\":").append(binaryLength).append("}]");
+		}
+
+		json.append('}');
+
+		/* write the glb container */
+
+		byte[] jsonBytes = json.toString().getBytes(UTF_8);
+		int jsonChunkLength = paddedLength(jsonBytes.length);
+
+		int totalLength = 12 + 8 + jsonChunkLength;
+		if (binaryLength > 0) {
+			totalLength += 8 + binaryLength;
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(12 + 8 + jsonChunkLength + 8).order(ByteOrder.LITTLE_ENDIAN);
+
+		header.putInt(GLB_MAGIC);
+		header.putInt(GLB_VERSION);
+		header.putInt(totalLength);
+
+		header.putInt(jsonChunkLength);
+		header.putInt(CHUNK_TYPE_JSON);
+		header.put(jsonBytes);
+		for (int i = jsonBytes.length; i < jsonChunkLength; i++) {
+			header.put((byte) ' ');
+		}
+
+		if (binaryLength > 0) {
+			header.putInt((int) binaryLength);
+			header.putInt(CHUNK_TYPE_BIN);
+		}
+
+		header.flip();
+		writeFully(header);
+
+		binary.flip();
+		writeFully(binary);
+
+	}
+
+	private void writeFully(ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private static void addTriangle(IndexedVertexBuffer buffer, int index1, int index2, int index3) {
+		if (index1 != index2 && index2 != index3 && index3 != index1) {
+			buffer.addTriangle(index1, index2, index3);
+		}
+	}
+
+	/**
+	 * returns the index of the texture layer used for a material's base color texture,
+	 * or -1 if there is none
+	 */
+	private static int getTextureLayer(Material material) {
+		List<TextureData> textureDataList = material.getTextureDataList();
+		for (int i = 0; i < textureDataList.size(); i++) {
+			if (!textureDataList.get(i).isBumpMap) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static String getMimeType(File imageFile) {
+		String name = imageFile.getName().toLowerCase();
+		if (name.endsWith(".png")) {
+			return "image/png";
+		} else if (name.endsWith(".jpg") || name.endsWith(".jpeg")) {
+			return "image/jpeg";
+		} else {
+			return null;
+		}
+	}
+
+	private static void appendMaterial(StringBuilder json, Material material,
+			Map<TextureData, Integer> textureIndices) {
+
+		int textureLayer = getTextureLayer(material);
+		TextureData textureData = textureLayer >= 0 ? material.getTextureDataList().get(textureLayer) : null;
+		Integer textureIndex = textureData != null ? textureIndices.get(textureData) : null;
+
+		Color color = (textureIndex == null || textureData.colorable) ? material.getColor() : WHITE;
+
+		json.append('{');
+
+		String name = Materials.getUniqueName(material);
+		if (name != null) {
+			json.append("\"name\":\"").append(escape(name)).append("\",");
+		}
+
+		json.append("\"pbrMetallicRoughness\":{\"baseColorFactor\":[")
+				.append(srgbToLinear(color.getRed())).append(',')
+				.append(srgbToLinear(color.getGreen())).append(',')
+				.append(srgbToLinear(color.getBlue())).append(",1]")
+				.append(",\"metallicFactor\":0")
+				.append(",\"roughnessFactor\":").append(1 - Math.min(1, Math.max(0, material.getSpecularFactor())));
+
+		if (textureIndex != null) {
+			json.append(",\"baseColorTexture\":{\"index\":").append(textureIndex).append('}');
+		}
+
+		json.append('}');
+
+		if (material.getTransparency() == Transparency.BINARY) {
+			json.append(",\"alphaMode\":\"MASK\"");
+		} else if (material.getTransparency() == Transparency.TRUE) {
+			json.append(",\"alphaMode\":\"BLEND\"");
+		}
+
+		json.append('}');
+
+	}
+
+	private static void appendNode(StringBuilder json, Node node, Map<MeshData, Integer> meshIndices) {
+
+		InstanceParameters params = node.params;
+
+		json.append('{');
+
+		if (node.mesh != null) {
+			json.append("\"mesh\":").append(meshIndices.get(node.mesh)).append(',');
+		} else {
+			json.append("\"name\":\"").append(escape(node.resourceIdentifier)).append("\",")
+					.append("\"extras\":{\"resourceIdentifier\":\"").append(escape(node.resourceIdentifier))
+					.append("\"},");
+		}
+
+		json.append("\"translation\":[").append(params.position.x).append(',')
+				.append(params.position.y).append(',').append(-params.position.z).append(']');
+
+		if (params.direction != 0) {
+			// the direction is clockwise when seen from above, glTF rotations are counterclockwise
+			json.append(",\"rotation\":[0,").append(-Math.sin(params.direction / 2))
+					.append(",0,").append(Math.cos(params.direction / 2)).append(']');
+		}
+
+		if (node.mesh != null && params.height != null && params.height != 1) {
+			json.append(",\"scale\":[").append(params.height).append(',')
+					.append(params.height).append(',').append(params.height).append(']');
+		}
+
+		json.append('}');
+
+	}
+
+	private static void appendBufferView(StringBuilder json, int byteOffset, int byteLength,
+			int byteStride, int target) {
+		separate(json);
+		json.append("{\"buffer\":0,\"byteOffset\":").append(byteOffset)
+				.append(",\"byteLength\":").append(byteLength);
+		if (byteStride > 0) {
+			json.append(",\"byteStride\":").append(byteStride);
+		}
+		if (target > 0) {
+			json.append(",\"target\":").append(target);
+		}
+		json.append('}');
+	}
+
+	private static void appendAccessor(StringBuilder json, int bufferView, int byteOffset,
+			int componentType, int count, String type, float[] min, float[] max) {
+		separate(json);
+		json.append("{\"bufferView\":").append(bufferView)
+				.append(",\"byteOffset\":").append(byteOffset)
+				.append(",\"componentType\":").append(componentType)
+				.append(",\"count\":").append(count)
+				.append(",\"type\":\"").append(type).append('"');
+		if (min != null && max != null) {
+			json.append(",\"min\":[").append(min[0]).append(',').append(min[1]).append(',').append(min[2]).append(']');
+			json.append(",\"max\":[").append(max[0]).append(',').append(max[1]).append(',').append(max[2]).append(']');
+		}
+		json.append('}');
+	}
+
+	private static void appendArray(StringBuilder json, String name, StringBuilder elements) {
+		if (elements.length() > 0) {
+			json.append(",\"").append(name).append("\":[").append(elements).append(']');
+		}
+	}
+
+	/** adds a comma unless this is the first element */
+	private static void separate(StringBuilder json) {
+		if (json.length() > 0) {
+			json.append(',');
+		}
+	}
+
+	private static String escape(String s) {
+		StringBuilder result = new StringBuilder(s.length());
+		for (char c : s.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				result.append('\\').append(c);
+			} else if (c < 0x20) {
+				result.append(String.format("\\u%04x", (int) c));
+			} else {
+				result.append(c);
+			}
+		}
+		return result.toString();
+	}
+
+	private static float srgbToLinear(int value) {
+		double c = value / 255.0;
+		return (float) (c <= 0.04045 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4));
+	}
+
+	private static int paddedLength(int length) {
+		return (length + 3) & ~3;
+	}
+
+	private static List<MeshData> concat(MeshData first, Iterable<MeshData> others) {
+		List<MeshData> result = new ArrayList<>();
+		result.add(first);
+		for (MeshData mesh : others) {
+			result.add(mesh);
+		}
+		return result;
+	}
+
+	/**
+	 * writes a glb file containing all world objects
+	 *
+	 * @param config  configuration for the target; may be null
+	 */
+	public static void writeGlbFile(File glbFile, MapData mapData,
+			boolean underground, Configuration config) throws IOException {
+
+		try (FileChannel channel = new FileOutputStream(glbFile).getChannel()) {
+
+			GltfTarget target = new GltfTarget(channel);
+			target.setConfiguration(config);
+
+			TargetUtil.renderWorldObjects(target, mapData, underground);
+
+			try {
+				target.finish();
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+
+		}
+
+	}
+
+}
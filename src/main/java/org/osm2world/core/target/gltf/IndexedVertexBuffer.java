@@ -0,0 +1,207 @@
+package org.osm2world.core.target.gltf;
+
+import static java.lang.Float.floatToIntBits;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.math.VectorXZ;
+
+import gnu.trove.list.array.TIntArrayList;
+
+/**
+ * indexed triangle geometry with interleaved vertex attributes,
+ * used for a single material within a glTF mesh.
+ *
+ * Each vertex consists of position, normal and (optionally) texture coordinates,
+ * stored as consecutive floats. Identical vertices are only stored once.
+ * Coordinates are converted to glTF's right-handed coordinate system on insertion.
+ *
+ * Not thread-safe.
+ */
+class IndexedVertexBuffer {
+
+	private static final float MAX_LOAD_FACTOR = 0.5f;
+
+	private final boolean textured;
+
+	/** number of floats per vertex */
+	private final int stride;
+
+	private float[] vertexData = new float[1024];
+	private int vertexCount = 0;
+
+	private final TIntArrayList indices = new TIntArrayList();
+
+	/**
+	 * open addressing hash table for finding existing vertices.
+	 * Contains vertex index + 1 for each occupied slot, 0 for empty slots.
+	 */
+	private int[] slots = new int[1024];
+
+	/** scratch space for the vertex that is currently being added */
+	private final float[] vertex;
+
+	public IndexedVertexBuffer(boolean textured) {
+		this.textured = textured;
+		this.stride = textured ? 8 : 6;
+		this.vertex = new float[stride];
+	}
+
+	public boolean isTextured() {
+		return textured;
+	}
+
+	/** returns the size of a vertex in bytes */
+	public int getByteStride() {
+		return stride * 4;
+	}
+
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	public int getIndexCount() {
+		return indices.size();
+	}
+
+	public boolean isEmpty() {
+		return indices.isEmpty();
+	}
+
+	/**
+	 * adds a vertex unless an identical one exists already
+	 *
+	 * @param texCoord  texture coordinate; ignored if this buffer is not textured
+	 * @return  the index of the vertex
+	 */
+	public int addVertex(VectorXYZ position, VectorXYZ normal, VectorXZ texCoord) {
+
+		vertex[0] = (float) position.x;
+		vertex[1] = (float) position.y;
+		vertex[2] = (float) -position.z;
+		vertex[3] = (float) normal.x;
+		vertex[4] = (float) normal.y;
+		vertex[5] = (float) -normal.z;
+
+		if (textured) {
+			vertex[6] = (float) texCoord.x;
+			vertex[7] = (float) (1 - texCoord.z);
+		}
+
+		int mask = slots.length - 1;
+		int slot = hash(vertex, 0, stride) & mask;
+
+		while (slots[slot] != 0) {
+			int index = slots[slot] - 1;
+			if (equalsVertex(index)) {
+				return index;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		int index = vertexCount;
+
+		if ((index + 1) * stride > vertexData.length) {
+			vertexData = Arrays.copyOf(vertexData, vertexData.length * 2);
+		}
+
+		System.arraycopy(vertex, 0, vertexData, index * stride, stride);
+		vertexCount ++;
+
+		slots[slot] = index + 1;
+
+		if (vertexCount > slots.length * MAX_LOAD_FACTOR) {
+			rehash();
+		}
+
+		return index;
+
+	}
+
+	public void addTriangle(int index1, int index2, int index3) {
+		indices.add(index1);
+		indices.add(index2);
+		indices.add(index3);
+	}
+
+	/** returns the per-component minimum of the vertex positions */
+	public float[] getPositionMin() {
+		float[] result = {Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY};
+		for (int i = 0; i < vertexCount; i++) {
+			for (int c = 0; c < 3; c++) {
+				result[c] = Math.min(result[c], vertexData[i * stride + c]);
+			}
+		}
+		return result;
+	}
+
+	/** returns the per-component maximum of the vertex positions */
+	public float[] getPositionMax() {
+		float[] result = {Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+		for (int i = 0; i < vertexCount; i++) {
+			for (int c = 0; c < 3; c++) {
+				result[c] = Math.max(result[c], vertexData[i * stride + c]);
+			}
+		}
+		return result;
+	}
+
+	/** writes the interleaved vertex data; the buffer needs to use little endian byte order */
+	public void writeVertices(ByteBuffer buffer) {
+		buffer.asFloatBuffer().put(vertexData, 0, vertexCount * stride);
+		buffer.position(buffer.position() + vertexCount * getByteStride());
+	}
+
+	/** writes the indices as unsigned ints; the buffer needs to use little endian byte order */
+	public void writeIndices(ByteBuffer buffer) {
+		buffer.asIntBuffer().put(indices.toArray());
+		buffer.position(buffer.position() + indices.size() * 4);
+	}
+
+	private boolean equalsVertex(int index) {
+		int offset = index * stride;
+		for (int i = 0; i < stride; i++) {
+			if (floatToIntBits(vertexData[offset + i]) != floatToIntBits(vertex[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void rehash() {
+
+		slots = new int[slots.length * 2];
+		int mask = slots.length - 1;
+
+		for (int index = 0; index < vertexCount; index++) {
+			int slot = hash(vertexData, index * stride, stride) & mask;
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = index + 1;
+		}
+
+	}
+
+	private static int hash(float[] data, int offset, int length) {
+
+		int h = 0;
+
+		for (int i = offset; i < offset + length; i++) {
+			h = 31 * h + floatToIntBits(data[i]);
+		}
+
+		// finalization step of MurmurHash3, spreads the bits for the power-of-two table
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+
+		return h;
+
+	}
+
+}
@@ -20,13 +20,18 @@ import org.osm2world.core.target.common.PrimitiveTarget;
 import org.osm2world.core.target.common.TextureData;
 import org.osm2world.core.target.common.lighting.GlobalLightingParameters;
 import org.osm2world.core.target.common.material.Material;
+import org.osm2world.core.target.common.model.InstanceParameters;
+import org.osm2world.core.target.common.model.Model;
+import org.osm2world.core.target.common.model.ModelGeometry;
 import org.osm2world.core.target.common.rendering.Camera;
 import org.osm2world.core.target.common.rendering.Projection;
+import org.osm2world.core.target.frontend_pbf.ModelTarget;
 
 /**
  * Common implementation base for the new shader based {@link JOGLTargetShader} and the old {@link JOGLTargetFixedFunction}
  */
-public abstract class AbstractJOGLTarget extends PrimitiveTarget<RenderableToJOGL> implements JOGLTarget {
+public abstract class AbstractJOGLTarget extends PrimitiveTarget<RenderableToJOGL>
+		implements JOGLTarget, ModelTarget<RenderableToJOGL> {
 	protected PrimitiveBuffer primitiveBuffer;
 	protected List<NonAreaPrimitive> nonAreaPrimitives;
 	protected JOGLRenderer renderer;
@@ -73,6 +78,32 @@ public abstract class AbstractJOGLTarget extends PrimitiveTarget<RenderableToJOG
 
 	}
 
+	/**
+	 * draws a model using geometry which is shared by all instances of the model.
+	 * The instances are added to the buffer as individual primitives.
+	 */
+	@Override
+	public void drawModel(Model model, VectorXYZ position,
+			double direction, Double height, Double width, Double length) {
+
+		ModelGeometry geometry = primitiveBuffer.getModelGeometry(model, width, length);
+
+		if (!geometry.isInstanceable()) {
+			model.render(this, position, direction, height, width, length);
+			return;
+		}
+
+		InstanceParameters instance = new InstanceParameters(position, direction, height, width, length);
+
+		for (Material material : geometry.getMaterials()) {
+			for (Primitive primitive : geometry.getPrimitives(material, instance)) {
+				drawPrimitive(primitive.type, material,
+						primitive.vertices, primitive.normals, primitive.texCoordLists);
+			}
+		}
+
+	}
+
 	private void drawNonAreaPrimitive(NonAreaPrimitive.Type type,
 			Color color, int width, List<VectorXYZ> vs) {
 
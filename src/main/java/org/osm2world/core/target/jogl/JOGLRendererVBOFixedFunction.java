@@ -1,6 +1,7 @@
 package org.osm2world.core.target.jogl;
 
 import static javax.media.opengl.GL.GL_ARRAY_BUFFER;
+import static javax.media.opengl.GL.GL_ELEMENT_ARRAY_BUFFER;
 import static javax.media.opengl.GL.GL_FLOAT;
 import static javax.media.opengl.GL2GL3.GL_DOUBLE;
 import static javax.media.opengl.fixedfunc.GLPointerFunc.GL_NORMAL_ARRAY;
@@ -14,8 +15,6 @@ import java.util.Collection;
 
 import javax.media.opengl.GL2;
 
-import org.osm2world.core.math.VectorXYZ;
-import org.osm2world.core.math.VectorXZ;
 import org.osm2world.core.target.common.Primitive;
 import org.osm2world.core.target.common.material.Material;
 import org.osm2world.core.target.common.rendering.Camera;
@@ -46,16 +45,8 @@ public class JOGLRendererVBOFixedFunction extends JOGLRendererVBO {
 		}
 
 		@Override
-		protected void put(DoubleBuffer buffer, VectorXZ texCoord) {
-			buffer.put(texCoord.x);
-			buffer.put(texCoord.z);
-		}
-
-		@Override
-		protected void put(DoubleBuffer buffer, VectorXYZ v) {
-			buffer.put(v.x);
-			buffer.put(v.y);
-			buffer.put(-v.z);
+		protected void put(DoubleBuffer buffer, VertexPacker packer) {
+			packer.writeValues(buffer);
 		}
 
 		@Override
@@ -82,16 +73,8 @@ public class JOGLRendererVBOFixedFunction extends JOGLRendererVBO {
 		}
 
 		@Override
-		protected void put(FloatBuffer buffer, VectorXZ texCoord) {
-			buffer.put((float)texCoord.x);
-			buffer.put((float)texCoord.z);
-		}
-
-		@Override
-		protected void put(FloatBuffer buffer, VectorXYZ v) {
-			buffer.put((float)v.x);
-			buffer.put((float)v.y);
-			buffer.put((float)-v.z);
+		protected void put(FloatBuffer buffer, VertexPacker packer) {
+			packer.writeValues(buffer);
 		}
 
 		@Override
@@ -143,6 +126,7 @@ public class JOGLRendererVBOFixedFunction extends JOGLRendererVBO {
 		}
 
 		gl.glBindBuffer(GL_ARRAY_BUFFER, 0);
+		gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
 
 
 		/* render transparent primitives back-to-front */
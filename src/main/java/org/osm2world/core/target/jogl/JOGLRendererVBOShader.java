@@ -13,8 +13,6 @@ import javax.media.opengl.GL3;
 import org.osm2world.core.math.AxisAlignedBoundingBoxXYZ;
 import org.osm2world.core.math.AxisAlignedBoundingBoxXZ;
 import org.osm2world.core.math.VectorXYZ;
-import org.osm2world.core.math.VectorXYZW;
-import org.osm2world.core.math.VectorXZ;
 import org.osm2world.core.target.common.Primitive;
 import org.osm2world.core.target.common.material.Material;
 import org.osm2world.core.target.common.rendering.Camera;
@@ -47,24 +45,8 @@ public class JOGLRendererVBOShader extends JOGLRendererVBO {
 		}
 
 		@Override
-		protected void put(DoubleBuffer buffer, VectorXZ texCoord) {
-			buffer.put(texCoord.x);
-			buffer.put(texCoord.z);
-		}
-
-		@Override
-		protected void put(DoubleBuffer buffer, VectorXYZ v) {
-			buffer.put(v.x);
-			buffer.put(v.y);
-			buffer.put(-v.z);
-		}
-
-		@Override
-		protected void put(DoubleBuffer buffer, VectorXYZW t) {
-			buffer.put(t.x);
-			buffer.put(t.y);
-			buffer.put(-t.z);
-			buffer.put(t.w);
+		protected void put(DoubleBuffer buffer, VertexPacker packer) {
+			packer.writeValues(buffer);
 		}
 
 		@Override
@@ -91,24 +73,8 @@ public class JOGLRendererVBOShader extends JOGLRendererVBO {
 		}
 
 		@Override
-		protected void put(FloatBuffer buffer, VectorXZ texCoord) {
-			buffer.put((float)texCoord.x);
-			buffer.put((float)texCoord.z);
-		}
-
-		@Override
-		protected void put(FloatBuffer buffer, VectorXYZ v) {
-			buffer.put((float)v.x);
-			buffer.put((float)v.y);
-			buffer.put((float)-v.z);
-		}
-
-		@Override
-		protected void put(FloatBuffer buffer, VectorXYZW t) {
-			buffer.put((float)t.x);
-			buffer.put((float)t.y);
-			buffer.put((float)-t.z);
-			buffer.put((float)t.w);
+		protected void put(FloatBuffer buffer, VertexPacker packer) {
+			packer.writeValues(buffer);
 		}
 
 		@Override
@@ -1,7 +1,9 @@
 package org.osm2world.core.target.jogl;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.osm2world.core.math.VectorXYZ;
@@ -11,6 +13,11 @@ import org.osm2world.core.target.common.Primitive.Type;
 import org.osm2world.core.target.common.PrimitiveTarget;
 import org.osm2world.core.target.common.RenderableToPrimitiveTarget;
 import org.osm2world.core.target.common.material.Material;
+import org.osm2world.core.target.common.model.InstanceParameters;
+import org.osm2world.core.target.common.model.Model;
+import org.osm2world.core.target.common.model.ModelGeometry;
+import org.osm2world.core.target.common.model.ModelKey;
+import org.osm2world.core.target.frontend_pbf.ModelTarget;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
@@ -22,7 +29,8 @@ import com.google.common.collect.Multimap;
  * or representations, isn't present in a PrimitiveBuffer.
  */
 public class PrimitiveBuffer extends
-		PrimitiveTarget<RenderableToPrimitiveTarget> {
+		PrimitiveTarget<RenderableToPrimitiveTarget>
+		implements ModelTarget<RenderableToPrimitiveTarget> {
 
 	@Override
 	public Class<RenderableToPrimitiveTarget> getRenderableType() {
@@ -36,6 +44,8 @@ public class PrimitiveBuffer extends
 
 	private Multimap<Material, Primitive> primitiveMap = HashMultimap.create();
 
+	private Map<ModelKey, ModelGeometry> modelGeometries = new HashMap<ModelKey, ModelGeometry>();
+
 	@Override
 	protected void drawPrimitive(Type type, Material material,
 			List<VectorXYZ> vertices, List<VectorXYZ> normals,
@@ -44,6 +54,43 @@ public class PrimitiveBuffer extends
 				new Primitive(type, vertices, normals, texCoordLists));
 	}
 
+	@Override
+	public void drawModel(Model model, VectorXYZ position,
+			double direction, Double height, Double width, Double length) {
+
+		ModelGeometry geometry = getModelGeometry(model, width, length);
+
+		if (!geometry.isInstanceable()) {
+			model.render(this, position, direction, height, width, length);
+			return;
+		}
+
+		InstanceParameters instance = new InstanceParameters(position, direction, height, width, length);
+
+		for (Material material : geometry.getMaterials()) {
+			primitiveMap.putAll(material, geometry.getPrimitives(material, instance));
+		}
+
+	}
+
+	/**
+	 * returns the geometry of a model. The model is only rendered
+	 * the first time its geometry is requested for a width and length.
+	 */
+	public ModelGeometry getModelGeometry(Model model, Double width, Double length) {
+
+		ModelKey key = new ModelKey(model, width, length);
+		ModelGeometry geometry = modelGeometries.get(key);
+
+		if (geometry == null) {
+			geometry = ModelGeometry.record(key);
+			modelGeometries.put(key, geometry);
+		}
+
+		return geometry;
+
+	}
+
 	/**
 	 * returns all materials used in the buffer
 	 */
@@ -1,24 +1,21 @@
 package org.osm2world.core.target.jogl;
 
 import static javax.media.opengl.GL.GL_ARRAY_BUFFER;
+import static javax.media.opengl.GL.GL_ELEMENT_ARRAY_BUFFER;
 import static javax.media.opengl.GL.GL_STATIC_DRAW;
-import static org.osm2world.core.math.GeometryUtil.triangleNormalListFromTriangleStripOrFan;
-import static org.osm2world.core.math.GeometryUtil.triangleVertexListFromTriangleFan;
-import static org.osm2world.core.math.GeometryUtil.triangleVertexListFromTriangleStrip;
 
 import java.nio.Buffer;
-import java.util.ArrayList;
+import java.nio.IntBuffer;
 import java.util.Collection;
-import java.util.List;
 
 import javax.media.opengl.GL;
 
-import org.osm2world.core.math.VectorXYZ;
-import org.osm2world.core.math.VectorXZ;
 import org.osm2world.core.target.common.Primitive;
 import org.osm2world.core.target.common.Primitive.Type;
 import org.osm2world.core.target.common.material.Material;
 
+import com.jogamp.common.nio.Buffers;
+
 /**
  * Base class that keeps a VBO id along with associated information.
  */
@@ -27,12 +24,18 @@ public abstract class VBOData<BufferT extends Buffer> {
 	/** material associated with this VBO, determines VBO layout */
 	protected Material material;
 
-	/** array with one element containing the VBO id */
+	/** array with two elements containing the ids of the vertex and index VBOs */
 	protected final int[] id;
 
-	/** number of vertices in the vbo */
+	/** number of distinct vertices in the vbo */
 	protected final int vertexCount;
 
+	/** number of indices in the index vbo, 3 for each triangle */
+	protected final int indexCount;
+
+	/** number of values for each vertex, see {@link VertexPacker} for the layout */
+	protected final int valuesPerVertex;
+
 	/** size of each value in the vbo */
 	protected final int valueTypeSize;
 
@@ -42,11 +45,8 @@ public abstract class VBOData<BufferT extends Buffer> {
 	/** create a buffer to store the vbo data for upload to graphics memory */
 	protected abstract BufferT createBuffer(int numValues);
 
-	/** add a texture coordinate to the vbo buffer */
-	protected abstract void put(BufferT buffer, VectorXZ texCoord);
-
-	/** add 3d vertex data to the vbo buffer */
-	protected abstract void put(BufferT buffer, VectorXYZ v);
+	/** add the values of all vertices to the vbo buffer */
+	protected abstract void put(BufferT buffer, VertexPacker packer);
 
 	/** returns the size of each value in the vbo */
 	protected abstract int valueTypeSize();
@@ -54,6 +54,9 @@ public abstract class VBOData<BufferT extends Buffer> {
 	/** returns the gl constant for the value type in the vbo */
 	protected abstract int glValueType();
 
+	/** returns whether the vertices include tangents for bump mapping */
+	protected abstract boolean hasTangents();
+
 	private GL gl;
 	protected JOGLTextureManager textureManager;
 
@@ -69,25 +72,30 @@ public abstract class VBOData<BufferT extends Buffer> {
 		valueTypeSize = valueTypeSize();
 		glValueType = glValueType();
 
-		vertexCount = countVertices(primitives);
+		/* collect the data for the buffers */
 
-		/* create the buffer */
-
-		id = new int[1];
-		gl.glGenBuffers(1, id, 0);
-
-		/* collect the data for the buffer */
-
-		BufferT valueBuffer = createBuffer(
-				vertexCount * getValuesPerVertex(material));
+		VertexPacker packer = new VertexPacker(material, hasTangents(), countVertices(primitives));
 
 		for (Primitive primitive : primitives) {
-			addPrimitiveToValueBuffer(valueBuffer, primitive);
+			packer.add(primitive);
 		}
 
+		vertexCount = packer.getVertexCount();
+		indexCount = packer.getIndexCount();
+		valuesPerVertex = packer.getValuesPerVertex();
+
+		BufferT valueBuffer = createBuffer(vertexCount * valuesPerVertex);
+		put(valueBuffer, packer);
 		valueBuffer.rewind();
 
-		/* write the data into the buffer */
+		IntBuffer indexBuffer = Buffers.newDirectIntBuffer(indexCount);
+		packer.writeIndices(indexBuffer);
+		indexBuffer.rewind();
+
+		/* create the buffers and write the data into them */
+
+		id = new int[2];
+		gl.glGenBuffers(2, id, 0);
 
 		gl.glBindBuffer(GL_ARRAY_BUFFER, id[0]);
 
@@ -97,11 +105,20 @@ public abstract class VBOData<BufferT extends Buffer> {
 				valueBuffer,
 				GL_STATIC_DRAW);
 
+		gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, id[1]);
+
+		gl.glBufferData(
+				GL_ELEMENT_ARRAY_BUFFER,
+				indexBuffer.capacity() * Buffers.SIZEOF_INT,
+				indexBuffer,
+				GL_STATIC_DRAW);
+
 	}
 
 	/**
 	 * returns the number of vertices required to represent a collection
-	 * of primitives with individual triangles
+	 * of primitives with individual triangles. This is the number of indices
+	 * for an indexed vbo.
 	 */
 	static int countVertices(Collection<Primitive> primitives) {
 
@@ -119,87 +136,11 @@ public abstract class VBOData<BufferT extends Buffer> {
 
 	}
 
-	/**
-	 * put the values for a primitive's vertices into the buffer
-	 */
-	protected void addPrimitiveToValueBuffer(BufferT buffer,
-			Primitive primitive) {
-
-		/*
-		 * rearrange the lists of vertices, normals and texture coordinates
-		 * to turn triangle strips and triangle fans into separate triangles
-		 */
-
-		List<VectorXYZ> primVertices = primitive.vertices;
-		List<VectorXYZ> primNormals = primitive.normals;
-		List<List<VectorXZ>> primTexCoordLists = primitive.texCoordLists;
-
-		if (primitive.type == Type.TRIANGLE_STRIP) {
-
-			// TODO: support smooth interpolation of normals
-			primVertices = triangleVertexListFromTriangleStrip(primVertices);
-			primNormals = triangleNormalListFromTriangleStripOrFan(primNormals);
-
-			if (primTexCoordLists != null) {
-				List<List<VectorXZ>> newPrimTexCoordLists = new ArrayList<List<VectorXZ>>();
-				for (List<VectorXZ> primTexCoordList : primTexCoordLists) {
-					newPrimTexCoordLists.add(triangleVertexListFromTriangleStrip(primTexCoordList));
-				}
-				primTexCoordLists = newPrimTexCoordLists;
-			}
-
-		} else if (primitive.type == Type.TRIANGLE_FAN) {
-
-			// TODO: support smooth interpolation of normals
-			primVertices = triangleVertexListFromTriangleFan(primVertices);
-			primNormals = triangleNormalListFromTriangleStripOrFan(primNormals);
-
-			if (primTexCoordLists != null) {
-				List<List<VectorXZ>> newPrimTexCoordLists = new ArrayList<List<VectorXZ>>();
-				for (List<VectorXZ> primTexCoordList : primTexCoordLists) {
-					newPrimTexCoordLists.add(triangleVertexListFromTriangleFan(primTexCoordList));
-				}
-				primTexCoordLists = newPrimTexCoordLists;
-			}
-
-		}
-
-		/* put the values into the buffer, in the right order */
-
-		for (int i = 0; i < primVertices.size(); i++) {
-
-			assert (primTexCoordLists == null
-					&& material.getNumTextureLayers() == 0)
-				|| (primTexCoordLists != null
-					&& primTexCoordLists.size() == material.getNumTextureLayers())
-				: "WorldModules need to provide the correct number of tex coords";
-
-			if (primTexCoordLists == null && material.getNumTextureLayers() > 0) {
-				System.out.println(material);
-			}
-
-			for (int t = 0; t < material.getNumTextureLayers(); t++) {
-				VectorXZ textureCoord =	primTexCoordLists.get(t).get(i);
-				put(buffer, textureCoord);
-			}
-
-			put(buffer, primNormals.get(i));
-			put(buffer, primVertices.get(i));
-
-		}
-
-	}
-
 	/**
 	 * Bind and render this vertex buffer object.
 	 */
 	public abstract void render();
 
-	/**
-	 * Returns the number of values for each vertex in the vertex buffer layout appropriate for a given material.
-	 */
-	protected abstract int getValuesPerVertex(Material material);
-
 	/**
 	 * Delete the vertex buffer object from graphics memory.
 	 */
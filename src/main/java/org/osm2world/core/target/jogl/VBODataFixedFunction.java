@@ -1,7 +1,9 @@
 package org.osm2world.core.target.jogl;
 
 import static javax.media.opengl.GL.GL_ARRAY_BUFFER;
+import static javax.media.opengl.GL.GL_ELEMENT_ARRAY_BUFFER;
 import static javax.media.opengl.GL.GL_TRIANGLES;
+import static javax.media.opengl.GL.GL_UNSIGNED_INT;
 import static javax.media.opengl.fixedfunc.GLPointerFunc.GL_TEXTURE_COORD_ARRAY;
 
 import java.nio.Buffer;
@@ -51,16 +53,17 @@ abstract class VBODataFixedFunction<BufferT extends Buffer> extends VBOData<Buff
 		JOGLTargetFixedFunction.setMaterial(gl, material, textureManager);
 
 		gl.glBindBuffer(GL_ARRAY_BUFFER, id[0]);
+		gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, id[1]);
 
 		setPointerLayout();
 
-		gl.glDrawArrays(GL_TRIANGLES, 0, vertexCount);
+		gl.glDrawElements(GL_TRIANGLES, indexCount, GL_UNSIGNED_INT, 0);
 
 	}
 
 	private void setPointerLayout() {
 
-		int stride = valueTypeSize * JOGLRendererVBO.getValuesPerVertex(material);
+		int stride = valueTypeSize * valuesPerVertex;
 
 		int offset = 0;
 
@@ -82,7 +85,7 @@ abstract class VBODataFixedFunction<BufferT extends Buffer> extends VBOData<Buff
 	}
 
 	@Override
-	protected int getValuesPerVertex(Material material) {
-		return JOGLRendererVBO.getValuesPerVertex(material);
+	protected boolean hasTangents() {
+		return false;
 	}
 }
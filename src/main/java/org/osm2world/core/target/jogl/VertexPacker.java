@@ -0,0 +1,335 @@
+package org.osm2world.core.target.jogl;
+
+import static java.util.Arrays.copyOf;
+
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.target.common.Primitive;
+import org.osm2world.core.target.common.material.Material;
+
+/**
+ * CPU side of building an indexed vertex buffer.
+ *
+ * Turns primitives into separate triangles and stores each distinct vertex only once.
+ * Triangle strips and fans are expanded by index, without creating intermediate lists.
+ * The result are the vertex values in the layout of {@link VBOData}
+ * and an index list for drawing the triangles with glDrawElements.
+ * Does not require an OpenGL context.
+ *
+ * The layout of each vertex is: texture coordinates for each texture layer, normal,
+ * position. If tangents are requested and the material has a bump map, the bump map's
+ * texture coordinates are moved to the end and preceded by the tangent:
+ * other texture coordinates, normal, tangent, bump map texture coordinates, position.
+ * The z coordinates of vectors are inverted, as OpenGL's z axis points south.
+ */
+final class VertexPacker {
+
+	private static final int EMPTY = -1;
+
+	private final int numTextureLayers;
+	private final int bumpMapLayer;
+	private final int valuesPerVertex;
+
+	/** values of all distinct vertices so far */
+	private double[] values;
+	private int vertexCount = 0;
+
+	private int[] indices;
+	private int indexCount = 0;
+
+	/** open addressing hash table with vertex numbers, used to find identical vertices */
+	private int[] hashTable;
+
+	/** values of the vertex which is currently being added */
+	private final double[] current;
+
+	/**
+	 * @param tangents  whether tangents are needed for the material's bump map, if any
+	 * @param expectedIndexCount  number of indices which will probably be added,
+	 *                            see {@link VBOData#countVertices(java.util.Collection)}
+	 */
+	public VertexPacker(Material material, boolean tangents, int expectedIndexCount) {
+
+		this.numTextureLayers = material.getNumTextureLayers();
+		this.bumpMapLayer = (tangents && material.hasBumpMap()) ? material.getBumpMapInd() : -1;
+
+		this.valuesPerVertex = 6 + 2 * numTextureLayers + (bumpMapLayer >= 0 ? 4 : 0);
+
+		/* most vertices are shared by at least two triangles */
+		int vertexCapacity = Math.max(expectedIndexCount / 2, 16);
+
+		values = new double[vertexCapacity * valuesPerVertex];
+		indices = new int[Math.max(expectedIndexCount, 16)];
+
+		hashTable = new int[Integer.highestOneBit(vertexCapacity) * 4];
+		Arrays.fill(hashTable, EMPTY);
+
+		current = new double[valuesPerVertex];
+
+	}
+
+	public int getValuesPerVertex() {
+		return valuesPerVertex;
+	}
+
+	/** returns the number of distinct vertices */
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	public int getIndexCount() {
+		return indexCount;
+	}
+
+	/** adds a primitive's triangles */
+	public void add(Primitive primitive) {
+
+		List<List<VectorXZ>> texCoordLists = primitive.texCoordLists;
+
+		assert (texCoordLists == null && numTextureLayers == 0)
+				|| (texCoordLists != null && texCoordLists.size() == numTextureLayers)
+				: "WorldModules need to provide the correct number of tex coords";
+
+		int size = primitive.vertices.size();
+
+		switch (primitive.type) {
+
+		case TRIANGLES:
+			for (int i = 0; i + 2 < size; i += 3) {
+				addTriangle(primitive, i, i + 1, i + 2, i, i + 1, i + 2);
+			}
+			break;
+
+		case TRIANGLE_STRIP:
+			// TODO: support smooth interpolation of normals
+			for (int i = 0; i + 2 < size; i++) {
+				if (i % 2 == 0) {
+					addTriangle(primitive, i, i + 1, i + 2, i + 2, i + 2, i + 2);
+				} else {
+					addTriangle(primitive, i, i + 2, i + 1, i + 2, i + 2, i + 2);
+				}
+			}
+			break;
+
+		case TRIANGLE_FAN:
+		case CONVEX_POLYGON:
+			// TODO: support smooth interpolation of normals
+			for (int i = 0; i + 2 < size; i++) {
+				addTriangle(primitive, 0, i + 1, i + 2, i + 2, i + 2, i + 2);
+			}
+			break;
+
+		}
+
+	}
+
+	/** writes the values of all distinct vertices to a buffer, starting at its current position */
+	public void writeValues(FloatBuffer buffer) {
+		for (int i = 0; i < vertexCount * valuesPerVertex; i++) {
+			buffer.put((float) values[i]);
+		}
+	}
+
+	/** writes the values of all distinct vertices to a buffer, starting at its current position */
+	public void writeValues(DoubleBuffer buffer) {
+		buffer.put(values, 0, vertexCount * valuesPerVertex);
+	}
+
+	/** writes the indices of all triangles' vertices to a buffer, starting at its current position */
+	public void writeIndices(IntBuffer buffer) {
+		buffer.put(indices, 0, indexCount);
+	}
+
+	/**
+	 * adds a triangle
+	 *
+	 * @param v0  index of the first vertex in the primitive
+	 * @param n0  index of the first vertex' normal in the primitive
+	 */
+	private void addTriangle(Primitive primitive,
+			int v0, int v1, int v2, int n0, int n1, int n2) {
+
+		if (bumpMapLayer < 0) {
+
+			addVertex(primitive, v0, n0, null, null);
+			addVertex(primitive, v1, n1, null, null);
+			addVertex(primitive, v2, n2, null, null);
+
+		} else {
+
+			/* calculate the triangle's tangent directions, as in GeometryUtil.calculateTangentVectorsForTexLayer */
+
+			List<VectorXYZ> vs = primitive.vertices;
+			List<VectorXZ> texCoords = primitive.texCoordLists.get(bumpMapLayer);
+
+			VectorXYZ p1 = vs.get(v0), p2 = vs.get(v1), p3 = vs.get(v2);
+			VectorXZ w1 = texCoords.get(v0), w2 = texCoords.get(v1), w3 = texCoords.get(v2);
+
+			double x1 = p2.x - p1.x;
+			double x2 = p3.x - p1.x;
+			double y1 = p2.y - p1.y;
+			double y2 = p3.y - p1.y;
+			double z1 = p2.z - p1.z;
+			double z2 = p3.z - p1.z;
+
+			double s1 = w2.x - w1.x;
+			double s2 = w3.x - w1.x;
+			double t1 = w2.z - w1.z;
+			double t2 = w3.z - w1.z;
+
+			double r = 1.0 / (s1 * t2 - s2 * t1);
+			VectorXYZ sdir = new VectorXYZ((t2 * x1 - t1 * x2) * r, (t2 * y1 - t1 * y2) * r,
+					(t2 * z1 - t1 * z2) * r);
+			VectorXYZ tdir = new VectorXYZ((s1 * x2 - s2 * x1) * r, (s1 * y2 - s2 * y1) * r,
+					(s1 * z2 - s2 * z1) * r);
+
+			addVertex(primitive, v0, n0, sdir, tdir);
+			addVertex(primitive, v1, n1, sdir, tdir);
+			addVertex(primitive, v2, n2, sdir, tdir);
+
+		}
+
+	}
+
+	/**
+	 * adds a vertex' index, and the vertex itself unless an identical vertex exists
+	 *
+	 * @param sdir  tangent direction of the triangle, null if there is no bump map
+	 * @param tdir  bitangent direction of the triangle, null if there is no bump map
+	 */
+	private void addVertex(Primitive primitive, int v, int n,
+			VectorXYZ sdir, VectorXYZ tdir) {
+
+		/* write the values to the current vertex */
+
+		int i = 0;
+
+		for (int layer = 0; layer < numTextureLayers; layer++) {
+			if (layer != bumpMapLayer) {
+				VectorXZ texCoord = primitive.texCoordLists.get(layer).get(v);
+				current[i++] = texCoord.x;
+				current[i++] = texCoord.z;
+			}
+		}
+
+		VectorXYZ normal = primitive.normals.get(n);
+
+		current[i++] = normal.x;
+		current[i++] = normal.y;
+		current[i++] = -normal.z;
+
+		if (bumpMapLayer >= 0) {
+
+			// Gram-Schmidt orthogonalize
+			VectorXYZ tangent = sdir.subtract(normal.mult(normal.dot(sdir))).normalize();
+
+			current[i++] = tangent.x;
+			current[i++] = tangent.y;
+			current[i++] = -tangent.z;
+
+			// handedness
+			current[i++] = (normal.cross(sdir).dot(tdir) < 0.0) ? -1.0 : 1.0;
+
+			VectorXZ texCoord = primitive.texCoordLists.get(bumpMapLayer).get(v);
+			current[i++] = texCoord.x;
+			current[i++] = texCoord.z;
+
+		}
+
+		VectorXYZ position = primitive.vertices.get(v);
+
+		current[i++] = position.x;
+		current[i++] = position.y;
+		current[i++] = -position.z;
+
+		/* find an identical vertex or add the current one */
+
+		if (indexCount == indices.length) {
+			indices = copyOf(indices, indices.length * 2);
+		}
+
+		indices[indexCount++] = findOrAddCurrentVertex();
+
+	}
+
+	private int findOrAddCurrentVertex() {
+
+		int mask = hashTable.length - 1;
+		int slot = hashCurrent() & mask;
+
+		while (hashTable[slot] != EMPTY) {
+			if (currentEquals(hashTable[slot])) {
+				return hashTable[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		/* add a new vertex */
+
+		if ((vertexCount + 1) * valuesPerVertex > values.length) {
+			values = copyOf(values, values.length * 2);
+		}
+
+		System.arraycopy(current, 0, values, vertexCount * valuesPerVertex, valuesPerVertex);
+
+		int vertex = vertexCount++;
+		hashTable[slot] = vertex;
+
+		if (vertexCount * 2 > hashTable.length) {
+			rehash();
+		}
+
+		return vertex;
+
+	}
+
+	private int hashCurrent() {
+		long hash = 1;
+		for (int i = 0; i < valuesPerVertex; i++) {
+			hash = 31 * hash + Double.doubleToLongBits(current[i]);
+		}
+		int h = (int) (hash ^ (hash >>> 32));
+		return h ^ (h >>> 16);
+	}
+
+	private boolean currentEquals(int vertex) {
+		int offset = vertex * valuesPerVertex;
+		for (int i = 0; i < valuesPerVertex; i++) {
+			if (Double.doubleToLongBits(current[i]) != Double.doubleToLongBits(values[offset + i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** doubles the size of the hash table */
+	private void rehash() {
+
+		hashTable = new int[hashTable.length * 2];
+		Arrays.fill(hashTable, EMPTY);
+
+		int mask = hashTable.length - 1;
+
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+
+			System.arraycopy(values, vertex * valuesPerVertex, current, 0, valuesPerVertex);
+
+			int slot = hashCurrent() & mask;
+
+			while (hashTable[slot] != EMPTY) {
+				slot = (slot + 1) & mask;
+			}
+
+			hashTable[slot] = vertex;
+
+		}
+
+	}
+
+}
@@ -0,0 +1,256 @@
+package org.osm2world.core.target.obj;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * buffered text output for Wavefront OBJ files.
+ *
+ * Collects output in a large byte buffer which is written to a {@link WritableByteChannel} when full.
+ * Numbers are formatted directly into that buffer, without creating intermediate Strings.
+ * Floating point numbers are written with a fixed maximum number of decimal places,
+ * trailing zeros are omitted.
+ *
+ * Not thread-safe.
+ */
+public class BufferedObjOutput implements Closeable {
+
+	/**
+	 * default for the number of decimal places of floating point values.
+	 * Earlier versions wrote coordinates with the full precision of {@link Double#toString(double)}.
+	 * Six decimals are still sub-millimeter precision for coordinates in meters.
+	 */
+	public static final int DEFAULT_DECIMALS = 6;
+
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	private static final long[] POWERS_OF_TEN = new long[19];
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	private final WritableByteChannel channel;
+	private final int decimals;
+
+	/**
+	 * values with an absolute value above this limit are written using {@link Double#toString(double)}.
+	 * Larger values cannot be scaled to a long with the configured number of decimal places.
+	 */
+	private final double maxFixedPrecisionValue;
+
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private final ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+	private int position = 0;
+
+	/** scratch space for formatting numbers */
+	private final byte[] digits = new byte[20];
+
+	/**
+	 * @param channel   the channel the output is written to; != null
+	 * @param decimals  maximum number of decimal places for floating point values, between 0 and 9
+	 */
+	public BufferedObjOutput(WritableByteChannel channel, int decimals) {
+
+		if (decimals < 0 || decimals > 9) {
+			throw new IllegalArgumentException("unsupported number of decimals: " + decimals);
+		}
+
+		this.channel = channel;
+		this.decimals = decimals;
+		this.maxFixedPrecisionValue = Long.MAX_VALUE / POWERS_OF_TEN[decimals];
+
+	}
+
+	/**
+	 * opens an output that writes to a file, replacing previous content
+	 */
+	public static BufferedObjOutput open(File file, int decimals) throws IOException {
+		return new BufferedObjOutput(new FileOutputStream(file).getChannel(), decimals);
+	}
+
+	public BufferedObjOutput print(String s) {
+
+		int length = s.length();
+
+		if (length > buffer.length) {
+			writeBytes(s.getBytes(UTF_8));
+			return this;
+		}
+
+		for (int i = 0; i < length; i++) {
+			if (s.charAt(i) >= 0x80) {
+				writeBytes(s.getBytes(UTF_8));
+				return this;
+			}
+		}
+
+		ensureSpace(length);
+
+		for (int i = 0; i < length; i++) {
+			buffer[position++] = (byte) s.charAt(i);
+		}
+
+		return this;
+
+	}
+
+	/** writes a single ASCII character */
+	public BufferedObjOutput print(char c) {
+		assert c < 0x80;
+		ensureSpace(1);
+		buffer[position++] = (byte) c;
+		return this;
+	}
+
+	public BufferedObjOutput print(long value) {
+
+		ensureSpace(digits.length + 1);
+
+		if (value < 0) {
+			if (value == Long.MIN_VALUE) {
+				return print(Long.toString(value));
+			}
+			buffer[position++] = '-';
+			value = -value;
+		}
+
+		writeDigits(value, 1);
+
+		return this;
+
+	}
+
+	/**
+	 * writes a floating point value with at most the configured number of decimal places
+	 */
+	public BufferedObjOutput print(double value) {
+
+		if (Double.isNaN(value) || Double.isInfinite(value)
+				|| Math.abs(value) > maxFixedPrecisionValue) {
+			return print(Double.toString(value));
+		}
+
+		ensureSpace(2 * digits.length + 2);
+
+		long scaled = Math.round(Math.abs(value) * POWERS_OF_TEN[decimals]);
+
+		if (value < 0 && scaled != 0) {
+			buffer[position++] = '-';
+		}
+
+		long integerPart = scaled / POWERS_OF_TEN[decimals];
+		long fractionalPart = scaled % POWERS_OF_TEN[decimals];
+
+		writeDigits(integerPart, 1);
+
+		if (fractionalPart != 0) {
+
+			int fractionalDigits = decimals;
+
+			while (fractionalPart % 10 == 0) {
+				fractionalPart /= 10;
+				fractionalDigits --;
+			}
+
+			buffer[position++] = '.';
+			writeDigits(fractionalPart, fractionalDigits);
+
+		}
+
+		return this;
+
+	}
+
+	public BufferedObjOutput println() {
+		return print('\n');
+	}
+
+	public BufferedObjOutput println(String s) {
+		return print(s).println();
+	}
+
+	/** writes all buffered content to the channel */
+	public void flush() throws IOException {
+
+		byteBuffer.clear();
+		byteBuffer.limit(position);
+
+		while (byteBuffer.hasRemaining()) {
+			channel.write(byteBuffer);
+		}
+
+		position = 0;
+
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * writes a non-negative number's decimal digits into the buffer.
+	 * Does not check for space in the buffer.
+	 *
+	 * @param minDigits  minimum number of digits, shorter numbers are padded with leading zeros
+	 */
+	private void writeDigits(long value, int minDigits) {
+
+		int count = 0;
+
+		do {
+			digits[count++] = (byte) ('0' + (value % 10));
+			value /= 10;
+		} while (value != 0);
+
+		while (count < minDigits) {
+			digits[count++] = '0';
+		}
+
+		for (int i = count - 1; i >= 0; i--) {
+			buffer[position++] = digits[i];
+		}
+
+	}
+
+	private void writeBytes(byte[] bytes) {
+
+		int offset = 0;
+
+		while (offset < bytes.length) {
+			ensureSpace(1);
+			int length = Math.min(bytes.length - offset, buffer.length - position);
+			System.arraycopy(bytes, offset, buffer, position, length);
+			position += length;
+			offset += length;
+		}
+
+	}
+
+	/** flushes the buffer if less than the required number of bytes is available */
+	private void ensureSpace(int bytes) {
+		if (buffer.length - position < bytes) {
+			try {
+				flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+}
@@ -8,9 +8,9 @@ import static org.osm2world.core.target.common.material.Material.multiplyColor;
 import java.awt.Color;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -22,22 +22,34 @@ import org.osm2world.core.math.VectorXYZ;
 import org.osm2world.core.math.VectorXZ;
 import org.osm2world.core.target.common.FaceTarget;
 import org.osm2world.core.target.common.TextTextureData;
+import org.osm2world.core.target.common.TextureAtlas;
+import org.osm2world.core.target.common.TextureAtlas.AtlasResult;
 import org.osm2world.core.target.common.TextureData;
 import org.osm2world.core.target.common.material.Material;
 import org.osm2world.core.target.common.material.Materials;
+import org.osm2world.core.target.common.model.InstanceParameters;
+import org.osm2world.core.target.common.model.Model;
+import org.osm2world.core.target.common.model.ModelGeometry;
+import org.osm2world.core.target.common.model.ModelKey;
+import org.osm2world.core.target.frontend_pbf.ModelTarget;
 import org.osm2world.core.world.data.WorldObject;
 
-public class ObjTarget extends FaceTarget<RenderableToObj> {
+public class ObjTarget extends FaceTarget<RenderableToObj>
+		implements ModelTarget<RenderableToObj> {
 
-	private final PrintStream objStream;
+	private final BufferedObjOutput objStream;
 	private final PrintStream mtlStream;
+	private final TextureAtlas textureAtlas;
 
-	private final Map<VectorXYZ, Integer> vertexIndexMap = new HashMap<VectorXYZ, Integer>();
-	private final Map<VectorXYZ, Integer> normalsIndexMap = new HashMap<VectorXYZ, Integer>();
-	private final Map<VectorXZ, Integer> texCoordsIndexMap = new HashMap<VectorXZ, Integer>();
+	private final VectorIndexMap<VectorXYZ> vertexIndexMap = new VectorIndexMap<VectorXYZ>();
+	private final VectorIndexMap<VectorXYZ> normalsIndexMap = new VectorIndexMap<VectorXYZ>();
+	private final VectorIndexMap<VectorXZ> texCoordsIndexMap = new VectorIndexMap<VectorXZ>();
 	private final Map<Material, String> materialMap = new HashMap<Material, String>();
 
-	private Class<? extends WorldObject> currentWOGroup = null;
+	/** geometry of models, each of which is only rendered once for all of its instances */
+	private final Map<ModelKey, ModelGeometry> modelGeometries = new HashMap<ModelKey, ModelGeometry>();
+
+	private String currentWOGroup = null;
 	private int anonymousWOCounter = 0;
 
 	private Material currentMaterial = null;
@@ -47,10 +59,19 @@ public class ObjTarget extends FaceTarget<RenderableToObj> {
 	// this is approximately one millimeter
 	private static final double SMALL_OFFSET = 1e-3;
 
-	public ObjTarget(PrintStream objStream, PrintStream mtlStream) {
+	public ObjTarget(BufferedObjOutput objStream, PrintStream mtlStream) {
+		this(objStream, mtlStream, null);
+	}
+
+	/**
+	 * @param textureAtlas  atlas for small textures, null to write all textures separately.
+	 *                      The atlas images need to be written by the caller.
+	 */
+	public ObjTarget(BufferedObjOutput objStream, PrintStream mtlStream, TextureAtlas textureAtlas) {
 
 		this.objStream = objStream;
 		this.mtlStream = mtlStream;
+		this.textureAtlas = textureAtlas;
 
 	}
 
@@ -64,6 +85,26 @@ public class ObjTarget extends FaceTarget<RenderableToObj> {
 		renderable.renderTo(this);
 	}
 
+	@Override
+	public void drawModel(Model model, VectorXYZ position,
+			double direction, Double height, Double width, Double length) {
+
+		ModelKey key = new ModelKey(model, width, length);
+		ModelGeometry geometry = modelGeometries.get(key);
+
+		if (geometry == null) {
+			geometry = ModelGeometry.record(key);
+			modelGeometries.put(key, geometry);
+		}
+
+		if (geometry.isInstanceable()) {
+			geometry.drawTo(this, new InstanceParameters(position, direction, height, width, length));
+		} else {
+			model.render(this, position, direction, height, width, length);
+		}
+
+	}
+
 	@Override
 	public boolean reconstructFaces() {
 		return config != null && config.getBoolean("reconstructFaces", false);
@@ -74,6 +115,39 @@ public class ObjTarget extends FaceTarget<RenderableToObj> {
 
 		if (object == null) {
 
+			beginObject(null, null);
+
+		} else {
+
+			/* use the underlying OSM element's name/ref tags as a label */
+
+			TagGroup tags = object.getPrimaryMapElement().getTags();
+
+			String label = null;
+
+			if (tags.containsKey("name")) {
+				label = tags.getValue("name");
+			} else if (tags.containsKey("ref")) {
+				label = tags.getValue("ref");
+			}
+
+			beginObject(object.getClass().getSimpleName(), label);
+
+		}
+
+	}
+
+	/**
+	 * variant of {@link #beginObject(WorldObject)} for objects
+	 * which are not available as a {@link WorldObject} anymore
+	 *
+	 * @param groupName  simple name of the world object's class; null if there is no object
+	 * @param label      name or ref of the object; null to number the object instead
+	 */
+	public void beginObject(String groupName, String label) {
+
+		if (groupName == null) {
+
 			currentWOGroup = null;
 			objStream.println("g null");
 			objStream.println("o null");
@@ -82,22 +156,19 @@ public class ObjTarget extends FaceTarget<RenderableToObj> {
 
 			/* maybe start a group depending on the object's class */
 
-			if (!object.getClass().equals(currentWOGroup)) {
-				currentWOGroup = object.getClass();
-				objStream.println("g " + currentWOGroup.getSimpleName());
+			if (!groupName.equals(currentWOGroup)) {
+				currentWOGroup = groupName;
+				objStream.print("g ").println(currentWOGroup);
 			}
 
-			/* start an object with the object's class
-			 * and the underlying OSM element's name/ref tags */
+			/* start an object with the object's class and label */
 
-			TagGroup tags = object.getPrimaryMapElement().getTags();
-
-			if (tags.containsKey("name")) {
-				objStream.println("o " + object.getClass().getSimpleName() + " " + tags.getValue("name"));
-			} else if (tags.containsKey("ref")) {
-				objStream.println("o " + object.getClass().getSimpleName() + " " + tags.getValue("ref"));
+			if (label != null) {
+				objStream.print("o ").print(groupName)
+					.print(' ').println(label);
 			} else {
-				objStream.println("o " + object.getClass().getSimpleName() + anonymousWOCounter ++);
+				objStream.print("o ").print(groupName)
+					.print(anonymousWOCounter ++).println();
 			}
 
 		}
@@ -108,6 +179,12 @@ public class ObjTarget extends FaceTarget<RenderableToObj> {
 	public void drawFace(Material material, List<VectorXYZ> vs,
 			List<VectorXYZ> normals, List<List<VectorXZ>> texCoordLists) {
 
+		if (textureAtlas != null) {
+			AtlasResult atlasResult = textureAtlas.apply(material, texCoordLists);
+			material = atlasResult.material;
+			texCoordLists = atlasResult.texCoordLists;
+		}
+
 		int[] normalIndices = null;
 		if (normals != null) {
 			normalIndices = normalsToIndices(normals);
@@ -134,6 +211,12 @@ public class ObjTarget extends FaceTarget<RenderableToObj> {
 			Collection<? extends TriangleXYZWithNormals> triangles,
 			List<List<VectorXZ>> texCoordLists) {
 
+		if (textureAtlas != null) {
+			AtlasResult atlasResult = textureAtlas.apply(material, texCoordLists);
+			material = atlasResult.material;
+			texCoordLists = atlasResult.texCoordLists;
+		}
+
 		for (int layer = 0; layer < max(1, material.getNumTextureLayers()); layer++) {
 
 			useMaterial(material, layer);
@@ -172,7 +255,7 @@ public class ObjTarget extends FaceTarget<RenderableToObj> {
 				writeMaterial(material, name);
 			}
 
-			objStream.println("usemtl " + name + "_" + layer);
+			objStream.print("usemtl ").print(name).print('_').print(layer).println();
 
 			currentMaterial = material;
 			currentMaterialLayer = layer;
@@ -202,18 +285,19 @@ public class ObjTarget extends FaceTarget<RenderableToObj> {
 		return vectorsToIndices(texCoordsIndexMap, "vt ", texCoords);
 	}
 
-	private <V> int[] vectorsToIndices(Map<V, Integer> indexMap,
+	private <V> int[] vectorsToIndices(VectorIndexMap<V> indexMap,
 			String objLineStart, List<? extends V> vectors) {
 
 		int[] indices = new int[vectors.size()];
 
 		for (int i=0; i<vectors.size(); i++) {
 			final V v = vectors.get(i);
-			Integer index = indexMap.get(v);
+			Integer index = indexMap.indices.get(v);
 			if (index == null) {
-				index = indexMap.size();
-				objStream.println(objLineStart + " " + formatVector(v));
-				indexMap.put(v, index);
+				index = indexMap.add(v);
+				objStream.print(objLineStart);
+				writeVector(v);
+				objStream.println();
 			}
 			indices[i] = index;
 		}
@@ -222,14 +306,14 @@ public class ObjTarget extends FaceTarget<RenderableToObj> {
 
 	}
 
-	private String formatVector(Object v) {
+	private void writeVector(Object v) {
 
 		if (v instanceof VectorXYZ) {
 			VectorXYZ vXYZ = (VectorXYZ)v;
-			return vXYZ.x + " " + vXYZ.y + " " + (-vXYZ.z);
+			objStream.print(vXYZ.x).print(' ').print(vXYZ.y).print(' ').print(-vXYZ.z);
 		} else {
 			VectorXZ vXZ = (VectorXZ)v;
-			return vXZ.x + " " + vXZ.z;
+			objStream.print(vXZ.x).print(' ').print(vXZ.z);
 		}
 
 	}
@@ -241,28 +325,23 @@ public class ObjTarget extends FaceTarget<RenderableToObj> {
 				|| vertexIndices.length == normalIndices.length;
 
 		//Don't add faces with duplicate vertices.
-		HashSet<Integer> set = new HashSet<Integer>();
-		for(int element : vertexIndices)
-		{
-			if(!set.add(element))
-			{
-				return;
-			}
+		if (containsDuplicates(vertexIndices)) {
+			return;
 		}
 
-		objStream.print("f");
+		objStream.print('f');
 
 		for (int i = 0; i < vertexIndices.length; i++) {
 
-			objStream.print(" " + (vertexIndices[i]+1));
+			objStream.print(' ').print(vertexIndices[i]+1);
 
 			if (texCoordIndices != null && normalIndices == null) {
-				objStream.print("/" + (texCoordIndices[i]+1));
+				objStream.print('/').print(texCoordIndices[i]+1);
 			} else if (texCoordIndices == null && normalIndices != null) {
-				objStream.print("//" + (normalIndices[i]+1));
+				objStream.print("//").print(normalIndices[i]+1);
 			} else if (texCoordIndices != null && normalIndices != null) {
-				objStream.print("/" + (texCoordIndices[i]+1)
-						+ "/" + (normalIndices[i]+1));
+				objStream.print('/').print(texCoordIndices[i]+1)
+						.print('/').print(normalIndices[i]+1);
 			}
 
 		}
@@ -270,6 +349,39 @@ public class ObjTarget extends FaceTarget<RenderableToObj> {
 		objStream.println();
 	}
 
+	/**
+	 * checks whether an array contains any value more than once.
+	 * Compares all pairs for small arrays (such as triangles), sorts a copy for larger ones.
+	 */
+	static boolean containsDuplicates(int[] values) {
+
+		if (values.length <= 16) {
+
+			for (int i = 1; i < values.length; i++) {
+				for (int j = 0; j < i; j++) {
+					if (values[i] == values[j]) {
+						return true;
+					}
+				}
+			}
+
+		} else {
+
+			int[] sortedValues = values.clone();
+			Arrays.sort(sortedValues);
+
+			for (int i = 1; i < sortedValues.length; i++) {
+				if (sortedValues[i] == sortedValues[i - 1]) {
+					return true;
+				}
+			}
+
+		}
+
+		return false;
+
+	}
+
 	private void writeMaterial(Material material, String name) {
 
 		for (int i = 0; i < max(1, material.getNumTextureLayers()); i++) {
@@ -319,5 +431,34 @@ public class ObjTarget extends FaceTarget<RenderableToObj> {
 
 	}
 
-}
+	/**
+	 * the indices of vectors which have already been written.
+	 * The map is cleared when it grows too large, so that the memory use stays bounded
+	 * for very large files, such as those from chunked conversions.
+	 * Vectors which are used again after that are simply written another time.
+	 */
+	private static class VectorIndexMap<V> {
+
+		private static final int MAX_SIZE = 1 << 20;
 
+		final Map<V, Integer> indices = new HashMap<V, Integer>();
+
+		/** number of vectors written so far */
+		private int count = 0;
+
+		/** assigns the next index to a vector */
+		int add(V v) {
+
+			if (indices.size() >= MAX_SIZE) {
+				indices.clear();
+			}
+
+			indices.put(v, count);
+
+			return count ++;
+
+		}
+
+	}
+
+}
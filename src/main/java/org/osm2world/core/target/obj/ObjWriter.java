@@ -9,12 +9,14 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.util.Iterator;
 
+import org.apache.commons.configuration.Configuration;
 import org.osm2world.core.GlobalValues;
 import org.osm2world.core.map_data.creation.MapProjection;
 import org.osm2world.core.map_data.data.MapData;
 import org.osm2world.core.math.VectorXYZ;
 import org.osm2world.core.math.VectorXZ;
 import org.osm2world.core.target.TargetUtil;
+import org.osm2world.core.target.common.TextureAtlas;
 import org.osm2world.core.target.common.rendering.Camera;
 import org.osm2world.core.target.common.rendering.Projection;
 
@@ -31,6 +33,43 @@ public final class ObjWriter {
 			MapProjection mapProjection,
 			Camera camera, Projection projection, boolean underground)
 			throws IOException {
+		writeObjFile(objFile, mapData, mapProjection, camera, projection, underground, null);
+	}
+
+	/**
+	 * @param config  configuration for the {@link ObjTarget}, can also set the
+	 *                number of decimal places using the "objDecimals" key
+	 *                and enable a {@link TextureAtlas} using the "textureAtlas" key; may be null
+	 */
+	public static final void writeObjFile(
+			File objFile, MapData mapData,
+			MapProjection mapProjection,
+			Camera camera, Projection projection, boolean underground,
+			Configuration config)
+			throws IOException {
+		writeObjFile(objFile, mapProjection, config,
+				target -> TargetUtil.renderWorldObjects(target, mapData, underground));
+	}
+
+	/** renders the content of an OBJ file while the file is open */
+	public static interface ObjContent {
+
+		public void renderTo(ObjTarget target) throws IOException;
+
+	}
+
+	/**
+	 * variant of {@link #writeObjFile(File, MapData, MapProjection, Camera, Projection, boolean, Configuration)}
+	 * for content which is not available as a single {@link MapData} instance,
+	 * such as the results of a chunked conversion.
+	 *
+	 * @param config  configuration for the {@link ObjTarget}, can also set the
+	 *                number of decimal places using the "objDecimals" key; may be null
+	 */
+	public static final void writeObjFile(
+			File objFile, MapProjection mapProjection,
+			Configuration config, ObjContent content)
+			throws IOException {
 
 		if (!objFile.exists()) {
 			objFile.createNewFile();
@@ -42,7 +81,7 @@ public final class ObjWriter {
 		}
 
 		try (
-			PrintStream objStream = new PrintStream(objFile);
+			BufferedObjOutput objStream = BufferedObjOutput.open(objFile, getDecimals(config));
 			PrintStream mtlStream = new PrintStream(mtlFile);
 		) {
 
@@ -58,9 +97,17 @@ public final class ObjWriter {
 
 			/* write actual file content */
 
-			ObjTarget target = new ObjTarget(objStream, mtlStream);
+			TextureAtlas textureAtlas = createTextureAtlas(config, objFile.getAbsoluteFile().getParentFile(),
+					objFile.getName().replaceFirst("\\.obj$", "") + "_atlas");
 
-			TargetUtil.renderWorldObjects(target, mapData, underground);
+			ObjTarget target = new ObjTarget(objStream, mtlStream, textureAtlas);
+			target.setConfiguration(config);
+
+			content.renderTo(target);
+
+			if (textureAtlas != null) {
+				textureAtlas.write();
+			}
 
 		}
 
@@ -72,6 +119,19 @@ public final class ObjWriter {
 			Camera camera, Projection projection,
 			int primitiveThresholdPerFile)
 			throws IOException {
+		writeObjFiles(objDirectory, mapData, mapProjection, camera, projection, primitiveThresholdPerFile, null);
+	}
+
+	/**
+	 * @param config  configuration for the {@link ObjTarget}s, can also set the
+	 *                number of decimal places using the "objDecimals" key; may be null
+	 */
+	public static final void writeObjFiles(
+			final File objDirectory, MapData mapData,
+			final MapProjection mapProjection,
+			Camera camera, Projection projection,
+			int primitiveThresholdPerFile, Configuration config)
+			throws IOException {
 
 		if (!objDirectory.exists()) {
 			objDirectory.mkdir();
@@ -87,14 +147,18 @@ public final class ObjWriter {
 
 		final PrintStream mtlStream = new PrintStream(mtlFile);
 
+		final int decimals = getDecimals(config);
+
+		final TextureAtlas textureAtlas = createTextureAtlas(config, objDirectory, "atlas");
+
 		writeMtlHeader(mtlStream);
 
 		/* create iterator which creates and wraps .obj files as needed */
 
-		Iterator<ObjTarget> objIterator = new Iterator<ObjTarget>() {
+		class ObjTargetIterator implements Iterator<ObjTarget> {
 
 			private int fileCounter = 0;
-			PrintStream objStream = null;
+			BufferedObjOutput objStream = null;
 
 			@Override
 			public boolean hasNext() {
@@ -118,13 +182,15 @@ public final class ObjWriter {
 						objFile.createNewFile();
 					}
 
-					objStream = new PrintStream(objFile);
+					objStream = BufferedObjOutput.open(objFile, decimals);
 
 					writeObjHeader(objStream, mapProjection);
 
 					objStream.println("mtllib " + mtlFile.getName() + "\n");
 
-					return new ObjTarget(objStream, mtlStream);
+					ObjTarget target = new ObjTarget(objStream, mtlStream, textureAtlas);
+					target.setConfiguration(config);
+					return target;
 
 				} catch (FileNotFoundException e) {
 					throw new RuntimeException(e);
@@ -139,17 +205,48 @@ public final class ObjWriter {
 				throw new UnsupportedOperationException();
 			}
 
-		};
+		}
+
+		ObjTargetIterator objIterator = new ObjTargetIterator();
 
 		/* write file content */
 
-		TargetUtil.renderWorldObjects(objIterator, mapData, primitiveThresholdPerFile);
+		try {
+			TargetUtil.renderWorldObjects(objIterator, mapData, primitiveThresholdPerFile);
+			if (textureAtlas != null) {
+				textureAtlas.write();
+			}
+		} finally {
+			if (objIterator.objStream != null) {
+				objIterator.objStream.close();
+			}
+			mtlStream.close();
+		}
 
-		mtlStream.close();
+	}
 
+	private static final int getDecimals(Configuration config) {
+		if (config == null) {
+			return BufferedObjOutput.DEFAULT_DECIMALS;
+		} else {
+			return config.getInt("objDecimals", BufferedObjOutput.DEFAULT_DECIMALS);
+		}
+	}
+
+	/**
+	 * creates an atlas for small textures if the "textureAtlas" key is set
+	 * in the configuration, otherwise returns null
+	 */
+	private static final TextureAtlas createTextureAtlas(Configuration config,
+			File directory, String fileNamePrefix) {
+		if (config != null && config.getBoolean("textureAtlas", false)) {
+			return new TextureAtlas(directory, fileNamePrefix);
+		} else {
+			return null;
+		}
 	}
 
-	private static final void writeObjHeader(PrintStream objStream,
+	private static final void writeObjHeader(BufferedObjOutput objStream,
 			MapProjection mapProjection) {
 
 		objStream.println("# This file was created by OSM2World "
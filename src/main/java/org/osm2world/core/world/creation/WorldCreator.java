@@ -2,12 +2,25 @@ package org.osm2world.core.world.creation;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.configuration.Configuration;
 import org.osm2world.core.map_data.data.MapData;
+import org.osm2world.core.world.modules.common.AbstractModule;
 
+/**
+ * applies {@link WorldModule}s to {@link MapData}.
+ *
+ * Modules are always run one after the other, in the order they were passed in.
+ * This matters because some modules (e.g. for bridges and tunnels) build on the
+ * representations created by earlier ones (e.g. roads).
+ * If the "parallelModules" config property is set, the work within each
+ * {@link AbstractModule} is spread across a fork-join pool with "moduleThreads" threads
+ * (default: number of available processors).
+ */
 public class WorldCreator {
 
+	private final Configuration config;
 	private List<? extends WorldModule> modules;
 
 	public WorldCreator(Configuration config, WorldModule... modules) {
@@ -15,6 +28,7 @@ public class WorldCreator {
 	}
 
 	public WorldCreator(Configuration config, List<? extends WorldModule> modules) {
+		this.config = config;
 		this.modules = modules;
 		for (WorldModule module : modules) {
 			module.setConfiguration(config);
@@ -23,8 +37,25 @@ public class WorldCreator {
 
 	public void addRepresentationsTo(MapData mapData) {
 
-		for (WorldModule module : modules) {
-			module.applyTo(mapData);
+		if (config != null && config.getBoolean("parallelModules", false)) {
+
+			int threads = config.getInt("moduleThreads", Runtime.getRuntime().availableProcessors());
+			ForkJoinPool pool = new ForkJoinPool(threads);
+
+			try {
+				for (WorldModule module : modules) {
+					pool.submit(() -> module.applyTo(mapData)).join();
+				}
+			} finally {
+				pool.shutdown();
+			}
+
+		} else {
+
+			for (WorldModule module : modules) {
+				module.applyTo(mapData);
+			}
+
 		}
 
 		NetworkCalculator.calculateNetworkInformationInGrid(mapData);
@@ -35,8 +35,10 @@ import org.osm2world.core.math.shapes.ShapeXZ;
 import org.osm2world.core.math.shapes.SimpleClosedShapeXZ;
 import org.osm2world.core.target.RenderableToAllTargets;
 import org.osm2world.core.target.Target;
+import org.osm2world.core.target.TargetUtil;
 import org.osm2world.core.target.common.material.Material;
 import org.osm2world.core.target.common.material.Materials;
+import org.osm2world.core.target.common.model.Model;
 import org.osm2world.core.world.data.NoOutlineNodeWorldObject;
 import org.osm2world.core.world.modules.common.AbstractModule;
 import org.osm2world.core.world.network.AbstractNetworkWaySegmentWorldObject;
@@ -742,8 +744,36 @@ public class BarrierModule extends AbstractModule {
 
 		@Override
 		public void renderTo(Target<?> target) {
-			target.drawColumn(Materials.CONCRETE,
-					null, getBase(), height, 0.15f, 0.15f, false, true);
+			TargetUtil.drawModel(target, new BollardModel(height),
+					getBase(), 0, null, null, null);
+		}
+
+		private static final class BollardModel implements Model {
+
+			private final double bollardHeight;
+
+			public BollardModel(double bollardHeight) {
+				this.bollardHeight = bollardHeight;
+			}
+
+			@Override
+			public void render(Target<?> target, VectorXYZ position,
+					double direction, Double height, Double width, Double length) {
+				target.drawColumn(Materials.CONCRETE,
+						null, position, bollardHeight, 0.15f, 0.15f, false, true);
+			}
+
+			@Override
+			public int hashCode() {
+				return Double.hashCode(bollardHeight);
+			}
+
+			@Override
+			public boolean equals(Object obj) {
+				return obj instanceof BollardModel
+						&& bollardHeight == ((BollardModel) obj).bollardHeight;
+			}
+
 		}
 
 	}
@@ -2731,7 +2731,7 @@ public class BuildingModule extends ConfigurableWorldModule {
 				List<VectorXYZ> vsWall = createTriangleStripBetween(
 						backOutline.getVertexLoop(), frontOutline.getVertexLoop());
 
-				Material material = new ImmutableMaterial(
+				Material material = ImmutableMaterial.intern(new ImmutableMaterial(
 						surface.material.getInterpolation(),
 						surface.material.getColor(),
 						0.5f * surface.material.getAmbientFactor(), //coarsely approximate ambient occlusion
@@ -2741,7 +2741,7 @@ public class BuildingModule extends ConfigurableWorldModule {
 						surface.material.getTransparency(),
 						surface.material.getShadow(),
 						surface.material.getAmbientOcclusion(),
-						surface.material.getTextureDataList());
+						surface.material.getTextureDataList()));
 
 				target.drawTriangleStrip(material, vsWall,
 						texCoordLists(vsWall, material, NamedTexCoordFunction.STRIP_WALL));
@@ -2856,7 +2856,7 @@ public class BuildingModule extends ConfigurableWorldModule {
 				List<VectorXYZ> vsWall = createTriangleStripBetween(
 						backOutline.getVertexLoop(), frontOutline.getVertexLoop());
 
-				Material material = new ImmutableMaterial(
+				Material material = ImmutableMaterial.intern(new ImmutableMaterial(
 						surface.material.getInterpolation(),
 						surface.material.getColor(),
 						0.5f * surface.material.getAmbientFactor(), //coarsely approximate ambient occlusion
@@ -2866,7 +2866,7 @@ public class BuildingModule extends ConfigurableWorldModule {
 						surface.material.getTransparency(),
 						surface.material.getShadow(),
 						surface.material.getAmbientOcclusion(),
-						surface.material.getTextureDataList());
+						surface.material.getTextureDataList()));
 
 				target.drawTriangleStrip(material, vsWall,
 						texCoordLists(vsWall, material, NamedTexCoordFunction.STRIP_WALL));
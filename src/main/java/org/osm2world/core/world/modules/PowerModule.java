@@ -16,6 +16,7 @@ import static org.osm2world.core.world.modules.common.WorldModuleParseUtil.*;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 
 import org.osm2world.core.map_data.data.MapArea;
 import org.osm2world.core.map_data.data.MapNode;
@@ -32,6 +33,7 @@ import org.osm2world.core.math.shapes.PolylineXZ;
 import org.osm2world.core.math.shapes.ShapeXZ;
 import org.osm2world.core.target.RenderableToAllTargets;
 import org.osm2world.core.target.Target;
+import org.osm2world.core.target.TargetUtil;
 import org.osm2world.core.target.common.material.Material;
 import org.osm2world.core.target.common.material.Materials;
 import org.osm2world.core.target.common.model.Model;
@@ -306,19 +308,9 @@ public final class PowerModule extends AbstractModule {
 
 			/* draw rotor blades */
 
-			if (target instanceof ModelTarget<?>) {
-
-				((ModelTarget<?>) target).drawModel(ROTOR,
-						getBase().addY(poleHeight).add(-poleRadiusTop*2.5, nacelleHeight/2, 0),
-						0, rotorDiameter, rotorDiameter, rotorDiameter);
-
-			} else {
-
-				ROTOR.render(target,
-						getBase().addY(poleHeight).add(-poleRadiusTop*2.5, nacelleHeight/2, 0),
-						0, rotorDiameter, rotorDiameter, rotorDiameter);
-
-			}
+			TargetUtil.drawModel(target, ROTOR,
+					getBase().addY(poleHeight).add(-poleRadiusTop*2.5, nacelleHeight/2, 0),
+					0, rotorDiameter, rotorDiameter, rotorDiameter);
 
 		}
 
@@ -555,12 +547,9 @@ public final class PowerModule extends AbstractModule {
 			return GroundState.ON;
 		}
 
-		// TODO we're missing the ceramics to hold the power lines
-
 		@Override
 		public void renderTo(Target<?> target) {
 
-			VectorXYZ base = getBase().addY(-0.5);
 			double height = parseHeight(node.getTags(), 14);
 
 			Material material = Materials.getSurfaceMaterial(node.getTags().getValue("material"));
@@ -568,24 +557,68 @@ public final class PowerModule extends AbstractModule {
 				material = Materials.getSurfaceMaterial(node.getTags().getValue("surface"), Materials.STEEL);
 			}
 
-			// draw base column
-			target.drawColumn(material, null, base, height, 0.5, 0.25, true, true);
+			TargetUtil.drawModel(target, new PowerTowerModel(material, height, config.cables),
+					getBase().addY(-0.5), config.direction.angle(), null, null, null);
 
-			// draw cross "column"
-			target.drawBox(material, base.add(0, height, 0), config.direction, 0.25, 5, 0.25);
+		}
+
+		// TODO we're missing the ceramics to hold the power lines
 
-			// draw pieces holding the power lines
-			base = base.add(0, height + 0.25, 0);
-			target.drawColumn(Materials.CONCRETE, null, base.add(config.direction.rightNormal().mult(2)), 0.5, 0.1, 0.1, true, true);
-			target.drawColumn(Materials.CONCRETE, null, base.add(config.direction.rightNormal().mult(-2)), 0.5, 0.1, 0.1, true, true);
-			if (config.cables >= 3) {
-				target.drawColumn(Materials.CONCRETE, null, base, 0.5, 0.1, 0.1, true, true);
+		private static final class PowerTowerModel implements Model {
+
+			private final Material material;
+			private final double towerHeight;
+			private final int cables;
+
+			public PowerTowerModel(Material material, double towerHeight, int cables) {
+				this.material = material;
+				this.towerHeight = towerHeight;
+				this.cables = cables;
 			}
-			if (config.cables >= 5) {
-				target.drawColumn(Materials.CONCRETE, null, base.add(config.direction.rightNormal().mult(1.5)), -0.5, 0.1, 0.1, true, true);
-				target.drawColumn(Materials.CONCRETE, null, base.add(config.direction.rightNormal().mult(-1.5)), -0.5, 0.1, 0.1, true, true);
+
+			@Override
+			public void render(Target<?> target, VectorXYZ position,
+					double direction, Double height, Double width, Double length) {
+
+				VectorXZ directionVector = VectorXZ.fromAngle(direction);
+				VectorXYZ base = position;
+
+				// draw base column
+				target.drawColumn(material, null, base, towerHeight, 0.5, 0.25, true, true);
+
+				// draw cross "column"
+				target.drawBox(material, base.add(0, towerHeight, 0), directionVector, 0.25, 5, 0.25);
+
+				// draw pieces holding the power lines
+				base = base.add(0, towerHeight + 0.25, 0);
+				target.drawColumn(Materials.CONCRETE, null, base.add(directionVector.rightNormal().mult(2)), 0.5, 0.1, 0.1, true, true);
+				target.drawColumn(Materials.CONCRETE, null, base.add(directionVector.rightNormal().mult(-2)), 0.5, 0.1, 0.1, true, true);
+				if (cables >= 3) {
+					target.drawColumn(Materials.CONCRETE, null, base, 0.5, 0.1, 0.1, true, true);
+				}
+				if (cables >= 5) {
+					target.drawColumn(Materials.CONCRETE, null, base.add(directionVector.rightNormal().mult(1.5)), -0.5, 0.1, 0.1, true, true);
+					target.drawColumn(Materials.CONCRETE, null, base.add(directionVector.rightNormal().mult(-1.5)), -0.5, 0.1, 0.1, true, true);
+				}
+
+			}
+
+			@Override
+			public int hashCode() {
+				return Objects.hash(material, towerHeight, cables);
+			}
+
+			@Override
+			public boolean equals(Object obj) {
+				if (!(obj instanceof PowerTowerModel)) return false;
+				PowerTowerModel other = (PowerTowerModel) obj;
+				return material.equals(other.material)
+						&& towerHeight == other.towerHeight
+						&& cables == other.cables;
 			}
+
 		}
+
 	}
 
 
@@ -593,12 +626,10 @@ public final class PowerModule extends AbstractModule {
 		implements RenderableToAllTargets {
 
 		private TowerConfig config;
-		private VectorXZ direction;
 
 		public HighVoltagePowerTower(MapNode node, TowerConfig config) {
 			super(node);
 			this.config = config;
-			this.direction = config.direction;
 		}
 
 		@Override
@@ -617,184 +648,230 @@ public final class PowerModule extends AbstractModule {
 			return height;
 		}
 
-		private VectorXZ[][] getCorners(VectorXZ center, double diameter) {
-			double half = diameter/2;
-			VectorXZ ortho = direction.rightNormal();
+		@Override
+		public void renderTo(Target<?> target) {
 
-			VectorXZ right_in = center.add(direction.mult(half));
-			VectorXZ left_in = center.add(direction.mult(-half));
-			VectorXZ right_out = center.add(direction.mult(half));
-			VectorXZ left_out = center.add(direction.mult(-half));
+			TargetUtil.drawModel(target,
+					new HighVoltagePowerTowerModel(config.voltage > 150000, getTowerHeight(), config.cables > 6),
+					getBase().addY(-0.5), config.direction.angle(), null, null, null);
 
-			// TODO: if we can switch off backface culling we'd only need one face here
-			return new VectorXZ[][]{
-					new VectorXZ[]{
-							right_in.add(ortho.mult(-half)),
-							right_in.add(ortho.mult(half)),
-							left_in.add(ortho.mult(half)),
-							left_in.add(ortho.mult(-half))
-					},
-					new VectorXZ[]{
-							right_out.add(ortho.mult(half)),
-							right_out.add(ortho.mult(-half)),
-							left_out.add(ortho.mult(-half)),
-							left_out.add(ortho.mult(half))
-					}};
 		}
 
-		private void drawSegment(Target<?> target,
-				VectorXZ[] low, VectorXZ[] high, double base, double height) {
+		// TODO we're missing the ceramics to hold the power lines
 
-			for (int a = 0; a < 4; a++) {
+		private static final class HighVoltagePowerTowerModel implements Model {
 
-				List<VectorXYZ> vs = new ArrayList<VectorXYZ>();
-				List<VectorXZ> tex = new ArrayList<VectorXZ>();
-				List<List<VectorXZ>> texList =
-					nCopies(Materials.POWER_TOWER_VERTICAL.getNumTextureLayers(), tex);
-
-				for (int i = 0; i < 2; i++) {
-					int idx = (a+i)%4;
-					vs.add(high[idx].xyz(height));
-					vs.add(low[idx].xyz(base));
-					tex.add(new VectorXZ(i, 1));
-					tex.add(new VectorXZ(i, 0));
-				}
+			private final boolean extraHighVoltage;
+			private final double towerHeight;
+			private final boolean upperPole;
 
-				target.drawTriangleStrip(Materials.POWER_TOWER_VERTICAL, vs, texList);
+			/**
+			 * @param extraHighVoltage  whether the voltage is above 150 kV, which results in a larger tower
+			 * @param upperPole  whether a second pole is needed for more than 6 cables
+			 */
+			public HighVoltagePowerTowerModel(boolean extraHighVoltage, double towerHeight, boolean upperPole) {
+				this.extraHighVoltage = extraHighVoltage;
+				this.towerHeight = towerHeight;
+				this.upperPole = upperPole;
 			}
-		}
-
-		private void drawHorizontalSegment(Target<?> target,
-				VectorXZ left, VectorXZ right, double base,
-				double left_height, double right_height) {
 
-			List<VectorXYZ> vs = new ArrayList<VectorXYZ>();
-			List<VectorXZ> tex = new ArrayList<VectorXZ>();
-			List<List<VectorXZ>> texList =
-					nCopies(Materials.POWER_TOWER_HORIZONTAL.getNumTextureLayers(), tex);
+			private VectorXZ[][] getCorners(VectorXZ center, VectorXZ direction, double diameter) {
+				double half = diameter/2;
+				VectorXZ ortho = direction.rightNormal();
+
+				VectorXZ right_in = center.add(direction.mult(half));
+				VectorXZ left_in = center.add(direction.mult(-half));
+				VectorXZ right_out = center.add(direction.mult(half));
+				VectorXZ left_out = center.add(direction.mult(-half));
+
+				// TODO: if we can switch off backface culling we'd only need one face here
+				return new VectorXZ[][]{
+						new VectorXZ[]{
+								right_in.add(ortho.mult(-half)),
+								right_in.add(ortho.mult(half)),
+								left_in.add(ortho.mult(half)),
+								left_in.add(ortho.mult(-half))
+						},
+						new VectorXZ[]{
+								right_out.add(ortho.mult(half)),
+								right_out.add(ortho.mult(-half)),
+								left_out.add(ortho.mult(-half)),
+								left_out.add(ortho.mult(half))
+						}};
+			}
 
-			vs.add(right.xyz(base));
-			vs.add(left.xyz(base));
-			vs.add(right.xyz(base+right_height));
-			vs.add(left.xyz(base+left_height));
+			private void drawSegment(Target<?> target,
+					VectorXZ[] low, VectorXZ[] high, double base, double height) {
 
-			tex.add(new VectorXZ(1, 1));
-			tex.add(new VectorXZ(0, 1));
-			tex.add(new VectorXZ(1, 0));
-			tex.add(new VectorXZ(0, 0));
+				for (int a = 0; a < 4; a++) {
 
-			target.drawTriangleStrip(Materials.POWER_TOWER_HORIZONTAL, vs, texList);
-		}
+					List<VectorXYZ> vs = new ArrayList<VectorXYZ>();
+					List<VectorXZ> tex = new ArrayList<VectorXZ>();
+					List<List<VectorXZ>> texList =
+						nCopies(Materials.POWER_TOWER_VERTICAL.getNumTextureLayers(), tex);
 
-		private void drawHorizontalTop(Target<?> target, VectorXZ[][] points,
-				double base, double border, double middle, double center) {
+					for (int i = 0; i < 2; i++) {
+						int idx = (a+i)%4;
+						vs.add(high[idx].xyz(height));
+						vs.add(low[idx].xyz(base));
+						tex.add(new VectorXZ(i, 1));
+						tex.add(new VectorXZ(i, 0));
+					}
 
-			double[] height = new double[]{border, middle, center, center, middle, border};
+					target.drawTriangleStrip(Materials.POWER_TOWER_VERTICAL, vs, texList);
+				}
+			}
 
-			int len = height.length;
-			for (int a = 0; a < len-1; a++) {
+			private void drawHorizontalSegment(Target<?> target,
+					VectorXZ left, VectorXZ right, double base,
+					double left_height, double right_height) {
 
 				List<VectorXYZ> vs = new ArrayList<VectorXYZ>();
 				List<VectorXZ> tex = new ArrayList<VectorXZ>();
 				List<List<VectorXZ>> texList =
-						nCopies(Materials.POWER_TOWER_VERTICAL.getNumTextureLayers(), tex);
+						nCopies(Materials.POWER_TOWER_HORIZONTAL.getNumTextureLayers(), tex);
 
-				for (int i = 0; i < 2; i++) {
-					vs.add(points[1][a+i].xyz(base + height[a+i]));
-					vs.add(points[2][a+i].xyz(base + height[a+i]));
-					tex.add(new VectorXZ(0, i));
-					tex.add(new VectorXZ(1, i));
-				}
-				target.drawTriangleStrip(Materials.POWER_TOWER_VERTICAL, vs, texList);
-			}
-		}
+				vs.add(right.xyz(base));
+				vs.add(left.xyz(base));
+				vs.add(right.xyz(base+right_height));
+				vs.add(left.xyz(base+left_height));
 
+				tex.add(new VectorXZ(1, 1));
+				tex.add(new VectorXZ(0, 1));
+				tex.add(new VectorXZ(1, 0));
+				tex.add(new VectorXZ(0, 0));
 
-		private double drawPart(Target<?> target, double elevation,
-				int nr_segments, double segment_height, double ground_size,
-				double top_size) {
+				target.drawTriangleStrip(Materials.POWER_TOWER_HORIZONTAL, vs, texList);
+			}
 
-			for (int i = 0; i < nr_segments; i++) {
+			private void drawHorizontalTop(Target<?> target, VectorXZ[][] points,
+					double base, double border, double middle, double center) {
 
-				double bottom = ground_size + i * (top_size - ground_size) / nr_segments;
-				double top = ground_size + (i + 1) * (top_size - ground_size) / nr_segments;
+				double[] height = new double[]{border, middle, center, center, middle, border};
 
-				VectorXZ[][] low = getCorners(node.getPos(), bottom);
-				VectorXZ[][] high = getCorners(node.getPos(), top);
+				int len = height.length;
+				for (int a = 0; a < len-1; a++) {
 
-				drawSegment(target, low[0], high[0], elevation, elevation + segment_height);
-				drawSegment(target, low[1], high[1], elevation, elevation + segment_height);
+					List<VectorXYZ> vs = new ArrayList<VectorXYZ>();
+					List<VectorXZ> tex = new ArrayList<VectorXZ>();
+					List<List<VectorXZ>> texList =
+							nCopies(Materials.POWER_TOWER_VERTICAL.getNumTextureLayers(), tex);
 
-				elevation += segment_height;
+					for (int i = 0; i < 2; i++) {
+						vs.add(points[1][a+i].xyz(base + height[a+i]));
+						vs.add(points[2][a+i].xyz(base + height[a+i]));
+						tex.add(new VectorXZ(0, i));
+						tex.add(new VectorXZ(1, i));
+					}
+					target.drawTriangleStrip(Materials.POWER_TOWER_VERTICAL, vs, texList);
+				}
 			}
 
-			return elevation;
-		}
 
-		private VectorXZ[] getPoleCoordinates(VectorXZ base,
-				VectorXZ direction, double width, double size) {
+			private double drawPart(Target<?> target, VectorXZ center, VectorXZ direction, double elevation,
+					int nr_segments, double segment_height, double ground_size,
+					double top_size) {
 
-			return new VectorXZ[] {
-					base.add(direction.mult(-width - size)),
-					base.add(direction.mult(-width / 2 - size)),
-					base.add(direction.mult(-size)),
-					base.add(direction.mult(size)),
-					base.add(direction.mult(width / 2 + size)),
-					base.add(direction.mult(width + size))
-			};
-		}
+				for (int i = 0; i < nr_segments; i++) {
+
+					double bottom = ground_size + i * (top_size - ground_size) / nr_segments;
+					double top = ground_size + (i + 1) * (top_size - ground_size) / nr_segments;
 
-		private void drawHorizontalPole(Target<?> target, double elevation,
-				double diameter, double width) {
+					VectorXZ[][] low = getCorners(center, direction, bottom);
+					VectorXZ[][] high = getCorners(center, direction, top);
 
-			double half = diameter / 2;
-			VectorXZ ortho = direction.rightNormal();
+					drawSegment(target, low[0], high[0], elevation, elevation + segment_height);
+					drawSegment(target, low[1], high[1], elevation, elevation + segment_height);
 
-			// TODO: if we can switch off backface culling we'd only need one face here
-			VectorXZ[][] draw = new VectorXZ[][] {
-					getPoleCoordinates(node.getPos().add(direction.mult(-half)), ortho, width, half),
-					getPoleCoordinates(node.getPos().add(direction.mult(-half)), ortho.invert(), width, half),
-					getPoleCoordinates(node.getPos().add(direction.mult(half)), ortho.invert(), width, half),
-					getPoleCoordinates(node.getPos().add(direction.mult(half)), ortho, width, half)
-			};
+					elevation += segment_height;
+				}
 
-			for (int i = 0; i < 4; i++) {
-				drawHorizontalSegment(target, draw[i][0], draw[i][1], elevation, 0.1, diameter/2);
-				drawHorizontalSegment(target, draw[i][1], draw[i][2], elevation, diameter/2, diameter);
-				drawHorizontalSegment(target, draw[i][2], draw[i][3], elevation, diameter, diameter);
-				drawHorizontalSegment(target, draw[i][3], draw[i][4], elevation, diameter, diameter/2);
-				drawHorizontalSegment(target, draw[i][4], draw[i][5], elevation, diameter/2, 0.1);
+				return elevation;
 			}
 
-			drawHorizontalTop(target, draw, elevation, 0.1, diameter/2, diameter);
-		}
+			private VectorXZ[] getPoleCoordinates(VectorXZ base,
+					VectorXZ direction, double width, double size) {
+
+				return new VectorXZ[] {
+						base.add(direction.mult(-width - size)),
+						base.add(direction.mult(-width / 2 - size)),
+						base.add(direction.mult(-size)),
+						base.add(direction.mult(size)),
+						base.add(direction.mult(width / 2 + size)),
+						base.add(direction.mult(width + size))
+				};
+			}
 
-		// TODO we're missing the ceramics to hold the power lines
+			private void drawHorizontalPole(Target<?> target, VectorXZ center, VectorXZ direction, double elevation,
+					double diameter, double width) {
+
+				double half = diameter / 2;
+				VectorXZ ortho = direction.rightNormal();
+
+				// TODO: if we can switch off backface culling we'd only need one face here
+				VectorXZ[][] draw = new VectorXZ[][] {
+						getPoleCoordinates(center.add(direction.mult(-half)), ortho, width, half),
+						getPoleCoordinates(center.add(direction.mult(-half)), ortho.invert(), width, half),
+						getPoleCoordinates(center.add(direction.mult(half)), ortho.invert(), width, half),
+						getPoleCoordinates(center.add(direction.mult(half)), ortho, width, half)
+				};
+
+				for (int i = 0; i < 4; i++) {
+					drawHorizontalSegment(target, draw[i][0], draw[i][1], elevation, 0.1, diameter/2);
+					drawHorizontalSegment(target, draw[i][1], draw[i][2], elevation, diameter/2, diameter);
+					drawHorizontalSegment(target, draw[i][2], draw[i][3], elevation, diameter, diameter);
+					drawHorizontalSegment(target, draw[i][3], draw[i][4], elevation, diameter, diameter/2);
+					drawHorizontalSegment(target, draw[i][4], draw[i][5], elevation, diameter/2, 0.1);
+				}
 
-		@Override
-		public void renderTo(Target<?> target) {
+				drawHorizontalTop(target, draw, elevation, 0.1, diameter/2, diameter);
+			}
+
+			@Override
+			public void render(Target<?> target, VectorXYZ position,
+					double direction, Double height, Double width, Double length) {
+
+				VectorXZ center = position.xz();
+				VectorXZ directionVector = VectorXZ.fromAngle(direction);
 
-			float pole_width = config.voltage > 150000 ? 16 : 13;
-			float[] tower_width = config.voltage > 150000 ? new float[]{11,6,4f,0} : new float[]{8,5,3,0};
-			double height = getTowerHeight();
+				float pole_width = extraHighVoltage ? 16 : 13;
+				float[] tower_width = extraHighVoltage ? new float[]{11,6,4f,0} : new float[]{8,5,3,0};
 
-			double segment_height = 2.5;
-			double base = getBase().y - 0.5;
+				double segment_height = 2.5;
+				double base = position.y;
 
-			int parts = (int) (height / segment_height);
-			int low_parts = parts / 5;
+				int parts = (int) (towerHeight / segment_height);
+				int low_parts = parts / 5;
 
-			// draw the tower itself
-			double ele = drawPart(target, base, low_parts, segment_height, tower_width[0], tower_width[1]);
-			ele = drawPart(target, ele, 3 * low_parts, segment_height, tower_width[1], tower_width[2]);
-			drawPart(target, ele, low_parts, segment_height, tower_width[2], tower_width[3]);
+				// draw the tower itself
+				double ele = drawPart(target, center, directionVector, base, low_parts, segment_height, tower_width[0], tower_width[1]);
+				ele = drawPart(target, center, directionVector, ele, 3 * low_parts, segment_height, tower_width[1], tower_width[2]);
+				drawPart(target, center, directionVector, ele, low_parts, segment_height, tower_width[2], tower_width[3]);
 
-			// draw the vertical poles
-			drawHorizontalPole(target, base + height/2, 0.7*tower_width[1], pole_width);
-			if (config.cables > 6) {
-				drawHorizontalPole(target, ele, 0.55*tower_width[2], 0.6*pole_width);
+				// draw the vertical poles
+				drawHorizontalPole(target, center, directionVector, base + towerHeight/2, 0.7*tower_width[1], pole_width);
+				if (upperPole) {
+					drawHorizontalPole(target, center, directionVector, ele, 0.55*tower_width[2], 0.6*pole_width);
+				}
+
+			}
+
+			@Override
+			public int hashCode() {
+				return Objects.hash(extraHighVoltage, towerHeight, upperPole);
 			}
+
+			@Override
+			public boolean equals(Object obj) {
+				if (!(obj instanceof HighVoltagePowerTowerModel)) return false;
+				HighVoltagePowerTowerModel other = (HighVoltagePowerTowerModel) obj;
+				return extraHighVoltage == other.extraHighVoltage
+						&& towerHeight == other.towerHeight
+						&& upperPole == other.upperPole;
+			}
+
 		}
+
 	}
 
 	private static final class PhotovoltaicPlant extends AbstractAreaWorldObject
@@ -10,9 +10,9 @@ import static org.osm2world.core.target.common.material.TexCoordUtil.texCoordLis
 import static org.osm2world.core.world.modules.common.WorldModuleParseUtil.parseInt;
 import static org.osm2world.core.world.network.NetworkUtil.getConnectedNetworkSegments;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.osm2world.core.map_data.data.MapData;
 import org.osm2world.core.map_data.data.MapNode;
@@ -24,10 +24,10 @@ import org.osm2world.core.math.shapes.PolylineXZ;
 import org.osm2world.core.math.shapes.ShapeXZ;
 import org.osm2world.core.target.RenderableToAllTargets;
 import org.osm2world.core.target.Target;
+import org.osm2world.core.target.TargetUtil;
 import org.osm2world.core.target.common.material.Material;
 import org.osm2world.core.target.common.material.Materials;
 import org.osm2world.core.target.common.model.Model;
-import org.osm2world.core.target.frontend_pbf.ModelTarget;
 import org.osm2world.core.world.data.TerrainBoundaryWorldObject;
 import org.osm2world.core.world.modules.common.ConfigurableWorldModule;
 import org.osm2world.core.world.modules.common.WorldModuleGeometryUtil;
@@ -102,7 +102,8 @@ public class RailwayModule extends ConfigurableWorldModule {
 		}
 	}
 
-	private final Map<Double, SleeperModel> sleeperModelByWidth = new HashMap<Double, SleeperModel>();
+	/** thread-safe because rails can be created and rendered by several threads at the same time */
+	private final Map<Double, SleeperModel> sleeperModelByWidth = new ConcurrentHashMap<Double, SleeperModel>();
 
 	@Override
 	public void applyTo(MapData mapData) {
@@ -141,9 +142,7 @@ public class RailwayModule extends ConfigurableWorldModule {
 			sleeperWidth = gaugeMeters + 2 * RAIL_HEAD_WIDTH + 2 * SLEEPER_EXTRA_WIDTH;
 			groundWidth = sleeperWidth + 2 * GROUND_EXTRA_WIDTH;
 
-			if (!sleeperModelByWidth.containsKey(sleeperWidth)) {
-				sleeperModelByWidth.put(sleeperWidth, new SleeperModel(sleeperWidth));
-			}
+			sleeperModelByWidth.computeIfAbsent(sleeperWidth, SleeperModel::new);
 
 		}
 
@@ -205,19 +204,9 @@ public class RailwayModule extends ConfigurableWorldModule {
 
 				SleeperModel sleeperModel = sleeperModelByWidth.get(sleeperWidth);
 
-				if (target instanceof ModelTarget<?>) {
-
-					((ModelTarget<?>)target).drawModel(sleeperModel,
-							sleeperPosition, segment.getDirection().angle(),
-							null, sleeperWidth, null);
-
-				} else {
-
-					sleeperModel.render(target,
-							sleeperPosition, segment.getDirection().angle(),
-							null, sleeperWidth, null);
-
-				}
+				TargetUtil.drawModel(target, sleeperModel,
+						sleeperPosition, segment.getDirection().angle(),
+						null, sleeperWidth, null);
 
 			}
 
@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 
 import org.osm2world.core.map_data.data.MapNode;
 import org.osm2world.core.map_data.data.MapWaySegment;
@@ -33,6 +34,7 @@ import org.osm2world.core.math.VectorXZ;
 import org.osm2world.core.math.shapes.ShapeXZ;
 import org.osm2world.core.target.RenderableToAllTargets;
 import org.osm2world.core.target.Target;
+import org.osm2world.core.target.TargetUtil;
 import org.osm2world.core.target.common.TextureData;
 import org.osm2world.core.target.common.material.ConfMaterial;
 import org.osm2world.core.target.common.material.ImmutableMaterial;
@@ -40,6 +42,7 @@ import org.osm2world.core.target.common.material.Material;
 import org.osm2world.core.target.common.material.Material.Interpolation;
 import org.osm2world.core.target.common.material.Materials;
 import org.osm2world.core.target.common.material.TexCoordFunction;
+import org.osm2world.core.target.common.model.Model;
 import org.osm2world.core.world.data.NoOutlineNodeWorldObject;
 import org.osm2world.core.world.modules.common.AbstractModule;
 
@@ -714,38 +717,78 @@ public class StreetFurnitureModule extends AbstractModule {
 
 			material = material.withColor(parseColor(node.getTags().getValue("colour"), CSS_COLORS));
 
-			/* calculate vectors and corners */
+			/* draw the bench */
 
 			double directionAngle = parseDirection(node.getTags(), PI);
 
-			VectorXZ faceVector = VectorXZ.fromAngle(directionAngle);
-			VectorXZ boardVector = faceVector.rightNormal();
+			boolean backrest = !node.getTags().contains("backrest", "no");
 
-			List<VectorXZ> cornerOffsets = asList(
-					faceVector.mult(+0.25).add(boardVector.mult(+width / 2)),
-					faceVector.mult(+0.25).add(boardVector.mult(-width / 2)),
-					faceVector.mult(-0.25).add(boardVector.mult(+width / 2)),
-					faceVector.mult(-0.25).add(boardVector.mult(-width / 2)));
+			TargetUtil.drawModel(target, new BenchModel(material, width, backrest),
+					getBase(), directionAngle, null, null, null);
 
-			/* draw seat and backrest */
+		}
 
-			target.drawBox(material, getBase().addY(0.5),
-					faceVector, 0.05, width, 0.5);
+		private static final class BenchModel implements Model {
 
-			if (!node.getTags().contains("backrest", "no")) {
+			private final Material material;
+			private final double benchWidth;
+			private final boolean backrest;
 
-				target.drawBox(material,
-						getBase().add(faceVector.mult(-0.23)).addY(0.5),
-						faceVector, 0.5, width, 0.04);
+			public BenchModel(Material material, double benchWidth, boolean backrest) {
+				this.material = material;
+				this.benchWidth = benchWidth;
+				this.backrest = backrest;
+			}
+
+			@Override
+			public void render(Target<?> target, VectorXYZ position,
+					double direction, Double height, Double width, Double length) {
+
+				/* calculate vectors and corners */
+
+				VectorXZ faceVector = VectorXZ.fromAngle(direction);
+				VectorXZ boardVector = faceVector.rightNormal();
+
+				List<VectorXZ> cornerOffsets = asList(
+						faceVector.mult(+0.25).add(boardVector.mult(+benchWidth / 2)),
+						faceVector.mult(+0.25).add(boardVector.mult(-benchWidth / 2)),
+						faceVector.mult(-0.25).add(boardVector.mult(+benchWidth / 2)),
+						faceVector.mult(-0.25).add(boardVector.mult(-benchWidth / 2)));
+
+				/* draw seat and backrest */
+
+				target.drawBox(material, position.addY(0.5),
+						faceVector, 0.05, benchWidth, 0.5);
+
+				if (backrest) {
+
+					target.drawBox(material,
+							position.add(faceVector.mult(-0.23)).addY(0.5),
+							faceVector, 0.5, benchWidth, 0.04);
+
+				}
+
+				/* draw poles */
+
+				for (VectorXZ cornerOffset : cornerOffsets) {
+					target.drawBox(material, position.add(cornerOffset.mult(0.8)),
+							faceVector, 0.5, 0.08, 0.08);
+				}
 
 			}
 
-			/* draw poles */
+			@Override
+			public int hashCode() {
+				return Objects.hash(material, benchWidth, backrest);
+			}
 
-			for (VectorXZ cornerOffset : cornerOffsets) {
-				VectorXZ polePos = node.getPos().add(cornerOffset.mult(0.8));
-				target.drawBox(material, polePos.xyz(getBase().y),
-						faceVector, 0.5, 0.08, 0.08);
+			@Override
+			public boolean equals(Object obj) {
+				if (!(obj instanceof BenchModel)) return false;
+				BenchModel other = (BenchModel) obj;
+				return material.equals(other.material)
+						&& benchWidth == other.benchWidth
+						&& backrest == other.backrest;
 			}
 
 		}
@@ -1067,14 +1110,45 @@ public class StreetFurnitureModule extends AbstractModule {
 						node.getTags().getValue("surface"), STEEL);
 			}
 
-			/* draw pole */
-			target.drawColumn(material, null, getBase(),
-					1.2, 0.06, 0.06, false, true);
+			TargetUtil.drawModel(target, new WasteBasketModel(material),
+					getBase(), 0, null, null, null);
+
+		}
+
+		private static final class WasteBasketModel implements Model {
+
+			private final Material material;
+
+			public WasteBasketModel(Material material) {
+				this.material = material;
+			}
+
+			@Override
+			public void render(Target<?> target, VectorXYZ position,
+					double direction, Double height, Double width, Double length) {
+
+				/* draw pole */
+				target.drawColumn(material, null, position,
+						1.2, 0.06, 0.06, false, true);
+
+				/* draw basket */
+				target.drawColumn(material, null,
+						position.addY(0.5).add(X_UNIT.mult(0.25).rotateY(direction)),
+						0.5, 0.2, 0.2, true, true);
+
+			}
+
+			@Override
+			public int hashCode() {
+				return material.hashCode();
+			}
+
+			@Override
+			public boolean equals(Object obj) {
+				return obj instanceof WasteBasketModel
+						&& material.equals(((WasteBasketModel) obj).material);
+			}
 
-			/* draw basket */
-			target.drawColumn(material, null,
-					getBase().addY(0.5).add(0.25, 0f, 0f),
-					0.5, 0.2, 0.2, true, true);
 		}
 
 	}
@@ -1304,7 +1378,6 @@ public class StreetFurnitureModule extends AbstractModule {
 		public void renderTo(Target<?> target) {
 
 			double directionAngle = parseDirection(node.getTags(), PI);
-			VectorXZ faceVector = VectorXZ.fromAngle(directionAngle);
 
 			Material boxMaterial = null;
 			Material poleMaterial = null;
@@ -1334,30 +1407,84 @@ public class StreetFurnitureModule extends AbstractModule {
 				case WALL:
 					height = parseHeight(node.getTags(), 0.8f);
 					width = parseWidth(node.getTags(), 0.3f);
-
-					target.drawBox(poleMaterial,
-							getBase(),
-							faceVector, height, 0.08, 0.08);
-
-					target.drawBox(boxMaterial,
-							getBase().add(faceVector.mult(width / 2 - 0.08 / 2)).addY(height),
-							faceVector, width, width, width);
 					break;
 				case PILLAR:
 					height = parseHeight(node.getTags(), 2f);
 					width = parseWidth(node.getTags(), 0.5f);
-
-					target.drawColumn(boxMaterial, null,
-							getBase(),
-							height - 0.1, width, width, false, false);
-					target.drawColumn(boxMaterial, null,
-							getBase().addY(height - 0.1),
-							0.1, width + 0.1, 0, true, true);
 					break;
 				default:
 					assert false : "unknown post box type";
 			}
 
+			TargetUtil.drawModel(target,
+					new PostBoxModel(type, boxMaterial, poleMaterial, height, width),
+					getBase(), directionAngle, null, null, null);
+
+		}
+
+		private static final class PostBoxModel implements Model {
+
+			private final Type type;
+			private final Material boxMaterial;
+			private final Material poleMaterial;
+			private final double boxHeight;
+			private final double boxWidth;
+
+			public PostBoxModel(Type type, Material boxMaterial, Material poleMaterial,
+					double boxHeight, double boxWidth) {
+				this.type = type;
+				this.boxMaterial = boxMaterial;
+				this.poleMaterial = poleMaterial;
+				this.boxHeight = boxHeight;
+				this.boxWidth = boxWidth;
+			}
+
+			@Override
+			public void render(Target<?> target, VectorXYZ position,
+					double direction, Double height, Double width, Double length) {
+
+				VectorXZ faceVector = VectorXZ.fromAngle(direction);
+
+				switch (type) {
+					case WALL:
+						target.drawBox(poleMaterial,
+								position,
+								faceVector, boxHeight, 0.08, 0.08);
+
+						target.drawBox(boxMaterial,
+								position.add(faceVector.mult(boxWidth / 2 - 0.08 / 2)).addY(boxHeight),
+								faceVector, boxWidth, boxWidth, boxWidth);
+						break;
+					case PILLAR:
+						target.drawColumn(boxMaterial, null,
+								position,
+								boxHeight - 0.1, boxWidth, boxWidth, false, false);
+						target.drawColumn(boxMaterial, null,
+								position.addY(boxHeight - 0.1),
+								0.1, boxWidth + 0.1, 0, true, true);
+						break;
+					default:
+						assert false : "unknown post box type";
+				}
+
+			}
+
+			@Override
+			public int hashCode() {
+				return Objects.hash(type, boxMaterial, poleMaterial, boxHeight, boxWidth);
+			}
+
+			@Override
+			public boolean equals(Object obj) {
+				if (!(obj instanceof PostBoxModel)) return false;
+				PostBoxModel other = (PostBoxModel) obj;
+				return type == other.type
+						&& boxMaterial.equals(other.boxMaterial)
+						&& Objects.equals(poleMaterial, other.poleMaterial)
+						&& boxHeight == other.boxHeight
+						&& boxWidth == other.boxWidth;
+			}
+
 		}
 
 	}
@@ -1506,23 +1633,54 @@ public class StreetFurnitureModule extends AbstractModule {
 
 			float height = parseHeight(node.getTags(), 1f);
 
-			/* draw main pole */
-			target.drawColumn(FIREHYDRANT, null,
-					getBase(),
-					height,
-					0.15, 0.15, false, true);
+			TargetUtil.drawModel(target, new FireHydrantModel(height),
+					getBase(), 0, null, null, null);
+
+		}
+
+		private static final class FireHydrantModel implements Model {
+
+			private final double hydrantHeight;
+
+			public FireHydrantModel(double hydrantHeight) {
+				this.hydrantHeight = hydrantHeight;
+			}
+
+			@Override
+			public void render(Target<?> target, VectorXYZ position,
+					double direction, Double height, Double width, Double length) {
+
+				/* draw main pole */
+				target.drawColumn(FIREHYDRANT, null,
+						position,
+						hydrantHeight,
+						0.15, 0.15, false, true);
+
+				/* draw two small and one large valve */
+				VectorXYZ valveBaseVector = position.addY(hydrantHeight - 0.3);
+				VectorXZ smallValveVector = VectorXZ.X_UNIT.rotate(direction);
+				VectorXZ largeValveVector = VectorXZ.Z_UNIT.rotate(direction);
+
+				target.drawBox(FIREHYDRANT,
+						valveBaseVector,
+						smallValveVector, 0.1f, 0.5f, 0.1f);
+				target.drawBox(FIREHYDRANT,
+						valveBaseVector.add(new VectorXYZ(0.2f, -0.1f, 0f).rotateY(direction)),
+						largeValveVector, 0.15f, 0.15f, 0.15f);
 
-			/* draw two small and one large valve */
-			VectorXYZ valveBaseVector = getBase().addY(height - 0.3);
-			VectorXZ smallValveVector = VectorXZ.X_UNIT;
-			VectorXZ largeValveVector = VectorXZ.Z_UNIT;
+			}
+
+			@Override
+			public int hashCode() {
+				return Double.hashCode(hydrantHeight);
+			}
+
+			@Override
+			public boolean equals(Object obj) {
+				return obj instanceof FireHydrantModel
+						&& hydrantHeight == ((FireHydrantModel) obj).hydrantHeight;
+			}
 
-			target.drawBox(FIREHYDRANT,
-					valveBaseVector,
-					smallValveVector, 0.1f, 0.5f, 0.1f);
-			target.drawBox(FIREHYDRANT,
-					valveBaseVector.add(0.2f, -0.1f, 0f),
-					largeValveVector, 0.15f, 0.15f, 0.15f);
 		}
 
 	}
@@ -1542,9 +1700,7 @@ public class StreetFurnitureModule extends AbstractModule {
 		@Override
 		public void renderTo(Target<?> target) {
 
-			float lampHeight = 0.8f;
-			float lampHalfWidth = 0.4f;
-			float poleHeight = parseHeight(node.getTags(), 5f) - lampHeight;
+			float poleHeight = parseHeight(node.getTags(), 5f) - StreetLampModel.LAMP_HEIGHT;
 
 			/* determine material */
 
@@ -1560,37 +1716,68 @@ public class StreetFurnitureModule extends AbstractModule {
 						node.getTags().getValue("surface"), STEEL);
 			}
 
-			/* draw pole */
-			target.drawColumn(material, null,
-					getBase(),
-					0.5, 0.16, 0.08, false, false);
-			target.drawColumn(material, null,
-					getBase().addY(0.5),
-					poleHeight, 0.08, 0.08, false, false);
+			TargetUtil.drawModel(target, new StreetLampModel(material, poleHeight),
+					getBase(), 0, null, null, null);
 
-			/* draw lamp */
+		}
+
+		private static final class StreetLampModel implements Model {
+
+			private static final float LAMP_HEIGHT = 0.8f;
+			private static final float LAMP_HALF_WIDTH = 0.4f;
+
+			private final Material material;
+			private final double poleHeight;
+
+			public StreetLampModel(Material material, double poleHeight) {
+				this.material = material;
+				this.poleHeight = poleHeight;
+			}
+
+			@Override
+			public void render(Target<?> target, VectorXYZ position,
+					double direction, Double height, Double width, Double length) {
+
+				/* draw pole */
+				target.drawColumn(material, null,
+						position,
+						0.5, 0.16, 0.08, false, false);
+				target.drawColumn(material, null,
+						position.addY(0.5),
+						poleHeight, 0.08, 0.08, false, false);
+
+				/* draw lamp */
+
+				VectorXYZ lampCenter = position.addY(poleHeight + LAMP_HEIGHT * 0.8);
+
+				VectorXYZ corner1 = lampCenter.add(new VectorXYZ(+LAMP_HALF_WIDTH, 0, +LAMP_HALF_WIDTH).rotateY(direction));
+				VectorXYZ corner2 = lampCenter.add(new VectorXYZ(+LAMP_HALF_WIDTH, 0, -LAMP_HALF_WIDTH).rotateY(direction));
+				VectorXYZ corner3 = lampCenter.add(new VectorXYZ(-LAMP_HALF_WIDTH, 0, -LAMP_HALF_WIDTH).rotateY(direction));
+				VectorXYZ corner4 = lampCenter.add(new VectorXYZ(-LAMP_HALF_WIDTH, 0, +LAMP_HALF_WIDTH).rotateY(direction));
+
+				// lower part
+				target.drawTriangleFan(material, asList(position.addY(poleHeight),
+						corner1, corner2, corner3, corner4, corner1), null);
+
+				// upper part
+				target.drawTriangleFan(material, asList(position.addY(poleHeight + LAMP_HEIGHT),
+						corner1, corner4, corner3, corner2, corner1), null);
+
+			}
+
+			@Override
+			public int hashCode() {
+				return Objects.hash(material, poleHeight);
+			}
+
+			@Override
+			public boolean equals(Object obj) {
+				if (!(obj instanceof StreetLampModel)) return false;
+				StreetLampModel other = (StreetLampModel) obj;
+				return material.equals(other.material)
+						&& poleHeight == other.poleHeight;
+			}
 
-			// lower part
-			List<VectorXYZ> vs = new ArrayList<VectorXYZ>();
-			vs.add(getBase().addY(poleHeight));
-			vs.add(getBase().addY(poleHeight + lampHeight * 0.8).add(lampHalfWidth, 0, lampHalfWidth));
-			vs.add(getBase().addY(poleHeight + lampHeight * 0.8).add(lampHalfWidth, 0, -lampHalfWidth));
-			vs.add(getBase().addY(poleHeight + lampHeight * 0.8).add(-lampHalfWidth, 0, -lampHalfWidth));
-			vs.add(getBase().addY(poleHeight + lampHeight * 0.8).add(-lampHalfWidth, 0, lampHalfWidth));
-			vs.add(getBase().addY(poleHeight + lampHeight * 0.8).add(lampHalfWidth, 0, lampHalfWidth));
-
-			target.drawTriangleFan(material, vs, null);
-
-			// upper part
-			vs = new ArrayList<VectorXYZ>();
-			vs.add(getBase().addY(poleHeight + lampHeight));
-			vs.add(getBase().addY(poleHeight + lampHeight * 0.8).add(lampHalfWidth, 0, lampHalfWidth));
-			vs.add(getBase().addY(poleHeight + lampHeight * 0.8).add(-lampHalfWidth, 0, lampHalfWidth));
-			vs.add(getBase().addY(poleHeight + lampHeight * 0.8).add(-lampHalfWidth, 0, -lampHalfWidth));
-			vs.add(getBase().addY(poleHeight + lampHeight * 0.8).add(lampHalfWidth, 0, -lampHalfWidth));
-			vs.add(getBase().addY(poleHeight + lampHeight * 0.8).add(lampHalfWidth, 0, lampHalfWidth));
-
-			target.drawTriangleFan(material, vs, null);
 		}
 
 	}
@@ -34,6 +34,7 @@ import org.osm2world.core.target.Target;
 import org.osm2world.core.target.common.TextTextureData;
 import org.osm2world.core.target.common.TextureData;
 import org.osm2world.core.target.common.material.ConfMaterial;
+import org.osm2world.core.target.common.material.ImmutableMaterial;
 import org.osm2world.core.target.common.material.Material;
 import org.osm2world.core.target.common.material.Material.Interpolation;
 import org.osm2world.core.world.data.NoOutlineNodeWorldObject;
@@ -46,6 +47,10 @@ import org.osm2world.core.world.modules.common.TrafficSignType;
  */
 public class TrafficSignModule extends AbstractModule {
 
+	/** material for signs without a configured material */
+	private static final Material WHITE_SIGN_MATERIAL =
+			ImmutableMaterial.intern(new ImmutableMaterial(Interpolation.FLAT, Color.white));
+
 	@Override
 	protected void applyToNode(MapNode node) {
 
@@ -163,7 +168,7 @@ public class TrafficSignModule extends AbstractModule {
 
 				//if there is no material defined for the sign, create simple white sign
 				if(attributes.material==null) {
-					attributes.material = new ConfMaterial(Interpolation.FLAT, Color.white);
+					attributes.material = WHITE_SIGN_MATERIAL;
 				}
 			}
 
@@ -256,13 +261,13 @@ public class TrafficSignModule extends AbstractModule {
 	 * Creates a replica of originalMaterial with a new textureDataList.
 	 * The new list is a copy of the old one with its TextTextureData layers
 	 * replaced by a new TextTextureData instance of different text.
-	 * Returns the new ConfMaterial created.
+	 * Returns the interned material, so signs with the same text share one instance.
 	 *
 	 * @param originalMaterial The ConfMaterial to replicate
 	 * @param map A HashMap used to map each of traffic_sign.subtype / traffic_sign.brackettext
 	 * to their corresponding values
 	 * @param tags The tag group to extract values from
-	 * @return a ConfMaterial identical to originalMaterial with its textureDataList altered
+	 * @return a material identical to originalMaterial with its textureDataList altered
 	 */
 	public static Material configureMaterial(ConfMaterial originalMaterial, Map<String, String> map, TagGroup tags) {
 
@@ -324,10 +329,10 @@ public class TrafficSignModule extends AbstractModule {
 			}
 		}
 
-		newMaterial = new ConfMaterial(originalMaterial.getInterpolation(),originalMaterial.getColor(),
+		newMaterial = ImmutableMaterial.intern(new ImmutableMaterial(originalMaterial.getInterpolation(),originalMaterial.getColor(),
 						originalMaterial.getAmbientFactor(),originalMaterial.getDiffuseFactor(),originalMaterial.getSpecularFactor(),
 						originalMaterial.getShininess(),originalMaterial.getTransparency(),originalMaterial.getShadow(),
-						originalMaterial.getAmbientOcclusion(),newList);
+						originalMaterial.getAmbientOcclusion(),newList));
 
 		return newMaterial;
 	}
@@ -565,7 +570,7 @@ public class TrafficSignModule extends AbstractModule {
 					//if there is no material defined for the sign, create simple white sign
 					if(attributes.material==null) {
 
-						attributes.material = new ConfMaterial(Interpolation.FLAT, Color.white);
+						attributes.material = WHITE_SIGN_MATERIAL;
 					}
 				}
 
@@ -8,6 +8,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.configuration.Configuration;
 import org.openstreetmap.josm.plugins.graphview.core.data.Tag;
@@ -332,21 +334,10 @@ public class TreeModule extends ConfigurableWorldModule {
 
 		double height = getTreeHeight(element, leafType == LeafType.NEEDLELEAVED, species != null);
 
-		TreeModel model = null;
+		final LeafType modelLeafType = leafType;
 
-		for (TreeModel existingModel : existingModels) {
-			if (existingModel.leafType == leafType
-					&& existingModel.leafCycle == leafCycle
-					&& existingModel.species == species) {
-				model = existingModel;
-				break;
-			}
-		}
-
-		if (model == null) {
-			model = new TreeModel(leafType, leafCycle, species);
-			existingModels.add(model);
-		}
+		TreeModel model = existingModels.computeIfAbsent(asList(leafType, leafCycle, species),
+				key -> new TreeModel(modelLeafType, leafCycle, species));
 
 		target.drawModel(model, base, 0, height, null, null);
 
@@ -378,7 +369,11 @@ public class TreeModule extends ConfigurableWorldModule {
 
 	}
 
-	private final List<TreeModel> existingModels = new ArrayList<>();
+	/**
+	 * models created so far, keyed by leaf type, leaf cycle and species.
+	 * Thread-safe because objects can be rendered to several targets at the same time.
+	 */
+	private final Map<List<?>, TreeModel> existingModels = new ConcurrentHashMap<>();
 
 	public class Tree extends NoOutlineNodeWorldObject
 		implements RenderableToAllTargets, RenderableToPOVRay, RenderableToModelTarget {
@@ -1,5 +1,8 @@
 package org.osm2world.core.world.modules.common;
 
+import java.util.Collection;
+import java.util.function.Consumer;
+
 import org.osm2world.core.map_data.data.MapArea;
 import org.osm2world.core.map_data.data.MapData;
 import org.osm2world.core.map_data.data.MapElement;
@@ -14,29 +17,38 @@ import org.osm2world.core.world.data.WorldObject;
  *
  * Subclasses need to be able to create {@link WorldObject}s
  * for each {@link MapElement} in isolation.
- * This can make parallel application of the module possible.
+ * This makes parallel application of the module possible:
+ * If the "parallelModules" config property is set, the elements of each type
+ * are processed concurrently. Nodes, ways, way segments and areas are still
+ * handled one type after the other, so a module can rely on e.g. all nodes
+ * being finished when the first way segment is processed.
  */
 public abstract class AbstractModule extends ConfigurableWorldModule {
 
 	@Override
 	public final void applyTo(MapData mapData) {
 
-		for (MapNode node : mapData.getMapNodes()) {
-			applyToNode(node);
-		}
+		boolean parallel = config != null && config.getBoolean("parallelModules", false);
 
-		for (MapWay way : mapData.getMapWays()) {
-			applyToWay(way);
-		}
+		applyToAll(mapData.getMapNodes(), this::applyToNode, parallel);
+		applyToAll(mapData.getMapWays(), this::applyToWay, parallel);
+		applyToAll(mapData.getMapWaySegments(), this::applyToWaySegment, parallel);
+		applyToAll(mapData.getMapAreas(), this::applyToArea, parallel);
 
-		for (MapWaySegment waySegment : mapData.getMapWaySegments()) {
-			applyToWaySegment(waySegment);
-		}
+	}
 
-		for (MapArea area : mapData.getMapAreas()) {
-			applyToArea(area);
+	/**
+	 * applies an action to each element of a collection,
+	 * either sequentially or spread across the current fork-join pool.
+	 * Returns only after all elements have been processed.
+	 */
+	private static <E> void applyToAll(Collection<E> elements,
+			Consumer<? super E> action, boolean parallel) {
+		if (parallel) {
+			elements.parallelStream().forEach(action);
+		} else {
+			elements.forEach(action);
 		}
-
 	}
 
 	/**
@@ -4,10 +4,10 @@ import static java.util.Arrays.asList;
 
 import java.awt.Color;
 import java.io.IOException;
-import java.util.Collection;
 
 import org.osm2world.core.ConversionFacade.Results;
 import org.osm2world.core.map_data.creation.MapProjection;
+import org.osm2world.core.map_elevation.creation.SiteCoordinates;
 import org.osm2world.core.map_elevation.creation.TerrainInterpolator;
 import org.osm2world.core.math.AxisAlignedBoundingBoxXZ;
 import org.osm2world.core.math.VectorGridXZ;
@@ -64,7 +64,7 @@ public abstract class TerrainInterpolatorDebugView extends DebugView {
 
 		try {
 
-			Collection<VectorXYZ> sites = eleData.getSites(map);
+			SiteCoordinates sites = eleData.getSiteCoordinates(map);
 
 			TerrainInterpolator strategy = buildInterpolator();
 			strategy.setKnownSites(sites);
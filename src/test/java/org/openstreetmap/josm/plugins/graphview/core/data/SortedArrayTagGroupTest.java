@@ -0,0 +1,73 @@
+package org.openstreetmap.josm.plugins.graphview.core.data;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class SortedArrayTagGroupTest {
+
+	@Test
+	public void testLookup() {
+
+		TagGroup tags = new SortedArrayTagGroup(
+				new String[] {"name", "highway", "lanes"},
+				new String[] {"Main Street", "primary", "2"});
+
+		assertEquals(3, tags.size());
+		assertFalse(tags.isEmpty());
+
+		assertEquals("primary", tags.getValue("highway"));
+		assertEquals("2", tags.getValue("lanes"));
+		assertNull(tags.getValue("surface"));
+
+		assertTrue(tags.containsKey("name"));
+		assertFalse(tags.containsKey("building"));
+		assertTrue(tags.contains("highway", "primary"));
+		assertFalse(tags.contains("highway", "secondary"));
+		assertTrue(tags.contains(new Tag("lanes", "2")));
+		assertTrue(tags.containsValue("Main Street"));
+		assertTrue(tags.containsAny("highway", asList("secondary", "primary")));
+		assertFalse(tags.containsAny(asList("building", "surface"), "primary"));
+
+	}
+
+	@Test
+	public void testIterationOrderAndDuplicates() {
+
+		TagGroup tags = new SortedArrayTagGroup(
+				new String[] {"c", "a", "b", "a"},
+				new String[] {"3", "1", "2", "4"});
+
+		List<Tag> result = new ArrayList<>();
+		tags.forEach(result::add);
+
+		assertEquals(asList(new Tag("a", "4"), new Tag("b", "2"), new Tag("c", "3")), result);
+
+	}
+
+	@Test
+	public void testEmpty() {
+		TagGroup tags = new SortedArrayTagGroup(new String[0], new String[0]);
+		assertTrue(tags.isEmpty());
+		assertNull(tags.getValue("highway"));
+		assertFalse(tags.iterator().hasNext());
+	}
+
+	@Test
+	public void testInterning() {
+
+		TagGroup tags1 = new SortedArrayTagGroup(
+				new String[] {new String("highway")}, new String[] {new String("residential")});
+		TagGroup tags2 = new SortedArrayTagGroup(
+				new String[] {new String("highway")}, new String[] {new String("residential")});
+
+		assertSame(tags1.iterator().next().key, tags2.iterator().next().key);
+		assertSame(tags1.getValue("highway"), tags2.getValue("highway"));
+
+	}
+
+}
@@ -1,6 +1,8 @@
 package org.osm2world;
 
+import static java.lang.Math.abs;
 import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.*;
 import static org.osm2world.core.test.TestUtil.assertAlmostEquals;
 
@@ -11,6 +13,7 @@ import java.util.Random;
 import org.junit.Test;
 import org.osm2world.core.map_elevation.creation.DelaunayTriangulation;
 import org.osm2world.core.map_elevation.creation.DelaunayTriangulation.DelaunayTriangle;
+import org.osm2world.core.map_elevation.creation.DelaunayTriangulation.NaturalNeighbors;
 import org.osm2world.core.math.AxisAlignedBoundingBoxXZ;
 import org.osm2world.core.math.VectorXYZ;
 import org.osm2world.core.math.VectorXZ;
@@ -66,6 +69,121 @@ public class DelaunayTriangulationTest {
 
 	}
 
+	@Test
+	public void testInsertAll() {
+
+		Random random = new Random(42);
+
+		AxisAlignedBoundingBoxXZ bounds = new AxisAlignedBoundingBoxXZ(
+				-SIZE, -SIZE, +SIZE, +SIZE);
+
+		List<VectorXYZ> points = new ArrayList<VectorXYZ>();
+
+		for (int i = 0; i < 300; i++) {
+			double x = (random.nextDouble() * 2 * SIZE) - SIZE;
+			double z = (random.nextDouble() * 2 * SIZE) - SIZE;
+			points.add(new VectorXYZ(x, 0, z));
+		}
+
+		DelaunayTriangulation triangulation = new DelaunayTriangulation(bounds);
+		triangulation.insertAll(points);
+
+		assertTriangulationProperties(triangulation, points);
+
+		/* the result is the same as with insertion in the original order */
+
+		DelaunayTriangulation triangulation2 = new DelaunayTriangulation(bounds);
+
+		for (VectorXYZ point : points) {
+			triangulation2.insert(point);
+		}
+
+		assertTriangulationsEqual(triangulation, triangulation2);
+		assertTriangulationsEqual(triangulation2, triangulation);
+
+		/* probing still works after the walk start has moved */
+
+		for (VectorXYZ point : points.subList(0, 20)) {
+			triangulation.probe(point.xz().add(new VectorXZ(0.1, 0.1)));
+		}
+
+		assertTriangulationsEqual(triangulation, triangulation2);
+
+	}
+
+	@Test
+	public void testGetNaturalNeighbors() {
+
+		Random random = new Random(42);
+
+		AxisAlignedBoundingBoxXZ bounds = new AxisAlignedBoundingBoxXZ(
+				-SIZE, -SIZE, +SIZE, +SIZE);
+
+		DelaunayTriangulation triangulation = new DelaunayTriangulation(bounds);
+
+		List<VectorXYZ> points = new ArrayList<VectorXYZ>();
+
+		for (int i = 0; i < 200; i++) {
+			double x = (random.nextDouble() * 1.8 * SIZE) - 0.9 * SIZE;
+			double z = (random.nextDouble() * 1.8 * SIZE) - 0.9 * SIZE;
+			points.add(new VectorXYZ(x, random.nextDouble(), z));
+		}
+
+		triangulation.insertAll(points);
+
+		List<VectorXZ> queries = new ArrayList<VectorXZ>();
+
+		for (int i = 0; i < 200; i++) {
+			double x = (random.nextDouble() * 1.8 * SIZE) - 0.9 * SIZE;
+			double z = (random.nextDouble() * 1.8 * SIZE) - 0.9 * SIZE;
+			queries.add(new VectorXZ(x, z));
+		}
+
+		/* the results match those of probing, which temporarily inserts the point.
+		 * Queries near the corners of the bounds are skipped, as their Voronoi cells are unbounded. */
+
+		for (VectorXZ query : queries) {
+
+			NaturalNeighbors expected = triangulation.probe(query);
+			NaturalNeighbors actual = triangulation.getNaturalNeighbors(query);
+
+			if (asList(actual.neighbors).stream().anyMatch(n -> abs(n.x) == SIZE)) continue;
+
+			assertEquals(expected.neighbors.length, actual.neighbors.length);
+
+			for (int i = 0; i < expected.neighbors.length; i++) {
+				int j = asList(actual.neighbors).indexOf(expected.neighbors[i]);
+				assertTrue(j >= 0);
+				assertEquals(expected.relativeWeights[i], actual.relativeWeights[j], 1e-6);
+			}
+
+		}
+
+		/* an existing point is its own only neighbor */
+
+		NaturalNeighbors nn = triangulation.getNaturalNeighbors(points.get(0).xz());
+		assertEquals(1, nn.neighbors.length);
+		assertSame(points.get(0), nn.neighbors[0]);
+
+		/* concurrent queries produce the same results */
+
+		List<NaturalNeighbors> sequentialResults = new ArrayList<NaturalNeighbors>();
+
+		for (VectorXZ query : queries) {
+			sequentialResults.add(triangulation.getNaturalNeighbors(query));
+		}
+
+		List<NaturalNeighbors> parallelResults = queries.parallelStream()
+				.map(triangulation::getNaturalNeighbors)
+				.collect(toList());
+
+		for (int i = 0; i < queries.size(); i++) {
+			assertArrayEquals(sequentialResults.get(i).neighbors, parallelResults.get(i).neighbors);
+			assertArrayEquals(sequentialResults.get(i).relativeWeights, parallelResults.get(i).relativeWeights, 0);
+		}
+
+	}
+
 	/**
 	 * asserts that two triangulations are equal
 	 */
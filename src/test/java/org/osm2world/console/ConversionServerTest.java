@@ -0,0 +1,83 @@
+package org.osm2world.console;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConversionServerTest {
+
+	private ConversionServer server;
+
+	@Before
+	public void startServer() throws IOException {
+		server = new ConversionServer(0, 1);
+		server.start();
+	}
+
+	@After
+	public void stopServer() {
+		server.stop();
+	}
+
+	private HttpURLConnection connect(String path) throws IOException {
+		URL url = new URL("http://localhost:" + server.getPort() + path);
+		return (HttpURLConnection) url.openConnection();
+	}
+
+	private static String readBody(HttpURLConnection connection) throws IOException {
+		try (InputStream in = connection.getResponseCode() < 400
+				? connection.getInputStream() : connection.getErrorStream()) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[1024];
+			int length;
+			while ((length = in.read(buffer)) > 0) {
+				out.write(buffer, 0, length);
+			}
+			return new String(out.toByteArray(), UTF_8);
+		}
+	}
+
+	@Test
+	public void testStatus() throws IOException {
+
+		HttpURLConnection connection = connect("/status");
+
+		assertEquals(200, connection.getResponseCode());
+
+		String json = readBody(connection);
+
+		assertTrue(json.startsWith("{\"queueDepth\":0,"));
+		assertTrue(json.contains("\"completedJobs\":0"));
+		assertTrue(json.contains("\"ELEVATION\":{\"count\":0,"));
+
+	}
+
+	@Test
+	public void testInvalidJobs() throws IOException {
+
+		assertEquals(405, connect("/convert").getResponseCode());
+
+		HttpURLConnection connection = connect("/convert");
+		connection.setRequestMethod("POST");
+		connection.setDoOutput(true);
+
+		try (OutputStream out = connection.getOutputStream()) {
+			out.write("--version\n".getBytes(UTF_8));
+		}
+
+		assertEquals(400, connection.getResponseCode());
+		assertTrue(readBody(connection).contains("only conversions"));
+
+	}
+
+}
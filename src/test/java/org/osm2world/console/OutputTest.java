@@ -0,0 +1,44 @@
+package org.osm2world.console;
+
+import static org.junit.Assert.*;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Test;
+import org.osm2world.console.CLIArgumentsUtil.OutputMode;
+
+public class OutputTest {
+
+	/**
+	 * checks which output modes are written from a cached conversion result.
+	 * Each of them needs a test which compares the output for a cache hit and a cache miss,
+	 * see CachedWorldTest.
+	 */
+	@Test
+	public void testCanWriteFromCachedWorld() {
+
+		Configuration config = new BaseConfiguration();
+
+		for (OutputMode outputMode : OutputMode.values()) {
+			switch (outputMode) {
+			case OBJ:
+			case PNG:
+			case PPM:
+			case GD:
+				assertTrue(Output.canWriteFromCachedWorld(outputMode, config));
+				break;
+			default:
+				assertFalse(Output.canWriteFromCachedWorld(outputMode, config));
+				break;
+			}
+		}
+
+		/* OBJ files split by primitive count need the world objects */
+
+		config.setProperty("primitiveThresholdOBJ", 1000);
+
+		assertFalse(Output.canWriteFromCachedWorld(OutputMode.OBJ, config));
+
+	}
+
+}
@@ -1,6 +1,7 @@
 package org.osm2world.core.map_data.creation;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static org.junit.Assert.*;
 
 import java.io.File;
@@ -9,15 +10,25 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.osm2world.core.map_data.data.MapArea;
 import org.osm2world.core.map_data.data.MapData;
+import org.osm2world.core.map_data.data.MapElement;
 import org.osm2world.core.map_data.data.MapNode;
+import org.osm2world.core.map_data.data.MapWaySegment;
+import org.osm2world.core.map_data.data.overlaps.MapOverlap;
 import org.osm2world.core.math.VectorXZ;
 import org.osm2world.core.osm.creation.StrictOSMFileReader;
 import org.osm2world.core.osm.data.OSMData;
 
+import com.google.common.collect.Iterables;
+import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
+
+import de.topobyte.osm4j.core.model.impl.Node;
+import de.topobyte.osm4j.core.model.impl.Tag;
+import de.topobyte.osm4j.core.model.impl.Way;
 import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
 
 public class OSMToMapDataConverterTest {
@@ -216,4 +227,93 @@ public class OSMToMapDataConverterTest {
 
 	}
 
+	/**
+	 * checks that each crossing of way segments is detected exactly once,
+	 * and that overlaps are the same regardless of whether they are calculated in parallel
+	 */
+	@Test
+	public void testParallelOverlaps() throws IOException, EntityNotFoundException {
+
+		int n = 20;
+
+		List<Node> nodes = new ArrayList<>();
+		List<Way> ways = new ArrayList<>();
+
+		for (int i = 0; i < n; i++) {
+			double offset = 0.00005 + i * 0.0001;
+			ways.add(createWay(ways.size(), nodes, "highway", "residential",
+					-0.001, offset, 0.003, offset));
+			ways.add(createWay(ways.size(), nodes, "highway", "residential",
+					offset, -0.001, offset, 0.003));
+		}
+
+		ways.add(createWay(ways.size(), nodes, "landuse", "grass",
+				0, 0, 0.001, 0, 0.001, 0.001, 0, 0.001, 0, 0));
+
+		OSMData osmData = new OSMData(emptyList(), nodes, ways, emptyList());
+
+		MapData sequentialData = convert(osmData, false);
+		MapData parallelData = convert(osmData, true);
+
+		assertEquals(describeOverlaps(sequentialData), describeOverlaps(parallelData));
+
+		for (MapWaySegment segment : parallelData.getMapWaySegments()) {
+			if (segment.getTags().containsKey("highway")) {
+				assertEquals(n, Iterables.size(segment.getIntersectionsWW()));
+			}
+		}
+
+		assertEquals(1, parallelData.getMapAreas().size());
+		assertFalse(parallelData.getMapAreas().iterator().next().getOverlaps().isEmpty());
+
+	}
+
+	/**
+	 * creates a way with a new node for each coordinate pair.
+	 * If the first and last coordinates are the same, the way is closed.
+	 */
+	private static Way createWay(long id, List<Node> nodes, String key, String value,
+			double... lonLats) {
+
+		TLongArrayList nodeIds = new TLongArrayList();
+
+		for (int i = 0; i + 1 < lonLats.length; i += 2) {
+			if (i > 0 && i + 2 == lonLats.length
+					&& lonLats[i] == lonLats[0] && lonLats[i + 1] == lonLats[1]) {
+				nodeIds.add(nodeIds.get(0));
+			} else {
+				nodeIds.add(nodes.size());
+				nodes.add(new Node(nodes.size(), lonLats[i], lonLats[i + 1]));
+			}
+		}
+
+		Way way = new Way(id, nodeIds);
+		way.setTags(asList(new Tag(key, value)));
+		return way;
+
+	}
+
+	private static MapData convert(OSMData osmData, boolean parallel)
+			throws IOException, EntityNotFoundException {
+
+		OriginMapProjection mapProjection = new MetricMapProjection();
+		mapProjection.setOrigin(new LatLon(0, 0));
+
+		Configuration config = new BaseConfiguration();
+		config.setProperty("parallelOverlaps", parallel);
+
+		return new OSMToMapDataConverter(mapProjection, config).createMapData(osmData);
+
+	}
+
+	private static List<String> describeOverlaps(MapData mapData) {
+		List<String> result = new ArrayList<>();
+		for (MapElement element : mapData.getMapElements()) {
+			for (MapOverlap<?, ?> overlap : element.getOverlaps()) {
+				result.add(element + ": " + overlap + " " + overlap.type);
+			}
+		}
+		return result;
+	}
+
 }
@@ -0,0 +1,68 @@
+package org.osm2world.core.map_elevation.creation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.osm2world.core.map_elevation.creation.DelaunayTriangulation.DelaunayTriangle;
+import org.osm2world.core.math.AxisAlignedBoundingBoxXZ;
+import org.osm2world.core.math.VectorXYZ;
+
+/**
+ * measures how many triangles per second {@link DelaunayTriangulation} builds
+ * for grid-like sites in raster order, similar to SRTM data.
+ * Not run as part of the tests, start it with {@link #main(String[])}.
+ */
+public class DelaunayTriangulationBenchmark {
+
+	public static void main(String[] args) {
+
+		int[] siteCounts = {10_000, 100_000, 300_000};
+
+		// warm up
+		run(10_000);
+
+		for (int count : siteCounts) {
+			run(count);
+		}
+
+	}
+
+	private static void run(int siteCount) {
+
+		/* create sites on a slightly jittered grid, in row order */
+
+		Random random = new Random(42);
+		int gridSize = (int) Math.sqrt(siteCount);
+
+		List<VectorXYZ> sites = new ArrayList<>(gridSize * gridSize);
+
+		for (int row = 0; row < gridSize; row++) {
+			for (int column = 0; column < gridSize; column++) {
+				sites.add(new VectorXYZ(
+						column * 30 + random.nextDouble(),
+						random.nextDouble() * 100,
+						row * 30 + random.nextDouble()));
+			}
+		}
+
+		AxisAlignedBoundingBoxXZ bounds = new AxisAlignedBoundingBoxXZ(sites).pad(100);
+
+		long start = System.nanoTime();
+
+		DelaunayTriangulation triangulation = new DelaunayTriangulation(bounds);
+		triangulation.insertAll(sites);
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		int triangleCount = 0;
+		for (@SuppressWarnings("unused") DelaunayTriangle triangle : triangulation.getTriangles()) {
+			triangleCount ++;
+		}
+
+		System.out.printf("%,d sites: %.3f s, %,d triangles, %,.0f triangles/s%n",
+				sites.size(), seconds, triangleCount, triangleCount / seconds);
+
+	}
+
+}
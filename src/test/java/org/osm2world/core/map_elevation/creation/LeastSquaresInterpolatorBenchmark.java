@@ -0,0 +1,67 @@
+package org.osm2world.core.map_elevation.creation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.osm2world.core.math.VectorXYZ;
+
+/**
+ * measures setup and query times of {@link LeastSquaresInterpolator}
+ * for sites on a grid with 1-arcsecond SRTM spacing.
+ * Not run as part of the tests, start it with {@link #main(String[])}.
+ */
+public class LeastSquaresInterpolatorBenchmark {
+
+	public static void main(String[] args) {
+
+		int[] siteCounts = {10_000, 100_000, 1_000_000};
+
+		// warm up
+		run(10_000);
+
+		for (int count : siteCounts) {
+			run(count);
+		}
+
+	}
+
+	private static void run(int siteCount) {
+
+		Random random = new Random(42);
+		int gridSize = (int) Math.sqrt(siteCount);
+
+		List<VectorXYZ> sites = new ArrayList<>(gridSize * gridSize);
+
+		for (int row = 0; row < gridSize; row++) {
+			for (int column = 0; column < gridSize; column++) {
+				sites.add(new VectorXYZ(column * 30, random.nextDouble() * 100, row * 30));
+			}
+		}
+
+		long start = System.nanoTime();
+
+		LeastSquaresInterpolator interpolator = new LeastSquaresInterpolator();
+		interpolator.setKnownSites(sites);
+
+		double setupSeconds = (System.nanoTime() - start) / 1e9;
+
+		int queryCount = 100_000;
+		double[] xz = new double[2 * queryCount];
+
+		for (int i = 0; i < xz.length; i++) {
+			xz[i] = random.nextDouble() * (gridSize - 1) * 30;
+		}
+
+		start = System.nanoTime();
+
+		interpolator.interpolateEle(xz, new double[queryCount]);
+
+		double querySeconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.printf("%,d sites: setup %.3f s, %,.0f queries/s%n",
+				sites.size(), setupSeconds, queryCount / querySeconds);
+
+	}
+
+}
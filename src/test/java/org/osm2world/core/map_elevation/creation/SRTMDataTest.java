@@ -0,0 +1,140 @@
+package org.osm2world.core.map_elevation.creation;
+
+import static org.junit.Assert.*;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.osm2world.core.map_data.creation.LatLon;
+import org.osm2world.core.map_data.creation.MapProjection;
+import org.osm2world.core.map_data.creation.MetricMapProjection;
+import org.osm2world.core.map_data.creation.OriginMapProjection;
+import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.math.VectorXZ;
+
+public class SRTMDataTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/** writes a tile where each pixel's value is its column plus its row (counted from the south) */
+	private void writeTile(String name, int pixels) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(
+				new FileOutputStream(new File(folder.getRoot(), name)))) {
+			for (int row = pixels - 1; row >= 0; row--) {
+				for (int column = 0; column < pixels; column++) {
+					out.writeShort((column + row) % 1000);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testTileResolutions() throws IOException {
+
+		writeTile("N00E000.hgt", SRTMTile.PIXELS);
+		writeTile("N00E001.hgt", SRTMTile.PIXELS_1_ARCSECOND);
+
+		SRTMTile tile = new SRTMTile(new File(folder.getRoot(), "N00E000.hgt"));
+		assertEquals(SRTMTile.PIXELS, tile.getPixels());
+		assertEquals(0, tile.getData(0, 0));
+		assertEquals(500, tile.getData(200, 300));
+
+		SRTMTile tile1 = new SRTMTile(new File(folder.getRoot(), "N00E001.hgt"));
+		assertEquals(SRTMTile.PIXELS_1_ARCSECOND, tile1.getPixels());
+		assertEquals(500, tile1.getData(200, 300));
+		assertEquals((3600 + 3600) % 1000, tile1.getData(3600, 3600));
+
+	}
+
+	@Test
+	public void testSiteIterator() throws IOException {
+
+		writeTile("N00E000.hgt", SRTMTile.PIXELS);
+		writeTile("N00E001.hgt", SRTMTile.PIXELS);
+
+		OriginMapProjection projection = new MetricMapProjection();
+		projection.setOrigin(new LatLon(0.5, 1));
+
+		SRTMData data = new SRTMData(folder.getRoot(), projection, new SRTMTileCache(4));
+
+		List<VectorXYZ> sites = new ArrayList<>();
+		SRTMData.SiteIterator iterator = data.siteIterator(0.95, 0.4, 1.05, 0.5);
+
+		double[] x = new double[1000];
+		double[] y = new double[1000];
+		double[] z = new double[1000];
+
+		int count;
+
+		while ((count = iterator.next(x, y, z)) > 0) {
+			for (int i = 0; i < count; i++) {
+				sites.add(new VectorXYZ(x[i], y[i], z[i]));
+			}
+		}
+
+		/* rows 481 to 599 of columns 1141 to 1199 in E000 and columns 0 to 59 in E001 */
+
+		assertEquals(119 * (59 + 60), sites.size());
+
+		assertSite(projection, 1141, 481, 0, sites.get(0));
+		assertSite(projection, 1141, 482, 0, sites.get(1));
+		assertSite(projection, 1142, 481, 0, sites.get(119));
+		assertSite(projection, 0, 481, 1, sites.get(119 * 59));
+		assertSite(projection, 59, 599, 1, sites.get(sites.size() - 1));
+
+		/* the coordinate arrays contain the same sites */
+
+		SiteCoordinates siteCoordinates = data.getSiteCoordinates(0.95, 0.4, 1.05, 0.5);
+
+		assertEquals(sites, siteCoordinates.asVectors());
+		assertEquals(sites, new ArrayList<>(data.getSites(0.95, 0.4, 1.05, 0.5)));
+
+	}
+
+	/** checks that a site is at the center of a pixel of {@link #writeTile(String, int)} */
+	private static void assertSite(MapProjection projection, int x, int y, int lon, VectorXYZ site) {
+
+		VectorXZ pos = projection.calcPos((y + 0.5) / SRTMTile.PIXELS, lon + (x + 0.5) / SRTMTile.PIXELS);
+
+		assertEquals(pos.x, site.x, 1e-6);
+		assertEquals((x + y) % 1000, site.y, 0);
+		assertEquals(pos.z, site.z, 1e-6);
+
+	}
+
+	@Test
+	public void testCacheEviction() throws IOException {
+
+		writeTile("N00E000.hgt", SRTMTile.PIXELS);
+		writeTile("N00E001.hgt", SRTMTile.PIXELS);
+		writeTile("N00E002.hgt", SRTMTile.PIXELS);
+
+		SRTMTileCache cache = new SRTMTileCache(2);
+
+		SRTMTile tile0 = cache.getTile(new File(folder.getRoot(), "N00E000.hgt"));
+		cache.getTile(new File(folder.getRoot(), "N00E001.hgt"));
+		assertSame(tile0, cache.getTile(new File(folder.getRoot(), "N00E000.hgt")));
+
+		cache.getTile(new File(folder.getRoot(), "N00E002.hgt"));
+		assertEquals(2, cache.size());
+
+		/* the least recently used tile (E001) has been dropped, E000 is still cached */
+
+		assertSame(tile0, cache.getTile(new File(folder.getRoot(), "N00E000.hgt")));
+
+		assertNull(cache.getTile(new File(folder.getRoot(), "N00E003.hgt")));
+
+		cache.setMaxTiles(1);
+		assertEquals(1, cache.size());
+
+	}
+
+}
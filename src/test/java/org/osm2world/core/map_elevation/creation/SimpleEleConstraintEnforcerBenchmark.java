@@ -0,0 +1,61 @@
+package org.osm2world.core.map_elevation.creation;
+
+import static org.osm2world.core.map_elevation.data.GroundState.ON;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.osm2world.core.map_elevation.data.EleConnector;
+import org.osm2world.core.math.VectorXZ;
+
+/**
+ * measures the throughput of {@link SimpleEleConstraintEnforcer}
+ * for different numbers of connectors.
+ * Not run as part of the tests, start it with {@link #main(String[])}.
+ */
+public class SimpleEleConstraintEnforcerBenchmark {
+
+	public static void main(String[] args) {
+
+		int[] connectorCounts = {10_000, 100_000, 1_000_000};
+
+		// warm up
+		run(10_000);
+
+		for (int count : connectorCounts) {
+			double seconds = run(count);
+			System.out.printf("%,d connectors: %.3f s, %,.0f connectors/s%n",
+					count, seconds, count / seconds);
+		}
+
+	}
+
+	/** returns the time in seconds needed for adding connectors and enforcing constraints */
+	private static double run(int connectorCount) {
+
+		/* create connectors on a grid, with about two connectors per grid point */
+
+		Random random = new Random(42);
+		int gridSize = (int) Math.sqrt(connectorCount / 2);
+
+		List<EleConnector> connectors = new ArrayList<>(connectorCount);
+
+		for (int i = 0; i < connectorCount; i++) {
+			VectorXZ pos = new VectorXZ(random.nextInt(gridSize), random.nextInt(gridSize));
+			EleConnector connector = new EleConnector(pos, null, ON);
+			connector.setPosXYZ(pos.xyz(random.nextDouble()));
+			connectors.add(connector);
+		}
+
+		long start = System.nanoTime();
+
+		SimpleEleConstraintEnforcer enforcer = new SimpleEleConstraintEnforcer();
+		enforcer.addConnectors(connectors);
+		enforcer.enforceConstraints();
+
+		return (System.nanoTime() - start) / 1e9;
+
+	}
+
+}
@@ -0,0 +1,108 @@
+package org.osm2world.core.map_elevation.creation;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.osm2world.core.map_elevation.data.GroundState.*;
+
+import org.junit.Test;
+import org.osm2world.core.map_elevation.data.EleConnector;
+import org.osm2world.core.map_elevation.data.GroundState;
+import org.osm2world.core.math.VectorXZ;
+
+public class SimpleEleConstraintEnforcerTest {
+
+	@Test
+	public void testConnectorsAtSamePosition() {
+
+		Object reference = new Object();
+
+		EleConnector c1 = connector(new VectorXZ(1, 2), null, ON, 10);
+		EleConnector c2 = connector(new VectorXZ(1, 2), null, ON, 20);
+		EleConnector c3 = connector(new VectorXZ(1, 2), reference, ABOVE, 30);
+		EleConnector c4 = connector(new VectorXZ(1, 2), reference, ABOVE, 50);
+		EleConnector c5 = connector(new VectorXZ(5, 5), null, ON, 7);
+
+		SimpleEleConstraintEnforcer enforcer = new SimpleEleConstraintEnforcer();
+		enforcer.addConnectors(asList(c1, c2, c3));
+		enforcer.addConnectors(asList(c4, c5));
+		enforcer.enforceConstraints();
+
+		assertEquals(15, c1.getPosXYZ().y, 1e-10);
+		assertEquals(15, c2.getPosXYZ().y, 1e-10);
+		assertEquals(45, c3.getPosXYZ().y, 1e-10);
+		assertEquals(45, c4.getPosXYZ().y, 1e-10);
+		assertEquals(7, c5.getPosXYZ().y, 1e-10);
+
+	}
+
+	@Test
+	public void testRequireSameEle() {
+
+		EleConnector c1 = connector(new VectorXZ(0, 0), null, ON, 0);
+		EleConnector c2 = connector(new VectorXZ(1, 0), null, ON, 3);
+		EleConnector c3 = connector(new VectorXZ(2, 0), null, ON, 6);
+		EleConnector c4 = connector(new VectorXZ(-0.0, 0), null, ON, 3);
+
+		SimpleEleConstraintEnforcer enforcer = new SimpleEleConstraintEnforcer();
+		enforcer.addConnectors(asList(c1, c2, c3, c4));
+		enforcer.requireSameEle(c2, c3);
+		enforcer.requireSameEle(asList(c1, c2));
+		enforcer.enforceConstraints();
+
+		assertEquals(3, c1.getPosXYZ().y, 1e-10);
+		assertEquals(3, c2.getPosXYZ().y, 1e-10);
+		assertEquals(3, c3.getPosXYZ().y, 1e-10);
+		assertEquals(3, c4.getPosXYZ().y, 1e-10);
+
+	}
+
+	@Test
+	public void testRequireSameEleForUnknownConnectors() {
+
+		EleConnector added = connector(new VectorXZ(0, 0), null, ON, 2);
+		EleConnector unknown1 = connector(new VectorXZ(1, 0), null, ABOVE, 4);
+		EleConnector unknown2 = connector(new VectorXZ(2, 0), null, ON, 9);
+		EleConnector unknown3 = connector(new VectorXZ(3, 0), null, ON, 1);
+
+		SimpleEleConstraintEnforcer enforcer = new SimpleEleConstraintEnforcer();
+		enforcer.addConnectors(asList(added));
+		enforcer.requireSameEle(added, unknown1);
+		enforcer.requireSameEle(asList(unknown2, unknown3));
+		enforcer.enforceConstraints();
+
+		/* unknown connectors are part of the stiff sets, but don't receive ABOVE/BELOW offsets */
+
+		assertEquals(3, added.getPosXYZ().y, 1e-10);
+		assertEquals(3, unknown1.getPosXYZ().y, 1e-10);
+		assertEquals(5, unknown2.getPosXYZ().y, 1e-10);
+		assertEquals(5, unknown3.getPosXYZ().y, 1e-10);
+
+	}
+
+	@Test
+	public void testAddConnectorsAfterRequireSameEle() {
+
+		EleConnector c1 = connector(new VectorXZ(0, 0), null, ON, 0);
+		EleConnector c2 = connector(new VectorXZ(1, 0), null, ABOVE, 4);
+		EleConnector c3 = connector(new VectorXZ(0, 0), null, ON, 8);
+
+		/* connectors which have been registered by requireSameEle can still be added later */
+
+		SimpleEleConstraintEnforcer enforcer = new SimpleEleConstraintEnforcer();
+		enforcer.requireSameEle(c1, c2);
+		enforcer.addConnectors(asList(c1, c2, c3));
+		enforcer.enforceConstraints();
+
+		assertEquals(4, c1.getPosXYZ().y, 1e-10);
+		assertEquals(9, c2.getPosXYZ().y, 1e-10);
+		assertEquals(4, c3.getPosXYZ().y, 1e-10);
+
+	}
+
+	static EleConnector connector(VectorXZ pos, Object reference, GroundState groundState, double ele) {
+		EleConnector result = new EleConnector(pos, reference, groundState);
+		result.setPosXYZ(pos.xyz(ele));
+		return result;
+	}
+
+}
@@ -0,0 +1,121 @@
+package org.osm2world.core.map_elevation.creation;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.math.VectorXZ;
+
+public class TerrainInterpolatorTest {
+
+	private static List<VectorXYZ> createSites(Random random) {
+
+		List<VectorXYZ> sites = new ArrayList<>();
+
+		for (int x = 0; x < 30; x++) {
+			for (int z = 0; z < 30; z++) {
+				sites.add(new VectorXYZ(x * 30 + random.nextDouble(),
+						100 + 20 * random.nextDouble(), z * 30 + random.nextDouble()));
+			}
+		}
+
+		return sites;
+
+	}
+
+	/**
+	 * checks that batch and parallel interpolation
+	 * produce the same results as interpolating one position at a time
+	 */
+	@Test
+	public void testBatchAndParallelInterpolation() {
+
+		Random random = new Random(42);
+
+		List<VectorXYZ> sites = createSites(random);
+
+		double[] xz = new double[2 * 1000];
+
+		for (int i = 0; i < xz.length; i++) {
+			xz[i] = 100 + 600 * random.nextDouble();
+		}
+
+		for (TerrainInterpolator interpolator : asList(
+				new ZeroInterpolator(),
+				new InverseDistanceWeightingInterpolator(),
+				new LinearInterpolator(),
+				new NaturalNeighborInterpolator(),
+				new LeastSquaresInterpolator())) {
+
+			assertTrue(interpolator.isThreadSafe());
+
+			interpolator.setKnownSites(sites);
+
+			double[] expected = new double[xz.length / 2];
+
+			for (int i = 0; i < expected.length; i++) {
+				expected[i] = interpolator.interpolateEle(new VectorXZ(xz[2 * i], xz[2 * i + 1])).y;
+			}
+
+			double[] batchResult = new double[xz.length / 2];
+			interpolator.interpolateEle(xz, batchResult);
+
+			assertArrayEquals(expected, batchResult, 0);
+
+			double[] parallelResult = new double[xz.length / 2];
+
+			IntStream.range(0, parallelResult.length).parallel().forEach(i ->
+				parallelResult[i] = interpolator.interpolateEle(new VectorXZ(xz[2 * i], xz[2 * i + 1])).y);
+
+			assertArrayEquals(expected, parallelResult, 0);
+
+		}
+
+	}
+
+	/**
+	 * checks that batch interpolation accepts an output array
+	 * which is longer than necessary and leaves the additional entries untouched
+	 */
+	@Test
+	public void testBatchInterpolationWithLargerOutputArray() {
+
+		Random random = new Random(42);
+
+		List<VectorXYZ> sites = createSites(random);
+
+		double[] xz = { 200, 300, 450.5, 123.4, 600, 600 };
+
+		for (TerrainInterpolator interpolator : asList(
+				new ZeroInterpolator(),
+				new InverseDistanceWeightingInterpolator(),
+				new LinearInterpolator(),
+				new NaturalNeighborInterpolator(),
+				new LeastSquaresInterpolator())) {
+
+			interpolator.setKnownSites(sites);
+
+			double[] outY = new double[xz.length];
+			outY[3] = outY[4] = outY[5] = -1;
+
+			interpolator.interpolateEle(xz, outY);
+
+			for (int i = 0; i < 3; i++) {
+				assertEquals(interpolator.interpolateEle(new VectorXZ(xz[2 * i], xz[2 * i + 1])).y, outY[i], 0);
+			}
+
+			for (int i = 3; i < outY.length; i++) {
+				assertEquals(-1, outY[i], 0);
+			}
+
+		}
+
+	}
+
+}
@@ -0,0 +1,107 @@
+package org.osm2world.core.math;
+
+import static java.lang.Math.*;
+import static org.junit.Assert.*;
+import static org.osm2world.core.math.GeometryUtil.getTrueLineSegmentIntersection;
+import static org.osm2world.core.math.VectorXZ.NULL_VECTOR;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PreparedPolygonXZTest {
+
+	/** creates a star-shaped polygon with many edges, so that the edge index will be used */
+	private static List<VectorXZ> createStar(int points) {
+		return createStar(points, NULL_VECTOR, 100);
+	}
+
+	private static List<VectorXZ> createStar(int points, VectorXZ center, double outerRadius) {
+
+		List<VectorXZ> vertexLoop = new ArrayList<>();
+
+		for (int i = 0; i < 2 * points; i++) {
+			double angle = i * PI / points;
+			double radius = (i % 2 == 0) ? outerRadius : 0.4 * outerRadius;
+			vertexLoop.add(center.add(new VectorXZ(radius * sin(angle), radius * cos(angle))));
+		}
+
+		vertexLoop.add(vertexLoop.get(0));
+
+		return vertexLoop;
+
+	}
+
+	@Test
+	public void testContains() {
+
+		List<VectorXZ> star = createStar(50);
+		PreparedPolygonXZ prepared = new PreparedPolygonXZ(star);
+
+		Random random = new Random(42);
+
+		for (int i = 0; i < 10000; i++) {
+			VectorXZ v = new VectorXZ(random.nextDouble() * 240 - 120, random.nextDouble() * 240 - 120);
+			assertEquals(SimplePolygonXZ.contains(star, v), prepared.contains(v));
+		}
+
+	}
+
+	@Test
+	public void testIntersections() {
+
+		List<VectorXZ> star = createStar(50);
+		PreparedPolygonXZ prepared = new PreparedPolygonXZ(star);
+
+		Random random = new Random(42);
+
+		for (int i = 0; i < 2000; i++) {
+
+			VectorXZ p1 = new VectorXZ(random.nextDouble() * 240 - 120, random.nextDouble() * 240 - 120);
+			VectorXZ p2 = p1.add(new VectorXZ(random.nextDouble() * 60 - 30, random.nextDouble() * 60 - 30));
+
+			List<VectorXZ> expected = new ArrayList<>();
+
+			for (int edge = 0; edge + 1 < star.size(); edge++) {
+				VectorXZ intersection = getTrueLineSegmentIntersection(
+						p1, p2, star.get(edge), star.get(edge + 1));
+				if (intersection != null) {
+					expected.add(intersection);
+				}
+			}
+
+			assertEquals(expected, prepared.intersectionPositions(p1, p2));
+			assertEquals(!expected.isEmpty(), prepared.intersects(p1, p2));
+			assertEquals(expected.size(), prepared.intersectionSegments(p1, p2).size());
+
+		}
+
+	}
+
+	@Test
+	public void testSimplePolygonIntersects() {
+
+		SimplePolygonXZ star = new SimplePolygonXZ(createStar(50));
+
+		SimplePolygonXZ inside = new SimplePolygonXZ(createStar(20, NULL_VECTOR, 10));
+		SimplePolygonXZ crossing = new SimplePolygonXZ(createStar(20, new VectorXZ(150, 0), 100));
+		SimplePolygonXZ outside = new SimplePolygonXZ(createStar(20, new VectorXZ(500, 0), 100));
+
+		assertFalse(star.intersects(inside));
+		assertTrue(star.contains(inside));
+
+		assertTrue(star.intersects(crossing));
+		assertTrue(crossing.intersects(star));
+		assertFalse(star.contains(crossing));
+
+		assertFalse(star.intersects(outside));
+		assertFalse(star.contains(outside));
+
+		assertEquals(100, star.getAxisAlignedBoundingBoxXZ().maxZ, 1e-10);
+		assertEquals(-100, star.getAxisAlignedBoundingBoxXZ().minZ, 1e-10);
+
+	}
+
+}
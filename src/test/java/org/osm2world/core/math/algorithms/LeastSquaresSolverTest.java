@@ -0,0 +1,93 @@
+package org.osm2world.core.math.algorithms;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.QRDecomposition;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+import org.junit.Test;
+
+public class LeastSquaresSolverTest {
+
+	@Test
+	public void testSameResultAsCommonsMath() {
+
+		Random random = new Random(42);
+
+		LeastSquaresSolver solver = new LeastSquaresSolver(9, 6);
+		double[] result = new double[6];
+
+		for (int test = 0; test < 100; test++) {
+
+			RealMatrix matrix = new Array2DRowRealMatrix(9, 6);
+			RealVector vector = new ArrayRealVector(9);
+
+			for (int row = 0; row < 9; row++) {
+
+				double x = random.nextDouble() * 1000;
+				double z = random.nextDouble() * 1000;
+				double[] values = {1, x, z, x*x, x*z, z*z};
+
+				for (int column = 0; column < 6; column++) {
+					matrix.setEntry(row, column, values[column]);
+					solver.setEntry(row, column, values[column]);
+				}
+
+				double y = random.nextDouble() * 100;
+				vector.setEntry(row, y);
+				solver.setRightHandSide(row, y);
+
+			}
+
+			double[] expected = new QRDecomposition(matrix).getSolver().solve(vector).toArray();
+
+			assertTrue(solver.solve(result));
+
+			for (int i = 0; i < 6; i++) {
+				assertEquals(expected[i], result[i], 1e-9 * Math.max(1, Math.abs(expected[i])));
+			}
+
+		}
+
+	}
+
+	@Test
+	public void testExactSolution() {
+
+		LeastSquaresSolver solver = new LeastSquaresSolver(3, 2);
+
+		/* y = 2 + 3x */
+
+		for (int row = 0; row < 3; row++) {
+			solver.setEntry(row, 0, 1);
+			solver.setEntry(row, 1, row);
+			solver.setRightHandSide(row, 2 + 3 * row);
+		}
+
+		double[] result = new double[2];
+		assertTrue(solver.solve(result));
+		assertEquals(2, result[0], 1e-10);
+		assertEquals(3, result[1], 1e-10);
+
+	}
+
+	@Test
+	public void testRankDeficient() {
+
+		LeastSquaresSolver solver = new LeastSquaresSolver(3, 2);
+
+		for (int row = 0; row < 3; row++) {
+			solver.setEntry(row, 0, 1);
+			solver.setEntry(row, 1, 0);
+			solver.setRightHandSide(row, row);
+		}
+
+		assertFalse(solver.solve(new double[2]));
+
+	}
+
+}
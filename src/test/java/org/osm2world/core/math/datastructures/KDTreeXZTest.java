@@ -0,0 +1,82 @@
+package org.osm2world.core.math.datastructures;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class KDTreeXZTest {
+
+	@Test
+	public void testFindNearest() {
+
+		Random random = new Random(42);
+
+		/* jittered grid points with duplicate coordinates, followed by random points */
+
+		double[] xs = new double[3000];
+		double[] zs = new double[3000];
+
+		for (int i = 0; i < 2500; i++) {
+			xs[i] = (i % 50) * 30;
+			zs[i] = (i / 50) * 30 + (i % 7 == 0 ? random.nextDouble() : 0);
+		}
+
+		for (int i = 2500; i < xs.length; i++) {
+			xs[i] = random.nextDouble() * 1500;
+			zs[i] = random.nextDouble() * 1500;
+		}
+
+		KDTreeXZ tree = new KDTreeXZ(xs, zs);
+
+		assertEquals(xs.length, tree.size());
+
+		int k = 29;
+		int[] indices = new int[k];
+		double[] distancesSq = new double[k];
+
+		for (int q = 0; q < 1000; q++) {
+
+			double x = random.nextDouble() * 1700 - 100;
+			double z = random.nextDouble() * 1700 - 100;
+
+			assertEquals(k, tree.findNearest(x, z, k, indices, distancesSq));
+
+			/* compare with the distances found by a linear scan */
+
+			double[] expected = new double[xs.length];
+			for (int i = 0; i < xs.length; i++) {
+				expected[i] = (xs[i] - x) * (xs[i] - x) + (zs[i] - z) * (zs[i] - z);
+			}
+			Arrays.sort(expected);
+
+			for (int i = 0; i < k; i++) {
+				assertEquals(expected[i], distancesSq[i], 0);
+				double dx = xs[indices[i]] - x;
+				double dz = zs[indices[i]] - z;
+				assertEquals(dx * dx + dz * dz, distancesSq[i], 0);
+			}
+
+		}
+
+	}
+
+	@Test
+	public void testFewPoints() {
+
+		KDTreeXZ tree = new KDTreeXZ(new double[] {0, 10, 5}, new double[] {0, 0, 5});
+
+		int[] indices = new int[5];
+		double[] distancesSq = new double[5];
+
+		assertEquals(3, tree.findNearest(9, 1, 5, indices, distancesSq));
+		assertArrayEquals(new int[] {1, 2, 0}, Arrays.copyOf(indices, 3));
+
+		assertEquals(0, new KDTreeXZ(new double[0], new double[0])
+				.findNearest(0, 0, 5, indices, distancesSq));
+
+	}
+
+}
@@ -0,0 +1,306 @@
+package org.osm2world.core.osm.creation;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.*;
+import static org.junit.Assert.*;
+import static org.osm2world.core.target.common.material.Materials.PLASTIC;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.osm2world.core.ConversionFacade;
+import org.osm2world.core.map_data.data.MapNode;
+import org.osm2world.core.map_elevation.creation.EleConstraintEnforcer;
+import org.osm2world.core.map_elevation.data.EleConnector;
+import org.osm2world.core.map_elevation.data.GroundState;
+import org.osm2world.core.math.TriangleXYZ;
+import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.osm.creation.ChunkedOSMFileReader.Chunk;
+import org.osm2world.core.osm.data.OSMData;
+import org.osm2world.core.target.RenderableToAllTargets;
+import org.osm2world.core.target.Target;
+import org.osm2world.core.target.statistics.StatisticsTarget;
+import org.osm2world.core.target.statistics.StatisticsTarget.Stat;
+import org.osm2world.core.test.TestWorldModule;
+import org.osm2world.core.world.creation.WorldModule;
+import org.osm2world.core.world.data.NodeWorldObject;
+import org.osm2world.core.world.modules.common.AbstractModule;
+
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+
+public class ChunkedOSMFileReaderTest {
+
+	private static final int GRID_SIZE = 10;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * writes a file with a grid of nodes spread over 2x2 chunks of size 0.05,
+	 * with a way and a relation along the first row of nodes
+	 */
+	private File createTestFile() throws IOException {
+
+		File file = folder.newFile("grid.osm");
+
+		try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+
+			writer.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+			writer.println("<osm version=\"0.6\" generator=\"test\">");
+
+			for (int row = 0; row < GRID_SIZE; row++) {
+				for (int col = 0; col < GRID_SIZE; col++) {
+					writer.printf("<node id=\"%d\" lat=\"%s\" lon=\"%s\" version=\"1\"/>\n",
+							nodeId(row, col), lat(row), lon(col));
+				}
+			}
+
+			writer.println("<way id=\"1\" version=\"1\">");
+			for (int col = 0; col < GRID_SIZE; col++) {
+				writer.printf("<nd ref=\"%d\"/>\n", nodeId(0, col));
+			}
+			writer.println("<tag k=\"highway\" v=\"residential\"/>");
+			writer.println("</way>");
+
+			writer.println("<relation id=\"1\" version=\"1\">");
+			writer.println("<member type=\"way\" ref=\"1\" role=\"\"/>");
+			writer.println("<tag k=\"type\" v=\"route\"/>");
+			writer.println("</relation>");
+
+			writer.println("</osm>");
+
+		}
+
+		return file;
+
+	}
+
+	private static long nodeId(int row, int col) {
+		return 1 + row * GRID_SIZE + col;
+	}
+
+	private static double lat(int row) {
+		return 0.005 + row * 0.01;
+	}
+
+	private static double lon(int col) {
+		return 0.005 + col * 0.01;
+	}
+
+	/** an object which draws a triangle at a node, but does not name it as its primary map element */
+	private static class ObjectWithoutPrimaryMapElement implements NodeWorldObject, RenderableToAllTargets {
+
+		private final MapNode node;
+
+		public ObjectWithoutPrimaryMapElement(MapNode node) {
+			this.node = node;
+		}
+
+		@Override
+		public MapNode getPrimaryMapElement() {
+			return null;
+		}
+
+		@Override
+		public GroundState getGroundState() {
+			return GroundState.ON;
+		}
+
+		@Override
+		public Iterable<EleConnector> getEleConnectors() {
+			return emptyList();
+		}
+
+		@Override
+		public void defineEleConstraints(EleConstraintEnforcer enforcer) {}
+
+		@Override
+		public void renderTo(Target<?> target) {
+			VectorXYZ base = node.getPos().xyz(0);
+			target.drawTriangles(PLASTIC, singletonList(
+					new TriangleXYZ(base, base.add(0, 1, 0), base.add(1, 1, 0))), emptyList());
+		}
+
+	}
+
+	@Test
+	public void testGetChunks() throws IOException {
+
+		try (ChunkedOSMFileReader reader = new ChunkedOSMFileReader(createTestFile(), 0.05, 0.005)) {
+
+			List<Chunk> chunks = reader.getChunks();
+
+			assertEquals(4, chunks.size());
+
+			for (int row = 0; row < GRID_SIZE; row++) {
+				for (int col = 0; col < GRID_SIZE; col++) {
+
+					int containingChunks = 0;
+
+					for (Chunk chunk : chunks) {
+						if (reader.isInChunk(chunk, lat(row), lon(col))) {
+							containingChunks ++;
+						}
+					}
+
+					assertEquals(1, containingChunks);
+
+				}
+			}
+
+			assertEquals(0.05, reader.getOrigin().lat, 1e-9);
+			assertEquals(0.05, reader.getOrigin().lon, 1e-9);
+
+		}
+
+	}
+
+	@Test
+	public void testEmptyChunksSkipped() throws IOException {
+
+		File file = folder.newFile("sparse.osm");
+
+		try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+			writer.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+			writer.println("<osm version=\"0.6\" generator=\"test\">");
+			writer.println("<node id=\"1\" lat=\"0.005\" lon=\"0.005\" version=\"1\"/>");
+			writer.println("<node id=\"2\" lat=\"0.145\" lon=\"0.145\" version=\"1\"/>");
+			writer.println("<node id=\"3\" lat=\"0.145\" lon=\"0.005\" version=\"1\"/>");
+			writer.println("<node id=\"4\" lat=\"0.145\" lon=\"0.035\" version=\"1\"/>");
+			writer.println("<way id=\"1\" version=\"1\">");
+			writer.println("<nd ref=\"3\"/><nd ref=\"4\"/><nd ref=\"1\"/>");
+			writer.println("</way>");
+			writer.println("</osm>");
+		}
+
+		try (ChunkedOSMFileReader reader = new ChunkedOSMFileReader(file, 0.05, 0.005)) {
+
+			/* the grid has 3x3 cells, but only the column crossed by the way and one other cell are used */
+
+			List<String> chunks = new ArrayList<>();
+
+			for (Chunk chunk : reader.getChunks()) {
+				chunks.add(chunk.row + "," + chunk.column);
+			}
+
+			assertEquals(asList("0,0", "1,0", "2,0", "2,2"), chunks);
+
+		}
+
+	}
+
+	@Test
+	public void testReadChunks() throws IOException {
+
+		try (ChunkedOSMFileReader reader = new ChunkedOSMFileReader(createTestFile(), 0.05, 0.005)) {
+
+			Map<Chunk, OSMData> chunkData = new HashMap<>();
+
+			reader.readChunks(3, (chunk, data) -> chunkData.put(chunk, data));
+
+			assertEquals(4, chunkData.size());
+
+			for (Chunk chunk : chunkData.keySet()) {
+
+				OSMData data = chunkData.get(chunk);
+
+				/* all nodes within the extended bounds are included */
+
+				List<Long> nodeIds = new ArrayList<>();
+
+				for (OsmNode node : data.getNodes()) {
+					nodeIds.add(node.getId());
+				}
+
+				for (int row = 0; row < GRID_SIZE; row++) {
+					for (int col = 0; col < GRID_SIZE; col++) {
+						if (chunk.extendedBoundsContain(lat(row), lon(col))) {
+							assertTrue(nodeIds.contains(nodeId(row, col)));
+						}
+					}
+				}
+
+				/* the way and relation are only part of the first row of chunks, and the way is complete */
+
+				if (chunk.row == 0) {
+
+					assertEquals(1, data.getWays().size());
+					assertEquals(1, data.getRelations().size());
+
+					OsmWay way = data.getWays().iterator().next();
+
+					for (int i = 0; i < way.getNumberOfNodes(); i++) {
+						assertTrue(nodeIds.contains(way.getNodeId(i)));
+					}
+
+				} else {
+
+					assertTrue(data.getWays().isEmpty());
+					assertTrue(data.getRelations().isEmpty());
+
+				}
+
+			}
+
+		}
+
+	}
+
+	@Test
+	public void testCreateRepresentationsInChunks() throws IOException {
+
+		Configuration config = new BaseConfiguration();
+		config.setProperty("chunkSize", 0.05);
+		config.setProperty("chunkMargin", 0.02);
+		config.setProperty("chunksPerPass", 2);
+		config.setProperty("createTerrain", false);
+
+		StatisticsTarget target = new StatisticsTarget();
+
+		new ConversionFacade().createRepresentationsInChunks(createTestFile(),
+				asList(new TestWorldModule()), config, singletonList(target));
+
+		/* each node's object is rendered exactly once, even if the node is part of several chunks */
+
+		assertEquals(GRID_SIZE * GRID_SIZE, target.getGlobalCount(Stat.OBJECT_COUNT));
+
+	}
+
+	@Test
+	public void testObjectsWithoutPrimaryMapElement() throws IOException {
+
+		Configuration config = new BaseConfiguration();
+		config.setProperty("chunkSize", 0.05);
+		config.setProperty("chunkMargin", 0.02);
+		config.setProperty("createTerrain", false);
+
+		StatisticsTarget target = new StatisticsTarget();
+
+		WorldModule module = new AbstractModule() {
+			@Override
+			protected void applyToNode(MapNode node) {
+				node.addRepresentation(new ObjectWithoutPrimaryMapElement(node));
+			}
+		};
+
+		new ConversionFacade().createRepresentationsInChunks(createTestFile(),
+				asList(module), config, singletonList(target));
+
+		/* objects are assigned to a chunk based on the element they represent */
+
+		assertEquals(GRID_SIZE * GRID_SIZE, target.getGlobalCount(Stat.OBJECT_COUNT));
+
+	}
+
+}
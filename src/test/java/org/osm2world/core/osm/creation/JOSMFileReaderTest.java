@@ -0,0 +1,129 @@
+package org.osm2world.core.osm.creation;
+
+import static de.topobyte.osm4j.core.model.util.OsmModelUtil.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.osm2world.core.osm.data.OSMData;
+
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmBounds;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
+
+public class JOSMFileReaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * writes a file in the style of JOSM, with negative ids, missing versions,
+	 * an element marked for deletion and two bounds elements
+	 */
+	private File createTestFile() throws IOException {
+
+		File file = folder.newFile("josm.osm");
+
+		try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+			writer.println("<?xml version='1.0' encoding='UTF-8'?>");
+			writer.println("<osm version='0.6' upload='false' generator='JOSM'>");
+			writer.println("  <bounds minlat='50.0' minlon='8.0' maxlat='50.1' maxlon='8.1' origin='JOSM' />");
+			writer.println("  <bounds minlat='50.05' minlon='7.9' maxlat='50.2' maxlon='8.05' origin='JOSM' />");
+			writer.println("  <node id='-1' action='modify' visible='true' lat='50.01' lon='8.01' />");
+			writer.println("  <node id='-2' action='modify' visible='true' lat='50.02' lon='8.02'>");
+			writer.println("    <tag k='highway' v='traffic_signals' />");
+			writer.println("  </node>");
+			writer.println("  <node id='-3' action='modify' visible='true' lat='50.03' lon='8.03' />");
+			writer.println("  <node id='-4' action='delete' visible='true' lat='50.04' lon='8.04' />");
+			writer.println("  <way id='-5' action='modify' visible='true'>");
+			writer.println("    <nd ref='-1' />");
+			writer.println("    <nd ref='-2' />");
+			writer.println("    <nd ref='-3' />");
+			writer.println("    <tag k='highway' v='residential' />");
+			writer.println("    <tag k='name' v='Hauptstraße' />");
+			writer.println("  </way>");
+			writer.println("  <relation id='-6' action='modify' visible='true'>");
+			writer.println("    <member type='way' ref='-5' role='street' />");
+			writer.println("    <member type='node' ref='-2' />");
+			writer.println("    <tag k='type' v='associatedStreet' />");
+			writer.println("  </relation>");
+			writer.println("</osm>");
+		}
+
+		return file;
+
+	}
+
+	@Test
+	public void testRead() throws IOException, EntityNotFoundException {
+
+		File file = createTestFile();
+
+		assertTrue(OSMFileReader.isJOSMGenerated(file));
+
+		OSMData osmData = new JOSMFileReader(file).getData();
+
+		/* the deleted node is skipped */
+
+		assertEquals(3, osmData.getNodes().size());
+		assertEquals(1, osmData.getWays().size());
+		assertEquals(1, osmData.getRelations().size());
+
+		/* tags and members are read */
+
+		OsmWay way = osmData.getWay(-5);
+		assertEquals(3, way.getNumberOfNodes());
+		assertEquals(-2, way.getNodeId(1));
+		assertEquals("Hauptstraße", getTagsAsMap(way).get("name"));
+		assertEquals("traffic_signals", getTagsAsMap(osmData.getNode(-2)).get("highway"));
+		assertEquals(50.02, osmData.getNode(-2).getLatitude(), 1e-9);
+		assertEquals(8.02, osmData.getNode(-2).getLongitude(), 1e-9);
+
+		OsmRelation relation = osmData.getRelation(-6);
+		assertEquals(2, relation.getNumberOfMembers());
+		assertEquals("street", relation.getMember(0).getRole());
+		assertEquals(EntityType.Way, relation.getMember(0).getType());
+		assertEquals("", relation.getMember(1).getRole());
+		assertEquals(EntityType.Node, relation.getMember(1).getType());
+
+		/* multiple bounds are merged */
+
+		assertEquals(1, osmData.getBounds().size());
+
+		OsmBounds bounds = osmData.getBounds().iterator().next();
+		assertEquals(50.0, bounds.getBottom(), 1e-9);
+		assertEquals(50.2, bounds.getTop(), 1e-9);
+		assertEquals(7.9, bounds.getLeft(), 1e-9);
+		assertEquals(8.1, bounds.getRight(), 1e-9);
+
+	}
+
+	@Test
+	public void testSameAsStrictReader() throws IOException, EntityNotFoundException {
+
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		File file = new File(classLoader.getResource("validFile.osm").getFile());
+
+		OSMData expected = new StrictOSMFileReader(file).getData();
+		OSMData actual = new JOSMFileReader(file).getData();
+
+		assertEquals(expected.getNodes().size(), actual.getNodes().size());
+		assertEquals(expected.getWays().size(), actual.getWays().size());
+		assertEquals(expected.getRelations().size(), actual.getRelations().size());
+
+		for (OsmWay expectedWay : expected.getWays()) {
+			OsmWay way = actual.getWay(expectedWay.getId());
+			assertEquals(nodesAsList(expectedWay), nodesAsList(way));
+			assertEquals(getTagsAsMap(expectedWay), getTagsAsMap(way));
+		}
+
+	}
+
+}
@@ -0,0 +1,331 @@
+package org.osm2world.core.osm.creation;
+
+import static de.topobyte.osm4j.core.model.util.OsmModelUtil.*;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.osm2world.core.osm.data.OSMData;
+
+import com.google.protobuf.ByteString;
+
+import de.topobyte.osm4j.core.dataset.MapDataSetLoader;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
+import de.topobyte.osm4j.pbf.protobuf.Fileformat;
+import de.topobyte.osm4j.pbf.protobuf.Osmformat;
+import de.topobyte.osm4j.pbf.protobuf.Osmformat.Relation.MemberType;
+import de.topobyte.osm4j.pbf.seq.PbfIterator;
+
+public class PbfFileReaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static File getTestFile(String name) {
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		return new File(classLoader.getResource(name).getFile());
+	}
+
+	@Test
+	public void testValidFile() throws IOException, EntityNotFoundException {
+
+		OSMData osmData = new PbfFileReader(getTestFile("validFile.osm.pbf"), 2).getData();
+
+		assertSame(4, osmData.getNodes().size());
+		assertSame(1, osmData.getWays().size());
+		assertSame(1, osmData.getRelations().size());
+		assertEquals(1, osmData.getBounds().size());
+
+		OsmWay way = osmData.getWays().iterator().next();
+		assertSame(3, way.getNumberOfNodes());
+
+		OsmNode node1 = osmData.getNode(nodesAsList(way).get(1));
+		assertEquals("traffic_signals", getTagsAsMap(node1).get("highway"));
+
+		OsmRelation relation = osmData.getRelations().iterator().next();
+		assertEquals("associatedStreet",  getTagsAsMap(relation).get("type"));
+		assertEquals("street", relation.getMember(0).getRole());
+
+		/* compare with the same data from an .osm file */
+
+		OSMData xmlData = new OSMFileReader(getTestFile("validFile.osm")).getData();
+
+		for (OsmNode xmlNode : xmlData.getNodes()) {
+			OsmNode node = osmData.getNode(xmlNode.getId());
+			assertEquals(xmlNode.getLatitude(), node.getLatitude(), 1e-7);
+			assertEquals(xmlNode.getLongitude(), node.getLongitude(), 1e-7);
+			assertEquals(getTagsAsMap(xmlNode), getTagsAsMap(node));
+		}
+
+	}
+
+	@Test
+	public void testSameAsOsm4j() throws IOException, EntityNotFoundException {
+
+		File file = getTestFile("validFile.osm.pbf");
+
+		OSMData expected = new StrictOSMFileReader(file).getData();
+		OSMData actual = new PbfFileReader(file).getData();
+
+		assertSameData(expected, actual);
+
+	}
+
+	/**
+	 * checks edge cases which don't appear in validFile.osm.pbf:
+	 * non-default granularity and coordinate offsets, zlib-compressed and raw blocks,
+	 * plain and dense nodes, and relations with members of all types
+	 */
+	@Test
+	public void testEdgeCasesSameAsOsm4j() throws IOException, EntityNotFoundException {
+
+		File file = folder.newFile("edgeCases.osm.pbf");
+
+		try (DataOutputStream output = new DataOutputStream(new FileOutputStream(file))) {
+
+			Osmformat.HeaderBlock header = Osmformat.HeaderBlock.newBuilder()
+					.addRequiredFeatures("OsmSchema-V0.6")
+					.addRequiredFeatures("DenseNodes")
+					.build();
+
+			writeBlock(output, "OSMHeader", header.toByteString(), false);
+
+			/* first block: nodes with a large granularity and offsets of both signs */
+
+			StringTable strings = new StringTable();
+
+			Osmformat.DenseNodes.Builder denseNodes = Osmformat.DenseNodes.newBuilder();
+			addDenseNode(denseNodes, strings, 1, 52000, 13000, "highway", "traffic_signals");
+			addDenseNode(denseNodes, strings, 2, 52001, 12999);
+			addDenseNode(denseNodes, strings, 5, -47000, -13000, "name", "Stra\u00DFe", "amenity", "bench");
+			addDenseNode(denseNodes, strings, 3, 52003, 13005);
+
+			Osmformat.Node.Builder plainNode = Osmformat.Node.newBuilder()
+					.setId(4).setLat(-1).setLon(1)
+					.addKeys(strings.index("barrier")).addVals(strings.index("gate"));
+
+			Osmformat.PrimitiveBlock nodeBlock = Osmformat.PrimitiveBlock.newBuilder()
+					.setGranularity(1000)
+					.setLatOffset(12345678)
+					.setLonOffset(-98765432)
+					.addPrimitivegroup(Osmformat.PrimitiveGroup.newBuilder().setDense(denseNodes))
+					.addPrimitivegroup(Osmformat.PrimitiveGroup.newBuilder().addNodes(plainNode))
+					.setStringtable(strings.build())
+					.build();
+
+			writeBlock(output, "OSMData", nodeBlock.toByteString(), true);
+
+			/* second block: more dense nodes with a different granularity, ways and relations */
+
+			strings = new StringTable();
+
+			denseNodes = Osmformat.DenseNodes.newBuilder();
+			addDenseNode(denseNodes, strings, 7, 5200000, 1300000, "natural", "tree");
+			addDenseNode(denseNodes, strings, 6, 5200100, 1300100);
+
+			Osmformat.Way.Builder way10 = Osmformat.Way.newBuilder().setId(10)
+					.addKeys(strings.index("highway")).addVals(strings.index("residential"));
+			addDeltaCoded(way10, 1, 2, 3, 7, 1);
+
+			Osmformat.Way.Builder way11 = Osmformat.Way.newBuilder().setId(11);
+			addDeltaCoded(way11, 6, 5, 4);
+
+			Osmformat.Relation.Builder relation20 = Osmformat.Relation.newBuilder().setId(20)
+					.addKeys(strings.index("type")).addVals(strings.index("route"));
+			addMember(relation20, strings, MemberType.NODE, 3, "stop");
+			addMember(relation20, strings, MemberType.WAY, 10, "");
+			addMember(relation20, strings, MemberType.RELATION, 21, "sub");
+			addMember(relation20, strings, MemberType.NODE, 1, "stop");
+
+			Osmformat.Relation.Builder relation21 = Osmformat.Relation.newBuilder().setId(21)
+					.addKeys(strings.index("type")).addVals(strings.index("multipolygon"));
+			addMember(relation21, strings, MemberType.WAY, 11, "outer");
+
+			Osmformat.PrimitiveBlock elementBlock = Osmformat.PrimitiveBlock.newBuilder()
+					.setGranularity(10)
+					.setLatOffset(-500)
+					.addPrimitivegroup(Osmformat.PrimitiveGroup.newBuilder().setDense(denseNodes))
+					.addPrimitivegroup(Osmformat.PrimitiveGroup.newBuilder().addWays(way10).addWays(way11))
+					.addPrimitivegroup(Osmformat.PrimitiveGroup.newBuilder()
+							.addRelations(relation20).addRelations(relation21))
+					.setStringtable(strings.build())
+					.build();
+
+			writeBlock(output, "OSMData", elementBlock.toByteString(), false);
+
+		}
+
+		OSMData expected;
+
+		try (FileInputStream input = new FileInputStream(file)) {
+			expected = new OSMData(MapDataSetLoader.read(new PbfIterator(input, false), true, true, true));
+		}
+
+		OSMData actual = new PbfFileReader(file, 2).getData();
+
+		assertEquals(7, actual.getNodes().size());
+		assertEquals(2, actual.getWays().size());
+		assertEquals(2, actual.getRelations().size());
+
+		assertSameData(expected, actual);
+
+		/* coordinates are calculated as 1e-9 * (offset + granularity * value) */
+
+		assertEquals(1e-9 * (12345678 + 1000 * 52000), actual.getNode(1).getLatitude(), 1e-12);
+		assertEquals(1e-9 * (-98765432 + 1000 * 13000), actual.getNode(1).getLongitude(), 1e-12);
+		assertEquals(1e-9 * (-500 + 10 * 5200000), actual.getNode(7).getLatitude(), 1e-12);
+		assertEquals(1e-9 * (10 * 1300000), actual.getNode(7).getLongitude(), 1e-12);
+
+		assertEquals("Stra\u00DFe", getTagsAsMap(actual.getNode(5)).get("name"));
+		assertEquals(EntityType.Relation, actual.getRelation(20).getMember(2).getType());
+
+	}
+
+	private static void assertSameData(OSMData expected, OSMData actual) throws EntityNotFoundException {
+
+		assertEquals(expected.getNodes().size(), actual.getNodes().size());
+		assertEquals(expected.getWays().size(), actual.getWays().size());
+		assertEquals(expected.getRelations().size(), actual.getRelations().size());
+
+		for (OsmNode expectedNode : expected.getNodes()) {
+			OsmNode node = actual.getNode(expectedNode.getId());
+			assertEquals(expectedNode.getLatitude(), node.getLatitude(), 1e-9);
+			assertEquals(expectedNode.getLongitude(), node.getLongitude(), 1e-9);
+			assertEquals(getTagsAsMap(expectedNode), getTagsAsMap(node));
+		}
+
+		for (OsmWay expectedWay : expected.getWays()) {
+			OsmWay way = actual.getWay(expectedWay.getId());
+			assertEquals(nodesAsList(expectedWay), nodesAsList(way));
+			assertEquals(getTagsAsMap(expectedWay), getTagsAsMap(way));
+		}
+
+		for (OsmRelation expectedRelation : expected.getRelations()) {
+			OsmRelation relation = actual.getRelation(expectedRelation.getId());
+			assertEquals(expectedRelation.getNumberOfMembers(), relation.getNumberOfMembers());
+			for (int i = 0; i < relation.getNumberOfMembers(); i++) {
+				assertEquals(expectedRelation.getMember(i).getId(), relation.getMember(i).getId());
+				assertEquals(expectedRelation.getMember(i).getType(), relation.getMember(i).getType());
+				assertEquals(expectedRelation.getMember(i).getRole(), relation.getMember(i).getRole());
+			}
+			assertEquals(getTagsAsMap(expectedRelation), getTagsAsMap(relation));
+		}
+
+	}
+
+	/** collects the strings of a block, index 0 is reserved as a delimiter */
+	private static class StringTable {
+
+		private final List<String> strings = new ArrayList<String>(singletonList(""));
+
+		int index(String string) {
+			if (!strings.contains(string)) {
+				strings.add(string);
+			}
+			return strings.indexOf(string);
+		}
+
+		Osmformat.StringTable build() {
+			Osmformat.StringTable.Builder builder = Osmformat.StringTable.newBuilder();
+			for (String string : strings) {
+				builder.addS(ByteString.copyFromUtf8(string));
+			}
+			return builder.build();
+		}
+
+	}
+
+	/**
+	 * appends a node to dense nodes, with ids and coordinates delta coded relative to the previous node
+	 *
+	 * @param keysAndValues  alternating tag keys and values
+	 */
+	private static void addDenseNode(Osmformat.DenseNodes.Builder nodes, StringTable strings,
+			long id, long lat, long lon, String... keysAndValues) {
+
+		nodes.addId(id - sum(nodes.getIdList()));
+		nodes.addLat(lat - sum(nodes.getLatList()));
+		nodes.addLon(lon - sum(nodes.getLonList()));
+
+		for (String string : keysAndValues) {
+			nodes.addKeysVals(strings.index(string));
+		}
+
+		nodes.addKeysVals(0);
+
+	}
+
+	private static void addDeltaCoded(Osmformat.Way.Builder way, long... refs) {
+		long previous = 0;
+		for (long ref : refs) {
+			way.addRefs(ref - previous);
+			previous = ref;
+		}
+	}
+
+	private static void addMember(Osmformat.Relation.Builder relation, StringTable strings,
+			MemberType type, long id, String role) {
+		relation.addMemids(id - sum(relation.getMemidsList()));
+		relation.addTypes(type);
+		relation.addRolesSid(strings.index(role));
+	}
+
+	/** returns the sum of delta coded values, i.e. the previous absolute value */
+	private static long sum(List<Long> values) {
+		long result = 0;
+		for (long value : values) {
+			result += value;
+		}
+		return result;
+	}
+
+	/**
+	 * writes a BlobHeader and Blob to a file
+	 *
+	 * @param compress  whether the content is stored zlib-compressed instead of raw
+	 */
+	private static void writeBlock(DataOutputStream output, String type, ByteString content,
+			boolean compress) throws IOException {
+
+		Fileformat.Blob.Builder blob = Fileformat.Blob.newBuilder().setRawSize(content.size());
+
+		if (compress) {
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+			try (DeflaterOutputStream deflaterOutput = new DeflaterOutputStream(compressed)) {
+				content.writeTo(deflaterOutput);
+			}
+			blob.setZlibData(ByteString.copyFrom(compressed.toByteArray()));
+		} else {
+			blob.setRaw(content);
+		}
+
+		byte[] blobBytes = blob.build().toByteArray();
+
+		byte[] header = Fileformat.BlobHeader.newBuilder()
+				.setType(type)
+				.setDatasize(blobBytes.length)
+				.build().toByteArray();
+
+		output.writeInt(header.length);
+		output.write(header);
+		output.write(blobBytes);
+
+	}
+
+}
@@ -0,0 +1,398 @@
+package org.osm2world.core.target.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.osm2world.core.ConversionCache;
+import org.osm2world.core.ConversionFacade;
+import org.osm2world.core.ConversionFacade.Results;
+import org.osm2world.core.map_data.creation.MetricMapProjection;
+import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.target.TargetUtil;
+import org.osm2world.core.target.common.Primitive;
+import org.osm2world.core.target.common.material.Material;
+import org.osm2world.core.target.jogl.PrimitiveBuffer;
+import org.osm2world.core.target.obj.ObjWriter;
+import org.osm2world.core.target.statistics.StatisticsTarget;
+import org.osm2world.core.target.statistics.StatisticsTarget.Stat;
+
+public class CachedWorldTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static File getTestFile(String name) {
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		return new File(classLoader.getResource(name).getFile());
+	}
+
+	@Test
+	public void testWriteAndRead() throws IOException {
+
+		Configuration config = new BaseConfiguration();
+
+		Results results = new ConversionFacade().createRepresentations(
+				getTestFile("validFile.osm"), null, config, null);
+
+		File file = folder.newFile("world.o2wc");
+		CachedWorld.write(file, results.getMapData(), results.getMapProjection());
+
+		CachedWorld cachedWorld = CachedWorld.read(file);
+
+		assertEquals(results.getMapProjection().getOrigin().lat, cachedWorld.getOrigin().lat, 0);
+		assertEquals(results.getMapProjection().getOrigin().lon, cachedWorld.getOrigin().lon, 0);
+
+		/* compare the geometry */
+
+		StatisticsTarget expected = new StatisticsTarget();
+		TargetUtil.renderWorldObjects(expected, results.getMapData(), true);
+
+		StatisticsTarget actual = new StatisticsTarget();
+		cachedWorld.renderTo(actual, true);
+
+		assertTrue(expected.getGlobalCount(Stat.PRIMITIVE_COUNT) > 0);
+		assertEquals(expected.getGlobalCount(Stat.PRIMITIVE_COUNT),
+				actual.getGlobalCount(Stat.PRIMITIVE_COUNT));
+		assertEquals(expected.getGlobalCount(Stat.TOTAL_TRIANGLE_COUNT),
+				actual.getGlobalCount(Stat.TOTAL_TRIANGLE_COUNT));
+
+		/* compare the objects and faces of an OBJ file */
+
+		File expectedObj = folder.newFile("expected.obj");
+		ObjWriter.writeObjFile(expectedObj, results.getMapData(), results.getMapProjection(),
+				null, null, true, config);
+
+		File actualObj = folder.newFile("actual.obj");
+		ObjWriter.writeObjFile(actualObj, results.getMapProjection(), config,
+				target -> cachedWorld.renderTo(target, true));
+
+		assertEquals(getLines(expectedObj, "o "), getLines(actualObj, "o "));
+		assertEquals(getLines(expectedObj, "f ").size(), getLines(actualObj, "f ").size());
+
+	}
+
+	@Test
+	public void testConversionCache() throws IOException {
+
+		File inputFile = getTestFile("validFile.osm");
+
+		ConversionCache cache = new ConversionCache(folder.newFolder("cache"));
+
+		Configuration config = new BaseConfiguration();
+		config.setProperty("createTerrain", false);
+
+		File cacheFile = cache.getCacheFile(inputFile, config, null);
+
+		assertNull(cache.load(cacheFile, config));
+
+		Results results = new ConversionFacade().createRepresentations(inputFile, null, config, null);
+		cache.store(cacheFile, results);
+
+		assertNotNull(cache.load(cacheFile, config));
+
+		/* the same file is used for the same input and configuration */
+
+		Configuration sameConfig = new BaseConfiguration();
+		sameConfig.setProperty("createTerrain", false);
+
+		assertEquals(cacheFile, cache.getCacheFile(inputFile, sameConfig, null));
+
+		/* another file is used after the configuration has changed */
+
+		config.setProperty("createTerrain", true);
+
+		assertNotEquals(cacheFile, cache.getCacheFile(inputFile, config, null));
+
+	}
+
+	/**
+	 * checks that OBJ output written from a cache hit is identical
+	 * to the output written directly from the conversion after a cache miss
+	 */
+	@Test
+	public void testSameObjOutputForCacheHit() throws IOException {
+
+		File inputFile = createTestFile();
+
+		Configuration config = new BaseConfiguration();
+		config.setProperty("createTerrain", false);
+
+		ConversionCache cache = new ConversionCache(folder.newFolder("cache"));
+		File cacheFile = cache.getCacheFile(inputFile, config, null);
+
+		/* cache miss: convert and write the OBJ file from the results */
+
+		Results results = new ConversionFacade().createRepresentations(inputFile, null, config, null);
+		cache.store(cacheFile, results);
+
+		File missObj = folder.newFile("miss.obj");
+		ObjWriter.writeObjFile(missObj, results.getMapData(), results.getMapProjection(),
+				null, null, true, config);
+
+		/* cache hit: write the OBJ file from the stored result, as the console output does */
+
+		CachedWorld cachedWorld = cache.load(cacheFile, config);
+		assertNotNull(cachedWorld);
+
+		MetricMapProjection mapProjection = new MetricMapProjection();
+		mapProjection.setOrigin(cachedWorld.getOrigin());
+
+		File hitObj = folder.newFile("hit.obj");
+		ObjWriter.writeObjFile(hitObj, mapProjection, config,
+				target -> cachedWorld.renderTo(target, true));
+
+		assertTrue(getLines(missObj, "f ").size() > 0);
+
+		assertEquals(readWithNormalizedMaterialNames(missObj), readWithNormalizedMaterialNames(hitObj));
+		assertEquals(readWithNormalizedMaterialNames(new File(missObj + ".mtl")),
+				readWithNormalizedMaterialNames(new File(hitObj + ".mtl")));
+
+	}
+
+	/**
+	 * checks that the geometry rendered from a cache hit for image output is identical
+	 * to the geometry rendered directly from the conversion after a cache miss.
+	 * The OpenGL targets used for images collect their geometry in a {@link PrimitiveBuffer}.
+	 */
+	@Test
+	public void testSameImageGeometryForCacheHit() throws IOException {
+
+		File inputFile = createTestFile();
+
+		Configuration config = new BaseConfiguration();
+		config.setProperty("createTerrain", false);
+
+		ConversionCache cache = new ConversionCache(folder.newFolder("cache"));
+		File cacheFile = cache.getCacheFile(inputFile, config, null);
+
+		Results results = new ConversionFacade().createRepresentations(inputFile, null, config, null);
+		cache.store(cacheFile, results);
+
+		PrimitiveBuffer missBuffer = new PrimitiveBuffer();
+		TargetUtil.renderWorldObjects(missBuffer, results.getMapData(), true);
+
+		CachedWorld cachedWorld = cache.load(cacheFile, config);
+		assertNotNull(cachedWorld);
+
+		PrimitiveBuffer hitBuffer = new PrimitiveBuffer();
+		cachedWorld.renderTo(hitBuffer, true);
+
+		assertFalse(missBuffer.getMaterials().isEmpty());
+		assertEquals(describe(missBuffer), describe(hitBuffer));
+
+	}
+
+	@Test
+	public void testOutputKeysNotHashed() throws IOException {
+
+		File inputFile = getTestFile("validFile.osm");
+
+		ConversionCache cache = new ConversionCache(folder.newFolder("cache"));
+
+		Configuration config = new BaseConfiguration();
+		config.setProperty("createTerrain", false);
+
+		File cacheFile = cache.getCacheFile(inputFile, config, null);
+
+		config.setProperty("objDecimals", 3);
+		config.setProperty("textureAtlas", true);
+		config.setProperty("conversionCacheDir", cache.getDirectory().getPath());
+
+		assertEquals(cacheFile, cache.getCacheFile(inputFile, config, null));
+
+	}
+
+	@Test
+	public void testSrtmFilesHashed() throws IOException {
+
+		File inputFile = getTestFile("validFile.osm");
+		File srtmDir = folder.newFolder("srtm");
+
+		ConversionCache cache = new ConversionCache(folder.newFolder("cache"));
+
+		Configuration config = new BaseConfiguration();
+		config.setProperty("srtmDir", srtmDir.getPath());
+
+		File cacheFile = cache.getCacheFile(inputFile, config, null);
+
+		/* adding elevation data results in another file */
+
+		File srtmFile = new File(srtmDir, "N50E008.hgt");
+		Files.write(srtmFile.toPath(), new byte[] {1, 2, 3});
+
+		File newCacheFile = cache.getCacheFile(inputFile, config, null);
+
+		assertNotEquals(cacheFile, newCacheFile);
+
+		/* replacing elevation data results in another file */
+
+		Files.write(srtmFile.toPath(), new byte[] {1, 2, 3, 4});
+
+		assertNotEquals(newCacheFile, cache.getCacheFile(inputFile, config, null));
+
+	}
+
+	/**
+	 * describes the primitives in a buffer for each material, in a stable order.
+	 * Coordinates are rounded to ignore differences in the last bits,
+	 * e.g. between transformed and recalculated normals of model instances.
+	 */
+	private static Map<Material, List<String>> describe(PrimitiveBuffer buffer) {
+
+		Map<Material, List<String>> result = new HashMap<Material, List<String>>();
+
+		for (Material material : buffer.getMaterials()) {
+
+			List<String> descriptions = new ArrayList<String>();
+
+			for (Primitive primitive : buffer.getPrimitives(material)) {
+
+				StringBuilder description = new StringBuilder(primitive.type.toString());
+
+				for (VectorXYZ v : primitive.vertices) {
+					description.append(' ').append(format(v.x)).append(',')
+							.append(format(v.y)).append(',').append(format(v.z));
+				}
+
+				for (VectorXYZ n : primitive.normals) {
+					description.append(' ').append(format(n.x)).append(',')
+							.append(format(n.y)).append(',').append(format(n.z));
+				}
+
+				if (primitive.texCoordLists != null) {
+					for (List<VectorXZ> texCoords : primitive.texCoordLists) {
+						for (VectorXZ t : texCoords) {
+							description.append(' ').append(format(t.x)).append(',').append(format(t.z));
+						}
+					}
+				}
+
+				descriptions.add(description.toString());
+
+			}
+
+			Collections.sort(descriptions);
+			result.put(material, descriptions);
+
+		}
+
+		return result;
+
+	}
+
+	private static String format(double value) {
+		String result = String.format(Locale.US, "%.4f", value);
+		return result.equals("-0.0000") ? "0.0000" : result;
+	}
+
+	/**
+	 * writes a file with a building, an area, a road and nodes with models
+	 */
+	private File createTestFile() throws IOException {
+
+		File file = folder.newFile("world.osm");
+
+		try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+
+			writer.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+			writer.println("<osm version=\"0.6\" generator=\"test\">");
+
+			double[][] coords = {
+					{50.0000, 8.0000}, {50.0000, 8.0003}, {50.0002, 8.0003}, {50.0002, 8.0000},
+					{50.0004, 8.0000}, {50.0004, 8.0004}, {50.0007, 8.0004}, {50.0007, 8.0000},
+					{50.0003, 8.0005}, {50.0003, 8.0006}, {50.0005, 8.0006},
+					{49.9999, 7.9998}, {50.0008, 7.9998}};
+
+			for (int i = 0; i < coords.length; i++) {
+				writer.printf(Locale.US, "<node id=\"%d\" lat=\"%.7f\" lon=\"%.7f\" version=\"1\">\n",
+						i + 1, coords[i][0], coords[i][1]);
+				switch (i + 1) {
+				case 9: writer.println("<tag k=\"amenity\" v=\"bench\"/>"); break;
+				case 10: writer.println("<tag k=\"emergency\" v=\"fire_hydrant\"/>"); break;
+				case 11: writer.println("<tag k=\"highway\" v=\"street_lamp\"/>"); break;
+				}
+				writer.println("</node>");
+			}
+
+			writer.println("<way id=\"1\" version=\"1\">");
+			writer.println("<nd ref=\"1\"/><nd ref=\"2\"/><nd ref=\"3\"/><nd ref=\"4\"/><nd ref=\"1\"/>");
+			writer.println("<tag k=\"building\" v=\"yes\"/>");
+			writer.println("<tag k=\"building:levels\" v=\"2\"/>");
+			writer.println("<tag k=\"roof:shape\" v=\"gabled\"/>");
+			writer.println("<tag k=\"name\" v=\"Test building\"/>");
+			writer.println("</way>");
+
+			writer.println("<way id=\"2\" version=\"1\">");
+			writer.println("<nd ref=\"5\"/><nd ref=\"6\"/><nd ref=\"7\"/><nd ref=\"8\"/><nd ref=\"5\"/>");
+			writer.println("<tag k=\"landuse\" v=\"grass\"/>");
+			writer.println("</way>");
+
+			writer.println("<way id=\"3\" version=\"1\">");
+			writer.println("<nd ref=\"12\"/><nd ref=\"13\"/>");
+			writer.println("<tag k=\"highway\" v=\"residential\"/>");
+			writer.println("</way>");
+
+			writer.println("</osm>");
+
+		}
+
+		return file;
+
+	}
+
+	/**
+	 * reads a file, renaming anonymous materials by their first appearance in the file.
+	 * Their names are otherwise numbered by a counter which is shared by all OBJ files.
+	 */
+	private static String readWithNormalizedMaterialNames(File file) throws IOException {
+
+		String content = new String(Files.readAllBytes(file.toPath()), UTF_8);
+
+		Map<String, String> names = new HashMap<String, String>();
+
+		Matcher matcher = Pattern.compile("MAT_\\d+").matcher(content);
+		StringBuffer result = new StringBuffer();
+
+		while (matcher.find()) {
+			if (!names.containsKey(matcher.group())) {
+				names.put(matcher.group(), "MAT_" + names.size());
+			}
+			matcher.appendReplacement(result, names.get(matcher.group()));
+		}
+
+		matcher.appendTail(result);
+
+		return result.toString();
+
+	}
+
+	private static List<String> getLines(File file, String prefix) throws IOException {
+		List<String> result = new ArrayList<String>();
+		for (String line : Files.readAllLines(file.toPath())) {
+			if (line.startsWith(prefix)) {
+				result.add(line);
+			}
+		}
+		return result;
+	}
+
+}
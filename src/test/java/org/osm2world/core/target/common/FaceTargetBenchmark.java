@@ -0,0 +1,47 @@
+package org.osm2world.core.target.common;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.osm2world.core.target.common.FaceTarget.IsolatedTriangle;
+
+/**
+ * measures how long {@link FaceTarget#combineTrianglesToFaces(java.util.Collection)}
+ * takes for terrain-like grids of increasing size.
+ * Not run as part of the tests, start it with {@link #main(String[])}.
+ */
+public class FaceTargetBenchmark {
+
+	public static void main(String[] args) {
+
+		int[] gridSizes = {50, 100, 200, 400};
+
+		// warm up
+		run(50);
+
+		for (int size : gridSizes) {
+			run(size);
+		}
+
+	}
+
+	private static void run(int gridSize) {
+
+		Random random = new Random(42);
+
+		List<IsolatedTriangle> triangles = FaceTargetTest.createPatchedGrid(random, gridSize);
+		Collections.shuffle(triangles, random);
+
+		long start = System.nanoTime();
+
+		int faceCount = FaceTarget.combineTrianglesToFaces(triangles).size();
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.printf("%,d triangles: %.3f s, %,d faces%n",
+				triangles.size(), seconds, faceCount);
+
+	}
+
+}
@@ -1,11 +1,14 @@
 package org.osm2world.core.target.common;
 
-import static org.junit.Assert.assertSame;
+import static org.junit.Assert.*;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 import org.osm2world.core.math.TriangleXYZ;
@@ -45,6 +48,115 @@ public class FaceTargetTest {
 
 	}
 
+	/**
+	 * compares the results with the straightforward implementation that was used before
+	 * for terrain-like meshes consisting of several planar patches, with triangles in random order
+	 */
+	@Test
+	public void testCombineTrianglesToFacesSameAsSimpleImplementation() {
+
+		Random random = new Random(42);
+
+		for (int test = 0; test < 20; test++) {
+
+			List<IsolatedTriangle> isolatedTriangles = createPatchedGrid(random, 12);
+			Collections.shuffle(isolatedTriangles, random);
+
+			Collection<Face> expected = combineTrianglesToFacesSimple(isolatedTriangles);
+			Collection<Face> actual = FaceTarget.combineTrianglesToFaces(isolatedTriangles);
+
+			assertEquals(expected.size(), actual.size());
+
+			Iterator<Face> actualIterator = actual.iterator();
+
+			for (Face expectedFace : expected) {
+				Face actualFace = actualIterator.next();
+				assertEquals(expectedFace.vs, actualFace.vs);
+				assertSame(expectedFace.normal, actualFace.normal);
+			}
+
+		}
+
+	}
+
+	/**
+	 * creates a grid of squares split into triangles.
+	 * Groups of squares are lifted to different heights, and some are tilted,
+	 * so that the grid consists of several planar patches.
+	 */
+	static List<IsolatedTriangle> createPatchedGrid(Random random, int size) {
+
+		double[][] heights = new double[size + 1][size + 1];
+
+		for (int x = 0; x <= size; x++) {
+			for (int z = 0; z <= size; z++) {
+				heights[x][z] = (x / 4 + z / 4) % 3 == 0 ? 0 : x * 0.5;
+			}
+		}
+
+		List<IsolatedTriangle> result = new ArrayList<IsolatedTriangle>();
+
+		for (int x = 0; x < size; x++) {
+			for (int z = 0; z < size; z++) {
+
+				VectorXYZ v00 = new VectorXYZ(x, heights[x][z], z);
+				VectorXYZ v10 = new VectorXYZ(x + 1, heights[x + 1][z], z);
+				VectorXYZ v01 = new VectorXYZ(x, heights[x][z + 1], z + 1);
+				VectorXYZ v11 = new VectorXYZ(x + 1, heights[x + 1][z + 1], z + 1);
+
+				if (random.nextBoolean()) {
+					result.add(triangle(v00, v01, v10));
+					result.add(triangle(v10, v01, v11));
+				} else {
+					result.add(triangle(v00, v01, v11));
+					result.add(triangle(v00, v11, v10));
+				}
+
+			}
+		}
+
+		return result;
+
+	}
+
+	/**
+	 * the previous implementation of {@link FaceTarget#combineTrianglesToFaces(Collection)},
+	 * which compares all remaining triangles with all faces in each step
+	 */
+	private static Collection<Face> combineTrianglesToFacesSimple(
+			Collection<IsolatedTriangle> isolatedTriangles) {
+
+		List<IsolatedTriangle> triangles =
+				new LinkedList<IsolatedTriangle>(isolatedTriangles);
+
+		Collection<Face> faces = new ArrayList<Face>();
+
+		faces.add(FaceTarget.createFaceFromTriangle(triangles.remove(0)));
+
+		trianglesToFacesLoop: while (!triangles.isEmpty()) {
+
+			for (IsolatedTriangle triangle : triangles) {
+				for (Face face : faces) {
+					if (FaceTarget.normalAlmostEquals(face.normal, triangle.normal)
+							&& face.tryInsert(triangle)) {
+						triangles.remove(triangle);
+						continue trianglesToFacesLoop;
+					}
+				}
+			}
+
+			faces.add(FaceTarget.createFaceFromTriangle(triangles.remove(0)));
+
+		}
+
+		for (Face face : faces) {
+			face.removeDuplicateEdges();
+		}
+
+		return faces;
+
+	}
+
 	private static final IsolatedTriangle triangle(
 			VectorXYZ v1, VectorXYZ v2, VectorXYZ v3) {
 
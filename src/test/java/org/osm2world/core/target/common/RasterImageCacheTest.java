@@ -0,0 +1,119 @@
+package org.osm2world.core.target.common;
+
+import static org.junit.Assert.*;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.osm2world.core.target.common.RasterImageCache.PngWriter;
+import org.osm2world.core.target.common.TextureData.Wrap;
+
+public class RasterImageCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@After
+	public void resetDefaultDirectory() {
+		RasterImageCache.setDefaultDirectory(null);
+	}
+
+	/** writes a small image and counts how often it has been called */
+	private static PngWriter countingWriter(AtomicInteger count) {
+		return output -> {
+			count.incrementAndGet();
+			ImageIO.write(new BufferedImage(2, 2, BufferedImage.TYPE_INT_ARGB), "png", output);
+		};
+	}
+
+	@Test
+	public void testReuse() throws IOException {
+
+		File directory = folder.newFolder("cache");
+		AtomicInteger count = new AtomicInteger();
+
+		RasterImageCache cache = new RasterImageCache(directory);
+
+		File file = cache.getPng("a", countingWriter(count));
+
+		assertTrue(file.exists());
+		assertEquals(directory, file.getParentFile());
+		assertEquals(file, cache.getPng("a", countingWriter(count)));
+		assertNotEquals(file, cache.getPng("b", countingWriter(count)));
+
+		assertEquals(2, count.get());
+
+		/* a new cache for the same directory, as in a later run, uses the existing files */
+
+		RasterImageCache laterCache = new RasterImageCache(directory);
+
+		assertEquals(file, laterCache.getPng("a", countingWriter(count)));
+		assertEquals(2, count.get());
+
+	}
+
+	@Test
+	public void testParallel() throws Exception {
+
+		RasterImageCache cache = new RasterImageCache(folder.newFolder("cache"));
+		AtomicInteger count = new AtomicInteger();
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+
+		try {
+
+			List<Future<File>> futures = new ArrayList<Future<File>>();
+
+			for (int i = 0; i < 20; i++) {
+				String key = "key" + (i % 2);
+				futures.add(executor.submit(() -> cache.getPng(key, countingWriter(count))));
+			}
+
+			for (Future<File> future : futures) {
+				assertTrue(future.get().exists());
+			}
+
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(2, count.get());
+
+	}
+
+	@Test
+	public void testTextTextures() throws IOException {
+
+		RasterImageCache.setDefaultDirectory(folder.newFolder("cache"));
+
+		Font font = new Font("SansSerif", Font.PLAIN, 12);
+
+		TextTextureData text1 = new TextTextureData("A 7", font, 1, 1, 50, 50, Color.BLACK, 1,
+				Wrap.CLAMP, null, false, false);
+		TextTextureData text2 = new TextTextureData("A 7", font, 1, 1, 50, 50, Color.BLACK, 1,
+				Wrap.CLAMP, null, false, false);
+		TextTextureData text3 = new TextTextureData("A 7", font, 1, 1, 50, 50, Color.RED, 1,
+				Wrap.CLAMP, null, false, false);
+
+		assertEquals(text1.getRasterImage(), text2.getRasterImage());
+		assertNotEquals(text1.getRasterImage(), text3.getRasterImage());
+		assertNotNull(ImageIO.read(text1.getRasterImage()));
+
+	}
+
+}
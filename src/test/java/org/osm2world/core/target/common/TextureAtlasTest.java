@@ -0,0 +1,186 @@
+package org.osm2world.core.target.common;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.*;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.target.common.TextureAtlas.AtlasResult;
+import org.osm2world.core.target.common.TextureData.Wrap;
+import org.osm2world.core.target.common.material.ImmutableMaterial;
+import org.osm2world.core.target.common.material.Material;
+import org.osm2world.core.target.common.material.Material.Interpolation;
+import org.osm2world.core.target.common.material.Material.Transparency;
+
+public class TextureAtlasTest {
+
+	private static final List<List<VectorXZ>> UNIT_TEX_COORDS = singletonList(asList(
+			new VectorXZ(0, 0), new VectorXZ(1, 0), new VectorXZ(1, 1)));
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File createImage(String name, int width, int height, Color color) throws IOException {
+
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				image.setRGB(x, y, color.getRGB());
+			}
+		}
+
+		File file = folder.newFile(name);
+		ImageIO.write(image, "png", file);
+		return file;
+
+	}
+
+	private static Material createMaterial(File file, Wrap wrap) {
+		return new ImmutableMaterial(Interpolation.FLAT, Color.WHITE, Transparency.FALSE,
+				singletonList(new ImageTextureData(file, 1, 1, wrap, null, false, false)));
+	}
+
+	@Test
+	public void testPacking() throws IOException {
+
+		File directory = folder.newFolder("atlas");
+		TextureAtlas atlas = new TextureAtlas(directory, "atlas", 64, 32);
+
+		Material red = createMaterial(createImage("red.png", 16, 8, Color.RED), Wrap.CLAMP);
+		Material blue = createMaterial(createImage("blue.png", 8, 16, Color.BLUE), Wrap.CLAMP);
+
+		List<List<VectorXZ>> texCoordLists = singletonList(asList(
+				new VectorXZ(0, 0), new VectorXZ(1, 0), new VectorXZ(0.5, 0.5), new VectorXZ(1, 1)));
+
+		/* both materials are replaced with the same atlas material */
+
+		AtlasResult redResult = atlas.apply(red, texCoordLists);
+		AtlasResult blueResult = atlas.apply(blue, texCoordLists);
+
+		assertNotEquals(red, redResult.material);
+		assertSame(redResult.material, blueResult.material);
+		assertEquals(1, atlas.getNumPages());
+
+		/* texture coordinates are moved into separate regions */
+
+		List<VectorXZ> redTexCoords = redResult.texCoordLists.get(0);
+		List<VectorXZ> blueTexCoords = blueResult.texCoordLists.get(0);
+
+		for (VectorXZ t : redTexCoords) {
+			assertTrue(t.x >= 0 && t.x <= 1 && t.z >= 0 && t.z <= 1);
+		}
+
+		assertTrue(redTexCoords.get(0).x < redTexCoords.get(1).x);
+		assertTrue(redTexCoords.get(0).z < redTexCoords.get(3).z);
+		assertNotEquals(redTexCoords.get(2), blueTexCoords.get(2));
+
+		/* the atlas image contains the textures at the new texture coordinates */
+
+		List<File> files = atlas.write();
+
+		assertEquals(1, files.size());
+
+		BufferedImage image = ImageIO.read(files.get(0));
+
+		assertEquals(64, image.getWidth());
+		assertEquals(Color.RED.getRGB(), getPixel(image, redTexCoords.get(2)));
+		assertEquals(Color.BLUE.getRGB(), getPixel(image, blueTexCoords.get(2)));
+
+	}
+
+	@Test
+	public void testTexCoordsOutsideTexture() throws IOException {
+
+		TextureAtlas atlas = new TextureAtlas(folder.newFolder("atlas"), "atlas", 64, 32);
+
+		Material red = createMaterial(createImage("red.png", 16, 8, Color.RED), Wrap.CLAMP);
+
+		/* a single coordinate outside the texture prevents using the atlas for the entire draw call */
+
+		List<List<VectorXZ>> outside = singletonList(asList(
+				new VectorXZ(0, 0), new VectorXZ(1, 0), new VectorXZ(2, -1)));
+
+		AtlasResult result = atlas.apply(red, outside);
+
+		assertSame(red, result.material);
+		assertSame(outside, result.texCoordLists);
+
+		/* other draw calls with the same material can still use the atlas */
+
+		List<List<VectorXZ>> inside = singletonList(asList(
+				new VectorXZ(0, 0), new VectorXZ(1, 0), new VectorXZ(1, 1)));
+
+		result = atlas.apply(red, inside);
+
+		assertNotEquals(red, result.material);
+		assertNotEquals(inside, result.texCoordLists);
+		assertEquals(1, atlas.getNumPages());
+
+		/* small rounding errors are tolerated */
+
+		List<List<VectorXZ>> almostInside = singletonList(asList(
+				new VectorXZ(-1e-9, 0), new VectorXZ(1 + 1e-9, 0), new VectorXZ(1, 1)));
+
+		assertNotEquals(red, atlas.apply(red, almostInside).material);
+
+	}
+
+	@Test
+	public void testStandaloneTextures() throws IOException {
+
+		TextureAtlas atlas = new TextureAtlas(folder.newFolder("atlas"), "atlas", 64, 32);
+
+		/* repeating textures */
+
+		Material repeating = createMaterial(createImage("repeat.png", 8, 8, Color.RED), Wrap.REPEAT);
+
+		List<List<VectorXZ>> texCoordLists = singletonList(singletonList(new VectorXZ(2, 2)));
+
+		assertSame(repeating, atlas.apply(repeating, texCoordLists).material);
+		assertSame(texCoordLists, atlas.apply(repeating, texCoordLists).texCoordLists);
+
+		/* large textures */
+
+		Material large = createMaterial(createImage("large.png", 48, 8, Color.RED), Wrap.CLAMP);
+
+		assertSame(large, atlas.apply(large, UNIT_TEX_COORDS).material);
+
+		assertEquals(0, atlas.getNumPages());
+
+	}
+
+	@Test
+	public void testMultiplePages() throws IOException {
+
+		TextureAtlas atlas = new TextureAtlas(folder.newFolder("atlas"), "atlas", 64, 32);
+
+		for (int i = 0; i < 5; i++) {
+			atlas.apply(createMaterial(createImage(i + ".png", 32, 32, Color.RED), Wrap.CLAMP), UNIT_TEX_COORDS);
+		}
+
+		/* with padding, only one 32x32 texture fits into a row or column of a 64x64 page */
+
+		assertEquals(5, atlas.getNumPages());
+		assertEquals(5, atlas.write().size());
+
+	}
+
+	private static int getPixel(BufferedImage image, VectorXZ texCoord) {
+		int x = (int) (texCoord.x * image.getWidth());
+		int y = (int) ((1 - texCoord.z) * image.getHeight());
+		return image.getRGB(x, y);
+	}
+
+}
@@ -0,0 +1,85 @@
+package org.osm2world.core.target.common.material;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.*;
+import static org.osm2world.core.target.common.material.Materials.*;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.io.File;
+
+import org.junit.Test;
+import org.osm2world.core.target.common.ImageTextureData;
+import org.osm2world.core.target.common.TextTextureData;
+import org.osm2world.core.target.common.TextureData;
+import org.osm2world.core.target.common.TextureData.Wrap;
+import org.osm2world.core.target.common.material.Material.Interpolation;
+
+public class ImmutableMaterialTest {
+
+	@Test
+	public void testDerivedMaterialsAreInterned() {
+
+		Color color = new Color(200, 100, 50);
+
+		assertSame(BUILDING_DEFAULT.withColor(color), BUILDING_DEFAULT.withColor(new Color(200, 100, 50)));
+		assertSame(ROOF_DEFAULT.makeSmooth(), ROOF_DEFAULT.makeSmooth());
+		assertSame(CONCRETE.brighter(), CONCRETE.brighter());
+		assertSame(CONCRETE.darker(), CONCRETE.darker());
+
+		assertNotSame(BUILDING_DEFAULT.withColor(color), BUILDING_DEFAULT.withColor(Color.RED));
+
+	}
+
+	@Test
+	public void testIntern() {
+
+		ImmutableMaterial m1 = ImmutableMaterial.intern(new ImmutableMaterial(Interpolation.FLAT, Color.BLUE));
+		ImmutableMaterial m2 = ImmutableMaterial.intern(new ImmutableMaterial(Interpolation.FLAT, Color.BLUE));
+		ImmutableMaterial m3 = ImmutableMaterial.intern(new ImmutableMaterial(Interpolation.SMOOTH, Color.BLUE));
+
+		assertSame(m1, m2);
+		assertNotSame(m1, m3);
+
+	}
+
+	@Test
+	public void testTexturesWithDifferentSizes() {
+
+		File file = new File("texture.png");
+
+		TextureData texture1 = new ImageTextureData(file, 1, 1, Wrap.REPEAT, null, true, false);
+		TextureData texture2 = new ImageTextureData(file, 2, 2, Wrap.REPEAT, null, true, false);
+
+		Material m1 = ImmutableMaterial.intern(new ImmutableMaterial(Interpolation.FLAT, Color.WHITE,
+				Material.Transparency.FALSE, singletonList(texture1)));
+		Material m2 = ImmutableMaterial.intern(new ImmutableMaterial(Interpolation.FLAT, Color.WHITE,
+				Material.Transparency.FALSE, singletonList(texture2)));
+
+		assertNotEquals(texture1, texture2);
+		assertNotSame(m1, m2);
+
+	}
+
+	@Test
+	public void testWithTextColor() {
+
+		Font font = new Font("SansSerif", Font.PLAIN, 12);
+
+		TextureData text = new TextTextureData("A 7", font, 1, 1, 50, 50, Color.BLACK, 1,
+				Wrap.CLAMP, null, false, false);
+
+		Material material = ImmutableMaterial.intern(new ImmutableMaterial(Interpolation.FLAT, Color.WHITE,
+				Material.Transparency.FALSE, singletonList(text)));
+
+		Material red1 = material.withTextColor(Color.RED, 0);
+		Material red2 = material.withTextColor(Color.RED, 0);
+		Material blue = material.withTextColor(Color.BLUE, 0);
+
+		assertSame(red1, red2);
+		assertNotSame(red1, blue);
+		assertNotSame(material, red1);
+
+	}
+
+}
@@ -0,0 +1,272 @@
+package org.osm2world.core.target.common.model;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+import static org.osm2world.core.target.common.material.Materials.*;
+import static org.osm2world.core.target.common.material.NamedTexCoordFunction.*;
+import static org.osm2world.core.target.common.material.TexCoordUtil.texCoordLists;
+import static org.osm2world.core.test.TestUtil.assertAlmostEquals;
+
+import java.awt.Color;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.osm2world.core.math.TriangleXYZ;
+import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.target.Renderable;
+import org.osm2world.core.target.Target;
+import org.osm2world.core.target.common.ImageTextureData;
+import org.osm2world.core.target.common.Primitive;
+import org.osm2world.core.target.common.PrimitiveTarget;
+import org.osm2world.core.target.common.TextureData.Wrap;
+import org.osm2world.core.target.common.material.ImmutableMaterial;
+import org.osm2world.core.target.common.material.Material;
+import org.osm2world.core.target.common.material.Material.Interpolation;
+import org.osm2world.core.target.common.material.Material.Transparency;
+import org.osm2world.core.target.common.material.TexCoordFunction;
+import org.osm2world.core.target.jogl.PrimitiveBuffer;
+
+public class ModelGeometryTest {
+
+	/** collects all primitives drawn with it */
+	private static class TestTarget extends PrimitiveTarget<Renderable> {
+
+		private final List<Primitive> primitives = new ArrayList<Primitive>();
+
+		@Override
+		public Class<Renderable> getRenderableType() {
+			return Renderable.class;
+		}
+
+		@Override
+		public void render(Renderable renderable) {}
+
+		@Override
+		protected void drawPrimitive(Primitive.Type type, Material material,
+				List<VectorXYZ> vs, List<VectorXYZ> normals,
+				List<List<VectorXZ>> texCoordLists) {
+			primitives.add(new Primitive(type, vs, normals, texCoordLists));
+		}
+
+	}
+
+	/** two boxes next to each other, and counts how often it has been rendered */
+	private static class TestModel implements Model {
+
+		private final double size;
+		private final AtomicInteger renderCount;
+
+		public TestModel(double size, AtomicInteger renderCount) {
+			this.size = size;
+			this.renderCount = renderCount;
+		}
+
+		@Override
+		public void render(Target<?> target, VectorXYZ position,
+				double direction, Double height, Double width, Double length) {
+
+			renderCount.incrementAndGet();
+
+			VectorXZ faceVector = VectorXZ.fromAngle(direction);
+
+			target.drawBox(PLASTIC, position, faceVector, size, size, size);
+			target.drawBox(STEEL, position.add(new VectorXYZ(2 * size, 0, 0).rotateY(direction)),
+					faceVector, size, size / 2, size);
+
+		}
+
+		@Override
+		public int hashCode() {
+			return Double.hashCode(size);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof TestModel && size == ((TestModel) obj).size;
+		}
+
+	}
+
+	private static final Material TEXTURED_MATERIAL = new ImmutableMaterial(Interpolation.FLAT, Color.WHITE,
+			Transparency.FALSE, asList(new ImageTextureData(new File("texture.png"),
+					1, 1, Wrap.REPEAT, null, false, false)));
+
+	/** a textured wall segment, and counts how often it has been rendered */
+	private static class TexturedWallModel implements Model {
+
+		private final TexCoordFunction texCoordFunction;
+		private final AtomicInteger renderCount;
+
+		public TexturedWallModel(TexCoordFunction texCoordFunction, AtomicInteger renderCount) {
+			this.texCoordFunction = texCoordFunction;
+			this.renderCount = renderCount;
+		}
+
+		@Override
+		public void render(Target<?> target, VectorXYZ position,
+				double direction, Double height, Double width, Double length) {
+
+			renderCount.incrementAndGet();
+
+			VectorXYZ right = new VectorXYZ(2, 0, 0).rotateY(direction);
+			VectorXYZ up = new VectorXYZ(0, 1, 0);
+
+			List<VectorXYZ> vs = asList(position.add(up), position,
+					position.add(right).add(up), position.add(right));
+
+			target.drawTriangleStrip(TEXTURED_MATERIAL, vs,
+					texCoordLists(vs, TEXTURED_MATERIAL, texCoordFunction));
+
+		}
+
+		@Override
+		public int hashCode() {
+			return texCoordFunction.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof TexturedWallModel
+					&& texCoordFunction == ((TexturedWallModel) obj).texCoordFunction;
+		}
+
+	}
+
+	@Test
+	public void testTransform() {
+
+		Model model = new TestModel(1.5, new AtomicInteger());
+
+		ModelGeometry geometry = ModelGeometry.record(new ModelKey(model, null, null));
+
+		assertEquals(2, geometry.getMaterials().size());
+
+		for (double direction : asList(0.0, 1.2, Math.PI, 4.0)) {
+
+			VectorXYZ position = new VectorXYZ(5, 1, -3);
+
+			TestTarget target = new TestTarget();
+			model.render(target, position, direction, null, null, null);
+
+			List<Primitive> expected = target.primitives;
+			List<Primitive> actual = new ArrayList<Primitive>();
+
+			InstanceParameters instance = new InstanceParameters(position, direction, null, null, null);
+
+			for (Material material : asList(PLASTIC, STEEL)) {
+				actual.addAll(geometry.getPrimitives(material, instance));
+			}
+
+			assertEquals(expected.size(), actual.size());
+
+			for (int p = 0; p < expected.size(); p++) {
+
+				assertEquals(expected.get(p).type, actual.get(p).type);
+				assertEquals(expected.get(p).vertices.size(), actual.get(p).vertices.size());
+
+				for (int i = 0; i < expected.get(p).vertices.size(); i++) {
+					assertAlmostEquals(expected.get(p).vertices.get(i), actual.get(p).vertices.get(i));
+					assertAlmostEquals(expected.get(p).normals.get(i), actual.get(p).normals.get(i));
+				}
+
+			}
+
+		}
+
+	}
+
+	@Test
+	public void testHeight() {
+
+		Model model = new Model() {
+			@Override
+			public void render(Target<?> target, VectorXYZ position,
+					double direction, Double height, Double width, Double length) {
+				target.drawTriangles(PLASTIC, asList(new TriangleXYZ(position,
+						position.add(1, 0, 0), position.add(0, 1, 0))), null);
+			}
+		};
+
+		ModelGeometry geometry = ModelGeometry.record(new ModelKey(model, null, null));
+
+		List<Primitive> primitives = geometry.getPrimitives(PLASTIC,
+				new InstanceParameters(new VectorXYZ(0, 10, 0), Math.PI / 2, 3.0, null, null));
+
+		assertEquals(1, primitives.size());
+
+		List<VectorXYZ> vs = primitives.get(0).vertices;
+
+		assertAlmostEquals(0, 10, 0, vs.get(0));
+		assertAlmostEquals(0, 10, -3, vs.get(1));
+		assertAlmostEquals(0, 13, 0, vs.get(2));
+
+	}
+
+	@Test
+	public void testSharedGeometry() {
+
+		AtomicInteger renderCount = new AtomicInteger();
+
+		PrimitiveBuffer buffer = new PrimitiveBuffer();
+
+		for (int i = 0; i < 5; i++) {
+			buffer.drawModel(new TestModel(1, renderCount),
+					new VectorXYZ(i * 10, 0, 0), i, null, null, null);
+		}
+
+		assertEquals(1, renderCount.get());
+
+		TestTarget target = new TestTarget();
+		new TestModel(1, renderCount).render(target, VectorXYZ.NULL_VECTOR, 0, null, null, null);
+
+		int primitivesPerInstance = target.primitives.size();
+		int bufferedPrimitives = buffer.getPrimitives(PLASTIC).size() + buffer.getPrimitives(STEEL).size();
+
+		assertEquals(5 * primitivesPerInstance, bufferedPrimitives);
+
+		/* a different size results in different geometry */
+
+		buffer.drawModel(new TestModel(2, renderCount), VectorXYZ.NULL_VECTOR, 0, null, null, null);
+
+		assertEquals(3, renderCount.get());
+
+	}
+
+	@Test
+	public void testInstanceDependentTexCoords() {
+
+		AtomicInteger renderCount = new AtomicInteger();
+
+		Model localModel = new TexturedWallModel(STRIP_FIT, renderCount);
+		Model globalModel = new TexturedWallModel(GLOBAL_X_Z, renderCount);
+
+		assertTrue(ModelGeometry.record(new ModelKey(localModel, null, null)).isInstanceable());
+		assertFalse(ModelGeometry.record(new ModelKey(globalModel, null, null)).isInstanceable());
+
+		/* models with global texture coordinates are rendered for each instance */
+
+		renderCount.set(0);
+
+		PrimitiveBuffer buffer = new PrimitiveBuffer();
+
+		for (int i = 0; i < 5; i++) {
+			buffer.drawModel(globalModel, new VectorXYZ(i * 10.5, 0, i), i, null, null, null);
+		}
+
+		assertEquals(2 + 5, renderCount.get());
+		assertEquals(5, buffer.getPrimitives(TEXTURED_MATERIAL).size());
+
+		for (Primitive primitive : buffer.getPrimitives(TEXTURED_MATERIAL)) {
+			for (int i = 0; i < primitive.vertices.size(); i++) {
+				VectorXYZ v = primitive.vertices.get(i);
+				assertAlmostEquals(v.x, v.z, primitive.texCoordLists.get(0).get(i));
+			}
+		}
+
+	}
+
+}
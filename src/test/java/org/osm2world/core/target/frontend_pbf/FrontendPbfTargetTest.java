@@ -8,6 +8,7 @@ import static org.osm2world.core.math.VectorXZ.*;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.Random;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.junit.Test;
@@ -15,6 +16,7 @@ import org.osm2world.core.ConversionFacade;
 import org.osm2world.core.ConversionFacade.BoundingBoxSizeException;
 import org.osm2world.core.ConversionFacade.Results;
 import org.osm2world.core.math.AxisAlignedBoundingBoxXZ;
+import org.osm2world.core.math.VectorXYZ;
 import org.osm2world.core.math.VectorXZ;
 import org.osm2world.core.osm.data.OSMData;
 import org.osm2world.core.target.frontend_pbf.FrontendPbfTarget.Block;
@@ -57,6 +59,23 @@ public class FrontendPbfTargetTest {
 		testBlock(new VectorBlock<VectorXZ>());
 	}
 
+	@Test
+	public void testVectorBlockManyElements() {
+
+		Random random = new Random(42);
+
+		VectorBlock<VectorXYZ> vectorBlock = new VectorBlock<VectorXYZ>();
+		SimpleBlock<VectorXYZ> simpleBlock = new SimpleBlock<VectorXYZ>();
+
+		for (int i = 0; i < 20000; i++) {
+			VectorXYZ v = new VectorXYZ(random.nextInt(30) / 10.0, random.nextInt(30), random.nextInt(30) * 0.7);
+			assertEquals(simpleBlock.toIndex(v), vectorBlock.toIndex(v));
+		}
+
+		assertEquals(simpleBlock.getElements(), vectorBlock.getElements());
+
+	}
+
 	@Test
 	public void testWritePbfFile() throws BoundingBoxSizeException, IOException {
 
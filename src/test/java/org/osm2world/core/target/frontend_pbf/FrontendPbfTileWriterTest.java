@@ -0,0 +1,237 @@
+package org.osm2world.core.target.frontend_pbf;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+import static org.osm2world.core.target.common.rendering.OrthoTilesUtil.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.osm2world.core.ConversionFacade;
+import org.osm2world.core.ConversionFacade.BoundingBoxSizeException;
+import org.osm2world.core.ConversionFacade.Results;
+import org.osm2world.core.map_data.data.MapNode;
+import org.osm2world.core.osm.data.OSMData;
+import org.osm2world.core.target.common.rendering.TileNumber;
+import org.osm2world.core.test.TestWorldModule;
+import org.osm2world.core.world.modules.TreeModule;
+
+import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
+
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.model.impl.Node;
+import de.topobyte.osm4j.core.model.impl.Tag;
+import de.topobyte.osm4j.core.model.impl.Way;
+
+public class FrontendPbfTileWriterTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static Results convertNodes() throws BoundingBoxSizeException, IOException {
+
+		List<OsmNode> nodes = asList(
+				new Node(1, 0.001, 0.001),
+				new Node(2, 0.004, 0.001),
+				new Node(3, 0.001, 0.004),
+				new Node(4, 0.009, 0.009));
+
+		OSMData osmData = new OSMData(emptyList(), nodes, emptyList(), emptyList());
+
+		return new ConversionFacade().createRepresentations(
+				osmData, asList(new TestWorldModule()), null, null);
+
+	}
+
+	@Test
+	public void testTileForPosition() throws BoundingBoxSizeException, IOException {
+
+		Results results = convertNodes();
+
+		for (MapNode node : results.getMapData().getMapNodes()) {
+			for (int zoom = 0; zoom <= 18; zoom++) {
+				TileNumber tile = tileForPosition(results.getMapProjection(), node.getPos(), zoom);
+				assertTrue(boundsForTile(results.getMapProjection(), tile).contains(node.getPos()));
+			}
+		}
+
+	}
+
+	@Test
+	public void testWriteTilePyramid() throws BoundingBoxSizeException, IOException {
+
+		Results results = convertNodes();
+
+		String pattern = folder.getRoot().getPath() + "/{z}/{x}/{y}.o2w.pbf";
+
+		AtomicInteger progressCalls = new AtomicInteger();
+
+		FrontendPbfTileWriter.writeTilePyramid(pattern, results.getMapData(), results.getMapProjection(),
+				15, 16, 2, (tile, writtenTiles, totalTiles) -> progressCalls.incrementAndGet());
+
+		int tileCount = 0;
+
+		for (int zoom = 15; zoom <= 16; zoom++) {
+
+			int objectCount = 0;
+
+			for (TileNumber tile : tilesForBounds(results.getMapProjection(),
+					results.getMapData().getBoundary(), zoom)) {
+
+				File file = new File(folder.getRoot(), zoom + "/" + tile.x + "/" + tile.y + ".o2w.pbf");
+				assertTrue(file.exists());
+
+				try (InputStream input = new FileInputStream(file)) {
+					for (FrontendPbf.WorldObject object : FrontendPbf.Tile.parseFrom(input).getObjectsList()) {
+						if (!object.getOsmId().isEmpty()) {
+							objectCount ++;
+						}
+					}
+				}
+
+				tileCount ++;
+
+			}
+
+			/* each node's object has been written to exactly one tile */
+
+			assertEquals(4, objectCount);
+
+		}
+
+		assertTrue(tileCount > 2);
+		assertEquals(tileCount, progressCalls.get());
+
+	}
+
+	/** forests of broadleaved, needleleaved and mixed trees, spread across several tiles */
+	private static Results convertForests() throws BoundingBoxSizeException, IOException {
+
+		List<OsmNode> nodes = new ArrayList<>();
+		List<OsmWay> ways = new ArrayList<>();
+
+		long nodeId = 1;
+		long wayId = 1;
+
+		double[][] corners = {{0, 0}, {0.001, 0}, {0.001, 0.001}, {0, 0.001}};
+
+		for (int x = 0; x < 4; x++) {
+			for (int y = 0; y < 4; y++) {
+
+				long[] nodeIds = new long[5];
+
+				for (int i = 0; i < 4; i++) {
+					nodes.add(new Node(nodeId, x * 0.003 + corners[i][0], y * 0.003 + corners[i][1]));
+					nodeIds[i] = nodeId++;
+				}
+
+				nodeIds[4] = nodeIds[0];
+
+				Way way = new Way(wayId++, new TLongArrayList(nodeIds));
+
+				switch ((x + y) % 3) {
+				case 0: way.setTags(asList(new Tag("landuse", "forest"), new Tag("leaf_type", "broadleaved"))); break;
+				case 1: way.setTags(asList(new Tag("landuse", "forest"), new Tag("leaf_type", "needleleaved"))); break;
+				default: way.setTags(asList(new Tag("landuse", "forest"))); break;
+				}
+
+				ways.add(way);
+
+			}
+		}
+
+		OSMData osmData = new OSMData(emptyList(), nodes, ways, emptyList());
+
+		return new ConversionFacade().createRepresentations(
+				osmData, asList(new TreeModule()), null, null);
+
+	}
+
+	/**
+	 * returns the number of model instances and the number of distinct models for each tile,
+	 * keyed by the tile's path relative to the directory
+	 */
+	private static Map<String, List<Integer>> summarizeTiles(File directory) throws IOException {
+
+		Map<String, List<Integer>> result = new HashMap<>();
+
+		List<Path> files;
+
+		try (Stream<Path> paths = Files.walk(directory.toPath())) {
+			files = paths.filter(p -> p.toString().endsWith(".o2w.pbf")).collect(toList());
+		}
+
+		for (Path file : files) {
+
+			try (InputStream input = Files.newInputStream(file)) {
+
+				FrontendPbf.Tile tile = FrontendPbf.Tile.parseFrom(input);
+
+				int instanceCount = 0;
+
+				for (FrontendPbf.WorldObject object : tile.getObjectsList()) {
+					for (FrontendPbf.InstanceGeometry instance : object.getInstanceGeometriesList()) {
+						instanceCount += instance.getPositionCount() / 3;
+					}
+				}
+
+				result.put(directory.toPath().relativize(file).toString(),
+						asList(instanceCount, tile.getModelBlock().getModelsCount()));
+
+			}
+
+		}
+
+		return result;
+
+	}
+
+	@Test
+	public void testParallelForests() throws BoundingBoxSizeException, IOException {
+
+		/* each run uses a new conversion, so that the TreeModule starts without tree models */
+
+		File sequentialDirectory = folder.newFolder("sequential");
+		Results sequentialResults = convertForests();
+
+		FrontendPbfTileWriter.writeTilePyramid(sequentialDirectory.getPath() + "/{z}/{x}/{y}.o2w.pbf",
+				sequentialResults.getMapData(), sequentialResults.getMapProjection(), 15, 17, 1, null);
+
+		Map<String, List<Integer>> expected = summarizeTiles(sequentialDirectory);
+
+		assertTrue(expected.size() > 4);
+		assertTrue(expected.values().stream().anyMatch(summary -> summary.get(0) > 0));
+
+		for (int run = 0; run < 3; run++) {
+
+			File parallelDirectory = folder.newFolder("parallel" + run);
+			Results parallelResults = convertForests();
+
+			FrontendPbfTileWriter.writeTilePyramid(parallelDirectory.getPath() + "/{z}/{x}/{y}.o2w.pbf",
+					parallelResults.getMapData(), parallelResults.getMapProjection(), 15, 17, 8, null);
+
+			/* no trees are missing, and tiles share one model per leaf type */
+
+			assertEquals(expected, summarizeTiles(parallelDirectory));
+
+		}
+
+	}
+
+}
@@ -0,0 +1,59 @@
+package org.osm2world.core.target.frontend_pbf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.target.frontend_pbf.FrontendPbfTarget.VectorBlock;
+
+/**
+ * measures how quickly {@link VectorBlock} indexes the vertices of a large tile.
+ * Not run as part of the tests, start it with {@link #main(String[])}.
+ */
+public class VectorBlockBenchmark {
+
+	private static final int VERTEX_COUNT = 1_000_000;
+	private static final int RUNS = 5;
+
+	public static void main(String[] args) {
+
+		/* create vertices, each of which appears about three times (as in a typical triangle mesh) */
+
+		Random random = new Random(42);
+
+		List<VectorXYZ> distinctVertices = new ArrayList<>(VERTEX_COUNT);
+
+		for (int i = 0; i < VERTEX_COUNT; i++) {
+			distinctVertices.add(new VectorXYZ(
+					random.nextDouble() * 1000, random.nextDouble() * 50, random.nextDouble() * 1000));
+		}
+
+		List<VectorXYZ> vertices = new ArrayList<>(3 * VERTEX_COUNT);
+
+		for (int i = 0; i < 3 * VERTEX_COUNT; i++) {
+			vertices.add(distinctVertices.get(random.nextInt(VERTEX_COUNT)));
+		}
+
+		/* run the benchmark */
+
+		for (int run = 0; run < RUNS; run++) {
+
+			long start = System.nanoTime();
+
+			VectorBlock<VectorXYZ> block = new VectorBlock<VectorXYZ>();
+
+			for (VectorXYZ v : vertices) {
+				block.toIndex(v);
+			}
+
+			double seconds = (System.nanoTime() - start) / 1e9;
+
+			System.out.printf("run %d: %,d lookups, %,d distinct vertices, %.3f s, %,.0f lookups/s%n",
+					run, vertices.size(), block.getElements().size(), seconds, vertices.size() / seconds);
+
+		}
+
+	}
+
+}
@@ -0,0 +1,114 @@
+package org.osm2world.core.target.gltf;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.osm2world.core.math.TriangleXYZ;
+import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.target.Target;
+import org.osm2world.core.target.common.material.ImmutableMaterial;
+import org.osm2world.core.target.common.material.Material;
+import org.osm2world.core.target.common.material.Material.Interpolation;
+import org.osm2world.core.target.common.model.Model;
+
+public class GltfTargetTest {
+
+	private static final Material RED = new ImmutableMaterial(Interpolation.FLAT, Color.RED);
+
+	private static final Model TRIANGLE_MODEL = new Model() {
+		@Override
+		public void render(Target<?> target, VectorXYZ position, double direction,
+				Double height, Double width, Double length) {
+			target.drawTriangles(RED, asList(new TriangleXYZ(position,
+					position.add(1, 0, 0), position.add(0, 1, 0))),
+					Collections.<List<VectorXZ>>emptyList());
+		}
+	};
+
+	@Test
+	public void testVertexDeduplication() {
+
+		IndexedVertexBuffer buffer = new IndexedVertexBuffer(false);
+
+		VectorXYZ normal = new VectorXYZ(0, 1, 0);
+
+		for (int i = 0; i < 10000; i++) {
+			assertEquals(i, buffer.addVertex(new VectorXYZ(i, 0, i), normal, null));
+		}
+
+		for (int i = 0; i < 10000; i++) {
+			assertEquals(i, buffer.addVertex(new VectorXYZ(i, 0, i), normal, null));
+		}
+
+		assertEquals(10000, buffer.getVertexCount());
+		assertEquals(24, buffer.getByteStride());
+
+		/* z is flipped for glTF's coordinate system */
+
+		assertEquals(-9999f, buffer.getPositionMin()[2], 0);
+		assertEquals(0f, buffer.getPositionMax()[2], 0);
+
+	}
+
+	@Test
+	public void testGlbContainer() {
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		GltfTarget target = new GltfTarget(Channels.newChannel(output));
+
+		VectorXYZ a = new VectorXYZ(0, 0, 0);
+		VectorXYZ b = new VectorXYZ(1, 0, 0);
+		VectorXYZ c = new VectorXYZ(1, 0, 1);
+		VectorXYZ d = new VectorXYZ(0, 0, 1);
+
+		target.drawTriangles(RED, asList(new TriangleXYZ(a, b, c), new TriangleXYZ(a, c, d)),
+				Collections.<List<VectorXZ>>emptyList());
+
+		target.drawModel(TRIANGLE_MODEL, new VectorXYZ(5, 0, 5), 0, null, null, null);
+		target.drawModel(TRIANGLE_MODEL, new VectorXYZ(10, 0, 5), Math.PI, 2.0, null, null);
+
+		target.finish();
+
+		ByteBuffer glb = ByteBuffer.wrap(output.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+
+		/* check the header */
+
+		assertEquals(0x46546C67, glb.getInt());
+		assertEquals(2, glb.getInt());
+		assertEquals(glb.capacity(), glb.getInt());
+
+		/* check the json chunk */
+
+		int jsonLength = glb.getInt();
+		assertEquals(0, jsonLength % 4);
+		assertEquals(0x4E4F534A, glb.getInt());
+
+		byte[] jsonBytes = new byte[jsonLength];
+		glb.get(jsonBytes);
+		String json = new String(jsonBytes, UTF_8);
+
+		assertTrue(json.contains("\"nodes\":[0,1,2]"));
+		assertEquals(2, json.split("\"primitives\"", -1).length - 1);
+		assertTrue(json.contains("\"scale\":[2.0,2.0,2.0]"));
+
+		/* check the binary chunk: two meshes with their vertices and indices */
+
+		int binLength = glb.getInt();
+		assertEquals(0x004E4942, glb.getInt());
+		assertEquals((4 + 3) * 24 + (6 + 3) * 4, binLength);
+		assertEquals(glb.capacity(), glb.position() + binLength);
+
+	}
+
+}
@@ -0,0 +1,114 @@
+package org.osm2world.core.target.jogl;
+
+import static java.util.Collections.*;
+
+import java.awt.Color;
+import java.io.File;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.target.common.ImageTextureData;
+import org.osm2world.core.target.common.Primitive;
+import org.osm2world.core.target.common.Primitive.Type;
+import org.osm2world.core.target.common.TextureData.Wrap;
+import org.osm2world.core.target.common.material.ImmutableMaterial;
+import org.osm2world.core.target.common.material.Material;
+import org.osm2world.core.target.common.material.Material.Interpolation;
+import org.osm2world.core.target.common.material.Material.Transparency;
+
+/**
+ * measures how long {@link VertexPacker} takes to build the buffer contents
+ * for terrain-like grids of triangle strips with increasing size.
+ * Not run as part of the tests, start it with {@link #main(String[])}.
+ */
+public class VertexPackerBenchmark {
+
+	private static final Material MATERIAL = new ImmutableMaterial(Interpolation.SMOOTH, Color.WHITE,
+			Transparency.FALSE, singletonList(new ImageTextureData(new File("texture.png"),
+					1, 1, Wrap.REPEAT, null, false, false)));
+
+	public static void main(String[] args) {
+
+		int[] gridSizes = {100, 200, 400, 800};
+
+		// warm up
+		for (int i = 0; i < 5; i++) {
+			run(100, false);
+		}
+
+		for (int size : gridSizes) {
+			run(size, true);
+		}
+
+	}
+
+	/** creates one triangle strip for each row of a grid with random heights */
+	private static List<Primitive> createGrid(Random random, int gridSize) {
+
+		double[][] heights = new double[gridSize + 1][gridSize + 1];
+
+		for (double[] row : heights) {
+			for (int x = 0; x < row.length; x++) {
+				row[x] = random.nextDouble();
+			}
+		}
+
+		List<Primitive> primitives = new ArrayList<Primitive>(gridSize);
+
+		for (int z = 0; z < gridSize; z++) {
+
+			List<VectorXYZ> vs = new ArrayList<VectorXYZ>();
+			List<VectorXZ> texCoords = new ArrayList<VectorXZ>();
+
+			for (int x = 0; x <= gridSize; x++) {
+				vs.add(new VectorXYZ(x, heights[z + 1][x], z + 1));
+				vs.add(new VectorXYZ(x, heights[z][x], z));
+				texCoords.add(new VectorXZ(x, z + 1));
+				texCoords.add(new VectorXZ(x, z));
+			}
+
+			primitives.add(new Primitive(Type.TRIANGLE_STRIP, vs,
+					nCopies(vs.size(), VectorXYZ.Y_UNIT), singletonList(texCoords)));
+
+		}
+
+		return primitives;
+
+	}
+
+	private static void run(int gridSize, boolean print) {
+
+		List<Primitive> primitives = createGrid(new Random(42), gridSize);
+
+		long start = System.nanoTime();
+
+		VertexPacker packer = new VertexPacker(MATERIAL, false,
+				VBOData.countVertices(primitives));
+
+		for (Primitive primitive : primitives) {
+			packer.add(primitive);
+		}
+
+		FloatBuffer values = FloatBuffer.allocate(packer.getVertexCount() * packer.getValuesPerVertex());
+		IntBuffer indices = IntBuffer.allocate(packer.getIndexCount());
+
+		packer.writeValues(values);
+		packer.writeIndices(indices);
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		if (print) {
+			System.out.printf("%,d triangles: %.3f s, %,d distinct vertices, %,d buffer values instead of %,d%n",
+					packer.getIndexCount() / 3, seconds, packer.getVertexCount(),
+					values.capacity() + indices.capacity(),
+					packer.getIndexCount() * packer.getValuesPerVertex());
+		}
+
+	}
+
+}
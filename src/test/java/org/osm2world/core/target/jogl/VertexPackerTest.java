@@ -0,0 +1,234 @@
+package org.osm2world.core.target.jogl;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.*;
+import static org.junit.Assert.*;
+import static org.osm2world.core.math.GeometryUtil.*;
+
+import java.awt.Color;
+import java.io.File;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.target.common.ImageTextureData;
+import org.osm2world.core.target.common.Primitive;
+import org.osm2world.core.target.common.Primitive.Type;
+import org.osm2world.core.target.common.TextureData;
+import org.osm2world.core.target.common.TextureData.Wrap;
+import org.osm2world.core.target.common.material.ImmutableMaterial;
+import org.osm2world.core.target.common.material.Material;
+import org.osm2world.core.target.common.material.Material.Interpolation;
+import org.osm2world.core.target.common.material.Material.Transparency;
+
+public class VertexPackerTest {
+
+	private static final Material UNTEXTURED = new ImmutableMaterial(Interpolation.FLAT, Color.WHITE,
+			Transparency.FALSE, emptyList());
+
+	private static final Material TEXTURED = new ImmutableMaterial(Interpolation.FLAT, Color.WHITE,
+			Transparency.FALSE, singletonList(createTexture(false)));
+
+	private static final Material BUMP_MAPPED = new ImmutableMaterial(Interpolation.FLAT, Color.WHITE,
+			Transparency.FALSE, asList(createTexture(false), createTexture(true)));
+
+	private static TextureData createTexture(boolean isBumpMap) {
+		return new ImageTextureData(new File("texture.png"), 1, 1, Wrap.REPEAT, null, false, isBumpMap);
+	}
+
+	private static double[] getValues(VertexPacker packer) {
+		DoubleBuffer buffer = DoubleBuffer.allocate(packer.getVertexCount() * packer.getValuesPerVertex());
+		packer.writeValues(buffer);
+		return buffer.array();
+	}
+
+	private static int[] getIndices(VertexPacker packer) {
+		IntBuffer buffer = IntBuffer.allocate(packer.getIndexCount());
+		packer.writeIndices(buffer);
+		return buffer.array();
+	}
+
+	@Test
+	public void testTriangleStrip() {
+
+		List<VectorXYZ> vs = asList(
+				new VectorXYZ(0, 0, 0),
+				new VectorXYZ(0, 1, 0),
+				new VectorXYZ(1, 0, 0),
+				new VectorXYZ(1, 1, 0));
+
+		VertexPacker packer = new VertexPacker(UNTEXTURED, false, 6);
+		packer.add(new Primitive(Type.TRIANGLE_STRIP, vs, nCopies(4, VectorXYZ.Z_UNIT), null));
+
+		assertEquals(6, packer.getValuesPerVertex());
+		assertEquals(4, packer.getVertexCount());
+		assertArrayEquals(new int[] {0, 1, 2, 1, 3, 2}, getIndices(packer));
+
+		/* normal and position, with inverted z coordinates */
+
+		double[] values = getValues(packer);
+
+		assertEquals(-1, values[2], 0);
+		assertEquals(1, values[3 * 6 + 3], 0);
+		assertEquals(1, values[3 * 6 + 4], 0);
+
+	}
+
+	@Test
+	public void testTriangleFan() {
+
+		List<VectorXYZ> vs = asList(
+				new VectorXYZ(0, 0, 0),
+				new VectorXYZ(1, 0, 0),
+				new VectorXYZ(1, 0, 1),
+				new VectorXYZ(0, 0, 2),
+				new VectorXYZ(-1, 0, 1));
+
+		VertexPacker packer = new VertexPacker(UNTEXTURED, false, 9);
+		packer.add(new Primitive(Type.TRIANGLE_FAN, vs, nCopies(5, VectorXYZ.Y_UNIT), null));
+
+		assertEquals(5, packer.getVertexCount());
+		assertArrayEquals(new int[] {0, 1, 2, 0, 2, 3, 0, 3, 4}, getIndices(packer));
+
+	}
+
+	@Test
+	public void testSharedVertices() {
+
+		VectorXYZ a = new VectorXYZ(0, 0, 0);
+		VectorXYZ b = new VectorXYZ(1, 0, 0);
+		VectorXYZ c = new VectorXYZ(0, 0, 1);
+		VectorXYZ d = new VectorXYZ(1, 0, 1);
+
+		/* vertices are shared between primitives if all their values are identical */
+
+		VertexPacker packer = new VertexPacker(UNTEXTURED, false, 6);
+		packer.add(new Primitive(Type.TRIANGLES, asList(a, b, c), nCopies(3, VectorXYZ.Y_UNIT), null));
+		packer.add(new Primitive(Type.TRIANGLES, asList(b, d, c), nCopies(3, VectorXYZ.Y_UNIT), null));
+
+		assertEquals(4, packer.getVertexCount());
+		assertEquals(6, packer.getIndexCount());
+
+		/* different normals prevent sharing */
+
+		packer = new VertexPacker(UNTEXTURED, false, 6);
+		packer.add(new Primitive(Type.TRIANGLES, asList(a, b, c), nCopies(3, VectorXYZ.Y_UNIT), null));
+		packer.add(new Primitive(Type.TRIANGLES, asList(b, d, c), nCopies(3, VectorXYZ.X_UNIT), null));
+
+		assertEquals(6, packer.getVertexCount());
+
+		/* different texture coordinates prevent sharing */
+
+		packer = new VertexPacker(TEXTURED, false, 6);
+		packer.add(new Primitive(Type.TRIANGLES, asList(a, b, c), nCopies(3, VectorXYZ.Y_UNIT),
+				singletonList(asList(new VectorXZ(0, 0), new VectorXZ(1, 0), new VectorXZ(0, 1)))));
+		packer.add(new Primitive(Type.TRIANGLES, asList(b, d, c), nCopies(3, VectorXYZ.Y_UNIT),
+				singletonList(asList(new VectorXZ(1, 0), new VectorXZ(1, 1), new VectorXZ(0, 2)))));
+
+		assertEquals(8, packer.getValuesPerVertex());
+		assertEquals(5, packer.getVertexCount());
+
+	}
+
+	@Test
+	public void testBumpMapLayout() {
+
+		assertEquals(10, new VertexPacker(BUMP_MAPPED, false, 0).getValuesPerVertex());
+		assertEquals(14, new VertexPacker(BUMP_MAPPED, true, 0).getValuesPerVertex());
+		assertEquals(JOGLRendererVBO.getValuesPerVertex(BUMP_MAPPED),
+				new VertexPacker(BUMP_MAPPED, true, 0).getValuesPerVertex());
+
+		List<VectorXYZ> vs = asList(
+				new VectorXYZ(0, 0, 0),
+				new VectorXYZ(1, 0, 0),
+				new VectorXYZ(0, 1, 0));
+
+		List<VectorXZ> texCoords = asList(
+				new VectorXZ(0, 0),
+				new VectorXZ(1, 0),
+				new VectorXZ(0, 1));
+
+		VertexPacker packer = new VertexPacker(BUMP_MAPPED, true, 3);
+		packer.add(new Primitive(Type.TRIANGLES, vs, nCopies(3, VectorXYZ.Z_UNIT),
+				asList(texCoords, texCoords)));
+
+		/* tex coord, normal, tangent (along the texture's u axis) with handedness, bump map tex coord, position */
+
+		double[] values = getValues(packer);
+
+		assertEquals(1, values[5], 0);
+		assertEquals(0, values[6], 1e-10);
+		assertEquals(0, values[7], 1e-10);
+		assertEquals(1, Math.abs(values[8]), 0);
+
+	}
+
+	/**
+	 * checks that the indexed vertices describe the same triangles
+	 * as the expanded vertex lists used before indexing
+	 */
+	@Test
+	public void testEquivalentToExpandedTriangles() {
+
+		Random random = new Random(42);
+
+		for (Type type : asList(Type.TRIANGLES, Type.TRIANGLE_STRIP, Type.TRIANGLE_FAN)) {
+
+			List<VectorXYZ> vs = new ArrayList<VectorXYZ>();
+			List<VectorXYZ> normals = new ArrayList<VectorXYZ>();
+			List<VectorXZ> texCoords = new ArrayList<VectorXZ>();
+
+			for (int i = 0; i < 12; i++) {
+				vs.add(new VectorXYZ(random.nextInt(3), random.nextInt(3), random.nextInt(3)));
+				normals.add(random.nextBoolean() ? VectorXYZ.Y_UNIT : VectorXYZ.X_UNIT);
+				texCoords.add(new VectorXZ(random.nextInt(2), random.nextInt(2)));
+			}
+
+			List<VectorXYZ> expectedVs = vs;
+			List<VectorXYZ> expectedNormals = normals;
+			List<VectorXZ> expectedTexCoords = texCoords;
+
+			if (type == Type.TRIANGLE_STRIP) {
+				expectedVs = triangleVertexListFromTriangleStrip(vs);
+				expectedNormals = triangleNormalListFromTriangleStripOrFan(normals);
+				expectedTexCoords = triangleVertexListFromTriangleStrip(texCoords);
+			} else if (type == Type.TRIANGLE_FAN) {
+				expectedVs = triangleVertexListFromTriangleFan(vs);
+				expectedNormals = triangleNormalListFromTriangleStripOrFan(normals);
+				expectedTexCoords = triangleVertexListFromTriangleFan(texCoords);
+			}
+
+			VertexPacker packer = new VertexPacker(TEXTURED, false, expectedVs.size());
+			packer.add(new Primitive(type, vs, normals, singletonList(texCoords)));
+
+			double[] values = getValues(packer);
+			int[] indices = getIndices(packer);
+
+			assertEquals(expectedVs.size(), indices.length);
+			assertTrue(packer.getVertexCount() <= expectedVs.size());
+
+			for (int i = 0; i < indices.length; i++) {
+
+				int offset = indices[i] * packer.getValuesPerVertex();
+
+				assertEquals(expectedTexCoords.get(i).x, values[offset], 0);
+				assertEquals(expectedTexCoords.get(i).z, values[offset + 1], 0);
+				assertEquals(expectedNormals.get(i).x, values[offset + 2], 0);
+				assertEquals(expectedNormals.get(i).y, values[offset + 3], 0);
+				assertEquals(-expectedNormals.get(i).z, values[offset + 4], 0);
+				assertEquals(expectedVs.get(i).x, values[offset + 5], 0);
+				assertEquals(expectedVs.get(i).y, values[offset + 6], 0);
+				assertEquals(-expectedVs.get(i).z, values[offset + 7], 0);
+
+			}
+
+		}
+
+	}
+
+}
@@ -0,0 +1,81 @@
+package org.osm2world.core.target.obj;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import org.junit.Test;
+
+public class BufferedObjOutputTest {
+
+	private static String format(int decimals, double... values) throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (BufferedObjOutput output = new BufferedObjOutput(Channels.newChannel(bytes), decimals)) {
+			for (int i = 0; i < values.length; i++) {
+				if (i > 0) output.print(' ');
+				output.print(values[i]);
+			}
+		}
+
+		return new String(bytes.toByteArray(), UTF_8);
+
+	}
+
+	@Test
+	public void testDoubles() throws IOException {
+		assertEquals("0 1.5 -1.5 123.456789 2 0.1 100", format(6, 0, 1.5, -1.5, 123.4567891, 2.0000001, 0.1, 99.9999996));
+		assertEquals("0.000001 -0.000001 0 0", format(6, 0.000001, -0.000001, 0.0000004, -0.0000004));
+		assertEquals("12.35 -0.05 3", format(2, 12.3456, -0.049, 3.001));
+		assertEquals("1 -2", format(0, 1.2, -1.7));
+	}
+
+	@Test
+	public void testSpecialDoubles() throws IOException {
+		assertEquals("NaN Infinity 1.0E13", format(6, Double.NaN, Double.POSITIVE_INFINITY, 1e13));
+	}
+
+	@Test
+	public void testLargeDoubles() throws IOException {
+		assertEquals("123456789.5 -1.0E11 1.0E11", format(9, 123456789.5, -1e11, 1e11));
+		assertEquals("100000000000 -100000000000", format(2, 1e11, -1e11));
+		assertEquals("1.0E17", format(3, 1e17));
+		assertEquals("100000000000000000", format(0, 1e17));
+	}
+
+	@Test
+	public void testLinesAndStrings() throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (BufferedObjOutput output = new BufferedObjOutput(Channels.newChannel(bytes), 3)) {
+			output.print('f').print(' ').print(1).print('/').print(-42L).println();
+			output.println("o Straße");
+		}
+
+		assertEquals("f 1/-42\no Straße\n", new String(bytes.toByteArray(), UTF_8));
+
+	}
+
+	@Test
+	public void testContainsDuplicates() {
+
+		assertFalse(ObjTarget.containsDuplicates(new int[] {0, 1, 2}));
+		assertTrue(ObjTarget.containsDuplicates(new int[] {0, 1, 0}));
+
+		int[] largeArray = new int[100];
+		for (int i = 0; i < largeArray.length; i++) {
+			largeArray[i] = 1000 - i;
+		}
+
+		assertFalse(ObjTarget.containsDuplicates(largeArray));
+		largeArray[50] = largeArray[99];
+		assertTrue(ObjTarget.containsDuplicates(largeArray));
+
+	}
+
+}
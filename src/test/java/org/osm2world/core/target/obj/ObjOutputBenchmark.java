@@ -0,0 +1,121 @@
+package org.osm2world.core.target.obj;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * compares the throughput of {@link BufferedObjOutput}
+ * with the previous approach of writing OBJ lines through a {@link PrintStream}.
+ * Not run as part of the tests, start it with {@link #main(String[])}.
+ */
+public class ObjOutputBenchmark {
+
+	private static final int VERTEX_COUNT = 2_000_000;
+	private static final int RUNS = 5;
+
+	public static void main(String[] args) throws IOException {
+
+		Random random = new Random(42);
+
+		double[] coords = new double[3 * VERTEX_COUNT];
+		for (int i = 0; i < coords.length; i++) {
+			coords[i] = (random.nextDouble() - 0.5) * 2000;
+		}
+
+		for (int run = 0; run < RUNS; run++) {
+
+			CountingOutputStream printStreamTarget = new CountingOutputStream();
+			long start = System.nanoTime();
+			writeWithPrintStream(new PrintStream(printStreamTarget), coords);
+			report("PrintStream", printStreamTarget.count, System.nanoTime() - start);
+
+			CountingOutputStream bufferedTarget = new CountingOutputStream();
+			start = System.nanoTime();
+			writeWithBufferedObjOutput(new BufferedObjOutput(Channels.newChannel(bufferedTarget), 6), coords);
+			report("BufferedObjOutput", bufferedTarget.count, System.nanoTime() - start);
+
+		}
+
+	}
+
+	/** writes vertices and triangle faces the way the previous ObjTarget implementation did */
+	private static void writeWithPrintStream(PrintStream stream, double[] coords) {
+
+		for (int i = 0; i < coords.length; i += 3) {
+			stream.println("v " + " " + coords[i] + " " + coords[i + 1] + " " + (-coords[i + 2]));
+		}
+
+		for (int v = 0; v + 2 < coords.length / 3; v += 3) {
+
+			int[] indices = {v, v + 1, v + 2};
+
+			HashSet<Integer> set = new HashSet<Integer>();
+			for (int index : indices) {
+				set.add(index);
+			}
+
+			stream.print("f");
+			for (int index : indices) {
+				stream.print(" " + (index + 1));
+			}
+			stream.println();
+
+		}
+
+		stream.close();
+
+	}
+
+	private static void writeWithBufferedObjOutput(BufferedObjOutput output, double[] coords) throws IOException {
+
+		for (int i = 0; i < coords.length; i += 3) {
+			output.print("v ").print(coords[i]).print(' ').print(coords[i + 1]).print(' ').print(-coords[i + 2]);
+			output.println();
+		}
+
+		for (int v = 0; v + 2 < coords.length / 3; v += 3) {
+
+			int[] indices = {v, v + 1, v + 2};
+
+			if (ObjTarget.containsDuplicates(indices)) continue;
+
+			output.print('f');
+			for (int index : indices) {
+				output.print(' ').print(index + 1);
+			}
+			output.println();
+
+		}
+
+		output.close();
+
+	}
+
+	private static void report(String name, long bytes, long nanos) {
+		double seconds = nanos / 1e9;
+		System.out.printf("%-18s %,12d bytes in %.3f s: %8.1f MB/s%n",
+				name, bytes, seconds, bytes / 1e6 / seconds);
+	}
+
+	/** discards all output, but counts the bytes */
+	private static class CountingOutputStream extends OutputStream {
+
+		long count = 0;
+
+		@Override
+		public void write(int b) {
+			count += 1;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+
+	}
+
+}
@@ -0,0 +1,136 @@
+package org.osm2world.core.world.creation;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Test;
+import org.osm2world.core.ConversionFacade;
+import org.osm2world.core.ConversionFacade.Results;
+import org.osm2world.core.map_data.data.MapElement;
+import org.osm2world.core.osm.data.OSMData;
+import org.osm2world.core.target.Target;
+import org.osm2world.core.target.statistics.StatisticsTarget;
+import org.osm2world.core.target.statistics.StatisticsTarget.Stat;
+import org.osm2world.core.world.data.WorldObject;
+
+import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
+
+import de.topobyte.osm4j.core.model.impl.Node;
+import de.topobyte.osm4j.core.model.impl.Tag;
+import de.topobyte.osm4j.core.model.impl.Way;
+
+public class WorldCreatorTest {
+
+	private static final List<List<Tag>> NODE_TAGS = asList(
+			asList(new Tag("amenity", "bench")),
+			asList(new Tag("highway", "street_lamp")),
+			asList(new Tag("amenity", "waste_basket")),
+			asList(new Tag("natural", "tree")),
+			asList(new Tag("emergency", "fire_hydrant")),
+			asList(new Tag("amenity", "post_box")),
+			asList(new Tag("highway", "bus_stop"), new Tag("bin", "yes")),
+			asList(new Tag("barrier", "bollard")));
+
+	/**
+	 * checks that applying the default modules in parallel creates
+	 * the same world objects, in the same order, as the sequential code path
+	 */
+	@Test
+	public void testParallelMatchesSequential() throws Exception {
+
+		OSMData osmData = createTestData(30);
+
+		StatisticsTarget sequentialTarget = new StatisticsTarget();
+		StatisticsTarget parallelTarget = new StatisticsTarget();
+
+		List<String> sequentialObjects = convert(osmData, false, sequentialTarget);
+		List<String> parallelObjects = convert(osmData, true, parallelTarget);
+
+		assertEquals(sequentialObjects, parallelObjects);
+
+		for (Stat stat : Stat.values()) {
+			assertEquals(sequentialTarget.getGlobalCount(stat), parallelTarget.getGlobalCount(stat));
+		}
+
+	}
+
+	private static List<String> convert(OSMData osmData, boolean parallel,
+			StatisticsTarget target) throws Exception {
+
+		Configuration config = new BaseConfiguration();
+		config.setProperty("parallelModules", parallel);
+		config.setProperty("moduleThreads", 4);
+
+		List<Target<?>> targets = asList(target);
+		Results results = new ConversionFacade().createRepresentations(osmData, null, config, targets);
+
+		List<String> result = new ArrayList<>();
+
+		for (WorldObject o : results.getMapData().getWorldObjects()) {
+			MapElement element = o.getPrimaryMapElement();
+			result.add(o.getClass().getName() + "@" + element);
+		}
+
+		return result;
+
+	}
+
+	/**
+	 * creates a grid of tagged nodes, with a road along each row
+	 * and a grass area in the first cell of each row
+	 */
+	private static OSMData createTestData(int size) {
+
+		List<Node> nodes = new ArrayList<>();
+		List<Way> ways = new ArrayList<>();
+
+		long nodeId = 1;
+		long wayId = 1;
+
+		for (int row = 0; row < size; row++) {
+
+			TLongArrayList rowNodeIds = new TLongArrayList();
+
+			for (int col = 0; col < size; col++) {
+
+				Node node = new Node(nodeId, col * 0.0002, row * 0.0002);
+				nodes.add(node);
+				rowNodeIds.add(nodeId);
+				nodeId++;
+
+				Node taggedNode = new Node(nodeId, col * 0.0002 + 0.00005, row * 0.0002 + 0.00005);
+				taggedNode.setTags(NODE_TAGS.get((row + col) % NODE_TAGS.size()));
+				nodes.add(taggedNode);
+				nodeId++;
+
+			}
+
+			Way road = new Way(wayId++, rowNodeIds);
+			road.setTags(asList(new Tag("highway", "residential")));
+			ways.add(road);
+
+			long[] areaNodeIds = new long[5];
+			double[][] corners = {{0, 0}, {0.0001, 0}, {0.0001, 0.0001}, {0, 0.0001}};
+			for (int i = 0; i < 4; i++) {
+				nodes.add(new Node(nodeId, corners[i][0], row * 0.0002 + 0.00002 + corners[i][1]));
+				areaNodeIds[i] = nodeId++;
+			}
+			areaNodeIds[4] = areaNodeIds[0];
+
+			Way area = new Way(wayId++, new TLongArrayList(areaNodeIds));
+			area.setTags(asList(new Tag("landuse", "grass")));
+			ways.add(area);
+
+		}
+
+		return new OSMData(emptyList(), nodes, ways, emptyList());
+
+	}
+
+}